@@ -0,0 +1,81 @@
+package com.github.jesse.l2cache.benchmark;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.CaffeineCacheBuilder;
+import com.github.jesse.l2cache.builder.RedisCacheBuilder;
+import com.github.jesse.l2cache.cache.CaffeineCache;
+import com.github.jesse.l2cache.cache.CompositeCache;
+import com.github.jesse.l2cache.cache.Level2Cache;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.consts.HotkeyType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 构建基准测试使用的 CompositeCache(CaffeineCache + RedissonRBucketCache/InMemoryLevel2Cache)
+ *
+ * @author chenck
+ * @date 2026/10/16 10:12
+ */
+public class BenchmarkCacheFactory {
+
+    /**
+     * 二级缓存类型：进程内替身
+     */
+    public static final String L2_MEMORY = "memory";
+
+    /**
+     * 二级缓存类型：真实redis，redisson配置取classpath下的 redisson.yaml
+     */
+    public static final String L2_REDIS = "redis";
+
+    /**
+     * CaffeineCacheBuilder 按cacheName缓存了spec，每个trial使用不同的cacheName，保证spec参数生效
+     */
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    /**
+     * 构建组合缓存
+     *
+     * @param l1Spec        caffeine spec，因JMH的参数以逗号分隔，所以此处以分号代替逗号
+     * @param l2Type        二级缓存类型 memory/redis
+     * @param batchPageSize redis.batchPageSize
+     * @param rttMicros     memory 模式下模拟的一次网络往返耗时(微秒)
+     */
+    public static CompositeCache build(String l1Spec, String l2Type, int batchPageSize, long rttMicros) {
+        String cacheName = "benchmarkCache" + SEQ.incrementAndGet();
+
+        L2CacheConfig l2CacheConfig = new L2CacheConfig();
+        l2CacheConfig.getHotkey().setType(HotkeyType.NONE.name());
+        L2CacheConfig.CacheConfig cacheConfig = l2CacheConfig.getDefaultConfig();
+        cacheConfig.setCacheType(CacheType.COMPOSITE.name())
+                .setAllowNullValues(true)
+                .getComposite()
+                .setL1CacheType(CacheType.CAFFEINE.name())
+                .setL2CacheType(CacheType.REDIS.name())
+                .setL1AllOpen(true)
+                .setL2BatchPut(true)
+                .setL2BatchEvict(true);
+        cacheConfig.getCaffeine()
+                .setDefaultSpec(l1Spec.replace(';', ','))
+                .setAutoRefreshExpireCache(false);
+        cacheConfig.getRedis()
+                .setBatchPageSize(batchPageSize);
+
+        CaffeineCacheBuilder caffeineCacheBuilder = new CaffeineCacheBuilder();
+        caffeineCacheBuilder.setL2CacheConfig(l2CacheConfig);
+        CaffeineCache level1Cache = caffeineCacheBuilder.build(cacheName);
+
+        Level2Cache level2Cache;
+        if (L2_REDIS.equalsIgnoreCase(l2Type)) {
+            RedisCacheBuilder redisCacheBuilder = new RedisCacheBuilder();
+            redisCacheBuilder.setL2CacheConfig(l2CacheConfig);
+            level2Cache = redisCacheBuilder.build(cacheName);
+        } else if (L2_MEMORY.equalsIgnoreCase(l2Type)) {
+            level2Cache = new InMemoryLevel2Cache(cacheName, cacheConfig, rttMicros);
+        } else {
+            throw new IllegalArgumentException("unsupported l2Type=" + l2Type + ", must be memory or redis");
+        }
+        return new CompositeCache(cacheName, cacheConfig, level1Cache, level2Cache, HotkeyType.NONE.name());
+    }
+}
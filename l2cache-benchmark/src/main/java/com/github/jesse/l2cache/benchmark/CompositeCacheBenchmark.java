@@ -0,0 +1,209 @@
+package com.github.jesse.l2cache.benchmark;
+
+import com.github.jesse.l2cache.cache.CompositeCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CompositeCache 热点路径的基准测试
+ * <p>
+ * 覆盖 get、getIfPresent、get(key, Callable)、batchGet、batchGetOrLoad，一级缓存为 CaffeineCache，二级缓存为 RedissonRBucketCache 或进程内替身。
+ * <p>
+ * 命中率说明：
+ * 1、每次迭代前清空缓存，并预热 [0, keyCount) 的key，所以 l1Spec 中的 maximumSize 需大于 keyCount
+ * 2、未命中的key在每个线程内唯一，保证整个迭代中命中率稳定在 hitRatio（否则加载过的key会变为命中）
+ * <p>
+ * 运行示例：
+ * java -jar target/benchmarks.jar CompositeCacheBenchmark -t 8 -p hitRatio=0.8,0.99 -prof gc
+ * java -jar target/benchmarks.jar CompositeCacheBenchmark.batchGet -bm sample -tu us -p batchPageSize=50,200
+ *
+ * @author chenck
+ * @date 2026/10/16 10:12
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompositeCacheBenchmark {
+
+    /**
+     * 二级缓存类型 memory/redis
+     */
+    @Param({BenchmarkCacheFactory.L2_MEMORY})
+    public String l2;
+
+    /**
+     * memory 模式下模拟的一次网络往返耗时(微秒)
+     */
+    @Param({"0"})
+    public long rttMicros;
+
+    /**
+     * 一级缓存的 caffeine spec，以分号代替逗号
+     */
+    @Param({"initialCapacity=1024;maximumSize=200000;expireAfterWrite=30m;recordStats"})
+    public String l1Spec;
+
+    /**
+     * 预热到缓存中的key数量
+     */
+    @Param({"100000"})
+    public int keyCount;
+
+    /**
+     * 命中率
+     */
+    @Param({"0.9"})
+    public double hitRatio;
+
+    /**
+     * 批量操作的key数量
+     */
+    @Param({"100"})
+    public int batchSize;
+
+    /**
+     * redis.batchPageSize
+     */
+    @Param({"50"})
+    public int batchPageSize;
+
+    /**
+     * 缓存值的大小(字节)
+     */
+    @Param({"256"})
+    public int valueBytes;
+
+    CompositeCache cache;
+
+    Long[] hitKeys;
+
+    String value;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        cache = BenchmarkCacheFactory.build(l1Spec, l2, batchPageSize, rttMicros);
+        hitKeys = new Long[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            hitKeys[i] = (long) i;
+        }
+        char[] chars = new char[valueBytes];
+        Arrays.fill(chars, 'v');
+        value = new String(chars);
+    }
+
+    /**
+     * 每次迭代前重置缓存，避免上一次迭代加载的key影响命中率，同时控制内存占用
+     */
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        cache.clear();
+        Map<Object, String> dataMap = new HashMap<>();
+        for (Long key : hitKeys) {
+            dataMap.put(key, value);
+            if (dataMap.size() >= 10000) {
+                cache.batchPut(dataMap);
+                dataMap = new HashMap<>();
+            }
+        }
+        cache.batchPut(dataMap);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        cache.clear();
+    }
+
+    /**
+     * 线程维度的key生成器
+     */
+    @State(Scope.Thread)
+    public static class KeyState {
+
+        private static final AtomicInteger THREAD_SEQ = new AtomicInteger();
+
+        /**
+         * 未命中key的起始值，每个线程一个独立的区间，保证未命中key唯一
+         */
+        long missSeq;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            missSeq = (THREAD_SEQ.incrementAndGet() + 1L) << 40;
+        }
+
+        Long nextKey(CompositeCacheBenchmark bench) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < bench.hitRatio) {
+                return bench.hitKeys[random.nextInt(bench.keyCount)];
+            }
+            return missSeq++;
+        }
+
+        List<Long> nextKeyList(CompositeCacheBenchmark bench) {
+            List<Long> keyList = new ArrayList<>(bench.batchSize);
+            for (int i = 0; i < bench.batchSize; i++) {
+                keyList.add(nextKey(bench));
+            }
+            return keyList;
+        }
+    }
+
+    @Benchmark
+    public Object get(KeyState keyState) {
+        return cache.get(keyState.nextKey(this));
+    }
+
+    @Benchmark
+    public Object getIfPresent(KeyState keyState) {
+        return cache.getIfPresent(keyState.nextKey(this));
+    }
+
+    @Benchmark
+    public Object getWithValueLoader(KeyState keyState) {
+        return cache.get(keyState.nextKey(this), () -> value);
+    }
+
+    @Benchmark
+    public Map<Long, String> batchGet(KeyState keyState) {
+        return cache.batchGet(keyState.nextKeyList(this));
+    }
+
+    @Benchmark
+    public Map<Long, String> batchGetOrLoad(KeyState keyState) {
+        return cache.batchGetOrLoad(keyState.nextKeyList(this), this::loadFromDb);
+    }
+
+    /**
+     * 模拟从DB加载数据，所有key均能加载到数据
+     */
+    private Map<Long, String> loadFromDb(List<Long> keyList) {
+        Map<Long, String> dataMap = new HashMap<>(keyList.size() * 2);
+        for (Long key : keyList) {
+            dataMap.put(key, value);
+        }
+        return dataMap;
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.jesse.l2cache.benchmark;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.AbstractAdaptingCache;
+import com.github.jesse.l2cache.cache.Level2Cache;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.util.SpringCacheExceptionUtil;
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内的二级缓存，用于在没有redis的环境下替换 RedissonRBucketCache 进行基准测试
+ * <p>
+ * 1、key的构建方式、NullValue的处理方式、batchPageSize分页方式均与 RedissonRBucketCache 保持一致
+ * 2、通过 rttMicros 模拟一次redis网络往返的耗时：单key操作一次往返，批量操作每一页一次往返
+ *
+ * @author chenck
+ * @date 2026/10/16 10:12
+ */
+public class InMemoryLevel2Cache extends AbstractAdaptingCache implements Level2Cache {
+
+    /**
+     * redis config
+     */
+    private final L2CacheConfig.Redis redis;
+
+    /**
+     * 模拟的一次网络往返耗时(微秒)，小于等于0表示不模拟
+     */
+    private final long rttNanos;
+
+    /**
+     * <cacheKey, storeValue>
+     */
+    private final Map<String, Object> store = new ConcurrentHashMap<>();
+
+    public InMemoryLevel2Cache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, long rttMicros) {
+        super(cacheName, cacheConfig);
+        this.redis = cacheConfig.getRedis();
+        this.rttNanos = TimeUnit.MICROSECONDS.toNanos(rttMicros);
+    }
+
+    @Override
+    public long getExpireTime() {
+        return redis.getExpireTimeCacheNameMap().getOrDefault(this.getCacheName(), redis.getExpireTime());
+    }
+
+    @Override
+    public String buildKey(Object key) {
+        if (key == null || "".equals(key)) {
+            throw new IllegalArgumentException("key不能为空");
+        }
+        return new StringBuilder(this.getCacheName()).append(CacheConsts.SPLIT).append(key.toString()).toString();
+    }
+
+    @Override
+    public String getCacheType() {
+        return "memory";
+    }
+
+    @Override
+    public Map<String, Object> getActualCache() {
+        return this.store;
+    }
+
+    @Override
+    public Object get(Object key) {
+        roundTrip();
+        return fromStoreValue(store.get(buildKey(key)));
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = buildKey(key);
+        roundTrip();
+        Object value = store.get(cacheKey);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        if (null == valueLoader) {
+            return null;
+        }
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw SpringCacheExceptionUtil.warpper(key, valueLoader, ex);
+        }
+        this.put(key, value);
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        roundTrip();
+        String cacheKey = buildKey(key);
+        if (!isAllowNullValues() && value == null) {
+            store.remove(cacheKey);
+            return;
+        }
+        store.put(cacheKey, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        roundTrip();
+        store.remove(buildKey(key));
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public boolean isExists(Object key) {
+        roundTrip();
+        return store.containsKey(buildKey(key));
+    }
+
+    @Override
+    public <K, V> Map<K, V> batchGet(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        Map<K, V> hitMap = new HashMap<>();
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return hitMap;
+        }
+        // 与 RedissonRBucketCache 一样按 batchPageSize 分页，每一页一次往返
+        List<List<K>> keyListCollect = Lists.partition(new ArrayList<>(keyMap.keySet()), redis.getBatchPageSize());
+        for (List<K> keyList : keyListCollect) {
+            roundTrip();
+            for (K key : keyList) {
+                Object value = store.get(buildKey(keyMap.get(key)));
+                if (value == null) {
+                    continue;
+                }
+                V warpValue = (V) fromStoreValue(value);
+                if (warpValue != null) {
+                    hitMap.put(key, warpValue);
+                } else if (returnNullValueKey) {
+                    hitMap.put(key, null);
+                }
+            }
+        }
+        return hitMap;
+    }
+
+    @Override
+    public <V> void batchPut(Map<Object, V> dataMap) {
+        if (CollectionUtil.isEmpty(dataMap)) {
+            return;
+        }
+        List<List<Object>> keyListCollect = Lists.partition(new ArrayList<>(dataMap.keySet()), redis.getBatchPageSize());
+        for (List<Object> keyList : keyListCollect) {
+            roundTrip();
+            for (Object key : keyList) {
+                store.put(buildKey(key), toStoreValue(dataMap.get(key)));
+            }
+        }
+    }
+
+    @Override
+    public <K> void batchEvict(Map<K, Object> keyMap) {
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return;
+        }
+        List<List<Object>> keyListCollect = Lists.partition(new ArrayList<>(keyMap.values()), redis.getBatchPageSize());
+        for (List<Object> keyList : keyListCollect) {
+            roundTrip();
+            for (Object key : keyList) {
+                store.remove(buildKey(key));
+            }
+        }
+    }
+
+    /**
+     * 模拟一次网络往返
+     * 注：parkNanos 在linux上的最小精度约为50微秒，更小的值仅用于表达"存在一次往返"
+     */
+    private void roundTrip() {
+        if (rttNanos > 0) {
+            LockSupport.parkNanos(rttNanos);
+        }
+    }
+}
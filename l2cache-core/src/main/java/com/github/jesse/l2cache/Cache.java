@@ -13,7 +13,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 定义公共缓存操作的接口
@@ -162,6 +164,99 @@ public interface Cache extends Serializable {
      */
     boolean isExists(Object key);
 
+    /**
+     * 将key加入已知key全集（开启 keyUniverse 时），默认不处理
+     * 注：新增数据时调用，否则在下一次重建前该key会被过滤；put 非null的value时会自动加入
+     */
+    default void addKnownKey(Object key) {
+    }
+
+    // ----- 异步操作
+    // 注：默认实现为同步执行后返回已完成的CompletableFuture，支持异步的缓存实现（如redis）需重写以下方法，避免阻塞调用线程
+
+    /**
+     * 异步获取指定key的缓存项
+     *
+     * @see #get(Object)
+     */
+    default CompletableFuture<Object> getAsync(Object key) {
+        try {
+            return CompletableFuture.completedFuture(this.get(key));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步获取指定key的缓存项，如果缓存项不存在则通过{@code valueLoader}异步加载值，并put到缓存
+     *
+     * @param valueLoader 异步值加载器，为null时不加载
+     * @see #get(Object, Callable)
+     */
+    default <T> CompletableFuture<T> getAsync(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        try {
+            Callable<T> callable = null == valueLoader ? null : () -> valueLoader.get().join();
+            return CompletableFuture.completedFuture(this.get(key, callable));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步设置指定key的缓存项
+     *
+     * @see #put(Object, Object)
+     */
+    default CompletableFuture<Void> putAsync(Object key, Object value) {
+        try {
+            this.put(key, value);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步删除指定的缓存项
+     *
+     * @see #evict(Object)
+     */
+    default CompletableFuture<Void> evictAsync(Object key) {
+        try {
+            this.evict(key);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步批量get
+     *
+     * @param keyList 业务维度的key集合（K可能是自定义DTO）
+     * @see #batchGet(List)
+     */
+    default <K, V> CompletableFuture<Map<K, V>> batchGetAsync(List<K> keyList) {
+        Map<K, Object> keyMap = new HashMap<>();// <K, cacheKey>
+        keyList.forEach(key -> keyMap.put(key, key));
+        return this.batchGetAsync(keyMap, false);
+    }
+
+    /**
+     * 异步批量get
+     *
+     * @param keyMap             缓存key集合, Map<K=表示DTO或其他基本类型, Object=完整的cacheKey>
+     * @param returnNullValueKey true 表示把value=NullValue的key包含在Map中返回
+     * @see #batchGet(Map, boolean)
+     */
+    default <K, V> CompletableFuture<Map<K, V>> batchGetAsync(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        try {
+            return CompletableFuture.completedFuture(this.batchGet(keyMap, returnNullValueKey));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     // ----- 批量操作
 
     /**
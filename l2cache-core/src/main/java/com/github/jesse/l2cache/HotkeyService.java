@@ -34,4 +34,11 @@ public interface HotkeyService extends Serializable {
 
     }
 
+    /**
+     * 收到其他节点识别到的热key
+     */
+    default void onRemoteHotkey(String cacheName, String key) {
+
+    }
+
 }
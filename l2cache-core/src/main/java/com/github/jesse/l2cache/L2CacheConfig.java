@@ -7,12 +7,15 @@ import com.github.jesse.l2cache.consts.CacheConsts;
 import com.github.jesse.l2cache.consts.CacheSyncPolicyType;
 import com.github.jesse.l2cache.consts.CacheType;
 import com.github.jesse.l2cache.consts.HotkeyType;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author chenck
@@ -64,6 +67,18 @@ public class L2CacheConfig {
      */
     private final Hotkey hotkey = new Hotkey();
 
+    /**
+     * 指标监控
+     * 注：全局配置，不支持单个cacheName的配置
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * 启动预热
+     * 注：全局配置，通过 sourceMap 指定需要预热的cacheName
+     */
+    private final Preload preload = new Preload();
+
     public interface Config {
     }
 
@@ -110,6 +125,22 @@ public class L2CacheConfig {
          */
         private boolean useL1ReplaceL2ExpireTime = true;
 
+        /**
+         * 概率提前刷新（XFetch）的系数，默认0表示不开启，一般设置为1
+         * 开启后，记录每个value的加载耗时，每次读取时以 -加载耗时 * earlyRefreshBeta * ln(random) >= 剩余过期时间 判断是否提前刷新，越接近过期概率越大
+         * 一级缓存：CaffeineCache 基于 refreshAfterWrite（未配置时为 expireAfterWrite）的剩余时间判断，命中时触发 refresh
+         * 二级缓存：RedissonRBucketCache 将value与逻辑过期时间、加载耗时一起存储（同 redis.staleWhileRevalidate），get(key, valueLoader) 命中时异步刷新
+         * 注：可通过 configMap 针对cacheName配置
+         */
+        private double earlyRefreshBeta = 0;
+
+        /**
+         * 是否合并并发的 batchGetOrLoad 加载请求，默认true
+         * 开启后，同一个cacheName下正在被其他 batchGetOrLoad 加载的key，不再重复调用 valueLoader，而是等待其加载结果，只加载剩余的key
+         * 注：被合并的key使用其他请求的 valueLoader 加载的值，所以要求同一个cacheName的 valueLoader 返回的value类型一致
+         */
+        private boolean batchLoadCoalesce = true;
+
         /**
          * 缓存类型，默认 COMPOSITE 组合缓存
          *
@@ -125,7 +156,10 @@ public class L2CacheConfig {
         private final Composite composite = new Composite();
         private final Caffeine caffeine = new Caffeine();
         private final Guava guava = new Guava();
+        private final Offheap offheap = new Offheap();
         private final Redis redis = new Redis();
+        private final Negative negative = new Negative();
+        private final KeyUniverse keyUniverse = new KeyUniverse();
     }
 
     /**
@@ -177,6 +211,43 @@ public class L2CacheConfig {
          */
         private Set<String> l1ManualCacheNameSet = new HashSet<>();
 
+        /**
+         * 一级缓存路由配置的版本号，l1AllOpen、l1Manual、l1ManualKeySet、l1ManualCacheNameSet 通过setter变更时递增，非配置项
+         * 注：CompositeCache 据此判断是否需要重建一级缓存路由快照，所以直接修改集合中的元素不会被感知，需通过setter整体替换
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final AtomicLong version = new AtomicLong();
+
+        public long getVersion() {
+            return version.get();
+        }
+
+        public Composite setL1AllOpen(boolean l1AllOpen) {
+            this.l1AllOpen = l1AllOpen;
+            version.incrementAndGet();
+            return this;
+        }
+
+        public Composite setL1Manual(boolean l1Manual) {
+            this.l1Manual = l1Manual;
+            version.incrementAndGet();
+            return this;
+        }
+
+        public Composite setL1ManualKeySet(Set<String> l1ManualKeySet) {
+            this.l1ManualKeySet = l1ManualKeySet;
+            version.incrementAndGet();
+            return this;
+        }
+
+        public Composite setL1ManualCacheNameSet(Set<String> l1ManualCacheNameSet) {
+            this.l1ManualCacheNameSet = l1ManualCacheNameSet;
+            version.incrementAndGet();
+            return this;
+        }
+
         // 缓存类型，统一处理为小写
         public String getL1CacheType() {
             return StrUtil.isBlank(l1CacheType) ? CacheType.CAFFEINE.name().toLowerCase() : l1CacheType.toLowerCase();
@@ -211,6 +282,23 @@ public class L2CacheConfig {
          */
         private Long refreshPeriod = 30L;
 
+        /**
+         * 刷新过期缓存时，并发刷新的任务数，默认4
+         * 注：key按访问频率从高到低分批，多个任务并发刷新，热key优先
+         */
+        private int refreshParallelism = 4;
+
+        /**
+         * 刷新过期缓存时，每批刷新的key数量，每批通过二级缓存批量获取（pipeline），默认100
+         */
+        private int refreshBatchSize = 100;
+
+        /**
+         * 刷新过期缓存时，每秒最多刷新的key数量，小于等于0表示不限制，默认1000
+         * 注：每个cacheName单独限流，可通过 configMap 为不同的cacheName设置不同的值
+         */
+        private int refreshMaxQps = 1000;
+
         /**
          * 同一个key的发布消息频率(毫秒)
          */
@@ -236,6 +324,32 @@ public class L2CacheConfig {
          * 是否启用自定义 MdcForkJoinPool，用于链路追踪
          */
         private boolean enableMdcForkJoinPool = true;
+
+        /**
+         * 是否开启一级缓存快照（热启动），默认false
+         * 开启后，应用关闭时将热点数据写入快照文件，启动时异步加载，避免发布后一级缓存为空导致大量请求穿透到redis
+         */
+        private boolean snapshotEnabled = false;
+
+        /**
+         * 快照文件目录，每个cacheName一个文件
+         */
+        private String snapshotDir = System.getProperty("java.io.tmpdir") + File.separator + "l2cache-snapshot";
+
+        /**
+         * 每个cacheName写入快照的最大数量，按访问频率从高到低选取
+         */
+        private int snapshotMaxEntries = 10000;
+
+        /**
+         * 快照数据的最大存活时间(秒)，加载时写入时间超过该值的entry将被丢弃，用于控制快照数据的过时程度
+         */
+        private long snapshotMaxAgeSeconds = 300;
+
+        /**
+         * 快照的序列化方式，可选值参考 redis.codec
+         */
+        private String snapshotCodec = CacheConsts.REDIS_CODEC_JDK;
     }
 
     /**
@@ -273,6 +387,54 @@ public class L2CacheConfig {
         private Map<String, String> specs = new HashMap<>();
     }
 
+    /**
+     * 堆外一级缓存配置
+     * 注：每个cacheName独立分配 capacityMb 的堆外内存，可通过 configMap 针对cacheName配置；需保证 -XX:MaxDirectMemorySize 足够
+     */
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @ToString
+    public static class Offheap implements Config {
+        /**
+         * 堆外内存容量(MB)，默认256
+         */
+        private long capacityMb = 256;
+
+        /**
+         * segment数量（向上取整为2的幂），每个segment一把锁，默认16
+         * 注：单个segment的容量不能超过2GB
+         */
+        private int segmentCount = 16;
+
+        /**
+         * 存储单元block的大小(byte)，value按block分配内存，默认256
+         * 注：value平均大小较大时可适当调大，减少block数量；过大则浪费尾部空间
+         */
+        private int blockSize = 256;
+
+        /**
+         * 缓存过期时间(ms)，默认10分钟，小于等于0表示不过期（仅按容量淘汰）
+         * 注：NullValue的过期时间为 min(expireTime, nullValueExpireTimeSeconds)
+         */
+        private long expireTime = 600000;
+
+        /**
+         * value序列化方式，支持 jdk、kryo、json 或 org.redisson.client.codec.Codec 的实现类全名，默认 jdk
+         */
+        private String codec = CacheConsts.REDIS_CODEC_JDK;
+
+        /**
+         * 定期清理过期entry、释放堆外内存的频率(秒)，默认30
+         */
+        private long cleanPeriodSeconds = 30;
+
+        /**
+         * 异步刷新（refresh）的线程池大小
+         */
+        private int refreshPoolSize = Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Redis specific cache properties.
      */
@@ -295,6 +457,79 @@ public class L2CacheConfig {
          */
         private boolean tryLock = true;
 
+        /**
+         * 加载数据时，是否开启集群维度的single-flight，默认false，开启后优先于lock
+         * 只有一个请求执行加载，其他请求（包括其他节点）等待加载完成的通知后读取redis中的value，而不是阻塞在锁上或者直接失败
+         * 注：读取value和加锁在一次Lua往返中完成
+         */
+        private boolean singleFlight = false;
+
+        /**
+         * single-flight 锁的过期时间(ms)，防止加载数据的节点宕机后锁一直不释放，需大于加载数据的耗时
+         */
+        private long singleFlightLeaseMillis = 10000;
+
+        /**
+         * single-flight 等待加载完成的最大时间(ms)，等待超时后再次尝试读取value或加锁，仍未成功则自行加载数据
+         */
+        private long singleFlightWaitMillis = 3000;
+
+        /**
+         * 是否开启 stale-while-revalidate，默认false
+         * 开启后，value与逻辑过期时间一起存储，redis的过期时间为 expireTime + staleMaxMillis
+         * 逻辑过期后，get(key, valueLoader) 直接返回旧值，并异步刷新（集群中同一时刻只有一个节点刷新同一个key，锁的过期时间为 singleFlightLeaseMillis）
+         * 刷新失败时继续返回旧值（stale-if-error），直到物理过期
+         * 注：NullValue 不包装，仍按 nullValueExpireTimeSeconds 物理过期；开启/关闭时新旧格式的数据均可读取
+         */
+        private boolean staleWhileRevalidate = false;
+
+        /**
+         * 逻辑过期后，允许返回旧值的最长时间(ms)，默认5分钟
+         */
+        private long staleMaxMillis = 300000;
+
+        /**
+         * 过期时间的随机抖动比例，默认0表示不抖动
+         * 写入redis时，过期时间增加 [0, expireTime * expireJitterRatio) 的随机值，避免 batchPut 等同时写入的key同时过期
+         * 注：NullValue 不抖动
+         */
+        private double expireJitterRatio = 0;
+
+        /**
+         * 是否合并单key的读取，默认false
+         * 开启后，get(key)、get(key, valueLoader)、getAsync 的读取请求由后台线程合并，在 readCoalesceWindowMicros 内或凑满 readCoalesceMaxKeys 个key后，通过一个pipeline批量读取
+         * 注：每个cacheName一个后台线程；高并发时可大幅减少redis的请求数和连接占用，低并发时每次读取最多增加 readCoalesceWindowMicros 的延迟
+         */
+        private boolean readCoalesce = false;
+
+        /**
+         * 合并读取的等待窗口(微秒)，默认100
+         */
+        private long readCoalesceWindowMicros = 100;
+
+        /**
+         * 合并读取时，一个pipeline的最大key数量，默认64
+         */
+        private int readCoalesceMaxKeys = 64;
+
+        /**
+         * 是否开启命名空间代数（generation）模式，默认false
+         * 开启后，redis key 格式为 cacheName:generation:key，clear() 只将代数计数器加1并通过缓存同步消息通知其他节点，不再 SCAN+DEL 整个keyspace
+         * 旧代数的key由过期时间或后台清理任务回收
+         * 注：开启/关闭时key的格式会变化，相当于清空缓存
+         */
+        private boolean generationEnabled = false;
+
+        /**
+         * 代数模式下，定期从redis同步代数的频率(秒)，用于兜底缓存同步消息丢失的场景，默认10
+         */
+        private long generationCheckSeconds = 10;
+
+        /**
+         * 代数模式下，clear() 后后台清理旧代数key时每秒删除的最大key数量，小于等于0表示不清理（仅依赖过期时间回收），默认1000
+         */
+        private int generationSweepQps = 1000;
+
         /**
          * 缓存过期时间(ms)
          * 注：作为默认的缓存过期时间，如果一级缓存设置了过期时间，则以一级缓存的过期时间为准。
@@ -313,6 +548,56 @@ public class L2CacheConfig {
          */
         private int batchPageSize = 50;
 
+        /**
+         * 批量操作时同时在途的最大分页数量，默认1
+         * 1 表示逐页串行执行 RBatch.execute()
+         * 大于1 表示通过 RBatch.executeAsync() 并行执行多个分页，最多同时有 batchMaxInFlight 个分页在途，用于降低大批量操作的耗时
+         * 注：在途分页越多，瞬间占用的redis连接和netty堆外内存越多，需结合 connectionPoolSize 和 nettyThreads 调整
+         */
+        private int batchMaxInFlight = 1;
+
+        /**
+         * 批量操作模式，默认 bucket
+         * bucket 通过RBatch对每个key执行单独的命令，即N个key对应N个GET/SET/GETDEL命令
+         * multikey 按 batchPageSize 分页，cluster模式下先按slot对key分组，同一页的多个slot分组在一个RBatch中按节点pipeline执行，每个分组一个多key命令：batchGet 使用MGET，batchPut 使用Lua脚本批量SET并设置过期时间，batchEvict 使用多key的DEL
+         *
+         * @see CacheConsts#REDIS_BATCH_MODE_BUCKET
+         * @see CacheConsts#REDIS_BATCH_MODE_MULTIKEY
+         */
+        private String batchMode = CacheConsts.REDIS_BATCH_MODE_BUCKET;
+
+        /**
+         * redis value 的编解码器，默认为空，表示使用 redissonClient 全局配置的codec
+         * 可选值：jdk、kryo（需引入kryo5）、json，或者 org.redisson.client.codec.Codec 实现类的全类名
+         * 注：配置了 codec 或 compressType 后，value 的存储格式会增加一个字节的头部，NullValue 只存储一个字节；切换存储格式前建议清理缓存或更换cacheName
+         *
+         * @see CacheConsts#REDIS_CODEC_JDK
+         * @see CacheConsts#REDIS_CODEC_KRYO
+         * @see CacheConsts#REDIS_CODEC_JSON
+         */
+        private String codec;
+
+        /**
+         * 针对cacheName维度的编解码器集合
+         * <cacheName,codec>
+         */
+        private Map<String, String> codecCacheNameMap = new HashMap<>();
+
+        /**
+         * redis value 的压缩类型，默认 none
+         * none 不压缩，lz4 使用lz4压缩（需引入lz4-java），zstd 使用zstd压缩（需引入zstd-jni）
+         *
+         * @see CacheConsts#REDIS_COMPRESS_NONE
+         * @see CacheConsts#REDIS_COMPRESS_LZ4
+         * @see CacheConsts#REDIS_COMPRESS_ZSTD
+         */
+        private String compressType = CacheConsts.REDIS_COMPRESS_NONE;
+
+        /**
+         * 压缩阈值(字节)，编码后的value大于等于该值时才压缩，小value压缩收益低且耗费cpu
+         */
+        private int compressThreshold = 4096;
+
         /**
          * 批量获取操作日志级别，因批量获取时，日志量非常大，而且每一条日志都是打印全量的数据，会对性能有影响，所以此参数可用于控制是否打印日志
          */
@@ -325,6 +610,92 @@ public class L2CacheConfig {
 
     }
 
+    /**
+     * 负缓存配置（布隆过滤器）
+     * 开启后，db中不存在的key不再以 NullValue 存储到一级缓存和redis中，而是记录到本地按时间分片轮转的布隆过滤器，各节点通过缓存同步消息同步，并镜像到redis的bitmap（重启的节点启动时加载）
+     * 注：仅对 RedissonRBucketCache 的 get(key, valueLoader) 生效；一级缓存不存储 NullValue，不存在的key每次访问都会查询一次redis（不会访问db）；可通过 configMap 针对cacheName配置
+     */
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @ToString
+    public static class Negative implements Config {
+
+        /**
+         * 是否启用负缓存，默认false
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每个时间分片最多记录的key数量，默认100000
+         * 注：分片写满后不再记录（误判率不超过 fpp），未记录的key按原有流程加载db，直到分片轮转
+         */
+        private long expectedInsertions = 100000;
+
+        /**
+         * 误判率，默认0.001
+         * 注：误判的key在分片过期前返回null，不会加载db
+         */
+        private double fpp = 0.001;
+
+        /**
+         * 负缓存的有效时间(秒)，默认60
+         * 注：key记录后在 expireSeconds * (slices - 1) / slices 到 expireSeconds 之间过期
+         */
+        private long expireSeconds = 60;
+
+        /**
+         * 时间分片数量，默认4，最小为2
+         */
+        private int slices = 4;
+    }
+
+    /**
+     * 已知key全集配置（布隆过滤器）
+     * 开启后，CompositeCache 查询前先通过布隆过滤器过滤掉不在key全集中的key，不再访问一级缓存、二级缓存和 valueLoader
+     * 注：key全集由业务实现的 KeyUniverseSource 流式提供（如分段扫描DB的id），新增的key需通过 put 或 CacheService.update 加入；可通过 configMap 针对cacheName配置
+     */
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @ToString
+    public static class KeyUniverse implements Config {
+
+        /**
+         * 是否启用，默认false
+         */
+        private boolean enabled = false;
+
+        /**
+         * 预计的key数量，默认1000000
+         * 注：重建后新增的key超过该数量时，提前触发重建
+         */
+        private long expectedInsertions = 1000000;
+
+        /**
+         * 误判率，默认0.01
+         * 注：误判的key按原有流程查询缓存和 valueLoader
+         */
+        private double fpp = 0.01;
+
+        /**
+         * 定期重建的周期(秒)，默认3600，小于等于0时只在启动时构建一次
+         * 注：重建时丢弃已删除的key，使误判率保持在 fpp 附近；多个节点通过分布式锁保证同一时刻只有一个节点重建
+         */
+        private long rebuildPeriodSeconds = 3600;
+
+        /**
+         * 重建时并发读取 KeyUniverseSource 分段的任务数，默认4
+         */
+        private int rebuildParallelism = 4;
+
+        /**
+         * 从redis检查是否已被其他节点重建的周期(秒)，默认30
+         * 注：兜底缓存同步消息丢失的场景，检查到重建后从redis重新加载过滤器
+         */
+        private long syncPeriodSeconds = 30;
+    }
+
     /**
      * 缓存同步策略配置
      */
@@ -351,6 +722,16 @@ public class L2CacheConfig {
          */
         private boolean async;
 
+        /**
+         * 消息合并发送的时间窗口(毫秒)，窗口内的消息去重后合并为一帧发送
+         */
+        private long publishBatchWindowMillis = 10;
+
+        /**
+         * 一帧最多包含的消息数量
+         */
+        private int publishBatchMaxSize = 1000;
+
         /**
          * 具体的属性配置
          * 定义一个通用的属性字段，不同的MQ可配置各自的属性即可。
@@ -360,6 +741,91 @@ public class L2CacheConfig {
     }
 
 
+    /**
+     * 指标监控配置
+     */
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @ToString
+    public static class Metrics implements Config {
+        /**
+         * 是否开启指标监控，默认false
+         * 开启后，spring-boot-starter 将指标绑定到 Actuator 的 MeterRegistry（需引入 micrometer），并自动对 Caffeine 开启 recordStats
+         * 注：未开启时所有埋点为空实现，不产生额外开销
+         */
+        private boolean enabled = false;
+
+        /**
+         * 耗时和批量大小指标是否发布直方图，以便在监控系统中计算分位数，默认true
+         */
+        private boolean percentileHistogram = true;
+    }
+
+    /**
+     * 启动预热配置
+     */
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @ToString
+    public static class Preload implements Config {
+        /**
+         * 是否开启启动预热，默认false
+         * 开启后，spring-boot-starter 在应用就绪（readiness）前，将指定cacheName的数据从redis批量加载到一级缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 需要预热的cacheName及其key来源
+         * <key,value>=<cacheName, source>，source 可选值 provider/hotkey/scan
+         *
+         * @see com.github.jesse.l2cache.consts.PreloadSource
+         */
+        private Map<String, String> sourceMap = new HashMap<>();
+
+        /**
+         * 每个cacheName预热的最大key数量，默认10000
+         */
+        private int maxKeys = 10000;
+
+        /**
+         * 每批从redis获取的key数量（pipeline），默认100
+         */
+        private int batchSize = 100;
+
+        /**
+         * 并发执行的批次数量，默认4
+         */
+        private int parallelism = 4;
+
+        /**
+         * 每秒从redis获取的最大key数量，用于防止预热对redis造成压力，小于等于0表示不限制，默认2000
+         */
+        private int maxQps = 2000;
+
+        /**
+         * 单个cacheName预热的超时时间(秒)，超时后不再等待，避免阻塞应用启动，默认60
+         */
+        private long timeoutSeconds = 60;
+
+        /**
+         * source=scan 时，每次 SCAN 的 count，默认500
+         */
+        private int scanCount = 500;
+
+        /**
+         * source=hotkey 时，定期将本机的热key保存到redis（zset，按最近识别时间保留 maxKeys 个）的间隔(秒)，启动时从redis读取热key预热，默认60
+         * 注：本机的热key（AutoDetectHotKeyCache）在重启后为空，所以需要保存到redis；小于等于0表示不保存，只使用本机的热key
+         */
+        private long hotKeySaveSeconds = 60;
+
+        /**
+         * 保存到redis的热key的过期时间(秒)，默认86400（1天）
+         */
+        private long hotKeyExpireSeconds = 86400;
+    }
+
     @Getter
     @Setter
     @Accessors(chain = true)
@@ -376,6 +842,10 @@ public class L2CacheConfig {
 
         private final SentinelHotkey sentinel = new SentinelHotkey();
 
+        private final LocalHotkey local = new LocalHotkey();
+
+        private final AsyncHotkey async = new AsyncHotkey();
+
         /**
          * 京东热key发现配置
          */
@@ -417,6 +887,98 @@ public class L2CacheConfig {
              */
             private List<ParamFlowRule> rules = new ArrayList<>();
         }
+
+        /**
+         * 本地热key发现配置（count-min sketch，无外部依赖）
+         */
+        @Getter
+        @Setter
+        @Accessors(chain = true)
+        @ToString
+        public static class LocalHotkey implements Config {
+
+            /**
+             * 每个cacheName的 count-min sketch 每行的计数器数量，向上取整为2的幂，默认4096
+             * 注：共4行，每个cacheName占用 4 * sketchWidth * 4 字节
+             */
+            private int sketchWidth = 4096;
+
+            /**
+             * 计数器衰减周期(毫秒)，每个周期所有计数器减半，默认1000
+             */
+            private long decayPeriodMillis = 1000;
+
+            /**
+             * 热key阈值，key的估算访问次数（衰减后）达到该值时识别为热key，默认100
+             * 注：由于每个周期减半，稳定访问时估算值约为单个周期访问次数的2倍
+             */
+            private int threshold = 100;
+
+            /**
+             * 每个cacheName最多保留的本机热key数量，超过时淘汰访问次数最少的热key，默认100
+             */
+            private int topK = 100;
+
+            /**
+             * 热key的有效时间(秒)，默认600
+             */
+            private long expireSeconds = 600;
+        }
+
+        /**
+         * 异步热key探测配置
+         * 开启后请求线程只查询预先计算好的热key集合，访问事件写入有损的分段环形缓冲区，由后台线程批量交给 HotkeyService 识别
+         */
+        @Getter
+        @Setter
+        @Accessors(chain = true)
+        @ToString
+        public static class AsyncHotkey implements Config {
+
+            /**
+             * 是否启用异步热key探测，默认false（同步调用 HotkeyService.isHotkey）
+             */
+            private boolean enabled = false;
+
+            /**
+             * 每个cacheName的环形缓冲区分段数，向上取整为2的幂，默认16
+             * 注：按线程id选择分段，减少写入时的CAS竞争
+             */
+            private int stripes = 16;
+
+            /**
+             * 每个分段的容量，向上取整为2的幂，默认256
+             * 注：分段写满或CAS失败时直接丢弃访问事件（有损），不阻塞请求线程
+             */
+            private int bufferSize = 256;
+
+            /**
+             * 后台线程消费缓冲区的间隔(ms)，默认10
+             */
+            private long drainIntervalMillis = 10;
+
+            /**
+             * 默认采样率，取值 (0, 1]，默认1 表示记录所有访问事件
+             * 注：采样后 HotkeyService 看到的访问量按采样率等比例缩小，热key阈值需相应调整
+             */
+            private double sampleRate = 1.0;
+
+            /**
+             * 指定cacheName的采样率
+             * <key,value>=<cacheName, sampleRate>
+             */
+            private Map<String, Double> sampleRateMap = new HashMap<>();
+
+            /**
+             * 热key集合中key的有效时间(秒)，期间未再次被识别为热key则移除，默认600
+             */
+            private long expireSeconds = 600;
+
+            /**
+             * 每个cacheName的热key集合的最大数量，默认10000
+             */
+            private int maxHotKeys = 10000;
+        }
     }
 
 
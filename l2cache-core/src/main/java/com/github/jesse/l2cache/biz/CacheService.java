@@ -107,6 +107,8 @@ public interface CacheService<K, R> {
     default void update(K key, R value) {
         // 更新业务数据
         this.updateData(key, value);
+        // 可能是新增数据，加入已知key全集（未开启 keyUniverse 时不处理）
+        this.getNativeL2cache().addKnownKey(this.buildCacheKey(key));
         // 删除缓存，延迟双删暂不做实现
         this.evict(key);
     }
@@ -0,0 +1,97 @@
+package com.github.jesse.l2cache.builder;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.jesse.l2cache.CacheSpec;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.L2CacheConfigUtil;
+import com.github.jesse.l2cache.cache.CaffeineAsyncCache;
+import com.github.jesse.l2cache.cache.expire.CacheExpiredListener;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.content.CustomCaffeineSpec;
+import com.github.jesse.l2cache.load.CacheLoader;
+import com.github.jesse.l2cache.load.CustomCacheLoader;
+import com.github.jesse.l2cache.util.pool.MdcForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caffeine Async Cache Builder
+ * <p>
+ * 与 CaffeineCacheBuilder 共用 l2cache.config.caffeine 下的配置(defaultSpec/specs)
+ * 注：AsyncCache 不支持 weakValues/softValues，spec 中配置了这两项时构建会失败
+ *
+ * @author chenck
+ * @date 2026/10/16 16:05
+ */
+public class CaffeineAsyncCacheBuilder extends AbstractCacheBuilder<CaffeineAsyncCache> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaffeineAsyncCacheBuilder.class);
+
+    @Override
+    public CaffeineAsyncCache build(String cacheName) {
+        L2CacheConfig.CacheConfig cacheConfig = L2CacheConfigUtil.getCacheConfig(this.getL2CacheConfig(), cacheName);
+
+        // 构建 CacheSpec
+        CacheSpec cacheSpec = this.parseSpec(cacheName);
+
+        // 创建CustomCacheLoader，一个CaffeineAsyncCache对应一个CacheLoader
+        CacheLoader customCacheLoader = CustomCacheLoader.newInstance(L2CacheConfig.INSTANCE_ID,
+                CacheType.CAFFEINE_ASYNC.name().toLowerCase(), cacheName, cacheSpec.getMaxSize());
+        customCacheLoader.setCacheSyncPolicy(this.getCacheSyncPolicy());
+        customCacheLoader.setAllowNullValues(cacheConfig.isAllowNullValues());
+
+        AsyncCache<Object, Object> cache = this.buildActualCache(cacheName, cacheConfig, customCacheLoader,
+                this.getExpiredListener());
+
+        return new CaffeineAsyncCache(cacheName, cacheConfig, customCacheLoader, this.getCacheSyncPolicy(), cache);
+    }
+
+    @Override
+    public CacheSpec parseSpec(String cacheName) {
+        L2CacheConfig.CacheConfig cacheConfig = L2CacheConfigUtil.getCacheConfig(this.getL2CacheConfig(), cacheName);
+        CustomCaffeineSpec customCaffeineSpec = CaffeineCacheBuilder.buildCaffeineSpec(cacheName, cacheConfig.getCaffeine());
+
+        CacheSpec cacheSpec = new CacheSpec();
+        cacheSpec.setExpireTime(customCaffeineSpec.getExpireTime());
+        cacheSpec.setMaxSize((int) customCaffeineSpec.getMaximumSize());
+        return cacheSpec;
+    }
+
+    /**
+     * 构建实际缓存对象
+     */
+    protected AsyncCache<Object, Object> buildActualCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, CacheLoader cacheLoader,
+                                                          CacheExpiredListener listener) {
+        CustomCaffeineSpec customCaffeineSpec = CaffeineCacheBuilder.buildCaffeineSpec(cacheName, cacheConfig.getCaffeine());
+        Caffeine<Object, Object> cacheBuilder = customCaffeineSpec.toBuilder();
+        if (this.getL2CacheConfig().getMetrics().isEnabled() && !customCaffeineSpec.isRecordStats()) {
+            // 开启指标监控时，自动开启 recordStats，以便采集 Caffeine 的 stats()
+            cacheBuilder.recordStats();
+        }
+
+        if (null != listener) {
+            cacheBuilder.removalListener((key, value, cause) -> {
+                listener.onExpired(key, value, cause.name());
+            });
+        }
+
+        if (cacheConfig.getCaffeine().isEnableMdcForkJoinPool()) {
+            // 设置MdcForkJoinPool，替换默认的 ForkJoinPool.commonPool，异步加载与refreshAfterWrite均在该线程池中执行
+            cacheBuilder.executor(MdcForkJoinPool.mdcCommonPool());
+            logger.info("Caffeine enable MdcForkJoinPool, cacheName={}, mdcForkJoinPool={}", cacheName, MdcForkJoinPool.mdcCommonPool().toString());
+        }
+
+        if (null == cacheLoader) {
+            logger.info("create a native Caffeine AsyncCache instance, cacheName={}", cacheName);
+            return cacheBuilder.buildAsync();
+        }
+
+        logger.info("create a native Caffeine AsyncLoadingCache instance, cacheName={}", cacheName);
+        // 在executor中执行CacheLoader，并发请求同一个key时共享同一个CompletableFuture，不阻塞在key维度的锁上
+        return cacheBuilder.buildAsync((key, executor) -> CompletableFuture.supplyAsync(() -> cacheLoader.load(key), executor));
+    }
+
+}
@@ -9,6 +9,7 @@ import com.github.jesse.l2cache.cache.expire.CacheExpiredListener;
 import com.github.jesse.l2cache.consts.CacheType;
 import com.github.jesse.l2cache.load.CacheLoader;
 import com.github.jesse.l2cache.cache.CaffeineCache;
+import com.github.jesse.l2cache.cache.snapshot.CaffeineSnapshotSupport;
 import com.github.jesse.l2cache.load.CustomCacheLoader;
 import com.github.jesse.l2cache.util.pool.MdcForkJoinPool;
 import com.github.benmanes.caffeine.cache.Cache;
@@ -50,14 +51,20 @@ public class CaffeineCacheBuilder extends AbstractCacheBuilder<CaffeineCache> {
         Cache<Object, Object> cache = this.buildActualCache(cacheName, cacheConfig, customCacheLoader,
                 this.getExpiredListener());
 
-        return new CaffeineCache(cacheName, cacheConfig, customCacheLoader, this.getCacheSyncPolicy(), cache);
+        CaffeineCache caffeineCache = new CaffeineCache(cacheName, cacheConfig, customCacheLoader, this.getCacheSyncPolicy(), cache);
+        if (cacheConfig.getCaffeine().isSnapshotEnabled()) {
+            // 关闭时写快照，启动时异步加载快照
+            CaffeineSnapshotSupport.register(caffeineCache);
+            CaffeineSnapshotSupport.loadAsync(caffeineCache);
+        }
+        return caffeineCache;
     }
 
     @Override
     public CacheSpec parseSpec(String cacheName) {
         L2CacheConfig.CacheConfig cacheConfig = L2CacheConfigUtil.getCacheConfig(this.getL2CacheConfig(), cacheName);
 
-        this.buildCaffeineSpec(cacheName, cacheConfig.getCaffeine());
+        buildCaffeineSpec(cacheName, cacheConfig.getCaffeine());
 
         CacheSpec cacheSpec = new CacheSpec();
         CustomCaffeineSpec customCaffeineSpec = customCaffeineSpecMap.get(cacheName);
@@ -72,12 +79,16 @@ public class CaffeineCacheBuilder extends AbstractCacheBuilder<CaffeineCache> {
     protected Cache<Object, Object> buildActualCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, CacheLoader cacheLoader,
                                                      CacheExpiredListener listener) {
         // 解析spec
-        this.buildCaffeineSpec(cacheName, cacheConfig.getCaffeine());
+        buildCaffeineSpec(cacheName, cacheConfig.getCaffeine());
 
         Caffeine<Object, Object> cacheBuilder = defaultCacheBuilder;
         CustomCaffeineSpec customCaffeineSpec = customCaffeineSpecMap.get(cacheName);
         if (null != customCaffeineSpec) {
             cacheBuilder = customCaffeineSpec.toBuilder();
+            if (this.getL2CacheConfig().getMetrics().isEnabled() && !customCaffeineSpec.isRecordStats()) {
+                // 开启指标监控时，自动开启 recordStats，以便采集 Caffeine 的 stats()
+                cacheBuilder.recordStats();
+            }
         }
 
         if (null != listener) {
@@ -104,7 +115,7 @@ public class CaffeineCacheBuilder extends AbstractCacheBuilder<CaffeineCache> {
     /**
      * 获取 spec
      */
-    private String getSpec(String cacheName, L2CacheConfig.Caffeine caffeine) {
+    private static String getSpec(String cacheName, L2CacheConfig.Caffeine caffeine) {
         if (StrUtil.isBlank(cacheName)) {
             return caffeine.getDefaultSpec();
         }
@@ -117,17 +128,20 @@ public class CaffeineCacheBuilder extends AbstractCacheBuilder<CaffeineCache> {
 
     /**
      * 获取自定义的 CaffeineSpec
+     * 注：CaffeineAsyncCacheBuilder 复用同一份 caffeine 配置
      */
-    private void buildCaffeineSpec(String cacheName, L2CacheConfig.Caffeine caffeine) {
+    static CustomCaffeineSpec buildCaffeineSpec(String cacheName, L2CacheConfig.Caffeine caffeine) {
         CustomCaffeineSpec customCaffeineSpec = customCaffeineSpecMap.get(cacheName);
         if (null != customCaffeineSpec) {
-            return;
+            return customCaffeineSpec;
         }
-        String spec = this.getSpec(cacheName, caffeine);
+        String spec = getSpec(cacheName, caffeine);
         if (StrUtil.isBlank(spec)) {
             throw new RuntimeException("please setting caffeine spec config");
         }
-        customCaffeineSpecMap.put(cacheName, CustomCaffeineSpec.parse(spec));
+        customCaffeineSpec = CustomCaffeineSpec.parse(spec);
+        customCaffeineSpecMap.put(cacheName, customCaffeineSpec);
+        return customCaffeineSpec;
     }
 
 }
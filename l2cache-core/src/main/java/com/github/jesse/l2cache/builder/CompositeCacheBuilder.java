@@ -55,7 +55,9 @@ public class CompositeCacheBuilder extends AbstractCacheBuilder<CompositeCache>
             throw new IllegalArgumentException("level2Cache must be implements Level2Cache, l2CacheType=" + l2CacheType);
         }
 
-        return this.buildActualCache(cacheName, cacheConfig, (Level1Cache) level1Cache, (Level2Cache) level2Cache, this.getL2CacheConfig().getHotkey().getType());
+        L2CacheConfig.Hotkey hotkey = this.getL2CacheConfig().getHotkey();
+        return this.buildActualCache(cacheName, cacheConfig, (Level1Cache) level1Cache, (Level2Cache) level2Cache, hotkey.getType())
+                .enableAsyncHotkey(hotkey.getAsync());
     }
 
     /**
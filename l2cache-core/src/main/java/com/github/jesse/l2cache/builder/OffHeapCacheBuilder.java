@@ -0,0 +1,56 @@
+package com.github.jesse.l2cache.builder;
+
+import com.github.jesse.l2cache.CacheSpec;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.L2CacheConfigUtil;
+import com.github.jesse.l2cache.cache.OffHeapCache;
+import com.github.jesse.l2cache.cache.offheap.OffHeapStore;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.load.CacheLoader;
+import com.github.jesse.l2cache.load.CustomCacheLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OffHeap Cache Builder
+ *
+ * @author chenck
+ * @date 2026/10/16 22:10
+ */
+public class OffHeapCacheBuilder extends AbstractCacheBuilder<OffHeapCache> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCacheBuilder.class);
+
+    @Override
+    public OffHeapCache build(String cacheName) {
+        L2CacheConfig.CacheConfig cacheConfig = L2CacheConfigUtil.getCacheConfig(this.getL2CacheConfig(), cacheName);
+
+        // 构建 CacheSpec
+        CacheSpec cacheSpec = this.parseSpec(cacheName);
+
+        // 创建CustomCacheLoader
+        // 保证一个OffHeapCache对应一个CacheLoader，也就是cacheName维度进行隔离
+        CacheLoader customCacheLoader = CustomCacheLoader.newInstance(L2CacheConfig.INSTANCE_ID,
+                CacheType.OFFHEAP.name().toLowerCase(), cacheName, cacheSpec.getMaxSize());
+        customCacheLoader.setCacheSyncPolicy(this.getCacheSyncPolicy());
+        customCacheLoader.setAllowNullValues(cacheConfig.isAllowNullValues());
+
+        L2CacheConfig.Offheap offheap = cacheConfig.getOffheap();
+        OffHeapStore store = new OffHeapStore(offheap.getCapacityMb() * 1024 * 1024, offheap.getSegmentCount(), offheap.getBlockSize());
+        logger.info("create a OffHeapCache instance, cacheName={}, offheap={}", cacheName, offheap);
+
+        return new OffHeapCache(cacheName, cacheConfig, customCacheLoader, this.getCacheSyncPolicy(), store);
+    }
+
+    /**
+     * 注：堆外缓存按容量淘汰，没有最大数量，maxSize 为 CacheLoader 中 valueLoader 的缓存数量，取默认值
+     */
+    @Override
+    public CacheSpec parseSpec(String cacheName) {
+        L2CacheConfig.CacheConfig cacheConfig = L2CacheConfigUtil.getCacheConfig(this.getL2CacheConfig(), cacheName);
+
+        CacheSpec cacheSpec = new CacheSpec();
+        cacheSpec.setExpireTime(cacheConfig.getOffheap().getExpireTime());
+        return cacheSpec;
+    }
+}
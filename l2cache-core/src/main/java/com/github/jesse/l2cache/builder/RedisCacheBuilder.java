@@ -31,7 +31,8 @@ public class RedisCacheBuilder extends AbstractCacheBuilder<RedissonRBucketCache
             redissonClient = this.getRedissonClient(this.getL2CacheConfig());
         }
 
-        return this.buildActualCache(cacheName, cacheConfig, redissonClient);
+        return this.buildActualCache(cacheName, cacheConfig, redissonClient)
+                .setCacheSyncPolicy(this.getCacheSyncPolicy());
     }
 
     /**
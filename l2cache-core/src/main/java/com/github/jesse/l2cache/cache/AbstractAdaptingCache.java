@@ -4,11 +4,16 @@ import cn.hutool.core.collection.CollectionUtil;
 import com.github.jesse.l2cache.Cache;
 import com.github.jesse.l2cache.L2CacheConfig;
 import com.github.jesse.l2cache.exception.L2CacheException;
+import com.github.jesse.l2cache.metrics.CacheMetrics;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public abstract class AbstractAdaptingCache implements Cache {
@@ -30,6 +35,11 @@ public abstract class AbstractAdaptingCache implements Cache {
      * NullValue的过期时间，单位秒
      */
     private long nullValueExpireTimeSeconds;
+    /**
+     * batchGetOrLoad 正在加载中的key
+     * <cacheKey, future> future的值为加载到的value，未加载到数据时为null
+     */
+    private final Map<Object, CompletableFuture<Object>> batchLoadingMap = new ConcurrentHashMap<>();
 
 
     public AbstractAdaptingCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig) {
@@ -114,10 +124,95 @@ public abstract class AbstractAdaptingCache implements Cache {
 
     /**
      * 加载数据并put到缓存
+     * 开启 batchLoadCoalesce 时，合并并发的加载请求：
+     * 1、对未命中的key登记加载中的future，已被其他请求登记的key，等待其加载结果
+     * 2、先加载自己登记的key，加载并put到缓存后完成future，再等待其他请求的加载结果，所以不会出现相互等待的情况
+     * 3、其他请求加载失败时，自行加载这部分key
      */
     protected <K, V> Map<K, V> loadAndPut(Function<List<K>, Map<K, V>> valueLoader, Map<K, Object> notHitCacheKeyMap) {
+        if (!cacheConfig.isBatchLoadCoalesce()) {
+            return this.doLoadAndPut(valueLoader, notHitCacheKeyMap);
+        }
+        // 由当前请求加载的key
+        Map<K, Object> loadKeyMap = new HashMap<>();
+        Map<Object, CompletableFuture<Object>> loadFutureMap = new HashMap<>();
+        // 由其他请求加载的key
+        Map<K, CompletableFuture<Object>> waitFutureMap = new HashMap<>();
+        notHitCacheKeyMap.forEach((k, cacheKey) -> {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            CompletableFuture<Object> loadingFuture = batchLoadingMap.putIfAbsent(cacheKey, future);
+            if (null == loadingFuture) {
+                loadKeyMap.put(k, cacheKey);
+                loadFutureMap.put(cacheKey, future);
+            } else {
+                waitFutureMap.put(k, loadingFuture);
+            }
+        });
+
+        Map<K, V> valueLoaderHitMap = new HashMap<>();
+        if (!CollectionUtil.isEmpty(loadKeyMap)) {
+            try {
+                Map<K, V> loadMap = this.doLoadAndPut(valueLoader, loadKeyMap);
+                if (!CollectionUtil.isEmpty(loadMap)) {
+                    valueLoaderHitMap.putAll(loadMap);
+                }
+                loadKeyMap.forEach((k, cacheKey) -> loadFutureMap.get(cacheKey).complete(valueLoaderHitMap.get(k)));
+            } finally {
+                // 加载失败时，通知等待的请求自行加载（已完成的future不受影响）
+                loadFutureMap.forEach((cacheKey, future) -> {
+                    future.completeExceptionally(new L2CacheException("batchGetOrLoad load fail, cacheName=" + this.getCacheName() + ", cacheKey=" + cacheKey));
+                    batchLoadingMap.remove(cacheKey, future);
+                });
+            }
+        }
+        if (CollectionUtil.isEmpty(waitFutureMap)) {
+            return valueLoaderHitMap;
+        }
+
+        Map<K, Object> failKeyMap = new HashMap<>();
+        waitFutureMap.forEach((k, future) -> {
+            try {
+                V value = (V) future.join();
+                if (null != value) {
+                    valueLoaderHitMap.put(k, value);
+                }
+            } catch (CompletionException e) {
+                failKeyMap.put(k, notHitCacheKeyMap.get(k));
+            }
+        });
+        logger.info("[{}] batchGetOrLoad coalesce loading keys, cacheName={}, loadKeySize={}, waitKeySize={}, failKeySize={}", this.getClass().getSimpleName(), this.getCacheName(), loadKeyMap.size(), waitFutureMap.size(), failKeyMap.size());
+        if (!CollectionUtil.isEmpty(failKeyMap)) {
+            Map<K, V> loadMap = this.doLoadAndPut(valueLoader, failKeyMap);
+            if (!CollectionUtil.isEmpty(loadMap)) {
+                valueLoaderHitMap.putAll(loadMap);
+            }
+        }
+        return valueLoaderHitMap;
+    }
+
+    /**
+     * 执行批量valueLoader，并记录加载的耗时、结果和key数量
+     */
+    private <K, V> Map<K, V> applyAndRecord(Function<List<K>, Map<K, V>> valueLoader, Map<K, Object> notHitCacheKeyMap) {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        if (!metrics.isEnabled()) {
+            return valueLoader.apply(new ArrayList<>(notHitCacheKeyMap.keySet()));
+        }
+        metrics.recordBatchSize(this.getCacheName(), "batchLoad", notHitCacheKeyMap.size());
+        long start = System.nanoTime();
+        boolean success = false;
         try {
             Map<K, V> valueLoaderHitMap = valueLoader.apply(new ArrayList<>(notHitCacheKeyMap.keySet()));
+            success = true;
+            return valueLoaderHitMap;
+        } finally {
+            metrics.recordLoad(this.getCacheName(), System.nanoTime() - start, success);
+        }
+    }
+
+    private <K, V> Map<K, V> doLoadAndPut(Function<List<K>, Map<K, V>> valueLoader, Map<K, Object> notHitCacheKeyMap) {
+        try {
+            Map<K, V> valueLoaderHitMap = this.applyAndRecord(valueLoader, notHitCacheKeyMap);
 
             // 从DB获取数据，一个都没有命中，直接返回
             if (CollectionUtil.isEmpty(valueLoaderHitMap)) {
@@ -1,10 +1,548 @@
 package com.github.jesse.l2cache.cache;
 
+import cn.hutool.core.collection.CollectionUtil;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.jesse.l2cache.CacheSyncPolicy;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.content.NullValue;
+import com.github.jesse.l2cache.exception.L2CacheException;
+import com.github.jesse.l2cache.hotkey.AutoDetectHotKeyCache;
+import com.github.jesse.l2cache.load.CacheLoader;
+import com.github.jesse.l2cache.load.LoadFunction;
+import com.github.jesse.l2cache.load.ValueLoaderWarpper;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
+import com.github.jesse.l2cache.schedule.NullValueCacheClearTask;
+import com.github.jesse.l2cache.schedule.NullValueClearSupport;
+import com.github.jesse.l2cache.schedule.RefreshExpiredCacheTask;
+import com.github.jesse.l2cache.schedule.RefreshSupport;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.util.LogUtil;
+import com.github.jesse.l2cache.util.pool.MdcForkJoinPool;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Caffeine Async Cache
+ * <p>
+ * 基于 Caffeine AsyncLoadingCache 实现的一级缓存，与 CaffeineCache 的区别：
+ * 1、并发获取同一个未命中的key时，共享同一个加载中的CompletableFuture，加载在executor中执行，不会阻塞在 LoadingCache.get 的key维度的锁上
+ * 2、refreshAfterWrite 到期后返回旧值，并在executor中异步刷新，不阻塞任何请求线程
+ * 3、batchGetOrLoad 映射为 AsyncCache.getAll，未命中的key通过一次批量加载完成
  *
  * @author chenck
  * @date 2020/8/31 13:02
  */
-public class CaffeineAsyncCache {
+public class CaffeineAsyncCache extends AbstractAdaptingCache implements Level1Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaffeineAsyncCache.class);
+
+    /**
+     * caffeine config
+     */
+    private final L2CacheConfig.Caffeine caffeine;
+    /**
+     * 缓存加载器，用于异步加载缓存
+     */
+    private final CacheLoader cacheLoader;
+    /**
+     * 缓存同步策略
+     */
+    private final CacheSyncPolicy cacheSyncPolicy;
+    /**
+     * L1 Caffeine AsyncCache
+     */
+    private final AsyncCache<Object, Object> asyncCache;
+    /**
+     * asyncCache 的同步视图，getIfPresent 仅返回已加载完成的值，不会阻塞
+     */
+    private final Cache<Object, Object> syncView;
+    /**
+     * 存放NullValue的key，用于控制NullValue对象的有效时间
+     */
+    private Cache<Object, Integer> nullValueCache;
+
+    public CaffeineAsyncCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, CacheLoader cacheLoader, CacheSyncPolicy cacheSyncPolicy,
+                              AsyncCache<Object, Object> asyncCache) {
+        super(cacheName, cacheConfig);
+        this.caffeine = cacheConfig.getCaffeine();
+        this.cacheLoader = cacheLoader;
+        this.cacheSyncPolicy = cacheSyncPolicy;
+        this.asyncCache = asyncCache;
+        this.syncView = asyncCache.synchronous();
+        CacheMetricsSupport.registerCaffeine(cacheName, this.syncView);
+
+        if (this.caffeine.isAutoRefreshExpireCache()) {
+            // 定期刷新过期的缓存
+            RefreshSupport.getInstance(this.caffeine.getRefreshPoolSize())
+                    .scheduleWithFixedDelay(new RefreshExpiredCacheTask(this), 5,
+                            this.caffeine.getRefreshPeriod(), TimeUnit.SECONDS);
+        }
+        if (this.isAllowNullValues()) {
+            this.nullValueCache = Caffeine.newBuilder()
+                    .executor(new MdcForkJoinPool("RemoveNullValue"))
+                    .expireAfterWrite(cacheConfig.getNullValueExpireTimeSeconds(), TimeUnit.SECONDS)
+                    .maximumSize(cacheConfig.getNullValueMaxSize())
+                    .removalListener((key, value, cause) -> {
+                        logger.info("[NullValueCache] remove NullValue, removalCause={}, cacheName={}, key={}, value={}", cause, this.getCacheName(), key, value);
+                        if (null != key) {
+                            this.syncView.invalidate(key);
+                            if (null != this.cacheSyncPolicy) {
+                                this.cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_CLEAR, "RemoveNullValue"));
+                            }
+                        }
+                    })
+                    .build();
+            if (null != cacheLoader) {
+                cacheLoader.setNullValueCache(this.nullValueCache);
+            }
+
+            // 定期清理 NullValue
+            NullValueClearSupport.getInstance().scheduleWithFixedDelay(new NullValueCacheClearTask(this.getCacheName(), this.nullValueCache), 5,
+                    cacheConfig.getNullValueClearPeriodSeconds(), TimeUnit.SECONDS);
+
+            logger.info("NullValueCache初始化成功, cacheName={}, expireTime={}s, maxSize={}, clearPeriodSeconds={}s", this.getCacheName(), cacheConfig.getNullValueExpireTimeSeconds(), cacheConfig.getNullValueMaxSize(), cacheConfig.getNullValueClearPeriodSeconds());
+        }
+    }
+
+    @Override
+    public String getCacheType() {
+        return CacheType.CAFFEINE_ASYNC.name().toLowerCase();
+    }
+
+    @Override
+    public AsyncCache<Object, Object> getActualCache() {
+        return this.asyncCache;
+    }
+
+    @Override
+    public CacheSyncPolicy getCacheSyncPolicy() {
+        return this.cacheSyncPolicy;
+    }
+
+    @Override
+    public CacheLoader getCacheLoader() {
+        return this.cacheLoader;
+    }
+
+    @Override
+    public boolean isLoadingCache() {
+        return this.asyncCache instanceof AsyncLoadingCache && null != this.cacheLoader;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (isLoadingCache()) {
+            // 并发请求同一个key时共享同一个future，refreshAfterWrite到期时直接返回旧值
+            Object value = this.join(((AsyncLoadingCache<Object, Object>) this.asyncCache).get(key));
+            if (logger.isDebugEnabled()) {
+                logger.debug("AsyncLoadingCache.get cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
+            }
+            return fromStoreValue(value);
+        }
+        return fromStoreValue(this.syncView.getIfPresent(key));
+    }
+
+    @Override
+    public Object getIfPresent(Object key) {
+        return fromStoreValue(this.syncView.getIfPresent(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (isLoadingCache()) {
+            // 将Callable设置到自定义CacheLoader中，以便在load()中执行具体的业务方法来加载数据
+            this.cacheLoader.addValueLoader(key, valueLoader);
+
+            Object value = this.join(((AsyncLoadingCache<Object, Object>) this.asyncCache).get(key));
+            if (logger.isDebugEnabled()) {
+                logger.debug("AsyncLoadingCache.get(key, callable) cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
+            }
+            return (T) fromStoreValue(value);
+        }
+
+        // 在executor中加载数据，并发请求同一个key时共享同一个future
+        LoadFunction loadFunction = new LoadFunction(this.getInstanceId(), this.getCacheType(), this.getCacheName(),
+                null, this.getCacheSyncPolicy(), ValueLoaderWarpper.newInstance(this.getCacheName(), key, valueLoader), this.isAllowNullValues(), this.nullValueCache);
+        Object value = this.join(this.asyncCache.get(key, (k, executor) -> CompletableFuture.supplyAsync(() -> loadFunction.apply(k), executor)));
+        if (logger.isDebugEnabled()) {
+            logger.debug("AsyncCache.get(key, callable) cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
+        }
+        return (T) fromStoreValue(value);
+    }
+
+    @Override
+    public CompletableFuture<Object> getAsync(Object key) {
+        if (isLoadingCache()) {
+            return ((AsyncLoadingCache<Object, Object>) this.asyncCache).get(key).thenApply(this::fromStoreValue);
+        }
+        return CompletableFuture.completedFuture(this.getIfPresent(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        if (null == valueLoader) {
+            return (CompletableFuture<T>) this.getAsync(key);
+        }
+        // 并发请求同一个key时仅执行一次valueLoader，其他请求共享同一个future
+        return this.asyncCache.get(key, (k, executor) -> valueLoader.get().thenApply(value -> {
+            Object storeValue = this.toLocalStoreValue(k, value);
+            if (null != storeValue && null != cacheSyncPolicy) {
+                cacheSyncPolicy.publish(createMessage(k, CacheConsts.CACHE_REFRESH, "AfterValueLoader"));
+            }
+            return storeValue;
+        })).thenApply(value -> (T) fromStoreValue(value));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (!isAllowNullValues() && value == null) {
+            syncView.invalidate(key);
+            return;
+        }
+        this.putLocal(key, value);
+        logger.info("put cache, cacheName={}, cacheSize={}, key={}, value={}", this.getCacheName(), syncView.estimatedSize(), key, toStoreValue(value));
+
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_REFRESH, "put"));
+        }
+    }
+
+    @Override
+    public void putLocal(Object key, Object value) {
+        Object storeValue = this.toLocalStoreValue(key, value);
+        if (null == storeValue) {
+            syncView.invalidate(key);
+            return;
+        }
+        syncView.put(key, storeValue);
+    }
+
+    @Override
+    public long size() {
+        return syncView.asMap().size();
+    }
+
+    @Override
+    public Set<Object> keys() {
+        return syncView.asMap().keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return syncView.asMap().values();
+    }
+
+    @Override
+    public void evict(Object key) {
+        logger.info("evict cache, cacheName={}, key={}", this.getCacheName(), key);
+        syncView.invalidate(key);
+        if (null != nullValueCache) {
+            nullValueCache.invalidate(key);
+        }
+
+        // 移除热key标识
+        AutoDetectHotKeyCache.evit(this.getCacheName(), key);
+
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_CLEAR, "evict"));
+        }
+    }
+
+    @Override
+    public void clear() {
+        logger.info("clear cache, cacheName={}, deleteCount={}", this.getCacheName(), syncView.asMap().size());
+        syncView.invalidateAll();
+        if (null != nullValueCache) {
+            nullValueCache.invalidateAll();
+        }
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(null, CacheConsts.CACHE_CLEAR, "clear"));
+        }
+    }
+
+    @Override
+    public boolean isExists(Object key) {
+        // 加载中的key不算存在
+        boolean rslt = null != syncView.getIfPresent(key);
+        if (logger.isDebugEnabled()) {
+            logger.debug("key is exists, cacheName={}, key={}, rslt={}", this.getCacheName(), key, rslt);
+        }
+        return rslt;
+    }
+
+    @Override
+    public void clearLocalCache(Object key) {
+        logger.info("clear local cache, cacheName={}, key={}", this.getCacheName(), key);
+        if (key == null) {
+            syncView.invalidateAll();
+            if (null != nullValueCache) {
+                nullValueCache.invalidateAll();
+            }
+        } else {
+            syncView.invalidate(key);
+            if (null != nullValueCache) {
+                nullValueCache.invalidate(key);
+            }
+
+            // 移除热key标识
+            AutoDetectHotKeyCache.evit(this.getCacheName(), key);
+        }
+    }
+
+    @Override
+    public void batchClearLocalCache(Collection<Object> keys) {
+        logger.info("batch clear local cache, cacheName={}, keySize={}", this.getCacheName(), keys.size());
+        syncView.invalidateAll(keys);
+        if (null != nullValueCache) {
+            nullValueCache.invalidateAll(keys);
+        }
+        // 移除热key标识
+        keys.forEach(key -> AutoDetectHotKeyCache.evit(this.getCacheName(), key));
+    }
+
+    @Override
+    public <V> void batchPut(Map<Object, V> dataMap) {
+        if (CollectionUtil.isEmpty(dataMap)) {
+            return;
+        }
+        dataMap.forEach(this::putLocal);
+        logger.info("batchPut cache, cacheName={}, cacheSize={}, size={}", this.getCacheName(), syncView.estimatedSize(), dataMap.size());
+
+        // 一批key只发送一条消息（key数量过多时按 BATCH_MESSAGE_MAX_KEYS 拆分）
+        this.publishBatchMessage(new ArrayList<>(dataMap.keySet()), CacheConsts.CACHE_REFRESH, "batchPut");
+    }
+
+    @Override
+    public <K> void batchEvict(Map<K, Object> keyMap) {
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(keyMap.values());
+        logger.info("batchEvict cache, cacheName={}, size={}", this.getCacheName(), keys.size());
+        this.batchClearLocalCache(keys);
+
+        this.publishBatchMessage(keys, CacheConsts.CACHE_CLEAR, "batchEvict");
+    }
+
+    @Override
+    public void refresh(Object key) {
+        if (isLoadingCache()) {
+            // 同 CaffeineCache.refresh()：通过key维度的原子性计数器，控制同一时刻一个key只会存在一个refresh任务
+            ValueLoaderWarpper valueLoader = this.cacheLoader.getValueLoaderWarpper(key);
+            if (null == valueLoader) {
+                LogUtil.log(logger, cacheConfig.getLogLevel(), "[CaffeineAsyncCache][refresh] add a null ValueLoader, cacheName={}, key={}", this.getCacheName(), key);
+                this.cacheLoader.addValueLoader(key, null);
+                valueLoader = this.cacheLoader.getValueLoaderWarpper(key);
+            }
+            int waitRefreshNum = valueLoader.getAndIncrement();
+            if (waitRefreshNum > 0) {
+                logger.info("[CaffeineAsyncCache][refresh] not do refresh, cacheName={}, key={}, waitRefreshNum={}", this.getCacheName(), key, waitRefreshNum);
+                return;
+            }
+            LogUtil.log(logger, cacheConfig.getLogLevel(), "[CaffeineAsyncCache][refresh] do refresh, cacheName={}, key={}, waitRefreshNum={}", this.getCacheName(), key, waitRefreshNum);
+            // 在executor中异步刷新，刷新完成前get返回旧值
+            ((AsyncLoadingCache<Object, Object>) asyncCache).synchronous().refresh(key);
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        if (isLoadingCache()) {
+            for (Object key : syncView.asMap().keySet()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("refreshAll cache, cacheName={}, key={}", this.getCacheName(), key);
+                }
+                this.refresh(key);
+            }
+        }
+    }
+
+    @Override
+    public void refreshExpireCache(Object key) {
+        if (isLoadingCache()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("refreshExpireCache, cacheName={}, key={}", this.getCacheName(), key);
+            }
+            // 通过AsyncLoadingCache.get(key)来刷新过期缓存，不等待加载完成
+            ((AsyncLoadingCache<Object, Object>) asyncCache).get(key);
+        }
+    }
+
+    @Override
+    public void refreshAllExpireCache() {
+        if (isLoadingCache()) {
+            if (null != nullValueCache) {
+                logger.info("refreshAllExpireCache, cacheName={}, size={}, NullValueSize={}, stats={}", this.getCacheName(), syncView.estimatedSize(), nullValueCache.estimatedSize(), syncView.stats());
+            } else {
+                logger.info("refreshAllExpireCache, cacheName={}, size={}, stats={}", this.getCacheName(), syncView.estimatedSize(), syncView.stats());
+            }
+            for (Object key : syncView.asMap().keySet()) {
+                this.refreshExpireCache(key);
+            }
+        }
+    }
+
+    @Override
+    public <K, V> Map<K, V> batchGet(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        // 命中列表
+        Map<K, V> hitMap = new HashMap<>();
+
+        keyMap.forEach((key, cacheKey) -> {
+            // 仅获取已加载完成的缓存，加载中的key视为未命中
+            Object value = this.syncView.getIfPresent(cacheKey);
+            if (logger.isDebugEnabled()) {
+                logger.debug("batchGet cache, cacheName={}, cacheKey={}, value={}", this.getCacheName(), cacheKey, value);
+            }
+            this.putHitMap(hitMap, key, value, returnNullValueKey);
+        });
+        LogUtil.log(logger, caffeine.getBatchGetLogLevel(), "[CaffeineAsyncCache] batchGet cache, cacheName={}, cacheKeyMapSize={}, hitMapSize={}, hitMap={}", this.getCacheName(), keyMap.size(), hitMap.size(), hitMap);
+        return hitMap;
+    }
+
+    /**
+     * 批量get或load，映射为 AsyncCache.getAll
+     * 注：未命中的key合并为一次valueLoader调用，并发请求中正在加载的key共享同一个future，不会重复加载
+     */
+    @Override
+    public <K, V> Map<K, V> batchGetOrLoad(Map<K, Object> keyMap, Function<List<K>, Map<K, V>> valueLoader, boolean returnNullValueKey) {
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return new HashMap<>();
+        }
+        if (null == valueLoader) {
+            return this.batchGet(keyMap, returnNullValueKey);
+        }
+        // <cacheKey, K>
+        Map<Object, K> cacheKeyMap = new HashMap<>();
+        keyMap.forEach((key, cacheKey) -> cacheKeyMap.put(cacheKey, key));
+
+        Map<Object, Object> storeValueMap = this.join(this.asyncCache.getAll(cacheKeyMap.keySet(),
+                (cacheKeys, executor) -> CompletableFuture.supplyAsync(() -> this.bulkLoad(cacheKeys, cacheKeyMap, valueLoader), executor)));
+
+        Map<K, V> hitMap = new HashMap<>();
+        storeValueMap.forEach((cacheKey, value) -> this.putHitMap(hitMap, cacheKeyMap.get(cacheKey), value, returnNullValueKey));
+        LogUtil.log(logger, caffeine.getBatchGetLogLevel(), "[CaffeineAsyncCache] batchGetOrLoad cache, cacheName={}, cacheKeyMapSize={}, hitMapSize={}", this.getCacheName(), keyMap.size(), hitMap.size());
+        return hitMap;
+    }
+
+    /**
+     * 通过valueLoader批量加载未命中的key
+     *
+     * @return <cacheKey, storeValue>，不允许存储空值时，未加载到数据的key不包含在返回结果中
+     */
+    private <K, V> Map<Object, Object> bulkLoad(Iterable<?> cacheKeys, Map<Object, K> cacheKeyMap, Function<List<K>, Map<K, V>> valueLoader) {
+        List<K> keyList = new ArrayList<>();
+        cacheKeys.forEach(cacheKey -> keyList.add(cacheKeyMap.get(cacheKey)));
+        Map<K, V> valueLoaderHitMap;
+        try {
+            valueLoaderHitMap = valueLoader.apply(keyList);
+        } catch (Exception e) {
+            logger.error("[CaffeineAsyncCache] batchGetOrLoad error, cacheName=" + this.getCacheName() + ", keyList=" + keyList, e);
+            throw new L2CacheException("batchGetOrLoad error," + e.getMessage(), e);
+        }
+
+        Map<Object, Object> storeValueMap = new HashMap<>();
+        for (Object cacheKey : cacheKeys) {
+            V value = null == valueLoaderHitMap ? null : valueLoaderHitMap.get(cacheKeyMap.get(cacheKey));
+            Object storeValue = this.toLocalStoreValue(cacheKey, value);
+            if (null == storeValue) {
+                continue;
+            }
+            storeValueMap.put(cacheKey, storeValue);
+        }
+        // 一批key只发送一条消息（key数量过多时按 BATCH_MESSAGE_MAX_KEYS 拆分）
+        if (!storeValueMap.isEmpty()) {
+            this.publishBatchMessage(new ArrayList<>(storeValueMap.keySet()), CacheConsts.CACHE_REFRESH, "AfterValueLoader");
+        }
+        logger.info("[CaffeineAsyncCache] batchGetOrLoad load data from valueLoader, cacheName={}, loadKeySize={}, hitSize={}", this.getCacheName(), keyList.size(), storeValueMap.size());
+        return storeValueMap;
+    }
+
+    /**
+     * 转换为本地缓存存储的值，并记录NullValue
+     *
+     * @return 不允许存储空值且value为null时，返回null
+     */
+    private Object toLocalStoreValue(Object key, Object value) {
+        if (!isAllowNullValues() && value == null) {
+            return null;
+        }
+        // 允许null值，且值为空，则记录到nullValueCache，用于淘汰NullValue
+        if (value == null || value instanceof NullValue) {
+            if (null != nullValueCache) {
+                nullValueCache.put(key, 1);
+            }
+        }
+        return toStoreValue(value);
+    }
+
+    /**
+     * 将缓存值放入命中列表
+     * value=null表示key不存在，value=NullValue且returnNullValueKey=true时，将key包含在返回数据中
+     */
+    private <K, V> void putHitMap(Map<K, V> hitMap, K key, Object value, boolean returnNullValueKey) {
+        if (value == null) {
+            return;
+        }
+        V warpValue = (V) fromStoreValue(value);
+        if (warpValue != null) {
+            hitMap.put(key, warpValue);
+            return;
+        }
+        if (returnNullValueKey) {
+            hitMap.put(key, null);
+        }
+    }
+
+    /**
+     * 等待future完成，并还原加载过程中抛出的原始异常
+     */
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new L2CacheException("CaffeineAsyncCache load error, cacheName=" + this.getCacheName(), e.getCause());
+        }
+    }
+
+    private CacheMessage createMessage(Object key, String optType, String desc) {
+        return new CacheMessage()
+                .setInstanceId(this.getInstanceId())
+                .setCacheType(this.getCacheType())
+                .setCacheName(this.getCacheName())
+                .setKey(key)
+                .setOptType(optType)
+                .setDesc(desc);
+    }
+
+    private void publishBatchMessage(List<Object> keys, String optType, String desc) {
+        if (null == cacheSyncPolicy) {
+            return;
+        }
+        for (List<Object> subKeys : Lists.partition(keys, CacheConsts.BATCH_MESSAGE_MAX_KEYS)) {
+            cacheSyncPolicy.publish(createMessage(null, optType, desc).setKeys(new ArrayList<>(subKeys)));
+        }
+    }
+
 }
@@ -1,11 +1,13 @@
 package com.github.jesse.l2cache.cache;
 
+import cn.hutool.core.collection.CollectionUtil;
 import com.github.jesse.l2cache.L2CacheConfig;
 import com.github.jesse.l2cache.CacheSyncPolicy;
 import com.github.jesse.l2cache.content.NullValue;
 import com.github.jesse.l2cache.hotkey.AutoDetectHotKeyCache;
 import com.github.jesse.l2cache.schedule.NullValueCacheClearTask;
 import com.github.jesse.l2cache.schedule.NullValueClearSupport;
+import com.github.jesse.l2cache.schedule.RefreshEngine;
 import com.github.jesse.l2cache.schedule.RefreshExpiredCacheTask;
 import com.github.jesse.l2cache.schedule.RefreshSupport;
 import com.github.jesse.l2cache.consts.CacheConsts;
@@ -13,21 +15,34 @@ import com.github.jesse.l2cache.consts.CacheType;
 import com.github.jesse.l2cache.load.CacheLoader;
 import com.github.jesse.l2cache.load.LoadFunction;
 import com.github.jesse.l2cache.load.ValueLoaderWarpper;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.util.EarlyRefreshUtil;
 import com.github.jesse.l2cache.util.LogUtil;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
 import com.github.jesse.l2cache.util.pool.MdcForkJoinPool;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Caffeine Cache
@@ -59,6 +74,14 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
      * 存放NullValue的key，用于控制NullValue对象的有效时间
      */
     private Cache<Object, Integer> nullValueCache;
+    /**
+     * 加载快照期间被put/evict的key，加载快照时跳过，避免旧值覆盖；null 表示未在加载快照（或加载期间执行了clear）
+     */
+    private volatile Set<Object> snapshotSkipKeySet;
+    /**
+     * 刷新引擎，用于 refreshAll/refreshAllExpireCache 的并发、限流刷新
+     */
+    private final RefreshEngine refreshEngine;
 
     public CaffeineCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, CacheLoader cacheLoader, CacheSyncPolicy cacheSyncPolicy,
                          Cache<Object, Object> caffeineCache) {
@@ -67,6 +90,8 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
         this.cacheLoader = cacheLoader;
         this.cacheSyncPolicy = cacheSyncPolicy;
         this.caffeineCache = caffeineCache;
+        this.refreshEngine = new RefreshEngine(cacheName, caffeine.getRefreshParallelism(), caffeine.getRefreshBatchSize(), caffeine.getRefreshMaxQps());
+        CacheMetricsSupport.registerCaffeine(cacheName, caffeineCache);
 
         if (this.caffeine.isAutoRefreshExpireCache()) {
             // 定期刷新过期的缓存
@@ -109,6 +134,10 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
         return this.caffeineCache;
     }
 
+    public L2CacheConfig.Caffeine getCaffeine() {
+        return this.caffeine;
+    }
+
     @Override
     public CacheSyncPolicy getCacheSyncPolicy() {
         return this.cacheSyncPolicy;
@@ -132,6 +161,7 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
             if (logger.isDebugEnabled()) {
                 logger.debug("LoadingCache.get cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
             }
+            this.earlyRefreshIfNeed(key);
             return fromStoreValue(value);
         }
         return fromStoreValue(this.caffeineCache.getIfPresent(key));
@@ -152,6 +182,7 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
             if (logger.isDebugEnabled()) {
                 logger.debug("LoadingCache.get(key, callable) cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
             }
+            this.earlyRefreshIfNeed(key);
             return (T) fromStoreValue(value);
         }
 
@@ -164,25 +195,53 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
         return (T) fromStoreValue(value);
     }
 
+    @Override
+    public <T> CompletableFuture<T> getAsync(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        Object value = this.caffeineCache.getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture((T) fromStoreValue(value));
+        }
+        if (null == valueLoader) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // 异步加载数据，加载完成后put到缓存，不阻塞调用线程
+        // 注：并发加载同一个key时，各自执行valueLoader，不做合并
+        return valueLoader.get().thenApply(loadValue -> {
+            this.put(key, loadValue);
+            return loadValue;
+        });
+    }
+
     @Override
     public void put(Object key, Object value) {
         if (!isAllowNullValues() && value == null) {
             caffeineCache.invalidate(key);
             return;
         }
-        caffeineCache.put(key, toStoreValue(value));
+        this.putLocal(key, value);
         logger.info("put cache, cacheName={}, cacheSize={}, key={}, value={}", this.getCacheName(), caffeineCache.estimatedSize(), key, toStoreValue(value));
 
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_REFRESH, "put"));
+        }
+    }
+
+    @Override
+    public void putLocal(Object key, Object value) {
+        if (!isAllowNullValues() && value == null) {
+            this.markSnapshotSkip(key);
+            caffeineCache.invalidate(key);
+            return;
+        }
+        this.markSnapshotSkip(key);
+        caffeineCache.put(key, toStoreValue(value));
+
         // 允许null值，且值为空，则记录到nullValueCache，用于淘汰NullValue
         if (this.isAllowNullValues() && (value == null || value instanceof NullValue)) {
             if (null != nullValueCache) {
                 nullValueCache.put(key, 1);
             }
         }
-
-        if (null != cacheSyncPolicy) {
-            cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_REFRESH, "put"));
-        }
     }
 
     @Override
@@ -203,6 +262,7 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
     @Override
     public void evict(Object key) {
         logger.info("evict cache, cacheName={}, key={}", this.getCacheName(), key);
+        this.markSnapshotSkip(key);
         caffeineCache.invalidate(key);
         if (null != nullValueCache) {
             nullValueCache.invalidate(key);
@@ -219,6 +279,7 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
     @Override
     public void clear() {
         logger.info("clear cache, cacheName={}, deleteCount={}", this.getCacheName(), caffeineCache.asMap().size());
+        this.snapshotSkipKeySet = null;
         caffeineCache.invalidateAll();
         if (null != nullValueCache) {
             nullValueCache.invalidateAll();
@@ -241,11 +302,13 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
     public void clearLocalCache(Object key) {
         logger.info("clear local cache, cacheName={}, key={}", this.getCacheName(), key);
         if (key == null) {
+            this.snapshotSkipKeySet = null;
             caffeineCache.invalidateAll();
             if (null != nullValueCache) {
                 nullValueCache.invalidateAll();
             }
         } else {
+            this.markSnapshotSkip(key);
             caffeineCache.invalidate(key);
             if (null != nullValueCache) {
                 nullValueCache.invalidate(key);
@@ -256,6 +319,115 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
         }
     }
 
+    @Override
+    public void batchClearLocalCache(Collection<Object> keys) {
+        logger.info("batch clear local cache, cacheName={}, keySize={}", this.getCacheName(), keys.size());
+        keys.forEach(this::markSnapshotSkip);
+        caffeineCache.invalidateAll(keys);
+        if (null != nullValueCache) {
+            nullValueCache.invalidateAll(keys);
+        }
+        // 移除热key标识
+        keys.forEach(key -> AutoDetectHotKeyCache.evit(this.getCacheName(), key));
+    }
+
+    @Override
+    public <V> void batchPut(Map<Object, V> dataMap) {
+        if (CollectionUtil.isEmpty(dataMap)) {
+            return;
+        }
+        dataMap.forEach(this::putLocal);
+        logger.info("batchPut cache, cacheName={}, cacheSize={}, size={}", this.getCacheName(), caffeineCache.estimatedSize(), dataMap.size());
+
+        // 一批key只发送一条消息（key数量过多时按 BATCH_MESSAGE_MAX_KEYS 拆分）
+        this.publishBatchMessage(new ArrayList<>(dataMap.keySet()), CacheConsts.CACHE_REFRESH, "batchPut");
+    }
+
+    @Override
+    public <K> void batchEvict(Map<K, Object> keyMap) {
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(keyMap.values());
+        logger.info("batchEvict cache, cacheName={}, size={}", this.getCacheName(), keys.size());
+        this.batchClearLocalCache(keys);
+
+        this.publishBatchMessage(keys, CacheConsts.CACHE_CLEAR, "batchEvict");
+    }
+
+    /**
+     * 开始加载快照，此后被put/evict的key不再从快照加载
+     */
+    public void beginSnapshotLoad() {
+        this.snapshotSkipKeySet = ConcurrentHashMap.newKeySet();
+    }
+
+    public void endSnapshotLoad() {
+        this.snapshotSkipKeySet = null;
+    }
+
+    public boolean isSnapshotLoading() {
+        return null != this.snapshotSkipKeySet;
+    }
+
+    /**
+     * 加载一条快照数据，仅在key不存在且加载期间未被put/evict时写入
+     * 注：在key维度的compute中判断跳过标记，与 markSnapshotSkip() + invalidate() 的先后顺序保证不会用旧值覆盖失效消息
+     *
+     * @return true 表示已写入
+     */
+    public boolean putSnapshotEntry(Object key, Object value) {
+        boolean[] loaded = new boolean[1];
+        caffeineCache.asMap().compute(key, (k, oldValue) -> {
+            Set<Object> skipKeySet = this.snapshotSkipKeySet;
+            if (null != oldValue || null == skipKeySet || skipKeySet.contains(k)) {
+                return oldValue;
+            }
+            loaded[0] = true;
+            return value;
+        });
+        return loaded[0];
+    }
+
+    private void markSnapshotSkip(Object key) {
+        Set<Object> skipKeySet = this.snapshotSkipKeySet;
+        if (null != skipKeySet) {
+            skipKeySet.add(key);
+        }
+    }
+
+    /**
+     * 概率提前刷新（XFetch）
+     * 按 refreshAfterWrite（未配置时为 expireAfterWrite）计算剩余时间，结合最近一次加载耗时，判断是否提前触发异步refresh
+     * 注：refresh() 通过 waitRefreshNum 保证同一个key同一时刻只有一个refresh任务
+     */
+    private void earlyRefreshIfNeed(Object key) {
+        double beta = cacheConfig.getEarlyRefreshBeta();
+        if (beta <= 0) {
+            return;
+        }
+        ValueLoaderWarpper valueLoader = this.cacheLoader.getValueLoaderWarpper(key);
+        if (null == valueLoader || valueLoader.getLoadMillis() <= 0 || valueLoader.getWaitRefreshNum() > 0) {
+            return;
+        }
+        Optional<Policy.Expiration<Object, Object>> expiration = caffeineCache.policy().refreshAfterWrite();
+        if (!expiration.isPresent()) {
+            expiration = caffeineCache.policy().expireAfterWrite();
+        }
+        if (!expiration.isPresent()) {
+            return;
+        }
+        OptionalLong age = expiration.get().ageOf(key, TimeUnit.MILLISECONDS);
+        if (!age.isPresent()) {
+            return;
+        }
+        long remainingMillis = expiration.get().getExpiresAfter(TimeUnit.MILLISECONDS) - age.getAsLong();
+        if (EarlyRefreshUtil.shouldRefresh(remainingMillis, valueLoader.getLoadMillis(), beta)) {
+            LogUtil.log(logger, cacheConfig.getLogLevel(), "[CaffeineCache] early refresh, cacheName={}, key={}, remainingMillis={}, loadMillis={}", this.getCacheName(), key, remainingMillis, valueLoader.getLoadMillis());
+            this.refresh(key);
+        }
+    }
+
     @Override
     public void refresh(Object key) {
         if (isLoadingCache()) {
@@ -283,13 +455,8 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
     @Override
     public void refreshAll() {
         if (isLoadingCache()) {
-            LoadingCache loadingCache = (LoadingCache) caffeineCache;
-            for (Object key : loadingCache.asMap().keySet()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("refreshAll cache, cacheName={}, key={}", this.getCacheName(), key);
-                }
-                this.refresh(key);
-            }
+            // 刷新所有key，与顺序无关，直接遍历keySet（弱一致性迭代器），不对整个缓存做快照排序
+            refreshEngine.refresh(caffeineCache.asMap().keySet().iterator(), batch -> this.refreshBatch(batch, true));
         }
     }
 
@@ -313,14 +480,99 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
             } else {
                 logger.info("refreshAllExpireCache, cacheName={}, size={}, stats={}", this.getCacheName(), loadingCache.estimatedSize(), loadingCache.stats());
             }
-            Object value = null;
-            for (Object key : loadingCache.asMap().keySet()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("refreshAllExpireCache, cacheName={}, key={}", this.getCacheName(), key);
+            refreshEngine.refresh(this.hottestKeys(this.refreshBudget()), batch -> this.refreshBatch(batch, false));
+        }
+    }
+
+    /**
+     * 每次定时刷新最多处理的key数量：refreshMaxQps * refreshPeriod，即一个刷新周期内限流允许刷新的数量，小于等于0表示不限制
+     * 注：超出的冷key不在本次定时刷新中处理，访问时由 refreshAfterWrite/过期 机制加载
+     */
+    private long refreshBudget() {
+        if (caffeine.getRefreshMaxQps() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long refreshPeriod = null == caffeine.getRefreshPeriod() ? 0 : caffeine.getRefreshPeriod();
+        return (long) caffeine.getRefreshMaxQps() * Math.max(1, refreshPeriod);
+    }
+
+    /**
+     * 按访问频率从高到低获取最多 limit 个key，未配置 maximumSize 时无序
+     * 注：Eviction.hottest(limit) 需要对 limit 个key排序，所以按刷新预算限制数量，避免每次刷新都对整个缓存排序
+     * 注：limit 覆盖整个缓存时排序没有意义，直接遍历keySet
+     */
+    private Iterator<Object> hottestKeys(long limit) {
+        if (limit >= caffeineCache.estimatedSize()) {
+            return caffeineCache.asMap().keySet().iterator();
+        }
+        int size = (int) Math.min(Integer.MAX_VALUE, Math.min(limit, caffeineCache.estimatedSize()));
+        return Iterators.limit(caffeineCache.policy().eviction()
+                .map(eviction -> eviction.hottest(size).keySet())
+                .orElseGet(() -> caffeineCache.asMap().keySet())
+                .iterator(), size);
+    }
+
+    /**
+     * 刷新一批key：先从二级缓存批量获取（pipeline），未命中的key再通过 CacheLoader 单独加载
+     * 注：通过 replace/remove(key, oldValue) 回写，刷新期间被put/evict的key以新数据为准；NullValue 由 nullValueCache 控制有效时间，不刷新
+     *
+     * @param force true 表示刷新所有key，false 表示仅刷新超过 refreshAfterWrite 的key
+     * @return 实际刷新的数量
+     */
+    private int refreshBatch(List<Object> batch, boolean force) {
+        Optional<Policy.Expiration<Object, Object>> refreshAfterWrite = caffeineCache.policy().refreshAfterWrite();
+        Map<Object, Object> oldValueMap = new HashMap<>(batch.size());
+        for (Object key : batch) {
+            Object oldValue = caffeineCache.asMap().get(key);
+            if (null == oldValue || oldValue instanceof NullValue) {
+                continue;
+            }
+            if (!force && !this.isRefreshExpired(refreshAfterWrite, key)) {
+                continue;
+            }
+            oldValueMap.put(key, oldValue);
+        }
+        if (oldValueMap.isEmpty()) {
+            return 0;
+        }
+
+        Map<Object, Object> l2HitMap = new HashMap<>();
+        Level2Cache level2Cache = cacheLoader.getLevel2Cache();
+        if (null != level2Cache) {
+            Map<Object, Object> keyMap = new HashMap<>(oldValueMap.size());
+            oldValueMap.keySet().forEach(key -> keyMap.put(key, key));
+            l2HitMap = level2Cache.batchGet(keyMap, false);
+        }
+        int count = 0;
+        for (Map.Entry<Object, Object> entry : oldValueMap.entrySet()) {
+            Object key = entry.getKey();
+            try {
+                Object newValue = l2HitMap.containsKey(key) ? l2HitMap.get(key) : cacheLoader.load(key);
+                if (null == newValue) {
+                    caffeineCache.asMap().remove(key, entry.getValue());
+                } else {
+                    caffeineCache.asMap().replace(key, entry.getValue(), newValue);
                 }
-                value = loadingCache.get(key);// 通过LoadingCache.get(key)来刷新过期缓存
+                count++;
+            } catch (Exception e) {
+                logger.error("refresh cache error, cacheName={}, key={}", this.getCacheName(), key, e);
             }
         }
+        if (logger.isDebugEnabled()) {
+            logger.debug("refresh batch, cacheName={}, force={}, batchSize={}, refreshSize={}, l2HitSize={}", this.getCacheName(), force, batch.size(), count, l2HitMap.size());
+        }
+        return count;
+    }
+
+    /**
+     * 是否超过 refreshAfterWrite，未配置 refreshAfterWrite 时不刷新（与 LoadingCache.get(key) 的行为一致）
+     */
+    private boolean isRefreshExpired(Optional<Policy.Expiration<Object, Object>> refreshAfterWrite, Object key) {
+        if (!refreshAfterWrite.isPresent()) {
+            return false;
+        }
+        OptionalLong age = refreshAfterWrite.get().ageOf(key, TimeUnit.MILLISECONDS);
+        return age.isPresent() && age.getAsLong() >= refreshAfterWrite.get().getExpiresAfter(TimeUnit.MILLISECONDS);
     }
 
     private CacheMessage createMessage(Object key, String optType, String desc) {
@@ -333,6 +585,15 @@ public class CaffeineCache extends AbstractAdaptingCache implements Level1Cache
                 .setDesc(desc);
     }
 
+    private void publishBatchMessage(List<Object> keys, String optType, String desc) {
+        if (null == cacheSyncPolicy) {
+            return;
+        }
+        for (List<Object> subKeys : Lists.partition(keys, CacheConsts.BATCH_MESSAGE_MAX_KEYS)) {
+            cacheSyncPolicy.publish(createMessage(null, optType, desc).setKeys(new ArrayList<>(subKeys)));
+        }
+    }
+
     @Override
     public <K, V> Map<K, V> batchGet(Map<K, Object> keyMap, boolean returnNullValueKey) {
         // 命中列表
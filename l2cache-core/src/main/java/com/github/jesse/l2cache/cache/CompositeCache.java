@@ -2,18 +2,32 @@ package com.github.jesse.l2cache.cache;
 
 import cn.hutool.core.collection.CollectionUtil;
 import com.github.jesse.l2cache.Cache;
+import com.github.jesse.l2cache.HotkeyService;
 import com.github.jesse.l2cache.L2CacheConfig;
 import com.github.jesse.l2cache.consts.CacheConsts;
 import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseFilter;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseSource;
+import com.github.jesse.l2cache.schedule.RefreshSupport;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.hotkey.AsyncHotkeyDetector;
 import com.github.jesse.l2cache.hotkey.HotKeyFacade;
+import com.github.jesse.l2cache.metrics.CacheMetrics;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 import com.github.jesse.l2cache.util.LogUtil;
+import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 组合缓存器
@@ -50,6 +64,40 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
      */
     protected String hotkeyType;
 
+    /**
+     * 热key服务，hotkeyType为空或NONE时为null
+     */
+    private final HotkeyService hotkeyService;
+
+    /**
+     * 异步热key探测，未开启时为null，同步调用 hotkeyService
+     */
+    private volatile AsyncHotkeyDetector asyncHotkeyDetector;
+
+    /**
+     * 一级缓存的缓存类型
+     */
+    private final String level1CacheType;
+
+    /**
+     * 一级缓存路由快照，composite 配置变更后整体替换
+     */
+    private volatile L1Route l1Route;
+
+    /**
+     * 已知key全集过滤器，未开启 keyUniverse 时为null
+     */
+    private final KeyUniverseFilter keyUniverseFilter;
+
+    /**
+     * 待写入redis并通知其他节点的新增key，每 UNIVERSE_FLUSH_MILLIS 合并为一个 RBatch 和一条消息
+     */
+    private final Queue<String> universeAddKeys = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean universeFlushScheduled = new AtomicBoolean();
+
+    private static final long UNIVERSE_FLUSH_MILLIS = 100;
+
     public CompositeCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, Level1Cache level1Cache, Level2Cache level2Cache, String hotkeyType) {
         super(cacheName, cacheConfig);
         this.composite = cacheConfig.getComposite();
@@ -60,6 +108,156 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
             level1Cache.getCacheLoader().setLevel2Cache(level2Cache);
         }
         this.hotkeyType = hotkeyType;
+        this.hotkeyService = HotKeyFacade.getHotkeyService(hotkeyType);
+        this.level1CacheType = level1Cache.getCacheType();
+        this.refreshL1Route();
+        this.keyUniverseFilter = this.initKeyUniverse(cacheConfig);
+    }
+
+    /**
+     * 初始化已知key全集过滤器：从redis加载其他节点已构建的过滤器，并定期检查是否需要重新加载或重建
+     */
+    private KeyUniverseFilter initKeyUniverse(L2CacheConfig.CacheConfig cacheConfig) {
+        L2CacheConfig.KeyUniverse keyUniverse = cacheConfig.getKeyUniverse();
+        if (!keyUniverse.isEnabled()) {
+            return null;
+        }
+        Object actualCache = level2Cache.getActualCache();
+        RedissonClient redissonClient = actualCache instanceof RedissonClient ? (RedissonClient) actualCache : null;
+        KeyUniverseFilter filter = new KeyUniverseFilter(this.getCacheName(), keyUniverse, redissonClient);
+        filter.sync();
+        long period = Math.max(1, keyUniverse.getSyncPeriodSeconds());
+        this.getScheduler().scheduleWithFixedDelay(this::checkKeyUniverse, period, period, TimeUnit.SECONDS);
+        return filter;
+    }
+
+    /**
+     * 设置已知key全集的来源，过滤器未就绪时立即构建
+     */
+    public CompositeCache setKeyUniverseSource(KeyUniverseSource source) {
+        if (null == keyUniverseFilter) {
+            logger.warn("keyUniverse is not enabled, ignore KeyUniverseSource, cacheName={}", this.getCacheName());
+            return this;
+        }
+        keyUniverseFilter.setSource(source);
+        if (!keyUniverseFilter.isReady()) {
+            this.getScheduler().execute(this::checkKeyUniverse);
+        }
+        return this;
+    }
+
+    public KeyUniverseFilter getKeyUniverseFilter() {
+        return keyUniverseFilter;
+    }
+
+    /**
+     * 其他节点完成重建后，从redis重新加载
+     */
+    public void onKeyUniverseRebuild(long version) {
+        if (null != keyUniverseFilter) {
+            this.getScheduler().execute(() -> keyUniverseFilter.reload(version));
+        }
+    }
+
+    /**
+     * 检查已知key全集过滤器：其他节点已重建时重新加载，需要重建且设置了来源时重建并通知其他节点
+     */
+    private void checkKeyUniverse() {
+        try {
+            keyUniverseFilter.sync();
+            if (null == keyUniverseFilter.getSource() || !keyUniverseFilter.needRebuild() || !keyUniverseFilter.rebuild()) {
+                return;
+            }
+            if (null != level1Cache.getCacheSyncPolicy()) {
+                level1Cache.getCacheSyncPolicy().publish(new CacheMessage(this.getInstanceId(), this.getCacheType(), this.getCacheName(),
+                        keyUniverseFilter.getVersion(), CacheConsts.CACHE_UNIVERSE_REBUILD, "rebuild"));
+            }
+        } catch (Exception e) {
+            logger.error("check keyUniverse error, cacheName={}", this.getCacheName(), e);
+        }
+    }
+
+    /**
+     * key是否被已知key全集过滤器排除（不在key全集中）
+     */
+    private boolean isOutOfUniverse(Object key) {
+        return null != keyUniverseFilter && null != key && !keyUniverseFilter.mightContain(key.toString());
+    }
+
+    /**
+     * 过滤掉不在已知key全集中的key
+     */
+    private <K> Map<K, Object> filterUniverse(Map<K, Object> keyMap, String methodName) {
+        if (null == keyUniverseFilter || CollectionUtil.isEmpty(keyMap)) {
+            return keyMap;
+        }
+        Map<K, Object> universeKeyMap = new HashMap<>();
+        keyMap.entrySet().stream().filter(entry -> !isOutOfUniverse(entry.getValue())).forEach(entry -> universeKeyMap.put(entry.getKey(), entry.getValue()));
+        if (universeKeyMap.size() < keyMap.size()) {
+            LogUtil.log(logger, cacheConfig.getLogLevel(), "[CompositeCache] {} filter keys out of universe, cacheName={}, keyMapSize={}, filterSize={}", methodName, this.getCacheName(), keyMap.size(), keyMap.size() - universeKeyMap.size());
+        }
+        return universeKeyMap;
+    }
+
+    /**
+     * 将key加入已知key全集，并通知其他节点
+     * 注：已在key全集中的key直接跳过（大部分写操作都是已有的key）；新增的key立即写入本地，写入redis和通知其他节点延迟 UNIVERSE_FLUSH_MILLIS 后批量执行
+     */
+    private void addToUniverse(Collection<Object> keys) {
+        if (null == keyUniverseFilter || keys.isEmpty()) {
+            return;
+        }
+        List<String> keyList = new ArrayList<>(keys.size());
+        keys.forEach(key -> keyList.add(key.toString()));
+        List<String> addedKeys = keyUniverseFilter.addIfAbsent(keyList);
+        if (addedKeys.isEmpty()) {
+            return;
+        }
+        universeAddKeys.addAll(addedKeys);
+        if (universeFlushScheduled.compareAndSet(false, true)) {
+            this.getScheduler().schedule(this::flushUniverseAdd, UNIVERSE_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 将待写入的新增key批量写入redis，并发送一条（超过 BATCH_MESSAGE_MAX_KEYS 时拆分）缓存同步消息
+     */
+    private void flushUniverseAdd() {
+        // 先重置标识再取数据，取数据期间新增的key会触发下一次执行
+        universeFlushScheduled.set(false);
+        List<String> keyList = new ArrayList<>();
+        String key;
+        while (null != (key = universeAddKeys.poll())) {
+            keyList.add(key);
+        }
+        if (keyList.isEmpty()) {
+            return;
+        }
+        try {
+            keyUniverseFilter.writeRemote(keyList);
+            if (null == level1Cache.getCacheSyncPolicy()) {
+                return;
+            }
+            for (int i = 0; i < keyList.size(); i += CacheConsts.BATCH_MESSAGE_MAX_KEYS) {
+                List<Object> subKeys = new ArrayList<>(keyList.subList(i, Math.min(keyList.size(), i + CacheConsts.BATCH_MESSAGE_MAX_KEYS)));
+                level1Cache.getCacheSyncPolicy().publish(new CacheMessage(this.getInstanceId(), this.getCacheType(), this.getCacheName(), null, CacheConsts.CACHE_UNIVERSE_ADD, "addKnownKey")
+                        .setKeys(subKeys));
+            }
+        } catch (Exception e) {
+            logger.error("flush keyUniverse add error, cacheName={}, keySize={}", this.getCacheName(), keyList.size(), e);
+        }
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        return RefreshSupport.getInstance(cacheConfig.getCaffeine().getRefreshPoolSize());
+    }
+
+    /**
+     * 开启异步热key探测：请求线程只查询热key集合，热key识别由后台线程完成
+     */
+    public CompositeCache enableAsyncHotkey(L2CacheConfig.Hotkey.AsyncHotkey async) {
+        this.asyncHotkeyDetector = HotKeyFacade.newAsyncDetector(hotkeyService, async, level1CacheType, this.getCacheName());
+        return this;
     }
 
     @Override
@@ -74,6 +272,9 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
 
     @Override
     public Object get(Object key) {
+        if (isOutOfUniverse(key)) {
+            return null;
+        }
         Object value = null;
         // 是否开启一级缓存
         boolean ifL1Open = ifL1Open(key);
@@ -84,6 +285,7 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
             }
             // 从L1获取缓存
             value = level1Cache.get(key);
+            this.recordL1(null == value ? 0 : 1, null == value ? 1 : 0);
             if (value != null) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("level1Cache get cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
@@ -104,6 +306,9 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
 
     @Override
     public Object getIfPresent(Object key) {
+        if (isOutOfUniverse(key)) {
+            return null;
+        }
         Object value = null;
         // 是否开启一级缓存
         boolean ifL1Open = ifL1Open(key);
@@ -126,6 +331,10 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
 
     @Override
     public <T> T get(Object key, Callable<T> valueLoader) {
+        // 不在已知key全集中，不访问缓存和 valueLoader
+        if (isOutOfUniverse(key)) {
+            return null;
+        }
         // 是否开启一级缓存
         if (ifL1Open(key)) {
             return level1Cache.get(key, valueLoader);
@@ -136,6 +345,9 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
 
     @Override
     public void put(Object key, Object value) {
+        if (null != value) {
+            this.addToUniverse(Collections.singletonList(key));
+        }
         level2Cache.put(key, value);
         // 是否开启一级缓存
         if (ifL1Open(key)) {
@@ -170,8 +382,16 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
         level1Cache.clear();
     }
 
+    @Override
+    public void addKnownKey(Object key) {
+        this.addToUniverse(Collections.singletonList(key));
+    }
+
     @Override
     public boolean isExists(Object key) {
+        if (isOutOfUniverse(key)) {
+            return false;
+        }
         if (ifL1Open(key) && level1Cache.isExists(key)) {
             return true;
         }
@@ -191,6 +411,119 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
         return this.batchGetOrLoadFromL1L2(keyMap, valueLoader, "batchGetOrLoad", returnNullValueKey);
     }
 
+    // ----- 异步操作 -----
+    // 注：一级缓存的操作在调用线程中同步执行（内存操作），二级缓存的操作异步执行，二级缓存的结果回填一级缓存时不发送缓存同步消息
+
+    @Override
+    public CompletableFuture<Object> getAsync(Object key) {
+        if (isOutOfUniverse(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        boolean ifL1Open = ifL1Open(key);
+        if (ifL1Open) {
+            Object value = level1Cache.getIfPresent(key);
+            // value为null且key存在，表示缓存的是NullValue，直接返回null，防止缓存穿透
+            if (value != null || level1Cache.isExists(key)) {
+                return CompletableFuture.completedFuture(value);
+            }
+        }
+        return level2Cache.getAsync(key).thenApply(value -> {
+            if (value != null && ifL1Open) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("level2Cache getAsync cache and put in level1Cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
+                }
+                level1Cache.putLocal(key, value);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        if (isOutOfUniverse(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        boolean ifL1Open = ifL1Open(key);
+        if (ifL1Open) {
+            Object value = level1Cache.getIfPresent(key);
+            if (value != null || level1Cache.isExists(key)) {
+                return CompletableFuture.completedFuture((T) value);
+            }
+        }
+        // 标记数据是否来自valueLoader，来自valueLoader时需通知其他节点刷新一级缓存
+        AtomicBoolean loaded = new AtomicBoolean();
+        Supplier<CompletableFuture<T>> loaderWrapper = null == valueLoader ? null : () -> {
+            loaded.set(true);
+            return valueLoader.get();
+        };
+        return level2Cache.getAsync(key, loaderWrapper).thenApply(value -> {
+            if (!ifL1Open) {
+                return value;
+            }
+            // valueLoader返回null且不允许存储null时，不回填一级缓存
+            if (value != null || isAllowNullValues()) {
+                level1Cache.putLocal(key, value);
+            }
+            if (loaded.get() && null != level1Cache.getCacheSyncPolicy()) {
+                level1Cache.getCacheSyncPolicy().publish(new CacheMessage(this.getInstanceId(), level1CacheType, this.getCacheName(), key, CacheConsts.CACHE_REFRESH, "AfterPutRedis"));
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        if (null != value) {
+            this.addToUniverse(Collections.singletonList(key));
+        }
+        return level2Cache.putAsync(key, value).thenRun(() -> {
+            if (ifL1Open(key)) {
+                level1Cache.put(key, value);
+            }
+            this.ifEvictL1Cache(key);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(Object key) {
+        // 先清除L2中缓存数据，然后清除L1中的缓存
+        return level2Cache.evictAsync(key).thenRun(() -> {
+            if (ifL1Open(key)) {
+                level1Cache.evict(key);
+            }
+            this.ifEvictL1Cache(key);
+        });
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Map<K, V>> batchGetAsync(Map<K, Object> originKeyMap, boolean returnNullValueKey) {
+        Map<K, Object> keyMap = this.filterUniverse(originKeyMap, "batchGetAsync");
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        Map<K, Object> l1KeyMap = this.getL1KeyMap(keyMap, "batchGetAsync");
+        Map<K, V> hitCacheMap = new HashMap<>();
+        Map<K, Object> l1NotHitKeyMap = new HashMap<>();
+        if (!CollectionUtil.isEmpty(l1KeyMap)) {
+            Map<K, V> l1HitMap = level1Cache.batchGet(l1KeyMap, true);// 此处returnNullValueKey固定为true，不要修改防止缓存穿透
+            this.recordL1(l1HitMap.size(), l1KeyMap.size() - l1HitMap.size());
+            hitCacheMap.putAll(l1HitMap);
+            keyMap.entrySet().stream().filter(entry -> !l1HitMap.containsKey(entry.getKey())).forEach(entry -> l1NotHitKeyMap.put(entry.getKey(), entry.getValue()));
+        } else {
+            l1NotHitKeyMap.putAll(keyMap);
+        }
+        if (CollectionUtil.isEmpty(l1NotHitKeyMap)) {
+            return CompletableFuture.completedFuture(this.filterNullValue(hitCacheMap, returnNullValueKey));
+        }
+        return level2Cache.<K, V>batchGetAsync(l1NotHitKeyMap, true).thenApply(l2HitMap -> {
+            if (!CollectionUtil.isEmpty(l2HitMap)) {
+                hitCacheMap.putAll(l2HitMap);
+                this.syncL2HitToL1(l1KeyMap, l2HitMap, "batchGetAsync");
+            }
+            return this.filterNullValue(hitCacheMap, returnNullValueKey);
+        });
+    }
+
     public Level1Cache getLevel1Cache() {
         return level1Cache;
     }
@@ -205,7 +538,7 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
      * @param key 缓存key
      * @return
      */
-    private boolean ifL1Open(Object key) {
+    public boolean ifL1Open(Object key) {
         // 检测开关与缓存名称
         if (ifL1Open()) {
             return true;
@@ -222,27 +555,9 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
      * @return
      */
     private boolean ifL1Open() {
-        // 判断是否开启过本地缓存
-        if (composite.isL1AllOpen() || composite.isL1Manual()) {
-            openedL1Cache.compareAndSet(false, true);
-        }
-        // 是否启用一级缓存
-        if (composite.isL1AllOpen()) {
-            return true;
-        }
-        // 是否使用手动匹配开关
-        if (composite.isL1Manual()) {
-            // 手动匹配缓存名字集合，针对cacheName维度
-            Set<String> l1ManualCacheNameSet = composite.getL1ManualCacheNameSet();
-            if (!CollectionUtil.isEmpty(l1ManualCacheNameSet) && composite.getL1ManualCacheNameSet().contains(this.getCacheName())) {
-                return true;
-            }
-        }
-        return false;
+        return getL1Route().cacheNameOpen;
     }
 
-
-
     /**
      * 本地缓存检测，检测key
      *
@@ -250,33 +565,55 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
      * @return
      */
     private boolean ifL1OpenByKey(Object key) {
-        // 是否使用手动匹配开关
-        if (composite.isL1Manual()) {
-            // 手动匹配缓存key集合，针对单个key维度
-            Set<String> l1ManualKeySet = composite.getL1ManualKeySet();
-            if (!CollectionUtil.isEmpty(l1ManualKeySet) && l1ManualKeySet.contains(buildKeyBase(key))) {
-                return true;
-            }
+        Set<String> manualKeySet = getL1Route().manualKeySet;
+        // 没有手动配置key，且没有配置热key识别，则无需 key.toString()
+        if (manualKeySet.isEmpty() && null == hotkeyService) {
+            return false;
+        }
+        if (key == null || "".equals(key)) {
+            throw new IllegalArgumentException("key不能为空");
         }
+        String keyStr = key.toString();
 
-        // 是否为热key
-        if (HotKeyFacade.isHotkey(hotkeyType, this.getLevel1Cache().getCacheType(), this.getCacheName(), key.toString())) {
+        // 手动匹配缓存key集合，针对单个key维度
+        if (!manualKeySet.isEmpty() && manualKeySet.contains(keyStr)) {
             return true;
         }
-        return false;
+
+        // 是否为热key
+        AsyncHotkeyDetector detector = this.asyncHotkeyDetector;
+        if (null != detector) {
+            return detector.isHotkey(keyStr);
+        }
+        return HotKeyFacade.isHotkey(hotkeyService, level1CacheType, this.getCacheName(), keyStr);
     }
 
     /**
-     * 构建基础缓存key
-     * 注：用于操作基本的缓存key
+     * 获取一级缓存路由快照，composite 配置的版本号变化时重建
      */
-    private Object buildKeyBase(Object key) {
-        if (key == null || "".equals(key)) {
-            throw new IllegalArgumentException("key不能为空");
+    private L1Route getL1Route() {
+        L1Route route = this.l1Route;
+        if (route.version == composite.getVersion()) {
+            return route;
         }
-        StringBuilder sb = new StringBuilder(this.getCacheName()).append(CacheConsts.SPLIT);
-        sb.append(key.toString());
-        return sb.toString();
+        return refreshL1Route();
+    }
+
+    /**
+     * 重建一级缓存路由快照
+     * 注：并发重建时可能被旧版本的快照覆盖，但下一次获取时版本号不一致会再次重建，所以无需加锁
+     */
+    private L1Route refreshL1Route() {
+        L1Route route = new L1Route(composite, this.getCacheName());
+        // 判断是否开启过本地缓存
+        if (route.opened) {
+            openedL1Cache.compareAndSet(false, true);
+        }
+        this.l1Route = route;
+        if (logger.isDebugEnabled()) {
+            logger.debug("refresh l1Route, cacheName={}, version={}, cacheNameOpen={}, manualKeySize={}", this.getCacheName(), route.version, route.cacheNameOpen, route.manualKeySet.size());
+        }
+        return route;
     }
 
     /**
@@ -285,10 +622,8 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
      * @return
      */
     private void ifEvictL1Cache(Object key) {
-        // 是否关闭配置中心一级缓存开关
-        boolean ifCloseLocalCache = !composite.isL1AllOpen() && !composite.isL1Manual();
         // 已关闭配置中心一级缓存开关，但曾经开启过本地一级缓存开关
-        if (ifCloseLocalCache && openedL1Cache.get()) {
+        if (!getL1Route().opened && openedL1Cache.get()) {
             if (logger.isDebugEnabled()) {
                 logger.debug("evict l1Cache, cacheName={}, key={}", this.getCacheName(), key);
             }
@@ -299,7 +634,12 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
     /**
      * 从L1和L2中批量获取缓存数据
      */
-    private <K, V> Map<K, V> batchGetOrLoadFromL1L2(Map<K, Object> keyMap, Function<List<K>, Map<K, V>> valueLoader, String methodName, boolean returnNullValueKey) {
+    private <K, V> Map<K, V> batchGetOrLoadFromL1L2(Map<K, Object> originKeyMap, Function<List<K>, Map<K, V>> valueLoader, String methodName, boolean returnNullValueKey) {
+        // 过滤掉不在已知key全集中的key，不访问缓存和 valueLoader
+        Map<K, Object> keyMap = this.filterUniverse(originKeyMap, methodName);
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return new HashMap<>();
+        }
         // 获取走一级缓存的key
         Map<K, Object> l1KeyMap = this.getL1KeyMap(keyMap, methodName);
 
@@ -311,6 +651,7 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
         // 一级缓存批量查询
         if (!CollectionUtil.isEmpty(l1KeyMap)) {
             Map<K, V> l1HitMap = level1Cache.batchGet(l1KeyMap, true);// 此处returnNullValueKey固定为true，不要修改防止缓存穿透
+            this.recordL1(l1HitMap.size(), l1KeyMap.size() - l1HitMap.size());
             hitCacheMap.putAll(l1HitMap);
             // 获取未命中列表（注意：此处以keyMap作为基础，过滤出来一级缓存中没有命中的key，分为两部分：一部分为不走一级缓存的key，另一部分为走一级缓存但是没有命中一级缓存的key）
             keyMap.entrySet().stream().filter(entry -> !l1HitMap.containsKey(entry.getKey())).forEach(entry -> l1NotHitKeyMap.put(entry.getKey(), entry.getValue()));
@@ -334,16 +675,7 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
             hitCacheMap.putAll(l2HitMap);// 合并数据
 
             // 二级缓存同步到一级缓存
-            if (!CollectionUtil.isEmpty(l1KeyMap)) {
-                // 从二级缓存的缓存数据中过滤出来走一级缓存的数据，将其同步到一级缓存
-                Map<Object, V> l2HitMapTemp = l2HitMap.entrySet().stream()
-                        .filter(entry -> l1KeyMap.containsKey(entry.getKey()))
-                        .collect(HashMap::new, (map, entry) -> map.put(l1KeyMap.get(entry.getKey()), entry.getValue()), HashMap::putAll);
-                if (!CollectionUtil.isEmpty(l2HitMapTemp)) {
-                    level1Cache.batchPut(l2HitMapTemp);
-                    logger.info("{} l2Cache batchPut to l1Cache, cacheName={}, cacheMapSize={}, keyList={}", methodName, this.getCacheName(), l2HitMapTemp.size(), l2HitMapTemp.keySet());
-                }
-            }
+            this.syncL2HitToL1(l1KeyMap, l2HitMap, methodName);
         }
 
         // 一级缓存与二级缓存全部命中
@@ -369,6 +701,34 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
         return this.filterNullValue(hitCacheMap, returnNullValueKey);
     }
 
+    /**
+     * 二级缓存同步到一级缓存：从二级缓存的缓存数据中过滤出来走一级缓存的数据，将其同步到一级缓存
+     */
+    private <K, V> void syncL2HitToL1(Map<K, Object> l1KeyMap, Map<K, V> l2HitMap, String methodName) {
+        if (CollectionUtil.isEmpty(l1KeyMap)) {
+            return;
+        }
+        Map<Object, V> l2HitMapTemp = l2HitMap.entrySet().stream()
+                .filter(entry -> l1KeyMap.containsKey(entry.getKey()))
+                .collect(HashMap::new, (map, entry) -> map.put(l1KeyMap.get(entry.getKey()), entry.getValue()), HashMap::putAll);
+        if (!CollectionUtil.isEmpty(l2HitMapTemp)) {
+            level1Cache.batchPut(l2HitMapTemp);
+            logger.info("{} l2Cache batchPut to l1Cache, cacheName={}, cacheMapSize={}, keyList={}", methodName, this.getCacheName(), l2HitMapTemp.size(), l2HitMapTemp.keySet());
+        }
+    }
+
+    /**
+     * 记录一级缓存的命中情况
+     * 注：L1为LoadingCache时，单key查询的命中情况由 Caffeine 的 stats() 记录
+     */
+    private void recordL1(int hits, int misses) {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        if (metrics.isEnabled()) {
+            metrics.recordHits(this.getCacheName(), CacheMetrics.LEVEL_L1, hits);
+            metrics.recordMisses(this.getCacheName(), CacheMetrics.LEVEL_L1, misses);
+        }
+    }
+
     /**
      * 获取一级缓存key
      *
@@ -411,6 +771,15 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
         if (CollectionUtil.isEmpty(dataMap)) {
             return;
         }
+        if (null != keyUniverseFilter) {
+            List<Object> keys = new ArrayList<>(dataMap.size());
+            dataMap.forEach((key, value) -> {
+                if (null != value) {
+                    keys.add(key);
+                }
+            });
+            this.addToUniverse(keys);
+        }
         // 获取一级缓存数据
         Map<Object, V> l1CacheMap = new HashMap<>();
         if (ifL1Open()) {
@@ -474,4 +843,55 @@ public class CompositeCache extends AbstractAdaptingCache implements Cache {
         }
     }
 
+    /**
+     * 一级缓存路由快照（不可变），由 composite 配置预先计算得到
+     * 注：热点路径上只读取快照中的字段，不拼接key、不查找集合、不加锁
+     */
+    private static final class L1Route {
+
+        /**
+         * 构建快照时 composite 配置的版本号
+         */
+        final long version;
+
+        /**
+         * 是否开启一级缓存开关（l1AllOpen 或 l1Manual）
+         */
+        final boolean opened;
+
+        /**
+         * 当前cacheName是否全部走一级缓存（l1AllOpen 或 l1ManualCacheNameSet 中包含当前cacheName）
+         */
+        final boolean cacheNameOpen;
+
+        /**
+         * 当前cacheName下手动配置走一级缓存的key集合，已去掉 cacheName: 前缀，未开启 l1Manual 时为空
+         */
+        final Set<String> manualKeySet;
+
+        L1Route(L2CacheConfig.Composite composite, String cacheName) {
+            // 先读取版本号，再读取配置，保证配置在读取过程中变更时，下一次获取时能够重建
+            this.version = composite.getVersion();
+            boolean l1AllOpen = composite.isL1AllOpen();
+            boolean l1Manual = composite.isL1Manual();
+            this.opened = l1AllOpen || l1Manual;
+
+            Set<String> l1ManualCacheNameSet = composite.getL1ManualCacheNameSet();
+            this.cacheNameOpen = l1AllOpen || (l1Manual && !CollectionUtil.isEmpty(l1ManualCacheNameSet) && l1ManualCacheNameSet.contains(cacheName));
+
+            Set<String> l1ManualKeySet = composite.getL1ManualKeySet();
+            if (!l1Manual || CollectionUtil.isEmpty(l1ManualKeySet)) {
+                this.manualKeySet = Collections.emptySet();
+                return;
+            }
+            String prefix = cacheName + CacheConsts.SPLIT;
+            Set<String> keySet = new HashSet<>();
+            for (String manualKey : new ArrayList<>(l1ManualKeySet)) {
+                if (null != manualKey && manualKey.startsWith(prefix)) {
+                    keySet.add(manualKey.substring(prefix.length()));
+                }
+            }
+            this.manualKeySet = keySet.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(keySet);
+        }
+    }
 }
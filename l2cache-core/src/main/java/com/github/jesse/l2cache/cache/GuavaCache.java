@@ -129,6 +129,10 @@ public class GuavaCache extends AbstractAdaptingCache implements Level1Cache {
                 Object value = ((LoadingCache) this.guavaCache).get(key);
                 logger.debug("LoadingCache.get cache, cacheName={}, key={}, value={}", this.getCacheName(), key, value);
                 return fromStoreValue(value);
+            } catch (com.google.common.cache.CacheLoader.InvalidCacheLoadException e) {
+                // CacheLoader 返回null（如二级缓存启用了负缓存，不存储NullValue），guava不缓存null，直接返回null
+                logger.debug("LoadingCache.get load null, cacheName={}, key={}", this.getCacheName(), key);
+                return null;
             } catch (ExecutionException e) {
                 throw new IllegalStateException("[GuavaCache] LoadingCache.get cache error, cacheName=" + this.getCacheName() + ", key=" + key, e);
             }
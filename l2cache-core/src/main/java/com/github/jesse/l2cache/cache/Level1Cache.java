@@ -37,11 +37,27 @@ public interface Level1Cache extends Cache {
      */
     boolean isLoadingCache();
 
+    /**
+     * 仅put到本地缓存，不发送缓存同步消息
+     * 注：用于从L2获取到缓存后回填L1的场景，与 LoadingCache 通过 CacheLoader 从L2加载数据的行为保持一致
+     */
+    default void putLocal(Object key, Object value) {
+        this.put(key, value);
+    }
+
     /**
      * 清理本地缓存
      */
     void clearLocalCache(Object key);
 
+    /**
+     * 批量清理本地缓存
+     * 注：用于处理缓存同步消息，一次清理同一个缓存下的多个key
+     */
+    default void batchClearLocalCache(Collection<Object> keys) {
+        keys.forEach(this::clearLocalCache);
+    }
+
     /**
      * 异步加载{@code key}的新值
      * 当新值加载时，get操作将继续返回原值（如果有），除非将其删除;如果新值加载成功，则替换缓存中的前一个值。
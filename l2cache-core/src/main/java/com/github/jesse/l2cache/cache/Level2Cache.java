@@ -15,4 +15,11 @@ public interface Level2Cache extends Cache {
      */
     long getExpireTime();
 
+    /**
+     * 是否启用负缓存，启用时db中不存在的key记录到负缓存中，一级缓存不再存储 NullValue
+     */
+    default boolean isNegativeCacheEnabled() {
+        return false;
+    }
+
 }
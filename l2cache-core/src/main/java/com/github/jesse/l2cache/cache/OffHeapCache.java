@@ -0,0 +1,448 @@
+package com.github.jesse.l2cache.cache;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.github.jesse.l2cache.CacheSyncPolicy;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.offheap.OffHeapStore;
+import com.github.jesse.l2cache.codec.RedisCodecSupport;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.content.NullValue;
+import com.github.jesse.l2cache.exception.L2CacheException;
+import com.github.jesse.l2cache.hotkey.AutoDetectHotKeyCache;
+import com.github.jesse.l2cache.load.CacheLoader;
+import com.github.jesse.l2cache.load.ValueLoaderWarpper;
+import com.github.jesse.l2cache.metrics.CacheMetrics;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
+import com.github.jesse.l2cache.schedule.RefreshExpiredCacheTask;
+import com.github.jesse.l2cache.schedule.RefreshSupport;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.util.LogUtil;
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
+import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 堆外一级缓存
+ * <p>
+ * 1、value序列化后存储在堆外内存（OffHeapStore），不占用堆内存，减少大量缓存数据对GC的影响
+ * 2、按容量进行LRU淘汰，每个entry有独立的过期时间，NullValue的过期时间为 min(expireTime, nullValueExpireTimeSeconds)
+ * 3、与 LoadingCache 的使用方式一致：未命中时通过 CacheLoader 从L2加载（L2未命中再执行valueLoader），同一个key同一时刻只有一个加载请求
+ * <p>
+ * 注：每次get都需要反序列化，适用于value较大、数量较多，且对GC停顿敏感的场景
+ *
+ * @author chenck
+ * @date 2026/10/16 22:10
+ */
+public class OffHeapCache extends AbstractAdaptingCache implements Level1Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCache.class);
+
+    private static final String REFRESH_POOL_NAME = "l2cache_offheap_refresh";
+
+    /**
+     * offheap config
+     */
+    private final L2CacheConfig.Offheap offheap;
+    /**
+     * 缓存加载器，用于从L2或valueLoader加载缓存
+     */
+    private final CacheLoader cacheLoader;
+    /**
+     * 缓存同步策略
+     */
+    private final CacheSyncPolicy cacheSyncPolicy;
+    /**
+     * L1 堆外存储
+     */
+    private final OffHeapStore store;
+    /**
+     * value 编解码器
+     */
+    private final Codec codec;
+    /**
+     * 正在加载的key，同一个key同一时刻只有一个加载请求，其他请求等待其结果
+     */
+    private final Map<Object, CompletableFuture<Object>> loadingMap = new ConcurrentHashMap<>();
+    /**
+     * 异步刷新线程池
+     */
+    private final ThreadPoolExecutor refreshPool;
+
+    public OffHeapCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, CacheLoader cacheLoader, CacheSyncPolicy cacheSyncPolicy,
+                        OffHeapStore store) {
+        super(cacheName, cacheConfig);
+        this.offheap = cacheConfig.getOffheap();
+        this.cacheLoader = cacheLoader;
+        this.cacheSyncPolicy = cacheSyncPolicy;
+        this.store = store;
+        this.codec = RedisCodecSupport.getCodec(offheap.getCodec());
+        this.refreshPool = ThreadPoolSupport.getPool(REFRESH_POOL_NAME, offheap.getRefreshPoolSize(), offheap.getRefreshPoolSize(), 30, 10000,
+                new ThreadPoolSupport.MyAbortPolicy(REFRESH_POOL_NAME));
+
+        if (offheap.getCleanPeriodSeconds() > 0) {
+            // 定期清理过期的entry，释放堆外内存
+            RefreshSupport.getInstance(offheap.getRefreshPoolSize())
+                    .scheduleWithFixedDelay(new RefreshExpiredCacheTask(this), 5, offheap.getCleanPeriodSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public String getCacheType() {
+        return CacheType.OFFHEAP.name().toLowerCase();
+    }
+
+    @Override
+    public OffHeapStore getActualCache() {
+        return this.store;
+    }
+
+    @Override
+    public CacheSyncPolicy getCacheSyncPolicy() {
+        return this.cacheSyncPolicy;
+    }
+
+    @Override
+    public CacheLoader getCacheLoader() {
+        return this.cacheLoader;
+    }
+
+    /**
+     * 存在 CacheLoader 时，未命中会自动加载，所以视为 LoadingCache，以便 CompositeCache 将L2设置到 CacheLoader 中
+     */
+    @Override
+    public boolean isLoadingCache() {
+        return null != this.cacheLoader;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = this.getLocal(key);
+        this.recordGet(null != value);
+        if (null != value || !isLoadingCache()) {
+            return fromStoreValue(value);
+        }
+        return fromStoreValue(this.load(key));
+    }
+
+    @Override
+    public Object getIfPresent(Object key) {
+        return fromStoreValue(this.getLocal(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (isLoadingCache()) {
+            // 将Callable设置到CacheLoader中，以便在load()中执行具体的业务方法来加载数据
+            this.cacheLoader.addValueLoader(key, valueLoader);
+        }
+        return (T) this.get(key);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        this.putLocal(key, value);
+        logger.info("put cache, cacheName={}, cacheSize={}, key={}, value={}", this.getCacheName(), store.size(), key, value);
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_REFRESH, "put"));
+        }
+    }
+
+    @Override
+    public void putLocal(Object key, Object value) {
+        if (!isAllowNullValues() && value == null) {
+            store.remove(key);
+            return;
+        }
+        Object storeValue = toStoreValue(value);
+        long expireTime = offheap.getExpireTime();
+        if (storeValue instanceof NullValue) {
+            long nullValueExpireTime = TimeUnit.SECONDS.toMillis(this.getNullValueExpireTimeSeconds());
+            expireTime = expireTime > 0 ? Math.min(expireTime, nullValueExpireTime) : nullValueExpireTime;
+        }
+        long expireAt = expireTime > 0 ? System.currentTimeMillis() + expireTime : 0;
+        if (!store.put(key, this.encode(storeValue), expireAt)) {
+            // value超过单个segment的容量，不缓存到L1，同时清理旧值避免读到过期数据
+            store.remove(key);
+            logger.warn("value is too large to put in offheap cache, cacheName={}, key={}", this.getCacheName(), key);
+        }
+    }
+
+    @Override
+    public long size() {
+        return store.size();
+    }
+
+    @Override
+    public Set<Object> keys() {
+        return store.keys();
+    }
+
+    @Override
+    public void evict(Object key) {
+        logger.info("evict cache, cacheName={}, key={}", this.getCacheName(), key);
+        store.remove(key);
+
+        // 移除热key标识
+        AutoDetectHotKeyCache.evit(this.getCacheName(), key);
+
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(key, CacheConsts.CACHE_CLEAR, "evict"));
+        }
+    }
+
+    @Override
+    public void clear() {
+        logger.info("clear cache, cacheName={}, deleteCount={}", this.getCacheName(), store.size());
+        store.clear();
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(createMessage(null, CacheConsts.CACHE_CLEAR, "clear"));
+        }
+    }
+
+    @Override
+    public boolean isExists(Object key) {
+        boolean rslt = store.containsKey(key);
+        if (logger.isDebugEnabled()) {
+            logger.debug("key is exists, cacheName={}, key={}, rslt={}", this.getCacheName(), key, rslt);
+        }
+        return rslt;
+    }
+
+    @Override
+    public void clearLocalCache(Object key) {
+        logger.info("clear local cache, cacheName={}, key={}", this.getCacheName(), key);
+        if (key == null) {
+            store.clear();
+        } else {
+            store.remove(key);
+
+            // 移除热key标识
+            AutoDetectHotKeyCache.evit(this.getCacheName(), key);
+        }
+    }
+
+    @Override
+    public <V> void batchPut(Map<Object, V> dataMap) {
+        if (CollectionUtil.isEmpty(dataMap)) {
+            return;
+        }
+        dataMap.forEach(this::putLocal);
+        logger.info("batchPut cache, cacheName={}, cacheSize={}, size={}", this.getCacheName(), store.size(), dataMap.size());
+
+        this.publishBatchMessage(new ArrayList<>(dataMap.keySet()), CacheConsts.CACHE_REFRESH, "batchPut");
+    }
+
+    @Override
+    public <K> void batchEvict(Map<K, Object> keyMap) {
+        if (CollectionUtil.isEmpty(keyMap)) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(keyMap.values());
+        logger.info("batchEvict cache, cacheName={}, size={}", this.getCacheName(), keys.size());
+        this.batchClearLocalCache(keys);
+
+        this.publishBatchMessage(keys, CacheConsts.CACHE_CLEAR, "batchEvict");
+    }
+
+    @Override
+    public <K, V> Map<K, V> batchGet(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        // 命中列表
+        Map<K, V> hitMap = new HashMap<>();
+
+        keyMap.forEach((key, cacheKey) -> {
+            // 仅仅获取，不触发加载
+            Object value = this.getLocal(cacheKey);
+
+            // value=null表示key不存在，则不将key包含在返回数据中
+            if (value == null) {
+                return;
+            }
+            V warpValue = (V) fromStoreValue(value);
+            if (warpValue != null) {
+                hitMap.put(key, warpValue);
+                return;
+            }
+            // value=NullValue，且returnNullValueKey=true，则将key包含在返回数据中
+            // 目的：batchGetOrLoad中调用batchGet时，可以过滤掉值为NullValue的key，防止缓存穿透到下一层
+            if (returnNullValueKey) {
+                hitMap.put(key, null);
+            }
+        });
+        LogUtil.log(logger, cacheConfig.getLogLevel(), "[OffHeapCache] batchGet cache, cacheName={}, cacheKeyMapSize={}, hitMapSize={}", this.getCacheName(), keyMap.size(), hitMap.size());
+        return hitMap;
+    }
+
+    @Override
+    public void refresh(Object key) {
+        if (!isLoadingCache()) {
+            return;
+        }
+        // 通过key维度的计数器，保证同一时刻一个key只会存在一个refresh任务（LoadFunction 执行完后清零）
+        ValueLoaderWarpper valueLoader = this.cacheLoader.getValueLoaderWarpper(key);
+        if (null == valueLoader) {
+            // valueLoader=null时，可以从redis加载数据
+            this.cacheLoader.addValueLoader(key, null);
+            valueLoader = this.cacheLoader.getValueLoaderWarpper(key);
+        }
+        int waitRefreshNum = valueLoader.getAndIncrement();
+        if (waitRefreshNum > 0) {
+            LogUtil.log(logger, cacheConfig.getLogLevel(), "[OffHeapCache][refresh] not do refresh, cacheName={}, key={}, waitRefreshNum={}", this.getCacheName(), key, waitRefreshNum);
+            return;
+        }
+        try {
+            refreshPool.execute(() -> {
+                try {
+                    Object value = this.cacheLoader.load(key);
+                    if (null != value) {
+                        this.putLocal(key, value);
+                    }
+                } catch (Exception e) {
+                    logger.error("[OffHeapCache][refresh] error, cacheName=" + this.getCacheName() + ", key=" + key, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            valueLoader.clearWaitRefreshNum();
+            logger.warn("[OffHeapCache][refresh] rejected, cacheName={}, key={}", this.getCacheName(), key);
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        if (isLoadingCache()) {
+            store.keys().forEach(this::refresh);
+        }
+    }
+
+    @Override
+    public void refreshExpireCache(Object key) {
+        if (isLoadingCache() && null == this.getLocal(key)) {
+            this.load(key);
+        }
+    }
+
+    /**
+     * 清理过期的entry，释放堆外内存
+     * 注：过期的entry在get时已惰性删除，所以此处不重新加载，由下一次get加载
+     */
+    @Override
+    public void refreshAllExpireCache() {
+        int expiredCount = store.removeExpired();
+        logger.info("[OffHeapCache] remove expired entries, cacheName={}, expiredCount={}, stats={}", this.getCacheName(), expiredCount, store.stats());
+    }
+
+    /**
+     * 从L2或valueLoader加载数据并put到L1
+     * 注：同一个key同一时刻只有一个加载请求，其他请求等待其结果
+     */
+    private Object load(Object key) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loadingFuture = loadingMap.putIfAbsent(key, future);
+        if (null != loadingFuture) {
+            try {
+                return loadingFuture.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            Object value = this.cacheLoader.load(key);
+            if (null != value) {
+                this.putLocal(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingMap.remove(key, future);
+        }
+    }
+
+    /**
+     * 从堆外获取并反序列化
+     */
+    private Object getLocal(Object key) {
+        byte[] bytes = store.get(key);
+        if (null == bytes) {
+            return null;
+        }
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return codec.getValueDecoder().decode(buf, new State());
+        } catch (IOException e) {
+            throw new L2CacheException("decode offheap value error, cacheName=" + this.getCacheName() + ", key=" + key, e);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private byte[] encode(Object value) {
+        ByteBuf buf = null;
+        try {
+            buf = codec.getValueEncoder().encode(value);
+            return ByteBufUtil.getBytes(buf);
+        } catch (IOException e) {
+            throw new L2CacheException("encode offheap value error, cacheName=" + this.getCacheName(), e);
+        } finally {
+            if (null != buf) {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * 记录一级缓存的命中情况
+     * 注：OffHeapCache 视为 LoadingCache，CompositeCache 中不记录
+     */
+    private void recordGet(boolean hit) {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        if (metrics.isEnabled()) {
+            metrics.recordHits(this.getCacheName(), CacheMetrics.LEVEL_L1, hit ? 1 : 0);
+            metrics.recordMisses(this.getCacheName(), CacheMetrics.LEVEL_L1, hit ? 0 : 1);
+        }
+    }
+
+    private CacheMessage createMessage(Object key, String optType, String desc) {
+        return new CacheMessage()
+                .setInstanceId(this.getInstanceId())
+                .setCacheType(this.getCacheType())
+                .setCacheName(this.getCacheName())
+                .setKey(key)
+                .setOptType(optType)
+                .setDesc(desc);
+    }
+
+    private void publishBatchMessage(List<Object> keys, String optType, String desc) {
+        if (null == cacheSyncPolicy) {
+            return;
+        }
+        for (List<Object> subKeys : Lists.partition(keys, CacheConsts.BATCH_MESSAGE_MAX_KEYS)) {
+            cacheSyncPolicy.publish(createMessage(null, optType, desc).setKeys(new ArrayList<>(subKeys)));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.jesse.l2cache.cache;
+
+import com.github.jesse.l2cache.util.pool.DaemonThreadFactory;
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 二级缓存单key读取的合并器
+ * <p>
+ * 1、get 时仅将读取请求放入本地队列，由后台线程合并
+ * 2、后台线程取到第一个请求后，最多等待 readCoalesceWindowMicros 或者凑满 readCoalesceMaxKeys 个请求，通过一个 RBatch（pipeline）批量读取，再逐个完成请求的future
+ * 3、同一批次中相同的缓存key只读取一次
+ * 4、队列已满时，直接读取redis，不阻塞调用线程
+ * <p>
+ * 5、调用 close() 或者 redissonClient 关闭后，后台线程退出，之后的读取直接访问redis
+ * <p>
+ * 注：RBatch 异步执行，后台线程不等待redis的响应，所以不会因为网络耗时降低合并的吞吐
+ * 注：请求的future在redisson的netty I/O线程上完成，这里只执行 complete()，不执行其他逻辑。
+ * 同步 get 只是唤醒阻塞的调用线程；RedissonRBucketCache.getValueAsync 通过 thenApplyAsync 切换到异步回调线程池再处理结果，
+ * 所以业务逻辑不会运行在I/O线程上。不在回调线程池上完成future，是为了避免在该线程池内调用同步 get 时线程池被占满导致死锁
+ *
+ * @author chenck
+ * @date 2026/10/16 21:00
+ */
+public class RedisReadCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisReadCoalescer.class);
+
+    /**
+     * 待合并读取请求的最大堆积数量
+     */
+    private static final int MAX_PENDING_SIZE = 100000;
+
+    /**
+     * 后台线程空闲时检查是否需要退出的间隔
+     */
+    private static final long IDLE_CHECK_MILLIS = 1000;
+
+    private final String cacheName;
+
+    private final RedissonClient redissonClient;
+
+    private final Codec codec;
+
+    private final long windowNanos;
+
+    private final int maxKeys;
+
+    private final BlockingQueue<ReadRequest> queue = new ArrayBlockingQueue<>(MAX_PENDING_SIZE);
+
+    /**
+     * 已执行的批量读取（RBatch）次数
+     */
+    private final AtomicLong flushCount = new AtomicLong();
+
+    private final Thread worker;
+
+    private volatile boolean closed;
+
+    public RedisReadCoalescer(String cacheName, RedissonClient redissonClient, Codec codec, long windowMicros, int maxKeys) {
+        this.cacheName = cacheName;
+        this.redissonClient = redissonClient;
+        this.codec = codec;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.maxKeys = Math.max(1, maxKeys);
+        this.worker = new DaemonThreadFactory("l2cache_read_coalesce_" + cacheName + "_").newThread(this::run);
+        this.worker.start();
+        logger.info("RedisReadCoalescer started, cacheName={}, windowMicros={}, maxKeys={}", cacheName, windowMicros, this.maxKeys);
+    }
+
+    /**
+     * 同步读取
+     */
+    public Object get(String cacheKey) {
+        try {
+            return this.getAsync(cacheKey).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 异步读取
+     */
+    public CompletableFuture<Object> getAsync(String cacheKey) {
+        if (closed) {
+            return this.readDirect(cacheKey);
+        }
+        ReadRequest request = new ReadRequest(cacheKey);
+        if (!queue.offer(request)) {
+            return this.readDirect(cacheKey);
+        }
+        // 入队后才发现已关闭，后台线程可能已退出，由当前线程兜底处理
+        if (closed) {
+            this.drainPending();
+        }
+        return request.future;
+    }
+
+    /**
+     * 停止后台线程，队列中剩余的请求直接读取redis
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        worker.interrupt();
+        this.drainPending();
+        logger.info("RedisReadCoalescer closed, cacheName={}", cacheName);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    private void run() {
+        List<ReadRequest> requestList = new ArrayList<>(maxKeys);
+        while (!closed) {
+            try {
+                ReadRequest first = queue.poll(IDLE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (null == first) {
+                    // redisson关闭后后台线程随之退出，避免线程泄漏
+                    if (redissonClient.isShutdown()) {
+                        closed = true;
+                        logger.info("RedisReadCoalescer stopped as redisson is shutdown, cacheName={}", cacheName);
+                    }
+                    continue;
+                }
+                requestList.add(first);
+                queue.drainTo(requestList, maxKeys - requestList.size());
+                if (requestList.size() < maxKeys && windowNanos > 0) {
+                    LockSupport.parkNanos(windowNanos);
+                    queue.drainTo(requestList, maxKeys - requestList.size());
+                }
+                this.flush(requestList);
+            } catch (InterruptedException e) {
+                if (!closed) {
+                    logger.warn("RedisReadCoalescer interrupted, cacheName={}", cacheName);
+                }
+                closed = true;
+                break;
+            } catch (Throwable e) {
+                logger.error("RedisReadCoalescer flush error, cacheName=" + cacheName, e);
+                requestList.forEach(request -> request.future.completeExceptionally(e));
+            }
+            requestList = new ArrayList<>(maxKeys);
+        }
+        requestList.forEach(this::readDirect);
+        this.drainPending();
+    }
+
+    /**
+     * 关闭后处理队列中剩余的请求，直接读取redis
+     */
+    private void drainPending() {
+        ReadRequest request;
+        while ((request = queue.poll()) != null) {
+            this.readDirect(request);
+        }
+    }
+
+    private CompletableFuture<Object> readDirect(String cacheKey) {
+        if (redissonClient.isShutdown()) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("redisson is shutdown, cacheName=" + cacheName));
+            return future;
+        }
+        return redissonClient.getBucket(cacheKey, codec).getAsync().toCompletableFuture();
+    }
+
+    private void readDirect(ReadRequest request) {
+        this.readDirect(request.cacheKey).whenComplete((value, exception) -> {
+            if (exception != null) {
+                request.future.completeExceptionally(exception);
+            } else {
+                request.future.complete(value);
+            }
+        });
+    }
+
+    /**
+     * 通过一个 RBatch 批量读取
+     */
+    private void flush(List<ReadRequest> requestList) {
+        flushCount.incrementAndGet();
+        RBatch batch = redissonClient.createBatch();
+        // <cacheKey, 在batch响应中的下标>
+        Map<String, Integer> indexMap = new HashMap<>(requestList.size() * 2);
+        for (ReadRequest request : requestList) {
+            if (!indexMap.containsKey(request.cacheKey)) {
+                indexMap.put(request.cacheKey, indexMap.size());
+                batch.getBucket(request.cacheKey, codec).getAsync();
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("RedisReadCoalescer flush, cacheName={}, requestSize={}, keySize={}", cacheName, requestList.size(), indexMap.size());
+        }
+        batch.executeAsync().toCompletableFuture().whenComplete((result, exception) -> {
+            for (ReadRequest request : requestList) {
+                if (exception != null) {
+                    request.future.completeExceptionally(exception);
+                } else {
+                    request.future.complete(result.getResponses().get(indexMap.get(request.cacheKey)));
+                }
+            }
+        });
+    }
+
+    private static class ReadRequest {
+        private final String cacheKey;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        ReadRequest(String cacheKey) {
+            this.cacheKey = cacheKey;
+        }
+    }
+}
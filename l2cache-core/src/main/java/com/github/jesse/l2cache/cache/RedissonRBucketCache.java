@@ -2,24 +2,59 @@ package com.github.jesse.l2cache.cache;
 
 import cn.hutool.core.collection.CollectionUtil;
 import com.github.jesse.l2cache.Cache;
+import com.github.jesse.l2cache.CacheSyncPolicy;
 import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.negative.NegativeCache;
+import com.github.jesse.l2cache.codec.RedisCodecSupport;
 import com.github.jesse.l2cache.consts.CacheConsts;
 import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.content.LogicalExpireValue;
 import com.github.jesse.l2cache.content.NullValue;
+import com.github.jesse.l2cache.exception.L2CacheException;
 import com.github.jesse.l2cache.exception.RedisTrylockFailException;
+import com.github.jesse.l2cache.load.RedisSingleFlight;
 import com.github.jesse.l2cache.load.ValueLoaderWarpper;
 import com.github.jesse.l2cache.load.ValueLoaderWarpperTemp;
+import com.github.jesse.l2cache.metrics.CacheMetrics;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
+import com.github.jesse.l2cache.schedule.RefreshSupport;
+import com.github.jesse.l2cache.sync.CacheMessage;
 import com.github.jesse.l2cache.util.BiConsumerWrapper;
+import com.github.jesse.l2cache.util.EarlyRefreshUtil;
 import com.github.jesse.l2cache.util.LogUtil;
+import com.github.jesse.l2cache.util.NullValueUtil;
+import com.github.jesse.l2cache.util.RedisSlotUtil;
 import com.github.jesse.l2cache.util.SpringCacheExceptionUtil;
+import com.github.jesse.l2cache.util.Tuple2;
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.RateLimiter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.redisson.api.*;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Redisson RBucket Cache
@@ -49,6 +84,77 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
      */
     private RMap<Object, Object> map;
 
+    /**
+     * 是否为cluster模式，multikey批量模式下，cluster模式需按slot对key分组
+     */
+    private final boolean cluster;
+
+    /**
+     * value 的编解码器，未配置 redis.codec/redis.compressType 时为 redissonClient 全局配置的codec
+     */
+    private final Codec codec;
+
+    /**
+     * 集群维度的single-flight，redis.singleFlight=true、redis.staleWhileRevalidate=true 或 earlyRefreshBeta>0 时不为null
+     */
+    private RedisSingleFlight singleFlight;
+
+    /**
+     * 单key读取的合并器，redis.readCoalesce=true 时不为null
+     */
+    private RedisReadCoalescer readCoalescer;
+
+    /**
+     * 本节点正在异步刷新（旧值或提前刷新）的缓存key
+     */
+    private final Set<String> refreshingKeySet = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 异步刷新的线程池名称
+     */
+    private static final String STALE_REFRESH_POOL_NAME = "l2cache_stale_refresh";
+
+    /**
+     * 清理旧代数key的线程池名称
+     */
+    private static final String GENERATION_SWEEP_POOL_NAME = "l2cache_generation_sweep";
+
+    /**
+     * 异步API回调的线程池名称：redisson的future在netty的I/O线程中完成，后续的解码、回填一级缓存、日志等回调切换到该线程池执行，避免阻塞I/O线程
+     */
+    private static final String ASYNC_CALLBACK_POOL_NAME = "l2cache_async_callback";
+
+    /**
+     * 命名空间代数计数器，redis.generationEnabled=true 时不为null
+     */
+    private RAtomicLong generationCounter;
+
+    /**
+     * 本节点当前的命名空间代数
+     */
+    private volatile long generation;
+
+    /**
+     * 缓存同步策略，用于代数模式下通知其他节点代数变更
+     */
+    private CacheSyncPolicy cacheSyncPolicy;
+
+    /**
+     * 负缓存，negative.enabled=true 时不为null，db中不存在的key记录到负缓存中，一级缓存和redis中不再存储 NullValue
+     */
+    private NegativeCache negativeCache;
+
+    /**
+     * multikey批量模式下，批量put的Lua脚本，KEYS为缓存key，ARGV[2i-1]为KEYS[i]的过期时间(ms)，ARGV[2i]为KEYS[i]的value
+     * 注：value已按当前缓存的codec编码，所以读取时与RBucket兼容；每个key单独的过期时间，以支持 expireJitterRatio
+     */
+    private static final String BATCH_SET_SCRIPT = "for i = 1, #KEYS do "
+            + "local ttl = tonumber(ARGV[i * 2 - 1]) "
+            + "if ttl > 0 then redis.call('set', KEYS[i], ARGV[i * 2], 'px', ttl) "
+            + "else redis.call('set', KEYS[i], ARGV[i * 2]) end "
+            + "end "
+            + "return #KEYS";
+
     public RedissonRBucketCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig, RedissonClient redissonClient) {
         super(cacheName, cacheConfig);
         this.redis = cacheConfig.getRedis();
@@ -56,6 +162,78 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         if (redis.isLock()) {
             map = redissonClient.getMap(cacheName);
         }
+        this.cluster = redissonClient.getConfig().isClusterConfig();
+        this.codec = RedisCodecSupport.getCodec(cacheName, redis, redissonClient.getConfig().getCodec());
+        if (redis.isSingleFlight() || redis.isStaleWhileRevalidate() || cacheConfig.getEarlyRefreshBeta() > 0) {
+            this.singleFlight = RedisSingleFlight.getInstance(redissonClient);
+        }
+        if (redis.isReadCoalesce()) {
+            this.readCoalescer = new RedisReadCoalescer(cacheName, redissonClient, codec, redis.getReadCoalesceWindowMicros(), redis.getReadCoalesceMaxKeys());
+        }
+        if (redis.isGenerationEnabled()) {
+            this.generationCounter = redissonClient.getAtomicLong(CacheConsts.PREFIX_GENERATION + cacheName);
+            this.generation = generationCounter.get();
+            // 定期从redis同步代数，兜底缓存同步消息丢失的场景
+            RefreshSupport.getInstance(cacheConfig.getCaffeine().getRefreshPoolSize())
+                    .scheduleWithFixedDelay(this::syncGeneration, redis.getGenerationCheckSeconds(), redis.getGenerationCheckSeconds(), TimeUnit.SECONDS);
+            logger.info("RedissonRBucketCache enable generation, cacheName={}, generation={}", cacheName, generation);
+        }
+        if (cacheConfig.getNegative().isEnabled()) {
+            this.negativeCache = new NegativeCache(cacheName, cacheConfig.getNegative(), redissonClient,
+                    RefreshSupport.getInstance(cacheConfig.getCaffeine().getRefreshPoolSize()));
+        }
+    }
+
+    @Override
+    public boolean isNegativeCacheEnabled() {
+        return null != negativeCache;
+    }
+
+    public RedissonRBucketCache setCacheSyncPolicy(CacheSyncPolicy cacheSyncPolicy) {
+        this.cacheSyncPolicy = cacheSyncPolicy;
+        return this;
+    }
+
+    /**
+     * 释放缓存持有的后台线程（读取合并器）
+     * 注：未调用时，redissonClient 关闭后读取合并器的后台线程也会自动退出
+     */
+    public void close() {
+        if (null != readCoalescer) {
+            readCoalescer.close();
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 更新本节点的代数，只增不减
+     */
+    public synchronized void updateGeneration(long newGeneration) {
+        if (newGeneration > this.generation) {
+            logger.info("update generation, cacheName={}, oldGeneration={}, generation={}", this.getCacheName(), this.generation, newGeneration);
+            this.generation = newGeneration;
+        }
+    }
+
+    private void syncGeneration() {
+        try {
+            this.updateGeneration(generationCounter.get());
+        } catch (Exception e) {
+            logger.warn("sync generation error, cacheName={}, error={}", this.getCacheName(), e.getMessage());
+        }
+    }
+
+    /**
+     * redis key 的前缀，代数模式下为 cacheName:generation:，否则为 cacheName:
+     */
+    private String keyPrefix() {
+        if (null == generationCounter) {
+            return this.getCacheName() + CacheConsts.SPLIT;
+        }
+        return this.getCacheName() + CacheConsts.SPLIT + generation + CacheConsts.SPLIT;
     }
 
     @Override
@@ -68,8 +246,7 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         if (key == null || "".equals(key)) {
             throw new IllegalArgumentException("key不能为空");
         }
-        StringBuilder cacheKey = new StringBuilder(this.getCacheName()).append(CacheConsts.SPLIT).append(key.toString());
-        return cacheKey.toString();
+        return this.keyPrefix() + key.toString();
     }
 
     @Override
@@ -88,14 +265,37 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
      * @param cacheKey 已经拼接好的缓存key
      */
     private RBucket<Object> getBucket(String cacheKey) {
-        RBucket<Object> bucket = redissonClient.getBucket(cacheKey);
+        RBucket<Object> bucket = redissonClient.getBucket(cacheKey, codec);
         return bucket;
     }
 
+    /**
+     * 读取缓存值，开启 readCoalesce 时合并读取
+     */
+    private Object getValue(String cacheKey) {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        Object value = null != readCoalescer ? readCoalescer.get(cacheKey) : getBucket(cacheKey).get();
+        this.recordGet(metrics, "get", start, 1, null == value ? 0 : 1);
+        return value;
+    }
+
+    private CompletableFuture<Object> getValueAsync(String cacheKey) {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        CompletableFuture<Object> future = null != readCoalescer ? readCoalescer.getAsync(cacheKey) : getBucket(cacheKey).getAsync().toCompletableFuture();
+        return future.thenApplyAsync(value -> {
+            if (metrics.isEnabled()) {
+                this.recordGet(metrics, "get", start, 1, null == value ? 0 : 1);
+            }
+            return value;
+        }, asyncExecutor());
+    }
+
     @Override
     public Object get(Object key) {
         String cacheKey = (String) buildKey(key);
-        Object value = getBucket(cacheKey).get();
+        Object value = this.getValue(cacheKey);
         LogUtil.logDetailPrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] get cache, cacheName={}, key={}, value={}", this.getCacheName(), cacheKey, value);
         return fromStoreValue(value);
     }
@@ -116,9 +316,12 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
     public <T> T get(Object key, Callable<T> valueLoader) {
         String cacheKey = (String) buildKey(key);
         RBucket<Object> bucket = getBucket(cacheKey);
-        Object value = bucket.get();
+        Object value = this.getValue(cacheKey);
         if (value != null) {
             LogUtil.logDetailPrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] get(key, callable) from redis, cacheName={}, key={}, value={}", this.getCacheName(), cacheKey, value);
+            if (this.canLoad(valueLoader)) {
+                this.refreshIfNeed(key, cacheKey, value, valueLoader);
+            }
             return (T) fromStoreValue(value);
         }
         if (null == valueLoader) {
@@ -138,6 +341,14 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
                 return null;
             }
         }
+        // 负缓存：db中不存在的key，直接返回null，不加载数据
+        if (null != negativeCache && negativeCache.mightContain(cacheKey)) {
+            LogUtil.log(logger, cacheConfig.getLogLevel(), "[RedissonRBucketCache] get(key, callable) hit negative cache, return null, cacheName={}, key={}", this.getCacheName(), cacheKey);
+            return null;
+        }
+        if (null != singleFlight) {
+            return (T) fromStoreValue(this.getBySingleFlight(key, cacheKey, valueLoader));
+        }
         RLock lock = null;
         if (redis.isLock() && null != map) {
             // 增加分布式锁，集群环境下同一时刻只会有一个加载数据的线程，解决ABA的问题，保证一级缓存二级缓存数据的一致性
@@ -160,17 +371,7 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
                 if (logger.isDebugEnabled()) {
                     logger.debug("rlock, load data from target method, cacheName={}, key={}, isLock={}", this.getCacheName(), cacheKey, redis.isLock());
                 }
-                value = valueLoader.call();
-                if (logger.isDebugEnabled()) {
-                    logger.debug("rlock, cacheName={}, key={}, value={}, isLock={}", this.getCacheName(), cacheKey, value, redis.isLock());
-                }
-
-                // redis和db都为null，那么不发送消息，减少不必要的通信
-                if (value == null && valueLoader instanceof ValueLoaderWarpperTemp) {
-                    ((ValueLoaderWarpperTemp) valueLoader).setPublishMsg(false);
-                    logger.warn("redis and db load value both is null, not need to publish message, cacheName={}, key={}, value={}", this.getCacheName(), cacheKey, value);
-                }
-                this.put(key, value);
+                value = this.loadAndPut(key, cacheKey, valueLoader);
             }
         } catch (Exception ex) {
             // 将异常包装spring cache异常
@@ -183,19 +384,118 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         return (T) fromStoreValue(value);
     }
 
+    /**
+     * 通过集群维度的single-flight获取或加载数据
+     * 1、value已存在则直接返回
+     * 2、加锁成功则执行加载，加载完成后释放锁并通知其他等待的请求
+     * 3、其他请求正在加载时，等待完成通知后读取redis；加载失败或者等待超时后再尝试一次，仍未成功则自行加载数据，保证不返回错误的null值
+     *
+     * @return redis中存储的值或者valueLoader加载的值
+     */
+    private Object getBySingleFlight(Object key, String cacheKey, Callable<?> valueLoader) {
+        String token = singleFlight.newToken();
+        Tuple2<Boolean, Object> result = singleFlight.acquireOrGet(cacheKey, token, redis.getSingleFlightLeaseMillis(), codec);
+        if (!result.getT1()) {
+            if (null != result.getT2()) {
+                return result.getT2();
+            }
+            CompletableFuture<Boolean> future = singleFlight.register(cacheKey);
+            // 注册后再读一次，避免在注册之前已加载完成而错过通知
+            Object value = getBucket(cacheKey).get();
+            if (null != value) {
+                singleFlight.unregister(cacheKey, future);
+                return value;
+            }
+            Boolean success = singleFlight.await(cacheKey, future, redis.getSingleFlightWaitMillis());
+            value = getBucket(cacheKey).get();
+            // 加载成功，但value为null（不允许缓存null值时），直接返回null
+            if (null != value || Boolean.TRUE.equals(success)) {
+                LogUtil.log(logger, cacheConfig.getLogLevel(), "[RedissonRBucketCache] single flight wait end, cacheName={}, key={}, success={}", this.getCacheName(), cacheKey, success);
+                return value;
+            }
+            result = singleFlight.acquireOrGet(cacheKey, token, redis.getSingleFlightLeaseMillis(), codec);
+            if (!result.getT1()) {
+                if (null != result.getT2()) {
+                    return result.getT2();
+                }
+                logger.warn("single flight wait timeout or winner load fail, load data directly, cacheName={}, key={}, success={}", this.getCacheName(), cacheKey, success);
+                try {
+                    return this.loadAndPut(key, cacheKey, valueLoader);
+                } catch (Exception ex) {
+                    throw SpringCacheExceptionUtil.warpper(key, valueLoader, ex);
+                }
+            }
+        }
+        boolean success = false;
+        try {
+            Object value = this.loadAndPut(key, cacheKey, valueLoader);
+            success = true;
+            return value;
+        } catch (Exception ex) {
+            throw SpringCacheExceptionUtil.warpper(key, valueLoader, ex);
+        } finally {
+            singleFlight.release(cacheKey, token, success);
+        }
+    }
+
+    /**
+     * 执行valueLoader加载数据，并put到redis
+     */
+    private Object loadAndPut(Object key, String cacheKey, Callable<?> valueLoader) throws Exception {
+        long start = System.currentTimeMillis();
+        Object value;
+        if (valueLoader instanceof ValueLoaderWarpperTemp) {
+            // ValueLoaderWarpper 中已记录加载指标
+            value = valueLoader.call();
+        } else {
+            value = this.callAndRecord(valueLoader);
+        }
+        long loadMillis = System.currentTimeMillis() - start;
+        if (logger.isDebugEnabled()) {
+            logger.debug("load data from target method, cacheName={}, key={}, value={}", this.getCacheName(), cacheKey, value);
+        }
+
+        // redis和db都为null，那么不发送消息，减少不必要的通信
+        if (value == null && valueLoader instanceof ValueLoaderWarpperTemp) {
+            ((ValueLoaderWarpperTemp) valueLoader).setPublishMsg(false);
+            logger.warn("redis and db load value both is null, not need to publish message, cacheName={}, key={}, value={}", this.getCacheName(), cacheKey, value);
+        }
+        this.put(key, value, loadMillis);
+        return value;
+    }
+
     @Override
     public void put(Object key, Object value) {
+        this.put(key, value, 0);
+    }
+
+    /**
+     * @param loadMillis 加载value的耗时(ms)，用于概率提前刷新，0表示未知
+     */
+    private void put(Object key, Object value, long loadMillis) {
         String cacheKey = (String) buildKey(key);
         RBucket<Object> bucket = getBucket(cacheKey);
+        if (null != negativeCache && NullValueUtil.isNull(value)) {
+            // 记录到负缓存，不存储 NullValue
+            boolean flag = bucket.delete();
+            this.putNegative(Collections.singletonList(key));
+            logger.info("put negative cache, cacheName={}, key={}, delete={}", this.getCacheName(), cacheKey, flag);
+            return;
+        }
         if (!isAllowNullValues() && value == null) {
             boolean flag = bucket.delete();
             logger.warn("delete cache, cacheName={}, key={}, value={}, delete={}", this.getCacheName(), cacheKey, value, flag);
             return;
         }
+        this.bypassNegative(Collections.singletonList(key));
 
         value = toStoreValue(value);
         // 过期时间处理
         long expireTime = this.expireTimeDeal(value);
+        value = this.wrapLogicalExpire(value, expireTime, loadMillis);
+        expireTime = this.physicalExpireTime(value, expireTime);
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
         if (expireTime > 0) {
             Object oldValue = bucket.getAndSet(value, expireTime, TimeUnit.MILLISECONDS);
             logger.info("put cache, cacheName={}, expireTime={} ms, key={}, value={}, oldValue={}", this.getCacheName(), expireTime, cacheKey, value, oldValue);
@@ -203,6 +503,7 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
             Object oldValue = bucket.getAndSet(value);
             logger.info("put cache, cacheName={}, key={}, value={}, oldValue={}", this.getCacheName(), cacheKey, value, oldValue);
         }
+        this.recordLatency(metrics, "put", start);
     }
 
     @Override
@@ -214,8 +515,17 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         String cacheKey = (String) buildKey(key);
         RBucket<Object> bucket = getBucket(cacheKey);
         Object oldValue = bucket.get();
+        if (null != negativeCache && NullValueUtil.isNull(value)) {
+            // 记录到负缓存，不存储 NullValue
+            if (null == oldValue) {
+                this.putNegative(Collections.singletonList(key));
+            }
+            return fromStoreValue(oldValue);
+        }
         // 过期时间处理
         long expireTime = this.expireTimeDeal(value);
+        value = this.wrapLogicalExpire(value, expireTime);
+        expireTime = this.physicalExpireTime(value, expireTime);
         boolean rslt = false;
         if (expireTime > 0) {
             rslt = bucket.trySet(value, expireTime, TimeUnit.MILLISECONDS);
@@ -224,18 +534,33 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
             rslt = bucket.trySet(value);
             logger.info("putIfAbsent cache, cacheName={}, rslt={}, key={}, value={}, oldValue={}", this.getCacheName(), rslt, cacheKey, value, oldValue);
         }
+        if (rslt) {
+            this.bypassNegative(Collections.singletonList(key));
+        }
         return fromStoreValue(oldValue);
     }
 
     @Override
     public void evict(Object key) {
         String cacheKey = (String) buildKey(key);
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
         boolean result = getBucket(cacheKey).delete();
+        this.recordLatency(metrics, "evict", start);
+        this.bypassNegative(Collections.singletonList(key));
         logger.info("evict cache, cacheName={}, key={}, result={}", this.getCacheName(), cacheKey, result);
     }
 
     @Override
     public void clear() {
+        if (null != negativeCache) {
+            negativeCache.clear();
+            this.publishNegative(Collections.emptyList(), CacheConsts.NEGATIVE_CLEAR);
+        }
+        if (null != generationCounter) {
+            this.clearByGeneration();
+            return;
+        }
         String pattern = this.getCacheName() + CacheConsts.SPLIT + CacheConsts.ASTERISK;
 
         logger.warn("clear cache start, pattern={}", pattern);
@@ -247,6 +572,116 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         logger.warn("clear cache end, pattern={}, deleteCount={}", pattern, deleteCount);
     }
 
+    /**
+     * 代数模式下的clear：代数计数器加1，并通知其他节点，旧代数的key不再被访问
+     * 注：旧代数的key由过期时间回收，generationSweepQps>0 时再由后台任务限速删除
+     */
+    private void clearByGeneration() {
+        long oldGeneration = this.generation;
+        long newGeneration = generationCounter.incrementAndGet();
+        this.updateGeneration(newGeneration);
+        logger.warn("clear cache by generation, cacheName={}, oldGeneration={}, generation={}", this.getCacheName(), oldGeneration, newGeneration);
+
+        if (null != cacheSyncPolicy) {
+            cacheSyncPolicy.publish(new CacheMessage()
+                    .setInstanceId(this.getInstanceId())
+                    .setCacheType(this.getCacheType())
+                    .setCacheName(this.getCacheName())
+                    .setKey(newGeneration)
+                    .setOptType(CacheConsts.CACHE_GENERATION)
+                    .setDesc("clear"));
+        }
+        if (redis.getGenerationSweepQps() > 0) {
+            this.sweepGeneration(newGeneration - 1);
+        }
+    }
+
+    /**
+     * 后台限速删除指定代数的key
+     * 注：单线程执行，通过 SCAN 遍历，UNLINK 在redis后台线程释放内存
+     */
+    private void sweepGeneration(long staleGeneration) {
+        String pattern = this.getCacheName() + CacheConsts.SPLIT + staleGeneration + CacheConsts.SPLIT + CacheConsts.ASTERISK;
+        try {
+            ThreadPoolSupport.getPool(GENERATION_SWEEP_POOL_NAME, 1, 1, 60, 100, new ThreadPoolSupport.MyAbortPolicy(GENERATION_SWEEP_POOL_NAME)).execute(() -> {
+                long start = System.currentTimeMillis();
+                RateLimiter rateLimiter = RateLimiter.create(redis.getGenerationSweepQps());
+                RKeys keys = redissonClient.getKeys();
+                List<String> batch = new ArrayList<>(redis.getBatchPageSize());
+                long deleteCount = 0;
+                for (String key : keys.getKeysByPattern(pattern, redis.getBatchPageSize())) {
+                    batch.add(key);
+                    if (batch.size() >= redis.getBatchPageSize()) {
+                        rateLimiter.acquire(batch.size());
+                        deleteCount += keys.unlink(batch.toArray(new String[0]));
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    rateLimiter.acquire(batch.size());
+                    deleteCount += keys.unlink(batch.toArray(new String[0]));
+                }
+                logger.warn("sweep generation end, pattern={}, deleteCount={}, cost={}ms", pattern, deleteCount, System.currentTimeMillis() - start);
+            });
+        } catch (Exception e) {
+            logger.warn("sweep generation error, pattern={}, error={}", pattern, e.getMessage());
+        }
+    }
+
+    /**
+     * 通过 SCAN 流式遍历当前cacheName下的key，返回去掉cacheName前缀（代数模式下包括代数）后的key，用于预热等场景
+     * 注：非Batch模式，每次 SCAN 最多加载 count 个key，遍历过程中不会阻塞redis
+     */
+    public Iterator<String> scanKeys(int count) {
+        String prefix = this.keyPrefix();
+        Iterator<String> iterator = redissonClient.getKeys().getKeysByPattern(prefix + CacheConsts.ASTERISK, count).iterator();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return iterator.next().substring(prefix.length());
+            }
+        };
+    }
+
+    /**
+     * 保存热key到redis（zset，score为保存时间），只保留最近的 maxKeys 个，用于重启后预热
+     */
+    public void saveHotKeys(Collection<String> keys, int maxKeys, long expireSeconds) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Double> scoreMap = new HashMap<>(keys.size() * 2);
+        keys.forEach(key -> scoreMap.put(key, (double) now));
+        RBatch batch = redissonClient.createBatch();
+        RScoredSortedSetAsync<String> hotKeySet = batch.getScoredSortedSet(this.hotKeySetKey(), StringCodec.INSTANCE);
+        hotKeySet.addAllAsync(scoreMap);
+        hotKeySet.removeRangeByRankAsync(0, -maxKeys - 1);
+        if (expireSeconds > 0) {
+            hotKeySet.expireAsync(Duration.ofSeconds(expireSeconds));
+        }
+        batch.execute();
+    }
+
+    /**
+     * 获取保存在redis中的热key，按保存时间倒序，最多 maxKeys 个
+     */
+    public Collection<String> hotKeys(int maxKeys) {
+        if (maxKeys <= 0) {
+            return Collections.emptyList();
+        }
+        return redissonClient.<String>getScoredSortedSet(this.hotKeySetKey(), StringCodec.INSTANCE).valueRangeReversed(0, maxKeys - 1);
+    }
+
+    private String hotKeySetKey() {
+        return CacheConsts.PREFIX_HOTKEY + this.getCacheName();
+    }
+
     @Override
     public boolean isExists(Object key) {
         String cacheKey = (String) buildKey(key);
@@ -257,6 +692,75 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         return rslt;
     }
 
+    @Override
+    public CompletableFuture<Object> getAsync(Object key) {
+        String cacheKey = (String) buildKey(key);
+        return this.getValueAsync(cacheKey).thenApply(value -> {
+            LogUtil.logDetailPrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] getAsync cache, cacheName={}, key={}, value={}", this.getCacheName(), cacheKey, value);
+            return fromStoreValue(value);
+        });
+    }
+
+    /**
+     * 注：异步加载时不加分布式锁（redis.lock），并发的加载请求会各自执行valueLoader
+     */
+    @Override
+    public <T> CompletableFuture<T> getAsync(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        String cacheKey = (String) buildKey(key);
+        return this.getValueAsync(cacheKey).thenCompose(value -> {
+            // value=NullValue时也表示命中，直接返回null，防止缓存穿透
+            if (value != null) {
+                if (null != valueLoader) {
+                    this.refreshIfNeed(key, cacheKey, value, () -> valueLoader.get().join());
+                }
+                return CompletableFuture.completedFuture((T) fromStoreValue(value));
+            }
+            if (null == valueLoader) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return valueLoader.get().thenCompose(loadValue -> this.putAsync(key, loadValue).thenApply(result -> loadValue));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        String cacheKey = (String) buildKey(key);
+        RBucket<Object> bucket = getBucket(cacheKey);
+        if (null != negativeCache && NullValueUtil.isNull(value)) {
+            // 记录到负缓存，不存储 NullValue
+            this.putNegative(Collections.singletonList(key));
+            return bucket.deleteAsync().toCompletableFuture().thenApplyAsync(flag -> {
+                logger.info("putAsync negative cache, cacheName={}, key={}, delete={}", this.getCacheName(), cacheKey, flag);
+                return null;
+            }, asyncExecutor());
+        }
+        if (!isAllowNullValues() && value == null) {
+            return bucket.deleteAsync().toCompletableFuture().thenApplyAsync(flag -> {
+                logger.warn("delete cache, cacheName={}, key={}, value={}, delete={}", this.getCacheName(), cacheKey, value, flag);
+                return null;
+            }, asyncExecutor());
+        }
+        this.bypassNegative(Collections.singletonList(key));
+        Object tempValue = toStoreValue(value);
+        // 过期时间处理
+        long logicalExpireTime = this.expireTimeDeal(tempValue);
+        Object storeValue = this.wrapLogicalExpire(tempValue, logicalExpireTime);
+        long expireTime = this.physicalExpireTime(storeValue, logicalExpireTime);
+        RFuture<Void> future = expireTime > 0 ? bucket.setAsync(storeValue, expireTime, TimeUnit.MILLISECONDS) : bucket.setAsync(storeValue);
+        return future.toCompletableFuture().thenApplyAsync(result -> {
+            logger.info("putAsync cache, cacheName={}, expireTime={} ms, key={}, value={}", this.getCacheName(), expireTime, cacheKey, storeValue);
+            return null;
+        }, asyncExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(Object key) {
+        String cacheKey = (String) buildKey(key);
+        return getBucket(cacheKey).deleteAsync().toCompletableFuture().thenApplyAsync(result -> {
+            logger.info("evictAsync cache, cacheName={}, key={}, result={}", this.getCacheName(), cacheKey, result);
+            return null;
+        }, asyncExecutor());
+    }
 
     /**
      * 批量get
@@ -268,23 +772,47 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
      */
     @Override
     public <K, V> Map<K, V> batchGet(Map<K, Object> keyMap, boolean returnNullValueKey) {
-        // 命中列表
-        Map<K, V> hitMap = new HashMap<>();
+        // 同步调用直接在当前线程等待，不经过回调线程池
+        return this.join(this.batchGetFuture(keyMap, returnNullValueKey));
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Map<K, V>> batchGetAsync(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        return this.<K, V>batchGetFuture(keyMap, returnNullValueKey).thenApplyAsync(hitMap -> hitMap, asyncExecutor());
+    }
+
+    private <K, V> CompletableFuture<Map<K, V>> batchGetFuture(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        if (!metrics.isEnabled() || CollectionUtil.isEmpty(keyMap)) {
+            return this.doBatchGetAsync(keyMap, returnNullValueKey);
+        }
+        long start = System.nanoTime();
+        metrics.recordBatchSize(this.getCacheName(), "batchGet", keyMap.size());
+        return this.<K, V>doBatchGetAsync(keyMap, returnNullValueKey).thenApply(hitMap -> {
+            this.recordGet(metrics, "batchGet", start, keyMap.size(), hitMap.size());
+            return hitMap;
+        });
+    }
+
+    private <K, V> CompletableFuture<Map<K, V>> doBatchGetAsync(Map<K, Object> keyMap, boolean returnNullValueKey) {
+        // 命中列表，并行执行分页时会在多个netty线程中回调写入，所以需保证线程安全（注：value可能为null，所以不使用ConcurrentHashMap）
+        Map<K, V> hitMap = Collections.synchronizedMap(new HashMap<>());
 
         // 查询参数为空
         if (CollectionUtil.isEmpty(keyMap)) {
             logger.info("batchGet cache keyMap is null, cacheName={}, keyMap={}", this.getCacheName(), keyMap);
-            return hitMap;
+            return CompletableFuture.completedFuture(hitMap);
+        }
+        if (this.isMultiKeyBatchMode()) {
+            return this.batchGetByMultiKey(keyMap, hitMap, returnNullValueKey);
         }
         // 集合切分
         List<List<K>> keyListCollect = Lists.partition(new ArrayList<>(keyMap.keySet()), redis.getBatchPageSize());
 
-        // for循环分执行batch,减少瞬间redisson的netty堆外内存溢出
-        keyListCollect.forEach(keyList -> {
-            RBatch batch = redissonClient.createBatch();
+        return this.executeBatchAsync(keyListCollect, (batch, keyList) -> {
             keyList.forEach(key -> {
                 String cacheKey = (String) buildKey(keyMap.get(key));
-                RFuture<Object> async = batch.getBucket(cacheKey).getAsync();
+                RFuture<Object> async = batch.getBucket(cacheKey, codec).getAsync();
                 // 注：onComplete() 是在 batch.execute() 执行之后执行的，所以其中的操作不会增加batch操作的耗时。
                 async.onComplete(new BiConsumerWrapper((value, exception) -> {
                     if (exception != null) {
@@ -313,27 +841,38 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
                     }
                 }));
             });
-            BatchResult result = batch.execute();
-            LogUtil.logDetailPrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] batchGet cache, cacheName={}, currKeyListSize={}, hitMapSize={}", this.getCacheName(), keyList.size(), hitMap.size());
+        }).thenApply(result -> {
+            LogUtil.logDetailPrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] batchGet cache end, cacheName={}, cacheKeyMapSize={}, hitMapSize={}, hitMap={}", this.getCacheName(), keyMap.size(), hitMap.size(), hitMap);
+            LogUtil.logSimplePrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] batchGet cache end, cacheName={}, cacheKeyMapSize={}, hitMapSize={}", this.getCacheName(), keyMap.size(), hitMap.size());
+            return hitMap;
         });
-        LogUtil.logDetailPrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] batchGet cache end, cacheName={}, cacheKeyMapSize={}, hitMapSize={}, hitMap={}", this.getCacheName(), keyMap.size(), hitMap.size(), hitMap);
-        LogUtil.logSimplePrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] batchGet cache end, cacheName={}, cacheKeyMapSize={}, hitMapSize={}", this.getCacheName(), keyMap.size(), hitMap.size());
-        return hitMap;
     }
 
 
     @Override
-    public <V> void batchPut(Map<Object, V> dataMap) {
-        if (null == dataMap || dataMap.size() == 0) {
+    public <V> void batchPut(Map<Object, V> originDataMap) {
+        if (null == originDataMap || originDataMap.size() == 0) {
+            return;
+        }
+        logger.info("batchPut cache start, cacheName={}, totalKeyMapSize={}", this.getCacheName(), originDataMap.size());
+        // 启用负缓存时，value为null的key记录到负缓存，不写入redis
+        Map<Object, V> dataMap = null == negativeCache ? originDataMap : this.batchPutNegative(originDataMap);
+        if (dataMap.isEmpty()) {
+            return;
+        }
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        metrics.recordBatchSize(this.getCacheName(), "batchPut", dataMap.size());
+        if (this.isMultiKeyBatchMode()) {
+            this.batchPutByMultiKey(dataMap);
+            this.recordLatency(metrics, "batchPut", start);
+            logger.info("batchPut cache end, cacheName={}, totalKeyMapSize={}, batchMode={}", this.getCacheName(), dataMap.size(), redis.getBatchMode());
             return;
         }
-        logger.info("batchPut cache start, cacheName={}, totalKeyMapSize={}", this.getCacheName(), dataMap.size());
         // 集合切分
         List<List<Object>> keyListCollect = Lists.partition(new ArrayList<>(dataMap.keySet()), redis.getBatchPageSize());
 
-        // for循环分执行batch,减少瞬间redisson的netty堆外内存溢出
-        keyListCollect.forEach(keyList -> {
-            RBatch batch = redissonClient.createBatch();
+        this.join(this.executeBatchAsync(keyListCollect, (batch, keyList) -> {
             // 注：keyList.forEach() 是在 batch.execute() 执行之前执行的，所以其中的操作会增加batch操作的耗时。
             // 也就是说edisConnection连接被长时间占用，在高并发情况下，会出现nettyThreads不够用的情况，导致出现如下异常：
             // RedisTimeoutException : Command still hasn't been written into connection! Increase nettyThreads and/or retryInterval settings
@@ -344,17 +883,18 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
                 Object value = toStoreValue(dataMap.get(key));
                 // 过期时间处理
                 long expireTime = this.expireTimeDeal(value);
+                value = this.wrapLogicalExpire(value, expireTime);
+                expireTime = this.physicalExpireTime(value, expireTime);
                 if (expireTime > 0) {
-                    batch.getBucket(cacheKey).setAsync(value, expireTime, TimeUnit.MILLISECONDS);
+                    batch.getBucket(cacheKey, codec).setAsync(value, expireTime, TimeUnit.MILLISECONDS);
                     logger.info("batchPut cache, expireTime={} ms, key={}, value={}", expireTime, cacheKey, value);
                 } else {
-                    batch.getBucket(cacheKey).setAsync(value);
+                    batch.getBucket(cacheKey, codec).setAsync(value);
                     logger.info("batchPut cache, key={}, value={}", cacheKey, value);
                 }
             });
-            BatchResult result = batch.execute();
-            // logger.info("batchPut cache, cacheName={}, currKeyListSize={}, syncedSlaves={}", this.getCacheName(), keyList.size(), result.getSyncedSlaves());
-        });
+        }));
+        this.recordLatency(metrics, "batchPut", start);
         logger.info("batchPut cache end, cacheName={}, totalKeyMapSize={}", this.getCacheName(), dataMap.size());
     }
 
@@ -365,15 +905,23 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
             return;
         }
         logger.info("batchEvict cache start, cacheName={}, totalKeyMapSize={}", this.getCacheName(), keyMap.size());
+        this.bypassNegative(keyMap.values());
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        metrics.recordBatchSize(this.getCacheName(), "batchEvict", keyMap.size());
+        if (this.isMultiKeyBatchMode()) {
+            this.batchEvictByMultiKey(keyMap);
+            this.recordLatency(metrics, "batchEvict", start);
+            logger.info("batchEvict cache end, cacheName={}, totalKeyMapSize={}, batchMode={}", this.getCacheName(), keyMap.size(), redis.getBatchMode());
+            return;
+        }
         // 集合切分
         List<List<Map.Entry<K, Object>>> keyListCollect = Lists.partition(new ArrayList<>(keyMap.entrySet()), redis.getBatchPageSize());
 
-        // for循环分执行batch,减少瞬间redisson的netty堆外内存溢出
-        keyListCollect.forEach(keyList -> {
-            RBatch batch = redissonClient.createBatch();
+        this.join(this.executeBatchAsync(keyListCollect, (batch, keyList) -> {
             keyList.forEach(entry -> {
                 String cacheKey = (String) buildKey(entry.getValue());
-                RFuture<Object> async = batch.getBucket(cacheKey).getAndDeleteAsync();
+                RFuture<Object> async = batch.getBucket(cacheKey, codec).getAndDeleteAsync();
                 // 注：onComplete() 是在 batch.execute() 执行之后执行的，所以其中的操作不会增加batch操作的耗时。
                 async.onComplete(new BiConsumerWrapper((value, exception) -> {
                     if (exception != null) {
@@ -383,14 +931,361 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
                     logger.info("batchEvict cache, cacheKey={}, value={}", cacheKey, value);
                 }));
             });
-            BatchResult result = batch.execute();
-            // logger.info("batchEvict cache, cacheName={}, currKeyListSize={}, syncedSlaves={}", this.getCacheName(), keyList.size(), result.getSyncedSlaves());
-        });
+        }));
+        this.recordLatency(metrics, "batchEvict", start);
         logger.info("batchEvict cache end, cacheName={}, totalKeyMapSize={}", this.getCacheName(), keyMap.size());
     }
 
+    /**
+     * 处理其他节点的负缓存同步消息
+     *
+     * @param keys 缓存key（未拼接cacheName）
+     * @param desc put/bypass/clear
+     */
+    public void onNegativeMessage(Collection<Object> keys, String desc) {
+        if (null == negativeCache) {
+            return;
+        }
+        if (CacheConsts.NEGATIVE_CLEAR.equals(desc)) {
+            negativeCache.clearLocal();
+            return;
+        }
+        List<String> cacheKeyList = new ArrayList<>(keys.size());
+        keys.forEach(key -> cacheKeyList.add((String) buildKey(key)));
+        if (CacheConsts.NEGATIVE_PUT.equals(desc)) {
+            cacheKeyList.forEach(negativeCache::putLocal);
+        } else if (CacheConsts.NEGATIVE_BYPASS.equals(desc)) {
+            negativeCache.bypassLocal(cacheKeyList);
+        }
+    }
+
     // ----------下面为私有方法
 
+    /**
+     * 将db中不存在的key记录到负缓存，并通知其他节点
+     * 注：当前分片已满时不再记录，也不通知其他节点
+     */
+    private void putNegative(Collection<Object> keys) {
+        List<Object> putKeys = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            if (negativeCache.put((String) buildKey(key))) {
+                putKeys.add(key);
+            }
+        }
+        if (!putKeys.isEmpty()) {
+            this.publishNegative(putKeys, CacheConsts.NEGATIVE_PUT);
+        }
+    }
+
+    /**
+     * 写入非空值或删除缓存时，跳过负缓存中已存在的key，并通知其他节点
+     * 注：只通知本节点负缓存中存在的key，各节点的负缓存通过同步消息保持一致，所以大部分evict不会产生额外的消息
+     */
+    private void bypassNegative(Collection<?> keys) {
+        if (null == negativeCache) {
+            return;
+        }
+        // <cacheKey, key>
+        Map<String, Object> cacheKeyMap = new HashMap<>(keys.size() * 2);
+        keys.forEach(key -> cacheKeyMap.put((String) buildKey(key), key));
+        List<String> bypassKeys = negativeCache.bypass(cacheKeyMap.keySet());
+        if (bypassKeys.isEmpty()) {
+            return;
+        }
+        List<Object> keyList = new ArrayList<>(bypassKeys.size());
+        bypassKeys.forEach(cacheKey -> keyList.add(cacheKeyMap.get(cacheKey)));
+        this.publishNegative(keyList, CacheConsts.NEGATIVE_BYPASS);
+    }
+
+    /**
+     * 批量put时，将value为null的key记录到负缓存并从redis中删除，返回需要写入redis的数据
+     */
+    private <V> Map<Object, V> batchPutNegative(Map<Object, V> dataMap) {
+        Map<Object, V> valueMap = new HashMap<>(dataMap.size() * 2);
+        List<Object> nullKeyList = new ArrayList<>();
+        dataMap.forEach((key, value) -> {
+            if (NullValueUtil.isNull(value)) {
+                nullKeyList.add(key);
+            } else {
+                valueMap.put(key, value);
+            }
+        });
+        if (!nullKeyList.isEmpty()) {
+            List<String> cacheKeyList = new ArrayList<>(nullKeyList.size());
+            nullKeyList.forEach(key -> cacheKeyList.add((String) buildKey(key)));
+            long deleteCount = redissonClient.getKeys().delete(cacheKeyList.toArray(new String[0]));
+            this.putNegative(nullKeyList);
+            logger.info("batchPut negative cache, cacheName={}, nullKeySize={}, deleteCount={}", this.getCacheName(), nullKeyList.size(), deleteCount);
+        }
+        this.bypassNegative(valueMap.keySet());
+        return valueMap;
+    }
+
+    /**
+     * 发送负缓存同步消息
+     */
+    private void publishNegative(Collection<?> keys, String desc) {
+        if (null == cacheSyncPolicy) {
+            return;
+        }
+        if (keys.isEmpty()) {
+            cacheSyncPolicy.publish(this.createNegativeMessage(desc));
+            return;
+        }
+        List<Object> keyList = new ArrayList<>(keys);
+        for (List<Object> subKeys : Lists.partition(keyList, CacheConsts.BATCH_MESSAGE_MAX_KEYS)) {
+            cacheSyncPolicy.publish(this.createNegativeMessage(desc).setKeys(new ArrayList<>(subKeys)));
+        }
+    }
+
+    private CacheMessage createNegativeMessage(String desc) {
+        return new CacheMessage()
+                .setInstanceId(this.getInstanceId())
+                .setCacheType(this.getCacheType())
+                .setCacheName(this.getCacheName())
+                .setOptType(CacheConsts.CACHE_NEGATIVE)
+                .setDesc(desc);
+    }
+
+    /**
+     * 记录redis读取命令的耗时和二级缓存的命中情况
+     *
+     * @param start 开始时间(ns)，未开启指标时不记录
+     */
+    private void recordGet(CacheMetrics metrics, String command, long start, int total, int hits) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        this.recordLatency(metrics, command, start);
+        metrics.recordHits(this.getCacheName(), CacheMetrics.LEVEL_L2, hits);
+        metrics.recordMisses(this.getCacheName(), CacheMetrics.LEVEL_L2, total - hits);
+    }
+
+    /**
+     * 记录redis命令的耗时
+     */
+    private void recordLatency(CacheMetrics metrics, String command, long start) {
+        if (metrics.isEnabled()) {
+            metrics.recordRedisLatency(this.getCacheName(), command, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 执行valueLoader，并记录加载的耗时和结果
+     */
+    private Object callAndRecord(Callable<?> valueLoader) throws Exception {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        if (!metrics.isEnabled()) {
+            return valueLoader.call();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object value = valueLoader.call();
+            success = true;
+            return value;
+        } finally {
+            metrics.recordLoad(this.getCacheName(), System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * 是否为multikey批量模式
+     */
+    private boolean isMultiKeyBatchMode() {
+        return CacheConsts.REDIS_BATCH_MODE_MULTIKEY.equalsIgnoreCase(redis.getBatchMode());
+    }
+
+    /**
+     * 批量get：multikey模式，每个slot分组一个MGET命令
+     */
+    private <K, V> CompletableFuture<Map<K, V>> batchGetByMultiKey(Map<K, Object> keyMap, Map<K, V> hitMap, boolean returnNullValueKey) {
+        // <cacheKey, K>
+        Map<String, K> cacheKeyMap = new HashMap<>(keyMap.size() * 2);
+        keyMap.forEach((key, value) -> cacheKeyMap.put((String) buildKey(value), key));
+
+        return this.executeMultiKeyAsync(cacheKeyMap.keySet(), (batch, cacheKeyList) -> {
+            RFuture<Map<String, Object>> future = batch.getBuckets(codec).getAsync(cacheKeyList.toArray(new String[0]));
+            future.onComplete(new BiConsumerWrapper((result, exception) -> {
+                if (exception != null) {
+                    return;
+                }
+                // MGET 只返回存在的key
+                ((Map<String, Object>) result).forEach((cacheKey, value) -> {
+                    if (value == null) {
+                        return;
+                    }
+                    K key = cacheKeyMap.get(cacheKey);
+                    V warpValue = (V) fromStoreValue(value);
+                    if (warpValue != null) {
+                        hitMap.put(key, warpValue);
+                        return;
+                    }
+                    // value=NullValue，且returnNullValueKey=true，则将key包含在返回数据中，防止缓存穿透到下一层
+                    if (returnNullValueKey) {
+                        hitMap.put(key, null);
+                    }
+                });
+            }));
+        }).thenApply(result -> {
+            LogUtil.logSimplePrint(logger, redis.getPrintDetailLogSwitch(), "[RedissonRBucketCache] batchGet cache end, cacheName={}, cacheKeyMapSize={}, hitMapSize={}, batchMode={}", this.getCacheName(), keyMap.size(), hitMap.size(), redis.getBatchMode());
+            return hitMap;
+        });
+    }
+
+    /**
+     * 批量put：multikey模式
+     * 每个slot分组执行一次Lua脚本，在一个命令中完成SET和过期时间的设置（每个key单独的过期时间）
+     */
+    private <V> void batchPutByMultiKey(Map<Object, V> dataMap) {
+        // <cacheKey, <expireTime, storeValue>>
+        Map<String, Tuple2<Long, Object>> storeValueMap = new HashMap<>(dataMap.size() * 2);
+        dataMap.forEach((key, value) -> {
+            Object storeValue = toStoreValue(value);
+            long expireTime = this.expireTimeDeal(storeValue);
+            storeValue = this.wrapLogicalExpire(storeValue, expireTime);
+            expireTime = this.physicalExpireTime(storeValue, expireTime);
+            storeValueMap.put((String) buildKey(key), new Tuple2<>(expireTime, storeValue));
+        });
+
+        this.join(this.executeMultiKeyAsync(storeValueMap.keySet(), (batch, cacheKeyList) -> {
+            Object[] values = new Object[cacheKeyList.size() * 2];
+            for (int i = 0; i < cacheKeyList.size(); i++) {
+                Tuple2<Long, Object> tuple = storeValueMap.get(cacheKeyList.get(i));
+                values[i * 2] = String.valueOf(tuple.getT1()).getBytes(StandardCharsets.UTF_8);
+                values[i * 2 + 1] = this.encode(tuple.getT2());
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("batchPut cache, cacheName={}, keyList={}", this.getCacheName(), cacheKeyList);
+            }
+            batch.getScript(ByteArrayCodec.INSTANCE).evalAsync(cacheKeyList.get(0), RScript.Mode.READ_WRITE, BATCH_SET_SCRIPT, RScript.ReturnType.INTEGER,
+                    new ArrayList<>(cacheKeyList), values);
+        }));
+    }
+
+    /**
+     * 批量evict：multikey模式，每个slot分组一个多key的DEL命令
+     */
+    private <K> void batchEvictByMultiKey(Map<K, Object> keyMap) {
+        List<String> cacheKeyList = new ArrayList<>(keyMap.size());
+        keyMap.values().forEach(key -> cacheKeyList.add((String) buildKey(key)));
+
+        this.join(this.executeMultiKeyAsync(cacheKeyList, (batch, groupKeyList) -> batch.getKeys().deleteAsync(groupKeyList.toArray(new String[0]))
+                .onComplete(new BiConsumerWrapper((deleteCount, exception) -> {
+                    if (exception == null) {
+                        logger.info("batchEvict cache, cacheName={}, deleteCount={}, keyList={}", this.getCacheName(), deleteCount, groupKeyList);
+                    }
+                }))));
+    }
+
+    /**
+     * multikey模式下分页异步执行多key命令
+     * 1、非cluster模式直接按 batchPageSize 分页，每页一个命令
+     * 2、cluster模式按slot分组后装页，同一页的多个slot分组（每个分组一个命令）在一个RBatch中执行，RBatch按节点合并为一个pipeline，
+     * 所以网络交互次数与key数量相关，而不是与slot数量相关
+     *
+     * @param commandBuilder 往RBatch中添加一个分组（同一slot的key）的多key命令
+     */
+    private CompletableFuture<Void> executeMultiKeyAsync(Collection<String> cacheKeys, BiConsumer<RBatch, List<String>> commandBuilder) {
+        List<List<List<String>>> pageList = new ArrayList<>();
+        if (cluster) {
+            pageList.addAll(RedisSlotUtil.partitionBySlot(cacheKeys, redis.getBatchPageSize()));
+        } else {
+            Lists.partition(new ArrayList<>(cacheKeys), redis.getBatchPageSize()).forEach(page -> pageList.add(Collections.singletonList(page)));
+        }
+        return this.executeBatchAsync(pageList, (batch, page) -> page.forEach(groupKeyList -> commandBuilder.accept(batch, groupKeyList)));
+    }
+
+    /**
+     * 按当前缓存的codec对value编码，与RBucket的序列化方式保持一致
+     */
+    private byte[] encode(Object value) {
+        ByteBuf buf = null;
+        try {
+            buf = codec.getValueEncoder().encode(value);
+            return ByteBufUtil.getBytes(buf);
+        } catch (IOException e) {
+            throw new L2CacheException("encode value error, cacheName=" + this.getCacheName(), e);
+        } finally {
+            if (null != buf) {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * 分页异步执行RBatch
+     *
+     * @param pageList    分页后的数据集合
+     * @param pageBuilder 往RBatch中添加当前分页的命令
+     */
+    private <T> CompletableFuture<Void> executeBatchAsync(List<List<T>> pageList, BiConsumer<RBatch, List<T>> pageBuilder) {
+        return this.executePagesAsync(pageList, page -> {
+            RBatch batch = redissonClient.createBatch();
+            pageBuilder.accept(batch, page);
+            return batch.executeAsync();
+        });
+    }
+
+    /**
+     * 分页异步执行，所有分页执行完成后，返回的CompletableFuture完成，任一分页失败则异常完成
+     * 1、batchMaxInFlight<=1 时，逐页串行执行，上一页完成后再执行下一页，减少瞬间redisson的netty堆外内存溢出
+     * 2、batchMaxInFlight>1 时，启动 batchMaxInFlight 个执行链并行执行，每个执行链在上一页完成后领取下一页，所以同时在途的分页数量不超过 batchMaxInFlight，且不阻塞任何线程
+     * 3、上一页完成后直接在完成它的线程（netty的I/O线程）中领取下一页，只提交命令不阻塞；同步的batch方法在调用线程中等待返回的CompletableFuture，
+     * 不占用 ASYNC_CALLBACK_POOL_NAME 线程池（避免在该线程池中调用同步batch方法时互相等待），只有异步API返回的CompletableFuture才切换到该线程池中完成
+     *
+     * @param pageList     分页集合
+     * @param pageExecutor 异步执行一页
+     */
+    private <P> CompletableFuture<Void> executePagesAsync(List<P> pageList, Function<P, CompletionStage<?>> pageExecutor) {
+        int maxInFlight = Math.max(1, Math.min(redis.getBatchMaxInFlight(), pageList.size()));
+        AtomicInteger pageIndex = new AtomicInteger();
+        CompletableFuture<?>[] chains = new CompletableFuture[maxInFlight];
+        for (int i = 0; i < maxInFlight; i++) {
+            chains[i] = this.executeNextPage(pageList, pageExecutor, pageIndex);
+        }
+        return CompletableFuture.allOf(chains);
+    }
+
+    /**
+     * 领取并执行下一页，完成后继续领取，直到所有分页都被领取
+     */
+    private <P> CompletableFuture<Void> executeNextPage(List<P> pageList, Function<P, CompletionStage<?>> pageExecutor, AtomicInteger pageIndex) {
+        int index = pageIndex.getAndIncrement();
+        if (index >= pageList.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletionStage<?> stage;
+        try {
+            stage = pageExecutor.apply(pageList.get(index));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return stage.toCompletableFuture().thenCompose(result -> this.executeNextPage(pageList, pageExecutor, pageIndex));
+    }
+
+    /**
+     * 异步API回调的线程池，队列满时由调用线程执行，保证回调不会被丢弃
+     */
+    private static Executor asyncExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return ThreadPoolSupport.getPool(ASYNC_CALLBACK_POOL_NAME, processors, processors * 2, 60, 10000, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 等待执行完成，与同步执行保持一致，抛出原始异常
+     */
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     /**
      * 过期时间处理
      * 如果是null值，则单独设置其过期时间
@@ -399,6 +1294,9 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         long expireTime = this.getExpireTime();
         if (value instanceof NullValue) {
             expireTime = TimeUnit.SECONDS.toMillis(this.getNullValueExpireTimeSeconds());
+        } else {
+            // 过期时间随机抖动，避免同时写入的key同时过期
+            expireTime = EarlyRefreshUtil.jitter(expireTime, redis.getExpireJitterRatio());
         }
         if (expireTime < 0) {
             expireTime = 0;
@@ -406,4 +1304,107 @@ public class RedissonRBucketCache extends AbstractAdaptingCache implements Level
         return expireTime;
     }
 
+    private Object wrapLogicalExpire(Object storeValue, long expireTime) {
+        return this.wrapLogicalExpire(storeValue, expireTime, 0);
+    }
+
+    /**
+     * 开启 staleWhileRevalidate 或 earlyRefreshBeta>0 时，将value包装为带逻辑过期时间的对象
+     * 注：NullValue 和永不过期的value不包装
+     *
+     * @param expireTime 逻辑过期时间(ms)
+     * @param loadMillis 加载value的耗时(ms)
+     */
+    private Object wrapLogicalExpire(Object storeValue, long expireTime, long loadMillis) {
+        if ((!redis.isStaleWhileRevalidate() && cacheConfig.getEarlyRefreshBeta() <= 0) || expireTime <= 0 || storeValue instanceof NullValue) {
+            return storeValue;
+        }
+        return new LogicalExpireValue(storeValue, System.currentTimeMillis() + expireTime, loadMillis);
+    }
+
+    /**
+     * redis的过期时间（物理过期），开启 staleWhileRevalidate 时，包装后的value延长 staleMaxMillis
+     */
+    private long physicalExpireTime(Object storeValue, long expireTime) {
+        if (redis.isStaleWhileRevalidate() && storeValue instanceof LogicalExpireValue) {
+            return expireTime + Math.max(0, redis.getStaleMaxMillis());
+        }
+        return expireTime;
+    }
+
+    /**
+     * value已逻辑过期，或者按概率提前刷新（XFetch）时，返回当前值的同时异步刷新
+     * 1、本节点同一个key同一时刻只有一个刷新任务，集群中通过redis锁保证只有一个节点刷新
+     * 2、刷新失败时不释放锁，锁过期前不再刷新，期间继续返回旧值（stale-if-error），避免db异常时被频繁调用
+     *
+     * @param refresher 加载最新的值
+     */
+    private void refreshIfNeed(Object key, String cacheKey, Object value, Callable<?> refresher) {
+        if (!(value instanceof LogicalExpireValue)) {
+            return;
+        }
+        LogicalExpireValue logicalExpireValue = (LogicalExpireValue) value;
+        long now = System.currentTimeMillis();
+        if (!logicalExpireValue.isExpiredAt(now)
+                && !EarlyRefreshUtil.shouldRefresh(logicalExpireValue.getExpireAt() - now, logicalExpireValue.getLoadMillis(), cacheConfig.getEarlyRefreshBeta())) {
+            return;
+        }
+        if (null == singleFlight || !refreshingKeySet.add(cacheKey)) {
+            return;
+        }
+        try {
+            // 队列满时抛出RejectedExecutionException，以便清除刷新标识，后续请求可再次触发刷新
+            ThreadPoolSupport.getPool(STALE_REFRESH_POOL_NAME, 4, 16, 60, 1000, new ThreadPoolExecutor.AbortPolicy()).execute(() -> {
+                String token = singleFlight.newToken();
+                try {
+                    if (!singleFlight.tryLock(cacheKey, token, redis.getSingleFlightLeaseMillis())) {
+                        LogUtil.log(logger, cacheConfig.getLogLevel(), "[RedissonRBucketCache] value is refreshing by other request, cacheName={}, key={}", this.getCacheName(), cacheKey);
+                        return;
+                    }
+                    long start = System.currentTimeMillis();
+                    Object newValue = refresher.call();
+                    this.put(key, newValue, System.currentTimeMillis() - start);
+                    singleFlight.release(cacheKey, token, true);
+                    // 与 LoadFunction 写入redis后一致，通知其他节点刷新一级缓存
+                    if (null != cacheSyncPolicy) {
+                        cacheSyncPolicy.publish(new CacheMessage(this.getInstanceId(), this.getCacheType(), this.getCacheName(), key, CacheConsts.CACHE_REFRESH, "AfterRefreshRedis"));
+                    }
+                    LogUtil.log(logger, cacheConfig.getLogLevel(), "[RedissonRBucketCache] refresh value success, cacheName={}, key={}, expireAt={}", this.getCacheName(), cacheKey, logicalExpireValue.getExpireAt());
+                } catch (Exception e) {
+                    logger.warn("refresh value error, serve old value, cacheName=" + this.getCacheName() + ", key=" + cacheKey, e);
+                } finally {
+                    refreshingKeySet.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingKeySet.remove(cacheKey);
+            logger.warn("refresh value rejected, cacheName={}, key={}", this.getCacheName(), cacheKey);
+        }
+    }
+
+    /**
+     * valueLoader 是否可以加载数据（与 get(key, callable) 中的判断保持一致），避免异步刷新时将 NullValue 覆盖到旧值上
+     */
+    private boolean canLoad(Callable<?> valueLoader) {
+        if (null == valueLoader) {
+            return false;
+        }
+        if (valueLoader instanceof ValueLoaderWarpperTemp) {
+            Callable<?> temp = ((ValueLoaderWarpperTemp) valueLoader).getValueLoader();
+            if (null == temp) {
+                return false;
+            }
+            return !(temp instanceof ValueLoaderWarpper) || null != ((ValueLoaderWarpper) temp).getValueLoader();
+        }
+        return true;
+    }
+
+    @Override
+    public Object fromStoreValue(Object storeValue) {
+        if (storeValue instanceof LogicalExpireValue) {
+            storeValue = ((LogicalExpireValue) storeValue).getValue();
+        }
+        return NullValueUtil.fromStoreValue(storeValue, this.isAllowNullValues());
+    }
+
 }
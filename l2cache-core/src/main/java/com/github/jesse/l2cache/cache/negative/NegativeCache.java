@@ -0,0 +1,497 @@
+package com.github.jesse.l2cache.cache.negative;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.util.BloomFilterUtil;
+import org.redisson.api.BatchResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 负缓存：记录db中不存在的key，替代一级缓存和redis中逐个key存储的 NullValue
+ * <p>
+ * 1、按时间分片轮转的布隆过滤器，分片id = 当前时间 / sliceMillis，所有节点按时间计算出相同的分片，无需协调；只写入当前分片，查询最近 slices 个分片
+ * 2、查询只读取本地分片（AtomicLongArray），不访问redis；其他节点通过缓存同步消息（put/bypass/clear）同步
+ * 3、布隆过滤器不支持删除，evict 时将key记录到当前分片的 bypass 集合中，随分片一起轮转；只记录负缓存中已存在的key，所以 bypass 集合的大小不超过负缓存的key数量
+ * 4、每个分片记录新增的key数量，达到 expectedInsertions 后不再写入（误判率保持在 fpp 以内），直到分片轮转；未记录的key按原有流程加载db
+ * 5、本节点发起的变更延迟 FLUSH_MILLIS 后批量镜像到redis（分片按 CHUNK_BITS 分块的bitmap + bypass set，随分片过期），启动时从redis加载未过期的分片，重启的节点可以共享
+ * <p>
+ * 注：负缓存只在redis中不存在value时才查询，所以put的数据不会被负缓存屏蔽；一个key约占用 -ln(fpp)/(ln2)^2 bit（fpp=0.001时约14.4bit）
+ * 注：redissonClient 为null时只使用本地分片
+ *
+ * @author chenck
+ * @date 2026/10/17 00:10
+ */
+public class NegativeCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NegativeCache.class);
+
+    /**
+     * 批量写入redis的延迟时间(ms)
+     */
+    private static final long FLUSH_MILLIS = 100;
+
+    /**
+     * 一个RBatch中最多的命令数量
+     */
+    private static final int MAX_BATCH_COMMANDS = 10000;
+
+    private final String cacheName;
+
+    private final RedissonClient redissonClient;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long numBits;
+
+    /**
+     * 每个分片最多记录的key数量
+     */
+    private final long capacity;
+
+    private final int numHashes;
+
+    private final int sliceCount;
+
+    private final long sliceMillis;
+
+    private final Slice[] slices;
+
+    /**
+     * 待写入redis的位置
+     */
+    private final Queue<PendingBits> pendingBits = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 待写入redis的 bypass 变更
+     */
+    private final Queue<PendingBypass> pendingBypass = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public NegativeCache(String cacheName, L2CacheConfig.Negative negative) {
+        this(cacheName, negative, null, null);
+    }
+
+    public NegativeCache(String cacheName, L2CacheConfig.Negative negative, RedissonClient redissonClient, ScheduledExecutorService scheduler) {
+        this.cacheName = cacheName;
+        this.redissonClient = null == scheduler ? null : redissonClient;
+        this.scheduler = scheduler;
+        this.capacity = Math.max(1, negative.getExpectedInsertions());
+        this.numBits = BloomFilterUtil.numBits(negative.getExpectedInsertions(), negative.getFpp());
+        this.numHashes = BloomFilterUtil.numHashes(numBits, negative.getExpectedInsertions());
+        this.sliceCount = Math.max(2, negative.getSlices());
+        long expireMillis = TimeUnit.SECONDS.toMillis(Math.max(1, negative.getExpireSeconds()));
+        this.sliceMillis = Math.max(1, expireMillis / sliceCount);
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice((int) (numBits / 64));
+        }
+        logger.info("NegativeCache init, cacheName={}, numBits={}, numHashes={}, slices={}, sliceMillis={}, mirror={}", cacheName, numBits, numHashes, sliceCount, sliceMillis, null != this.redissonClient);
+        this.loadRemote();
+    }
+
+    /**
+     * 记录db中不存在的key，并镜像到redis
+     *
+     * @return false 表示当前分片已满，未记录
+     */
+    public boolean put(String cacheKey) {
+        return this.put(cacheKey, true);
+    }
+
+    /**
+     * 记录其他节点通知的db中不存在的key，只写入本地
+     */
+    public boolean putLocal(String cacheKey) {
+        return this.put(cacheKey, false);
+    }
+
+    private boolean put(String cacheKey, boolean mirror) {
+        long currentId = this.sliceId(System.currentTimeMillis());
+        // 重新记录的key不再跳过
+        for (long id = currentId - sliceCount + 1; id <= currentId; id++) {
+            Slice slice = slices[(int) (id % sliceCount)];
+            if (slice.id == id && slice.bypassKeys.remove(cacheKey) && mirror) {
+                this.addPending(pendingBypass, new PendingBypass(id, cacheKey, false));
+            }
+        }
+        Slice slice = this.localSlice(currentId);
+        if (slice.insertions.get() >= capacity) {
+            if (slice.full.compareAndSet(false, true)) {
+                logger.warn("NegativeCache slice is full, stop recording until next slice, cacheName={}, sliceId={}, capacity={}", cacheName, currentId, capacity);
+            }
+            return false;
+        }
+        long[] positions = BloomFilterUtil.positions(cacheKey, numHashes, numBits);
+        if (slice.set(positions)) {
+            slice.insertions.incrementAndGet();
+            if (mirror) {
+                this.addPending(pendingBits, new PendingBits(currentId, positions));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否为已记录的db中不存在的key（可能误判）
+     */
+    public boolean mightContain(String cacheKey) {
+        long currentId = this.sliceId(System.currentTimeMillis());
+        long[] positions = null;
+        boolean contains = false;
+        for (long id = currentId - sliceCount + 1; id <= currentId; id++) {
+            Slice slice = slices[(int) (id % sliceCount)];
+            if (slice.id != id) {
+                continue;
+            }
+            if (slice.bypassKeys.contains(cacheKey)) {
+                return false;
+            }
+            if (!contains) {
+                if (null == positions) {
+                    positions = BloomFilterUtil.positions(cacheKey, numHashes, numBits);
+                }
+                contains = slice.contains(positions);
+            }
+        }
+        return contains;
+    }
+
+    /**
+     * 跳过指定key的负缓存（evict 或 put 非空值时调用），有效时间与负缓存一致，并镜像到redis
+     *
+     * @return 负缓存中存在、需要跳过的key，用于通知其他节点；不存在的key不记录
+     */
+    public List<String> bypass(Collection<String> cacheKeys) {
+        return this.bypass(cacheKeys, true);
+    }
+
+    /**
+     * 跳过其他节点通知的key，只写入本地
+     */
+    public List<String> bypassLocal(Collection<String> cacheKeys) {
+        return this.bypass(cacheKeys, false);
+    }
+
+    private List<String> bypass(Collection<String> cacheKeys, boolean mirror) {
+        List<String> bypassKeys = new ArrayList<>();
+        long currentId = this.sliceId(System.currentTimeMillis());
+        Slice current = null;
+        for (String cacheKey : cacheKeys) {
+            if (!this.mightContain(cacheKey)) {
+                continue;
+            }
+            if (null == current) {
+                current = this.localSlice(currentId);
+            }
+            current.bypassKeys.add(cacheKey);
+            bypassKeys.add(cacheKey);
+            if (mirror) {
+                this.addPending(pendingBypass, new PendingBypass(currentId, cacheKey, true));
+            }
+        }
+        return bypassKeys;
+    }
+
+    /**
+     * 清除负缓存，并删除redis中未过期的分片
+     */
+    public void clear() {
+        this.clearLocal();
+        if (null == redissonClient) {
+            return;
+        }
+        long currentId = this.sliceId(System.currentTimeMillis());
+        RBatch batch = redissonClient.createBatch();
+        for (long id = currentId - sliceCount + 1; id <= currentId; id++) {
+            for (int index = 0; index < this.chunkCount(); index++) {
+                batch.getBucket(this.chunkKey(id, index), ByteArrayCodec.INSTANCE).deleteAsync();
+            }
+            batch.getBucket(this.bypassKey(id), StringCodec.INSTANCE).deleteAsync();
+        }
+        batch.execute();
+    }
+
+    /**
+     * 清除本地的负缓存（其他节点通知的clear），未写入redis的变更一并丢弃
+     */
+    public synchronized void clearLocal() {
+        pendingBits.clear();
+        pendingBypass.clear();
+        for (Slice slice : slices) {
+            slice.reset(-1);
+        }
+        logger.info("NegativeCache clear, cacheName={}", cacheName);
+    }
+
+    /**
+     * 将待写入的变更批量写入redis
+     */
+    void flushRemote() {
+        // 先重置标识再取数据，取数据期间新增的变更会触发下一次执行
+        flushScheduled.set(false);
+        long now = System.currentTimeMillis();
+        // <redis key, 分片id>，写入后按分片设置过期时间
+        Map<String, Long> touchedKeys = new HashMap<>();
+        RBatch batch = redissonClient.createBatch();
+        int commands = 0;
+        PendingBits bits;
+        while (null != (bits = pendingBits.poll())) {
+            for (long position : bits.positions) {
+                String chunkKey = this.chunkKey(bits.sliceId, (int) (position / BloomFilterUtil.CHUNK_BITS));
+                batch.getBitSet(chunkKey).setAsync(position % BloomFilterUtil.CHUNK_BITS);
+                touchedKeys.put(chunkKey, bits.sliceId);
+                commands++;
+            }
+            if (commands >= MAX_BATCH_COMMANDS) {
+                this.executeFlush(batch, touchedKeys, now);
+                batch = redissonClient.createBatch();
+                commands = 0;
+            }
+        }
+        PendingBypass bypass;
+        while (null != (bypass = pendingBypass.poll())) {
+            String bypassKey = this.bypassKey(bypass.sliceId);
+            if (bypass.add) {
+                batch.getSet(bypassKey, StringCodec.INSTANCE).addAsync(bypass.cacheKey);
+            } else {
+                batch.getSet(bypassKey, StringCodec.INSTANCE).removeAsync(bypass.cacheKey);
+            }
+            touchedKeys.put(bypassKey, bypass.sliceId);
+            if (++commands >= MAX_BATCH_COMMANDS) {
+                this.executeFlush(batch, touchedKeys, now);
+                batch = redissonClient.createBatch();
+                commands = 0;
+            }
+        }
+        if (commands > 0) {
+            this.executeFlush(batch, touchedKeys, now);
+        }
+    }
+
+    private void executeFlush(RBatch batch, Map<String, Long> touchedKeys, long now) {
+        // 分片结束后还需要被查询 sliceCount - 1 个周期
+        touchedKeys.forEach((key, sliceId) -> batch.getBucket(key, ByteArrayCodec.INSTANCE)
+                .expireAsync(Duration.ofMillis(Math.max(1, (sliceId + sliceCount) * sliceMillis - now))));
+        int keySize = touchedKeys.size();
+        touchedKeys.clear();
+        batch.executeAsync().whenComplete((result, exception) -> {
+            if (null != exception) {
+                logger.warn("NegativeCache flush to redis error, cacheName={}, keySize={}, error={}", cacheName, keySize, exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 启动时从redis加载未过期的分片
+     * 注：估算的key数量超过 expectedInsertions 的分片（如配置变小）不加载，避免误判率过高
+     */
+    private void loadRemote() {
+        if (null == redissonClient) {
+            return;
+        }
+        try {
+            long currentId = this.sliceId(System.currentTimeMillis());
+            int chunkCount = this.chunkCount();
+            RBatch batch = redissonClient.createBatch();
+            for (long id = currentId - sliceCount + 1; id <= currentId; id++) {
+                for (int index = 0; index < chunkCount; index++) {
+                    batch.getBucket(this.chunkKey(id, index), ByteArrayCodec.INSTANCE).getAsync();
+                }
+                batch.getSet(this.bypassKey(id), StringCodec.INSTANCE).readAllAsync();
+            }
+            BatchResult<?> result = batch.execute();
+            List<?> responses = result.getResponses();
+            int responseIndex = 0;
+            for (long id = currentId - sliceCount + 1; id <= currentId; id++) {
+                long[] loadedWords = new long[(int) (numBits / 64)];
+                boolean valid = true;
+                boolean exists = false;
+                for (int index = 0; index < chunkCount; index++) {
+                    byte[] bytes = (byte[]) responses.get(responseIndex++);
+                    int fromWord = index * BloomFilterUtil.CHUNK_WORDS;
+                    int toWord = Math.min(loadedWords.length, fromWord + BloomFilterUtil.CHUNK_WORDS);
+                    if (null == bytes) {
+                        continue;
+                    }
+                    // SETBIT 按需扩展块的长度，所以块的长度可能小于完整长度，大于时表示 expectedInsertions/fpp 配置已变更
+                    if (bytes.length > (toWord - fromWord) * 8) {
+                        valid = false;
+                        continue;
+                    }
+                    BloomFilterUtil.fromBytes(bytes, loadedWords, fromWord);
+                    exists = true;
+                }
+                Set<?> bypassKeys = (Set<?>) responses.get(responseIndex++);
+                if (!valid || !exists) {
+                    if (!valid) {
+                        logger.warn("NegativeCache load skip slice, bitmap length mismatch, cacheName={}, sliceId={}, numBits={}", cacheName, id, numBits);
+                    }
+                    continue;
+                }
+                long insertions = this.estimateInsertions(loadedWords);
+                if (insertions > capacity) {
+                    logger.warn("NegativeCache load skip slice, slice is over capacity, cacheName={}, sliceId={}, insertions={}, capacity={}", cacheName, id, insertions, capacity);
+                    continue;
+                }
+                Slice slice = this.localSlice(id);
+                for (int i = 0; i < loadedWords.length; i++) {
+                    slice.words.set(i, loadedWords[i]);
+                }
+                slice.insertions.set(insertions);
+                if (null != bypassKeys) {
+                    bypassKeys.forEach(key -> slice.bypassKeys.add(key.toString()));
+                }
+                logger.info("NegativeCache load slice from redis, cacheName={}, sliceId={}, insertions={}, bypassSize={}", cacheName, id, insertions, slice.bypassKeys.size());
+            }
+        } catch (Exception e) {
+            // 加载失败时只使用本地分片，不影响启动
+            logger.error("NegativeCache load from redis error, cacheName={}", cacheName, e);
+        }
+    }
+
+    /**
+     * 根据已设置的位数估算key数量：-numBits / numHashes * ln(1 - 已设置的位数 / numBits)
+     */
+    private long estimateInsertions(long[] loadedWords) {
+        long ones = 0;
+        for (long word : loadedWords) {
+            ones += Long.bitCount(word);
+        }
+        if (ones >= numBits) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.ceil(-(double) numBits / numHashes * Math.log(1 - (double) ones / numBits));
+    }
+
+    private <T> void addPending(Queue<T> queue, T pending) {
+        if (null == redissonClient) {
+            return;
+        }
+        queue.offer(pending);
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flushRemote, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 获取分片id对应的本地分片，分片已轮转时重置
+     */
+    private Slice localSlice(long id) {
+        Slice slice = slices[(int) (id % sliceCount)];
+        if (slice.id != id) {
+            synchronized (this) {
+                if (slice.id != id) {
+                    slice.reset(id);
+                }
+            }
+        }
+        return slice;
+    }
+
+    private long sliceId(long time) {
+        return time / sliceMillis;
+    }
+
+    private int chunkCount() {
+        return (int) ((numBits + BloomFilterUtil.CHUNK_BITS - 1) / BloomFilterUtil.CHUNK_BITS);
+    }
+
+    private String chunkKey(long sliceId, int index) {
+        return CacheConsts.PREFIX_NEGATIVE + cacheName + CacheConsts.SPLIT + sliceId + CacheConsts.SPLIT + index;
+    }
+
+    private String bypassKey(long sliceId) {
+        return CacheConsts.PREFIX_NEGATIVE + cacheName + CacheConsts.SPLIT + sliceId + CacheConsts.SPLIT + "bypass";
+    }
+
+    private static class Slice {
+
+        private volatile long id = -1;
+
+        private final AtomicLongArray words;
+
+        /**
+         * 当前分片新增的key数量
+         */
+        private final AtomicLong insertions = new AtomicLong();
+
+        private final AtomicBoolean full = new AtomicBoolean();
+
+        /**
+         * 当前分片内被跳过的key
+         */
+        private final Set<String> bypassKeys = ConcurrentHashMap.newKeySet();
+
+        Slice(int wordCount) {
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        boolean set(long[] positions) {
+            return BloomFilterUtil.set(words, positions);
+        }
+
+        boolean contains(long[] positions) {
+            return BloomFilterUtil.contains(words, positions);
+        }
+
+        void reset(long newId) {
+            id = -1;
+            for (int i = 0; i < words.length(); i++) {
+                words.set(i, 0);
+            }
+            bypassKeys.clear();
+            insertions.set(0);
+            full.set(false);
+            id = newId;
+        }
+    }
+
+    private static class PendingBits {
+
+        final long sliceId;
+
+        final long[] positions;
+
+        PendingBits(long sliceId, long[] positions) {
+            this.sliceId = sliceId;
+            this.positions = positions;
+        }
+    }
+
+    private static class PendingBypass {
+
+        final long sliceId;
+
+        final String cacheKey;
+
+        final boolean add;
+
+        PendingBypass(long sliceId, String cacheKey, boolean add) {
+            this.sliceId = sliceId;
+            this.cacheKey = cacheKey;
+            this.add = add;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.github.jesse.l2cache.cache.offheap;
+
+import com.github.jesse.l2cache.exception.L2CacheException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 堆外存储
+ * <p>
+ * 1、按key的hash分为多个segment，每个segment一把锁，持有一块 DirectByteBuffer
+ * 2、segment的内存按 blockSize 切分为固定大小的block，value序列化后的字节按block存储（block不要求连续），空闲block通过数组栈管理，不产生内存碎片
+ * 3、segment内通过 LinkedHashMap(accessOrder) 维护LRU顺序，内存不足时淘汰最久未访问的entry
+ * 4、每个entry有独立的过期时间，get时惰性删除，removeExpired() 定期清理
+ * <p>
+ * 注：key和entry的索引（block下标）在堆内，value的字节在堆外，适用于value较大、数量较多的场景
+ *
+ * @author chenck
+ * @date 2026/10/16 22:10
+ */
+public class OffHeapStore {
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    /**
+     * @param capacityBytes 总容量(byte)，平均分配给各个segment
+     * @param segmentCount  segment数量，向上取整为2的幂
+     * @param blockSize     block大小(byte)
+     */
+    public OffHeapStore(long capacityBytes, int segmentCount, int blockSize) {
+        if (capacityBytes <= 0 || blockSize <= 0) {
+            throw new L2CacheException("offheap capacity and blockSize must be greater than 0");
+        }
+        int count = 1;
+        while (count < Math.max(1, segmentCount)) {
+            count <<= 1;
+        }
+        long segmentBytes = capacityBytes / count;
+        if (segmentBytes > Integer.MAX_VALUE) {
+            throw new L2CacheException("offheap segment capacity can't exceed 2GB, increase segmentCount, capacityBytes=" + capacityBytes + ", segmentCount=" + count);
+        }
+        int blockCount = (int) (segmentBytes / blockSize);
+        if (blockCount <= 0) {
+            throw new L2CacheException("offheap segment capacity is less than blockSize, capacityBytes=" + capacityBytes + ", segmentCount=" + count + ", blockSize=" + blockSize);
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(blockCount, blockSize);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * 获取value的字节，不存在或已过期时返回null
+     */
+    public byte[] get(Object key) {
+        return this.segmentFor(key).get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 存储value的字节
+     *
+     * @param expireAt 过期时间点(ms)，小于等于0表示不过期
+     * @return false 表示value超过单个segment的容量，未存储
+     */
+    public boolean put(Object key, byte[] value, long expireAt) {
+        return this.segmentFor(key).put(key, value, expireAt);
+    }
+
+    public boolean remove(Object key) {
+        return this.segmentFor(key).remove(key);
+    }
+
+    public boolean containsKey(Object key) {
+        return null != this.get(key);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * 清理已过期的entry
+     *
+     * @return 清理的数量
+     */
+    public int removeExpired() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.removeExpired(now);
+        }
+        return count;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * 已使用的堆外内存(byte)
+     */
+    public long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.usedBytes();
+        }
+        return used;
+    }
+
+    /**
+     * 被LRU淘汰的entry数量
+     */
+    public long evictionCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.evictionCount;
+        }
+        return count;
+    }
+
+    /**
+     * key的快照
+     */
+    public Set<Object> keys() {
+        Set<Object> keys = new HashSet<>();
+        for (Segment segment : segments) {
+            segment.collectKeys(keys);
+        }
+        return keys;
+    }
+
+    /**
+     * 统计信息，用于日志打印
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", this.size());
+        stats.put("usedBytes", this.usedBytes());
+        stats.put("evictionCount", this.evictionCount());
+        return stats;
+    }
+
+    private Segment segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    private static class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final ByteBuffer buffer;
+
+        private final int blockSize;
+
+        private final int blockCount;
+
+        /**
+         * 空闲block下标栈
+         */
+        private final int[] freeBlocks;
+
+        private int freeCount;
+
+        /**
+         * accessOrder=true，迭代顺序即LRU顺序
+         */
+        private final LinkedHashMap<Object, Entry> entryMap = new LinkedHashMap<>(16, 0.75f, true);
+
+        private volatile long evictionCount;
+
+        Segment(int blockCount, int blockSize) {
+            this.buffer = ByteBuffer.allocateDirect(blockCount * blockSize);
+            this.blockSize = blockSize;
+            this.blockCount = blockCount;
+            this.freeBlocks = new int[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                freeBlocks[i] = blockCount - 1 - i;
+            }
+            this.freeCount = blockCount;
+        }
+
+        byte[] get(Object key, long now) {
+            lock.lock();
+            try {
+                Entry entry = entryMap.get(key);
+                if (null == entry) {
+                    return null;
+                }
+                if (entry.isExpired(now)) {
+                    entryMap.remove(key);
+                    this.release(entry);
+                    return null;
+                }
+                byte[] value = new byte[entry.length];
+                int offset = 0;
+                for (int block : entry.blocks) {
+                    int len = Math.min(blockSize, entry.length - offset);
+                    buffer.get(block * blockSize, value, offset, len);
+                    offset += len;
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean put(Object key, byte[] value, long expireAt) {
+            int needBlocks = (value.length + blockSize - 1) / blockSize;
+            if (needBlocks > blockCount) {
+                return false;
+            }
+            lock.lock();
+            try {
+                Entry old = entryMap.remove(key);
+                if (null != old) {
+                    this.release(old);
+                }
+                // 内存不足时，按LRU顺序淘汰
+                Iterator<Entry> iterator = entryMap.values().iterator();
+                while (freeCount < needBlocks && iterator.hasNext()) {
+                    Entry eldest = iterator.next();
+                    iterator.remove();
+                    this.release(eldest);
+                    evictionCount++;
+                }
+                int[] blocks = new int[needBlocks];
+                int offset = 0;
+                for (int i = 0; i < needBlocks; i++) {
+                    int block = freeBlocks[--freeCount];
+                    int len = Math.min(blockSize, value.length - offset);
+                    buffer.put(block * blockSize, value, offset, len);
+                    blocks[i] = block;
+                    offset += len;
+                }
+                entryMap.put(key, new Entry(blocks, value.length, expireAt));
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean remove(Object key) {
+            lock.lock();
+            try {
+                Entry entry = entryMap.remove(key);
+                if (null == entry) {
+                    return false;
+                }
+                this.release(entry);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entryMap.values().forEach(this::release);
+                entryMap.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int removeExpired(long now) {
+            lock.lock();
+            try {
+                int count = 0;
+                Iterator<Entry> iterator = entryMap.values().iterator();
+                while (iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    if (entry.isExpired(now)) {
+                        iterator.remove();
+                        this.release(entry);
+                        count++;
+                    }
+                }
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entryMap.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long usedBytes() {
+            lock.lock();
+            try {
+                return (long) (blockCount - freeCount) * blockSize;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void collectKeys(Set<Object> keys) {
+            List<Object> snapshot;
+            lock.lock();
+            try {
+                snapshot = new ArrayList<>(entryMap.keySet());
+            } finally {
+                lock.unlock();
+            }
+            keys.addAll(snapshot);
+        }
+
+        /**
+         * 归还entry占用的block
+         */
+        private void release(Entry entry) {
+            for (int block : entry.blocks) {
+                freeBlocks[freeCount++] = block;
+            }
+        }
+    }
+
+    private static class Entry {
+        private final int[] blocks;
+        private final int length;
+        private final long expireAt;
+
+        Entry(int[] blocks, int length, long expireAt) {
+            this.blocks = blocks;
+            this.length = length;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return expireAt > 0 && now >= expireAt;
+        }
+    }
+}
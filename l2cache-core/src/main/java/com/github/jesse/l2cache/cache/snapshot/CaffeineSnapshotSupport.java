@@ -0,0 +1,283 @@
+package com.github.jesse.l2cache.cache.snapshot;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.CaffeineCache;
+import com.github.jesse.l2cache.codec.RedisCodecSupport;
+import com.github.jesse.l2cache.content.NullValue;
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CaffeineCache 一级缓存快照（热启动）
+ * <p>
+ * 1、应用关闭时（shutdown hook），将每个cacheName的热点数据按访问频率从高到低写入内存映射文件 {snapshotDir}/{cacheName}.snapshot
+ * 2、应用启动创建CaffeineCache时，异步加载快照文件到一级缓存，加载完成后删除快照文件
+ * 3、过时控制：写入时间超过 snapshotMaxAgeSeconds 的entry不加载；加载期间收到的put/evict/clear会跳过对应key（clear则终止加载），且只在key不存在时加载，不覆盖新值
+ * <p>
+ * 文件格式：magic(int) version(int) snapshotTime(long) count(int) [keyLen(int) key valueLen(int) value writeTime(long)]...
+ * 注：key和value通过 snapshotCodec 序列化，序列化失败的entry跳过；NullValue 不写入快照
+ *
+ * @author chenck
+ * @date 2026/10/16 22:30
+ */
+public class CaffeineSnapshotSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaffeineSnapshotSupport.class);
+
+    private static final int MAGIC = 0x4C32534E;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+
+    private static final String FILE_SUFFIX = ".snapshot";
+
+    private static final String POOL_NAME = "l2cache_snapshot_load";
+
+    private static final Map<String, CaffeineCache> CACHE_MAP = new ConcurrentHashMap<>();
+
+    private static final AtomicBoolean HOOK_REGISTERED = new AtomicBoolean(false);
+
+    /**
+     * 注册需要在关闭时写快照的缓存，首次注册时添加 shutdown hook
+     */
+    public static void register(CaffeineCache cache) {
+        CACHE_MAP.put(cache.getCacheName(), cache);
+        if (HOOK_REGISTERED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(CaffeineSnapshotSupport::writeAll, "l2cache_snapshot_hook"));
+            logger.info("[CaffeineSnapshot] add shutdown hook");
+        }
+    }
+
+    /**
+     * 将所有已注册的缓存写入快照
+     */
+    public static void writeAll() {
+        CACHE_MAP.values().forEach(cache -> {
+            try {
+                write(cache);
+            } catch (Exception e) {
+                logger.error("[CaffeineSnapshot] write snapshot error, cacheName=" + cache.getCacheName(), e);
+            }
+        });
+    }
+
+    /**
+     * 将缓存中的热点数据写入快照文件，访问频率高的entry在前
+     *
+     * @return 写入的entry数量
+     */
+    public static int write(CaffeineCache cache) throws IOException {
+        L2CacheConfig.Caffeine caffeine = cache.getCaffeine();
+        Codec codec = RedisCodecSupport.getCodec(caffeine.getSnapshotCodec());
+        Cache<Object, Object> caffeineCache = cache.getActualCache();
+        int maxEntries = caffeine.getSnapshotMaxEntries();
+
+        Map<Object, Object> hottest = caffeineCache.policy().eviction()
+                .map(eviction -> eviction.hottest(maxEntries))
+                .orElseGet(() -> limit(caffeineCache.asMap(), maxEntries));
+        Optional<Policy.Expiration<Object, Object>> expiration = caffeineCache.policy().refreshAfterWrite();
+        if (!expiration.isPresent()) {
+            expiration = caffeineCache.policy().expireAfterWrite();
+        }
+
+        long now = System.currentTimeMillis();
+        List<byte[]> keyList = new ArrayList<>(hottest.size());
+        List<byte[]> valueList = new ArrayList<>(hottest.size());
+        List<Long> writeTimeList = new ArrayList<>(hottest.size());
+        long totalBytes = HEADER_BYTES;
+        for (Map.Entry<Object, Object> entry : hottest.entrySet()) {
+            if (entry.getValue() instanceof NullValue) {
+                continue;
+            }
+            byte[] keyBytes = encode(codec, entry.getKey());
+            byte[] valueBytes = encode(codec, entry.getValue());
+            if (null == keyBytes || null == valueBytes) {
+                continue;
+            }
+            long entryBytes = 4 + keyBytes.length + 4 + valueBytes.length + 8;
+            if (totalBytes + entryBytes > Integer.MAX_VALUE) {
+                break;
+            }
+            OptionalLong age = expiration.isPresent() ? expiration.get().ageOf(entry.getKey(), TimeUnit.MILLISECONDS) : OptionalLong.empty();
+            keyList.add(keyBytes);
+            valueList.add(valueBytes);
+            writeTimeList.add(now - age.orElse(0L));
+            totalBytes += entryBytes;
+        }
+
+        Path dir = Paths.get(caffeine.getSnapshotDir());
+        Files.createDirectories(dir);
+        Path file = snapshotFile(caffeine, cache.getCacheName());
+        Path tmpFile = dir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalBytes);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(now).putInt(keyList.size());
+            for (int i = 0; i < keyList.size(); i++) {
+                buffer.putInt(keyList.get(i).length).put(keyList.get(i));
+                buffer.putInt(valueList.get(i).length).put(valueList.get(i));
+                buffer.putLong(writeTimeList.get(i));
+            }
+            buffer.force();
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("[CaffeineSnapshot] write snapshot, cacheName={}, cacheSize={}, count={}, bytes={}, file={}, cost={}ms",
+                cache.getCacheName(), caffeineCache.estimatedSize(), keyList.size(), totalBytes, file, System.currentTimeMillis() - now);
+        return keyList.size();
+    }
+
+    /**
+     * 异步加载快照文件
+     * 注：在返回前开启加载跟踪（beginSnapshotLoad），保证缓存创建后收到的put/evict/clear均能跳过快照中的旧值
+     */
+    public static void loadAsync(CaffeineCache cache) {
+        Path file = snapshotFile(cache.getCaffeine(), cache.getCacheName());
+        if (!Files.exists(file)) {
+            return;
+        }
+        cache.beginSnapshotLoad();
+        try {
+            ThreadPoolSupport.getPool(POOL_NAME).execute(() -> load(cache));
+        } catch (Exception e) {
+            cache.endSnapshotLoad();
+            logger.error("[CaffeineSnapshot] submit load task error, cacheName=" + cache.getCacheName(), e);
+        }
+    }
+
+    /**
+     * 加载快照文件到一级缓存，加载后删除快照文件
+     * 注：调用前需先执行 CaffeineCache.beginSnapshotLoad()
+     *
+     * @return 加载的entry数量
+     */
+    public static int load(CaffeineCache cache) {
+        L2CacheConfig.Caffeine caffeine = cache.getCaffeine();
+        Path file = snapshotFile(caffeine, cache.getCacheName());
+        long start = System.currentTimeMillis();
+        long maxAgeMillis = TimeUnit.SECONDS.toMillis(caffeine.getSnapshotMaxAgeSeconds());
+        int loaded = 0;
+        int skipped = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("[CaffeineSnapshot] invalid snapshot file, cacheName={}, file={}", cache.getCacheName(), file);
+                return 0;
+            }
+            Codec codec = RedisCodecSupport.getCodec(caffeine.getSnapshotCodec());
+            long snapshotTime = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] keyBytes = new byte[buffer.getInt()];
+                buffer.get(keyBytes);
+                byte[] valueBytes = new byte[buffer.getInt()];
+                buffer.get(valueBytes);
+                long writeTime = buffer.getLong();
+                if (start - writeTime > maxAgeMillis) {
+                    skipped++;
+                    continue;
+                }
+                Object key = decode(codec, keyBytes);
+                Object value = decode(codec, valueBytes);
+                if (null == key || null == value) {
+                    skipped++;
+                    continue;
+                }
+                if (!cache.putSnapshotEntry(key, value)) {
+                    if (!cache.isSnapshotLoading()) {
+                        // 加载期间执行了clear，终止加载
+                        logger.info("[CaffeineSnapshot] load aborted by clear, cacheName={}, loaded={}", cache.getCacheName(), loaded);
+                        break;
+                    }
+                    skipped++;
+                    continue;
+                }
+                loaded++;
+            }
+            logger.info("[CaffeineSnapshot] load snapshot, cacheName={}, snapshotTime={}, count={}, loaded={}, skipped={}, cost={}ms",
+                    cache.getCacheName(), snapshotTime, count, loaded, skipped, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("[CaffeineSnapshot] load snapshot error, cacheName=" + cache.getCacheName() + ", file=" + file, e);
+        } finally {
+            cache.endSnapshotLoad();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("[CaffeineSnapshot] delete snapshot file error, file={}, error={}", file, e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    private static Path snapshotFile(L2CacheConfig.Caffeine caffeine, String cacheName) {
+        return Paths.get(caffeine.getSnapshotDir(), cacheName.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_SUFFIX);
+    }
+
+    private static Map<Object, Object> limit(Map<Object, Object> map, int maxEntries) {
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            if (result.size() >= maxEntries) {
+                break;
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static byte[] encode(Codec codec, Object value) {
+        ByteBuf buf = null;
+        try {
+            buf = codec.getValueEncoder().encode(value);
+            return ByteBufUtil.getBytes(buf);
+        } catch (Exception e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("[CaffeineSnapshot] encode error, skip entry, value={}, error={}", value, e.getMessage());
+            }
+            return null;
+        } finally {
+            if (null != buf) {
+                buf.release();
+            }
+        }
+    }
+
+    private static Object decode(Codec codec, byte[] bytes) {
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return codec.getValueDecoder().decode(buf, new State());
+        } catch (Exception e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("[CaffeineSnapshot] decode error, skip entry, error={}", e.getMessage());
+            }
+            return null;
+        } finally {
+            buf.release();
+        }
+    }
+}
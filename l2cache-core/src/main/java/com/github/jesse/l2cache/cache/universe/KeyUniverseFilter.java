@@ -0,0 +1,513 @@
+package com.github.jesse.l2cache.cache.universe;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.util.BloomFilterUtil;
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
+import org.redisson.api.RBatch;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已知key全集过滤器（布隆过滤器）：不在key全集中的key直接过滤，不再访问一级缓存、二级缓存和db
+ * <p>
+ * 1、查询只读取本地位数组，不访问redis；本地位数组未构建（且redis中没有可加载的过滤器）前，所有key都视为存在
+ * 2、新增key时设置本地位数组，同时通过 SETBIT 写入redis的bitmap，由调用方发送缓存同步消息通知其他节点（addLocal）；已存在的key不再写入（addIfAbsent）
+ * 3、redis中的bitmap按 CHUNK_BITS 分块存储，每块一个key（cacheName:version:index），读写都按块进行，单个命令最多传输 CHUNK_BITS / 8 字节，避免大key阻塞redis
+ * 4、重建：从 KeyUniverseSource 分段并发读取全部key，构建新的位数组，逐块写入新版本的key后更新重建时间（version），旧版本的块延迟过期；其他节点检查到重建时间变化后逐块重新加载
+ * 5、重建期间新增的key同时写入新的位数组；最近 retainMillis 内新增的key保留在 recentKeys 中，重新加载或重建后重放，避免在切换期间丢失
+ * <p>
+ * 注：布隆过滤器不支持删除，已删除的key在下一次重建后才会被过滤；重建后新增的key超过 expectedInsertions 时需要提前重建（needRebuild）
+ * 注：redissonClient 为null时只使用本地过滤器
+ *
+ * @author chenck
+ * @date 2026/10/17 00:30
+ */
+public class KeyUniverseFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyUniverseFilter.class);
+
+    private static final String POOL_NAME = "l2cache_universe_rebuild";
+
+    /**
+     * recentKeys 最多保留的key数量
+     */
+    private static final int MAX_RECENT_KEYS = 100000;
+
+    private final String cacheName;
+
+    private final L2CacheConfig.KeyUniverse keyUniverse;
+
+    private final RedissonClient redissonClient;
+
+    private final long numBits;
+
+    private final int numHashes;
+
+    /**
+     * 新增key的保留时间(ms)，覆盖其他节点检查到重建的最大延迟
+     */
+    private final long retainMillis;
+
+    /**
+     * 当前使用的位数组，为null时表示过滤器未就绪
+     */
+    private volatile AtomicLongArray words;
+
+    /**
+     * 重建中的位数组，不在重建时为null
+     */
+    private volatile AtomicLongArray building;
+
+    /**
+     * 当前位数组对应的重建时间(ms)
+     */
+    private volatile long version;
+
+    /**
+     * 本节点最近一次完成重建的时间(ms)
+     */
+    private volatile long rebuiltTime;
+
+    private volatile KeyUniverseSource source;
+
+    /**
+     * 最近一次重建/加载后新增的key数量
+     */
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final ConcurrentLinkedQueue<RecentKey> recentKeys = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger recentKeySize = new AtomicInteger();
+
+    public KeyUniverseFilter(String cacheName, L2CacheConfig.KeyUniverse keyUniverse, RedissonClient redissonClient) {
+        this.cacheName = cacheName;
+        this.keyUniverse = keyUniverse;
+        this.redissonClient = redissonClient;
+        this.numBits = BloomFilterUtil.numBits(keyUniverse.getExpectedInsertions(), keyUniverse.getFpp());
+        this.numHashes = BloomFilterUtil.numHashes(numBits, keyUniverse.getExpectedInsertions());
+        this.retainMillis = TimeUnit.SECONDS.toMillis(Math.max(1, keyUniverse.getSyncPeriodSeconds()) * 2);
+        logger.info("KeyUniverseFilter init, cacheName={}, numBits={}, numHashes={}", cacheName, numBits, numHashes);
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public KeyUniverseSource getSource() {
+        return source;
+    }
+
+    public void setSource(KeyUniverseSource source) {
+        this.source = source;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 过滤器是否已就绪
+     */
+    public boolean isReady() {
+        return null != words;
+    }
+
+    /**
+     * key是否可能在key全集中（可能误判），未就绪时返回true
+     */
+    public boolean mightContain(String key) {
+        AtomicLongArray current = this.words;
+        if (null == current) {
+            return true;
+        }
+        return BloomFilterUtil.contains(current, BloomFilterUtil.positions(key, numHashes, numBits));
+    }
+
+    /**
+     * 新增key，同时写入redis
+     */
+    public void add(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<long[]> positionList = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            positionList.add(this.addPositions(key));
+        }
+        this.writeRemote(positionList);
+    }
+
+    /**
+     * 新增本地位数组中不存在的key，只写入本地，返回新增的key，由调用方通过 writeRemote 批量写入redis并通知其他节点
+     * 注：未就绪或重建中时，所有key都视为不存在，避免新的位数组遗漏key
+     */
+    public List<String> addIfAbsent(Collection<String> keys) {
+        List<String> addedKeys = new ArrayList<>();
+        for (String key : keys) {
+            long[] positions = BloomFilterUtil.positions(key, numHashes, numBits);
+            AtomicLongArray current = this.words;
+            if (null != current && null == this.building && BloomFilterUtil.contains(current, positions)) {
+                continue;
+            }
+            this.addPositions(key, positions);
+            addedKeys.add(key);
+        }
+        return addedKeys;
+    }
+
+    /**
+     * 将key批量写入redis（一个RBatch）
+     */
+    public void writeRemote(Collection<String> keys) {
+        if (null == redissonClient || keys.isEmpty()) {
+            return;
+        }
+        List<long[]> positionList = new ArrayList<>(keys.size());
+        keys.forEach(key -> positionList.add(BloomFilterUtil.positions(key, numHashes, numBits)));
+        this.writeRemote(positionList);
+    }
+
+    private void writeRemote(List<long[]> positionList) {
+        long currentVersion = this.version;
+        // 未就绪时redis中没有对应版本的bitmap，新增的key由 recentKeys 在重建后重放
+        if (null == redissonClient || currentVersion <= 0) {
+            return;
+        }
+        RBatch batch = redissonClient.createBatch();
+        this.setBits(batch, currentVersion, positionList);
+        batch.executeAsync().whenComplete((result, exception) -> {
+            if (null != exception) {
+                logger.warn("KeyUniverseFilter add error, cacheName={}, keySize={}, error={}", cacheName, positionList.size(), exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 往RBatch中添加 SETBIT 命令，位置按块拆分到对应的key
+     */
+    private void setBits(RBatch batch, long targetVersion, Collection<long[]> positionList) {
+        for (long[] positions : positionList) {
+            for (long position : positions) {
+                batch.getBitSet(this.chunkKey(targetVersion, (int) (position / BloomFilterUtil.CHUNK_BITS))).setAsync(position % BloomFilterUtil.CHUNK_BITS);
+            }
+        }
+    }
+
+    /**
+     * 新增其他节点通知的key，只写入本地
+     * 注：本节点刚完成重建时，其他节点可能已将key写入被覆盖的旧bitmap，所以同时补写到redis
+     */
+    public void addLocal(Collection<String> keys) {
+        if (null != redissonClient && System.currentTimeMillis() - rebuiltTime < retainMillis) {
+            this.add(keys);
+            return;
+        }
+        for (String key : keys) {
+            this.addPositions(key);
+        }
+    }
+
+    /**
+     * 是否需要重建：未就绪、已到重建周期、新增的key超过 expectedInsertions（误判率超过 fpp）
+     */
+    public boolean needRebuild() {
+        if (null == words) {
+            return true;
+        }
+        if (insertions.get() > keyUniverse.getExpectedInsertions()) {
+            return true;
+        }
+        return keyUniverse.getRebuildPeriodSeconds() > 0
+                && System.currentTimeMillis() - version >= TimeUnit.SECONDS.toMillis(keyUniverse.getRebuildPeriodSeconds());
+    }
+
+    /**
+     * 检查redis中的重建时间，比本地新时重新加载
+     *
+     * @return true 表示已重新加载
+     */
+    public boolean sync() {
+        if (null == redissonClient) {
+            return false;
+        }
+        Object remoteVersion = redissonClient.getBucket(this.versionKey(), StringCodec.INSTANCE).get();
+        if (null == remoteVersion) {
+            return false;
+        }
+        return this.reload(Long.parseLong(remoteVersion.toString()));
+    }
+
+    /**
+     * 从redis逐块重新加载指定重建时间的过滤器
+     *
+     * @return true 表示已重新加载
+     */
+    public synchronized boolean reload(long remoteVersion) {
+        if (null == redissonClient || remoteVersion <= version) {
+            return false;
+        }
+        long[] loadedWords = new long[(int) (numBits / 64)];
+        for (int index = 0; index < this.chunkCount(); index++) {
+            int fromWord = index * BloomFilterUtil.CHUNK_WORDS;
+            int toWord = Math.min(loadedWords.length, fromWord + BloomFilterUtil.CHUNK_WORDS);
+            byte[] bytes = (byte[]) redissonClient.getBucket(this.chunkKey(remoteVersion, index), ByteArrayCodec.INSTANCE).get();
+            // SETBIT 会自动扩展块的长度，所以块的长度可能小于完整长度（末尾为0），但不会大于
+            if (null == bytes || bytes.length > (toWord - fromWord) * 8) {
+                // 块已过期（被更新的版本替代），或配置的 expectedInsertions/fpp 变更后位数组长度不一致，等待重建
+                logger.warn("KeyUniverseFilter reload skip, bitmap chunk missing or length mismatch, cacheName={}, version={}, chunk={}, numBits={}, length={}",
+                        cacheName, remoteVersion, index, numBits, null == bytes ? 0 : bytes.length);
+                return false;
+            }
+            BloomFilterUtil.fromBytes(bytes, loadedWords, fromWord);
+        }
+        AtomicLongArray loaded = new AtomicLongArray(loadedWords);
+        this.words = loaded;
+        this.version = remoteVersion;
+        this.insertions.set(0);
+        // 先切换再重放，重放期间新增的key直接写入新的位数组
+        int replayed = this.replayRecentKeys(loaded);
+        logger.info("KeyUniverseFilter reload, cacheName={}, version={}, replayed={}", cacheName, remoteVersion, replayed);
+        return true;
+    }
+
+    /**
+     * 重建过滤器，阻塞至重建完成
+     * 注：多个节点通过分布式锁保证同一时刻只有一个节点重建，获取锁后发现其他节点已完成重建时跳过
+     *
+     * @return true 表示已重建
+     */
+    public boolean rebuild() {
+        KeyUniverseSource source = this.source;
+        if (null == source) {
+            return false;
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            logger.info("KeyUniverseFilter last rebuild is running, skip, cacheName={}", cacheName);
+            return false;
+        }
+        RLock lock = null;
+        try {
+            if (null != redissonClient) {
+                lock = redissonClient.getLock(this.lockKey());
+                if (!lock.tryLock()) {
+                    logger.info("KeyUniverseFilter rebuild by other node, skip, cacheName={}", cacheName);
+                    return false;
+                }
+                if (this.sync() && !this.needRebuild()) {
+                    return false;
+                }
+            }
+            return this.doRebuild(source);
+        } finally {
+            if (null != lock && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private boolean doRebuild(KeyUniverseSource source) {
+        long start = System.currentTimeMillis();
+        AtomicLongArray newWords = new AtomicLongArray((int) (numBits / 64));
+        this.building = newWords;
+        try {
+            int partitions = Math.max(1, source.partitions());
+            int parallelism = Math.max(1, Math.min(keyUniverse.getRebuildParallelism(), partitions));
+            AtomicInteger nextPartition = new AtomicInteger();
+            AtomicLong keyCount = new AtomicLong();
+            AtomicBoolean failed = new AtomicBoolean();
+            CountDownLatch latch = new CountDownLatch(parallelism);
+            ThreadPoolExecutor pool = ThreadPoolSupport.getPool(POOL_NAME, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 2,
+                    60, 1024, new ThreadPoolExecutor.CallerRunsPolicy());
+            Runnable worker = () -> {
+                try {
+                    int partition;
+                    while (!failed.get() && (partition = nextPartition.getAndIncrement()) < partitions) {
+                        Iterator<Object> keys = source.keys(partition);
+                        while (null != keys && keys.hasNext()) {
+                            Object key = keys.next();
+                            if (null != key) {
+                                BloomFilterUtil.set(newWords, BloomFilterUtil.positions(key.toString(), numHashes, numBits));
+                                keyCount.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    failed.set(true);
+                    logger.error("KeyUniverseFilter rebuild error, cacheName={}", cacheName, e);
+                } finally {
+                    latch.countDown();
+                }
+            };
+            for (int i = 0; i < parallelism; i++) {
+                // 队列已满时由当前线程执行（CallerRunsPolicy），保证 latch 一定会被释放
+                pool.execute(worker);
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (failed.get()) {
+                // 任一分段失败时保留原有的过滤器，避免漏掉key
+                return false;
+            }
+
+            long oldVersion = version;
+            long newVersion = Math.max(System.currentTimeMillis(), oldVersion + 1);
+            if (null != redissonClient) {
+                // 逐块写入新版本，每个命令最多传输 CHUNK_BITS / 8 字节
+                for (int index = 0; index < this.chunkCount(); index++) {
+                    int fromWord = index * BloomFilterUtil.CHUNK_WORDS;
+                    int toWord = Math.min(newWords.length(), fromWord + BloomFilterUtil.CHUNK_WORDS);
+                    redissonClient.getBucket(this.chunkKey(newVersion, index), ByteArrayCodec.INSTANCE).set(BloomFilterUtil.toBytes(newWords, fromWord, toWord));
+                }
+                // 其他节点在切换前通过 SETBIT 写入旧版本bitmap的key，重放本节点收到的新增key
+                this.replayRecentKeysToRedis(newVersion);
+                redissonClient.getBucket(this.versionKey(), StringCodec.INSTANCE).set(String.valueOf(newVersion));
+                this.expireChunks(oldVersion);
+            }
+            this.words = newWords;
+            this.version = newVersion;
+            this.rebuiltTime = System.currentTimeMillis();
+            this.insertions.set(0);
+            logger.info("KeyUniverseFilter rebuild end, cacheName={}, version={}, partitions={}, keyCount={}, estimatedFpp={}, cost={}ms",
+                    cacheName, newVersion, partitions, keyCount.get(), this.estimatedFpp(newWords), System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            this.building = null;
+        }
+    }
+
+    private long[] addPositions(String key) {
+        return this.addPositions(key, BloomFilterUtil.positions(key, numHashes, numBits));
+    }
+
+    private long[] addPositions(String key, long[] positions) {
+        AtomicLongArray current = this.words;
+        if (null != current) {
+            BloomFilterUtil.set(current, positions);
+        }
+        AtomicLongArray next = this.building;
+        if (null != next) {
+            BloomFilterUtil.set(next, positions);
+        }
+        insertions.incrementAndGet();
+        this.addRecentKey(positions);
+        return positions;
+    }
+
+    private void addRecentKey(long[] positions) {
+        long now = System.currentTimeMillis();
+        recentKeys.offer(new RecentKey(now, positions));
+        recentKeySize.incrementAndGet();
+        RecentKey head;
+        while (null != (head = recentKeys.peek()) && (now - head.time > retainMillis || recentKeySize.get() > MAX_RECENT_KEYS)) {
+            if (recentKeys.remove(head)) {
+                recentKeySize.decrementAndGet();
+            }
+        }
+    }
+
+    private int replayRecentKeys(AtomicLongArray target) {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (RecentKey recentKey : recentKeys) {
+            if (now - recentKey.time <= retainMillis) {
+                BloomFilterUtil.set(target, recentKey.positions);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void replayRecentKeysToRedis(long targetVersion) {
+        if (recentKeys.isEmpty()) {
+            return;
+        }
+        List<long[]> positionList = new ArrayList<>();
+        recentKeys.forEach(recentKey -> positionList.add(recentKey.positions));
+        RBatch batch = redissonClient.createBatch();
+        this.setBits(batch, targetVersion, positionList);
+        batch.execute();
+    }
+
+    /**
+     * 旧版本的块延迟过期，保证切换期间其他节点仍可通过 SETBIT 写入，并可重新加载
+     */
+    private void expireChunks(long oldVersion) {
+        if (oldVersion <= 0) {
+            return;
+        }
+        RBatch batch = redissonClient.createBatch();
+        for (int index = 0; index < this.chunkCount(); index++) {
+            batch.getBucket(this.chunkKey(oldVersion, index), ByteArrayCodec.INSTANCE).expireAsync(Duration.ofMillis(retainMillis));
+        }
+        batch.executeAsync().whenComplete((result, exception) -> {
+            if (null != exception) {
+                logger.warn("KeyUniverseFilter expire old chunks error, cacheName={}, version={}, error={}", cacheName, oldVersion, exception.getMessage());
+            }
+        });
+    }
+
+    private int chunkCount() {
+        return (int) ((numBits + BloomFilterUtil.CHUNK_BITS - 1) / BloomFilterUtil.CHUNK_BITS);
+    }
+
+    /**
+     * 根据已设置的位的比例估算误判率：(已设置的位数 / numBits) ^ numHashes
+     */
+    private double estimatedFpp(AtomicLongArray target) {
+        long ones = 0;
+        for (int i = 0; i < target.length(); i++) {
+            ones += Long.bitCount(target.get(i));
+        }
+        return Math.pow((double) ones / numBits, numHashes);
+    }
+
+    private String chunkKey(long targetVersion, int index) {
+        return CacheConsts.PREFIX_UNIVERSE + cacheName + CacheConsts.SPLIT + targetVersion + CacheConsts.SPLIT + index;
+    }
+
+    private String versionKey() {
+        return CacheConsts.PREFIX_UNIVERSE + cacheName + CacheConsts.SPLIT + "version";
+    }
+
+    private String lockKey() {
+        return CacheConsts.PREFIX_UNIVERSE + cacheName + CacheConsts.SPLIT + "lock";
+    }
+
+    private static class RecentKey {
+
+        final long time;
+
+        final long[] positions;
+
+        RecentKey(long time, long[] positions) {
+            this.time = time;
+            this.positions = positions;
+        }
+    }
+}
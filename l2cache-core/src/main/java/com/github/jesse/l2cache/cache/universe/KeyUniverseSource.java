@@ -0,0 +1,32 @@
+package com.github.jesse.l2cache.cache.universe;
+
+import java.util.Iterator;
+
+/**
+ * 已知key全集的来源，由业务实现，用于构建和重建 KeyUniverseFilter
+ *
+ * @author chenck
+ * @date 2026/10/17 00:30
+ */
+public interface KeyUniverseSource {
+
+    /**
+     * 缓存名称
+     */
+    String getCacheName();
+
+    /**
+     * 分段数量，重建时各分段并发读取（如按id范围分段扫描DB），默认1
+     */
+    default int partitions() {
+        return 1;
+    }
+
+    /**
+     * 获取指定分段的全部key（与调用 Cache 时的key一致，即 CacheService.buildCacheKey() 的返回值）
+     * 注：返回 Iterator 以便流式获取（如分页查询DB），避免一次性加载全部key
+     *
+     * @param partition 分段，取值范围 [0, partitions())
+     */
+    Iterator<Object> keys(int partition);
+}
@@ -0,0 +1,23 @@
+package com.github.jesse.l2cache.codec;
+
+/**
+ * 压缩器
+ *
+ * @author chenck
+ * @date 2026/10/16 18:40
+ */
+public interface Compressor {
+
+    /**
+     * 压缩
+     */
+    byte[] compress(byte[] src);
+
+    /**
+     * 解压
+     *
+     * @param src            压缩后的数据
+     * @param originalLength 压缩前的数据长度
+     */
+    byte[] decompress(byte[] src, int originalLength);
+}
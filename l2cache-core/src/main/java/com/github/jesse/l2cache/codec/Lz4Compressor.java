@@ -0,0 +1,36 @@
+package com.github.jesse.l2cache.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * lz4 压缩器，压缩和解压速度快，适合对延迟敏感的场景
+ * 注：需引入 org.lz4:lz4-java
+ *
+ * @author chenck
+ * @date 2026/10/16 18:40
+ */
+public class Lz4Compressor implements Compressor {
+
+    public static final Lz4Compressor INSTANCE = new Lz4Compressor();
+
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    private Lz4Compressor() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] compress(byte[] src) {
+        return compressor.compress(src);
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int originalLength) {
+        return decompressor.decompress(src, originalLength);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.jesse.l2cache.codec;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.exception.L2CacheException;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.codec.Kryo5Codec;
+import org.redisson.codec.SerializationCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存 redis value 编解码器的构建
+ *
+ * @author chenck
+ * @date 2026/10/16 19:00
+ */
+public class RedisCodecSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCodecSupport.class);
+
+    /**
+     * 序列化codec实例缓存，codec是线程安全的，且kryo等codec内部有对象池，所以相同的codec只创建一个实例
+     * <codec, Codec>
+     */
+    private static final Map<String, Codec> CODEC_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 获取指定缓存的编解码器
+     * 未配置 codec 和 compressType 时，直接返回 defaultCodec，保持原有的存储格式
+     *
+     * @param cacheName    缓存名称
+     * @param redis        redis配置
+     * @param defaultCodec redissonClient 全局配置的codec
+     */
+    public static Codec getCodec(String cacheName, L2CacheConfig.Redis redis, Codec defaultCodec) {
+        String codecName = redis.getCodecCacheNameMap().getOrDefault(cacheName, redis.getCodec());
+        Compressor compressor = getCompressor(redis.getCompressType());
+        if (StrUtil.isBlank(codecName) && null == compressor) {
+            return defaultCodec;
+        }
+        Codec codec = StrUtil.isBlank(codecName) ? defaultCodec : CODEC_MAP.computeIfAbsent(codecName.trim(), RedisCodecSupport::createCodec);
+        RedisValueCodec redisValueCodec = new RedisValueCodec(codec, compressor, redis.getCompressThreshold());
+        logger.info("create redis value codec, cacheName={}, codec={}", cacheName, redisValueCodec);
+        return redisValueCodec;
+    }
+
+    /**
+     * 获取指定名称的codec实例（相同名称共享一个实例）
+     * 注：一级缓存 offheap 复用该方法序列化value
+     */
+    public static Codec getCodec(String codecName) {
+        return CODEC_MAP.computeIfAbsent(codecName.trim(), RedisCodecSupport::createCodec);
+    }
+
+    private static Compressor getCompressor(String compressType) {
+        if (StrUtil.isBlank(compressType) || CacheConsts.REDIS_COMPRESS_NONE.equalsIgnoreCase(compressType)) {
+            return null;
+        }
+        if (CacheConsts.REDIS_COMPRESS_LZ4.equalsIgnoreCase(compressType)) {
+            return Lz4Compressor.INSTANCE;
+        }
+        if (CacheConsts.REDIS_COMPRESS_ZSTD.equalsIgnoreCase(compressType)) {
+            return ZstdCompressor.INSTANCE;
+        }
+        throw new L2CacheException("unsupported redis compressType " + compressType);
+    }
+
+    private static Codec createCodec(String codecName) {
+        if (CacheConsts.REDIS_CODEC_JDK.equalsIgnoreCase(codecName)) {
+            return new SerializationCodec();
+        }
+        if (CacheConsts.REDIS_CODEC_KRYO.equalsIgnoreCase(codecName)) {
+            return new Kryo5Codec();
+        }
+        if (CacheConsts.REDIS_CODEC_JSON.equalsIgnoreCase(codecName)) {
+            return new JsonJacksonCodec();
+        }
+        try {
+            Class<?> clazz = Class.forName(codecName);
+            if (!Codec.class.isAssignableFrom(clazz)) {
+                throw new L2CacheException("redis codec must implement org.redisson.client.codec.Codec, codec=" + codecName);
+            }
+            return (Codec) clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new L2CacheException("create redis codec error, codec=" + codecName, e);
+        }
+    }
+}
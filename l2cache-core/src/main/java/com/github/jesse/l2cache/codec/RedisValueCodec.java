@@ -0,0 +1,162 @@
+package com.github.jesse.l2cache.codec;
+
+import com.github.jesse.l2cache.content.NullValue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+
+/**
+ * 二级缓存 redis value 的编解码器
+ * <p>
+ * 在实际的序列化codec外包装5个字节的头部：4个字节的魔数 MAGIC + 1个字节的标识
+ * 1、NullValue 只存储头部 FLAG_NULL，不经过序列化
+ * 2、编码后的数据小于 compressThreshold 时，存储 FLAG_RAW + 原始数据
+ * 3、编码后的数据大于等于 compressThreshold 时，存储 FLAG_LZ4/FLAG_ZSTD + 原始长度(4字节) + 压缩后的数据，压缩后反而更大时按原始数据存储
+ * <p>
+ * 注：解码时按头部选择解压方式，所以修改 compressType 后，已有的数据仍可正常读取
+ * 注：不以魔数开头的数据，按 codec 直接解码，以兼容未包装的旧数据；单个字节的标识会与旧数据的首字节冲突（如kryo序列化的首字节通常为0x01），所以使用多字节的魔数
+ *
+ * @author chenck
+ * @date 2026/10/16 18:50
+ */
+public class RedisValueCodec extends BaseCodec {
+
+    /**
+     * 头部魔数，jdk（0xACED）、json（{ [ "）、kryo（类id的varint）序列化的数据不会以该魔数开头
+     */
+    private static final byte[] MAGIC = {(byte) 0xFE, 'L', '2', 'C'};
+
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    private static final byte FLAG_NULL = 0x00;
+    private static final byte FLAG_RAW = 0x01;
+    private static final byte FLAG_LZ4 = 0x02;
+    private static final byte FLAG_ZSTD = 0x03;
+
+    /**
+     * 实际的序列化codec
+     */
+    private final Codec codec;
+
+    /**
+     * 压缩器，为null表示不压缩
+     */
+    private final Compressor compressor;
+
+    /**
+     * 压缩阈值(字节)
+     */
+    private final int compressThreshold;
+
+    private final Encoder encoder = new Encoder() {
+        @Override
+        public ByteBuf encode(Object in) throws IOException {
+            if (in instanceof NullValue) {
+                return Unpooled.wrappedBuffer(new byte[]{MAGIC[0], MAGIC[1], MAGIC[2], MAGIC[3], FLAG_NULL});
+            }
+            ByteBuf buf = codec.getValueEncoder().encode(in);
+            try {
+                int length = buf.readableBytes();
+                if (null != compressor && length >= compressThreshold) {
+                    byte[] bytes = ByteBufUtil.getBytes(buf);
+                    byte[] compressed = compressor.compress(bytes);
+                    if (compressed.length < length) {
+                        ByteBuf out = ByteBufAllocator.DEFAULT.buffer(HEADER_LENGTH + 4 + compressed.length);
+                        out.writeBytes(MAGIC);
+                        out.writeByte(compressor instanceof ZstdCompressor ? FLAG_ZSTD : FLAG_LZ4);
+                        out.writeInt(length);
+                        out.writeBytes(compressed);
+                        return out;
+                    }
+                }
+                ByteBuf out = ByteBufAllocator.DEFAULT.buffer(HEADER_LENGTH + length);
+                out.writeBytes(MAGIC);
+                out.writeByte(FLAG_RAW);
+                out.writeBytes(buf);
+                return out;
+            } finally {
+                buf.release();
+            }
+        }
+    };
+
+    private final Decoder<Object> decoder = (buf, state) -> {
+        if (!buf.isReadable()) {
+            return null;
+        }
+        if (!hasMagic(buf)) {
+            // 未包装的旧数据
+            return codec.getValueDecoder().decode(buf, state);
+        }
+        byte flag = buf.getByte(buf.readerIndex() + MAGIC.length);
+        switch (flag) {
+            case FLAG_NULL:
+                buf.skipBytes(HEADER_LENGTH);
+                return NullValue.INSTANCE;
+            case FLAG_RAW:
+                buf.skipBytes(HEADER_LENGTH);
+                return codec.getValueDecoder().decode(buf, state);
+            case FLAG_LZ4:
+            case FLAG_ZSTD:
+                buf.skipBytes(HEADER_LENGTH);
+                int originalLength = buf.readInt();
+                byte[] compressed = new byte[buf.readableBytes()];
+                buf.readBytes(compressed);
+                Compressor decompressor = flag == FLAG_ZSTD ? ZstdCompressor.INSTANCE : Lz4Compressor.INSTANCE;
+                ByteBuf decompressed = Unpooled.wrappedBuffer(decompressor.decompress(compressed, originalLength));
+                try {
+                    return codec.getValueDecoder().decode(decompressed, state);
+                } finally {
+                    decompressed.release();
+                }
+            default:
+                throw new IOException("unknown RedisValueCodec flag: " + flag);
+        }
+    };
+
+    private static boolean hasMagic(ByteBuf buf) {
+        if (buf.readableBytes() < HEADER_LENGTH) {
+            return false;
+        }
+        int index = buf.readerIndex();
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buf.getByte(index + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public RedisValueCodec(Codec codec, Compressor compressor, int compressThreshold) {
+        this.codec = codec;
+        this.compressor = compressor;
+        this.compressThreshold = Math.max(0, compressThreshold);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return codec.getClassLoader();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [codec=" + codec + ", compressor=" + compressor + ", compressThreshold=" + compressThreshold + "]";
+    }
+}
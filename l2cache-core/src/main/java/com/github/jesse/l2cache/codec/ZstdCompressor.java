@@ -0,0 +1,33 @@
+package com.github.jesse.l2cache.codec;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * zstd 压缩器，压缩率比lz4高，但耗费更多cpu，适合大value且更关注redis内存和带宽的场景
+ * 注：需引入 com.github.luben:zstd-jni
+ *
+ * @author chenck
+ * @date 2026/10/16 18:40
+ */
+public class ZstdCompressor implements Compressor {
+
+    public static final ZstdCompressor INSTANCE = new ZstdCompressor();
+
+    /**
+     * 压缩级别，级别越高压缩率越高、速度越慢，3 为zstd的默认级别
+     */
+    private static final int LEVEL = 3;
+
+    private ZstdCompressor() {
+    }
+
+    @Override
+    public byte[] compress(byte[] src) {
+        return Zstd.compress(src, LEVEL);
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int originalLength) {
+        return Zstd.decompress(src, originalLength);
+    }
+}
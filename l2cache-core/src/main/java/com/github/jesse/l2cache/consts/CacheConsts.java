@@ -13,6 +13,27 @@ public class CacheConsts {
     public static final String CACHE_CLEAR = "clear";
     public static final String CACHE_HOTKEY = "hotkey";
     public static final String CACHE_HOTKEY_EVIT = "hotkey_evit";
+    /**
+     * 命名空间代数变更，key为新的代数
+     */
+    public static final String CACHE_GENERATION = "generation";
+    /**
+     * 已知key全集新增key；已知key全集重建完成，key为重建时间
+     */
+    public static final String CACHE_UNIVERSE_ADD = "universe_add";
+    public static final String CACHE_UNIVERSE_REBUILD = "universe_rebuild";
+    /**
+     * 负缓存同步，desc为 put/bypass/clear
+     */
+    public static final String CACHE_NEGATIVE = "negative";
+    public static final String NEGATIVE_PUT = "put";
+    public static final String NEGATIVE_BYPASS = "bypass";
+    public static final String NEGATIVE_CLEAR = "clear";
+
+    /**
+     * 批量put/evict时，一条缓存消息中最多携带的key数量，超过时拆分为多条消息，避免单条消息过大
+     */
+    public static final int BATCH_MESSAGE_MAX_KEYS = 1000;
 
     /**
      * 分隔符
@@ -35,6 +56,25 @@ public class CacheConsts {
     public static final String SID = "sid";
     public static final String TRACE_ID = "trace_id";
     public static final String PREFIX_CACHE_MSG = "CACHE_MSG";
+    /**
+     * 命名空间代数计数器的key前缀
+     */
+    public static final String PREFIX_GENERATION = "l2cache:generation:";
+
+    /**
+     * 已知key全集过滤器的key前缀
+     */
+    public static final String PREFIX_UNIVERSE = "l2cache:universe:";
+
+    /**
+     * 负缓存镜像到redis的key前缀
+     */
+    public static final String PREFIX_NEGATIVE = "l2cache:negative:";
+
+    /**
+     * 保存热key（用于启动预热）的key前缀
+     */
+    public static final String PREFIX_HOTKEY = "l2cache:hotkey:";
     /**
      * 清理 NullValue 的Task的trace_id的前缀
      */
@@ -46,4 +86,27 @@ public class CacheConsts {
      */
     public static final String PRINT_DETAIL_LOG = "on";
     public static final String NOT_PRINT_DETAIL_LOG = "off";
+
+    /**
+     * redis批量操作模式
+     * bucket 通过RBatch对每个key执行单独的命令（GET/SET/GETDEL）
+     * multikey 通过多key命令执行（MGET/Lua批量SET/DEL），按slot分组
+     */
+    public static final String REDIS_BATCH_MODE_BUCKET = "bucket";
+    public static final String REDIS_BATCH_MODE_MULTIKEY = "multikey";
+
+    /**
+     * redis value 的编解码器
+     * jdk 使用jdk序列化，kryo 使用kryo5序列化，json 使用jackson序列化
+     */
+    public static final String REDIS_CODEC_JDK = "jdk";
+    public static final String REDIS_CODEC_KRYO = "kryo";
+    public static final String REDIS_CODEC_JSON = "json";
+
+    /**
+     * redis value 的压缩类型
+     */
+    public static final String REDIS_COMPRESS_NONE = "none";
+    public static final String REDIS_COMPRESS_LZ4 = "lz4";
+    public static final String REDIS_COMPRESS_ZSTD = "zstd";
 }
@@ -13,7 +13,9 @@ public enum CacheType {
     COMPOSITE,
     // L1
     CAFFEINE,
+    CAFFEINE_ASYNC,
     GUAVA,
+    OFFHEAP,
     // L2
     REDIS,
     ;
@@ -13,6 +13,8 @@ public enum HotkeyType {
     JD,
     // 阿里 sentinel
     SENTINEL,
+    // 本地 count-min sketch
+    LOCAL,
     ;
 
     public static HotkeyType getHotkeyType(String type) {
@@ -0,0 +1,28 @@
+package com.github.jesse.l2cache.consts;
+
+/**
+ * 缓存预热的key来源
+ *
+ * @author chenck
+ * @date 2026/10/16 22:50
+ */
+public enum PreloadSource {
+    // 业务自定义的 PreloadKeyProvider
+    PROVIDER,
+    // 保存在redis中的热key，以及本机已识别的热key（AutoDetectHotKeyCache）
+    HOTKEY,
+    // SCAN 遍历redis中cacheName前缀的key
+    SCAN,
+    ;
+
+    public static PreloadSource getPreloadSource(String source) {
+        PreloadSource[] sources = PreloadSource.values();
+        for (PreloadSource preloadSource : sources) {
+            if (preloadSource.name().equalsIgnoreCase(source)) {
+                return preloadSource;
+            }
+        }
+        return null;
+    }
+
+}
@@ -23,6 +23,7 @@ public class CacheSupport {
     /**
      * 缓存容器
      * Map<cacheType,Map<cacheName,Cache>>
+     * 注：cacheType 统一转为小写后作为key，与 Cache.getCacheType()（缓存同步消息中的cacheType）保持一致，配置中的cacheType不区分大小写
      */
     private static final Map<String, ConcurrentHashMap<String, Cache>> CACHE_TYPE_CACHE_MAP = new ConcurrentHashMap<>(32);
     /**
@@ -38,7 +39,10 @@ public class CacheSupport {
      * 获取缓存实例 Cache
      */
     public static Cache getCache(String cacheType, String cacheName) {
-        ConcurrentHashMap<String, Cache> cacheMap = CACHE_TYPE_CACHE_MAP.get(cacheType);
+        if (null == cacheType) {
+            return null;
+        }
+        ConcurrentHashMap<String, Cache> cacheMap = CACHE_TYPE_CACHE_MAP.get(normalizeType(cacheType));
         if (null == cacheMap) {
             return null;
         }
@@ -65,7 +69,10 @@ public class CacheSupport {
      * 获取缓存配置 CacheSpec
      */
     public static CacheSpec getCacheSpec(String cacheType, String cacheName) {
-        ConcurrentHashMap<String, CacheSpec> cacheSpecMap = CACHE_TYPE_CACHESPC_MAP.get(cacheType);
+        if (null == cacheType) {
+            return null;
+        }
+        ConcurrentHashMap<String, CacheSpec> cacheSpecMap = CACHE_TYPE_CACHESPC_MAP.get(normalizeType(cacheType));
         if (null == cacheSpecMap) {
             return null;
         }
@@ -82,6 +89,7 @@ public class CacheSupport {
         if (StrUtil.isEmpty(cacheName)) {
             throw new IllegalArgumentException("缓存名称不能为空");
         }
+        cacheType = normalizeType(cacheType);
 
         ConcurrentHashMap<String, Cache> cacheMap = CACHE_TYPE_CACHE_MAP.get(cacheType);
         if (null == cacheMap) {
@@ -133,4 +141,11 @@ public class CacheSupport {
         }
     }
 
+    /**
+     * 缓存类型统一转为小写
+     */
+    private static String normalizeType(String cacheType) {
+        return cacheType.toLowerCase();
+    }
+
 }
@@ -0,0 +1,65 @@
+package com.github.jesse.l2cache.content;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * 带逻辑过期时间的缓存值，用于二级缓存的 stale-while-revalidate 和概率提前刷新（XFetch）
+ * <p>
+ * redis的过期时间（物理过期）= 逻辑过期时间 + staleMaxMillis，逻辑过期后到物理过期前，读取时返回旧值，并异步刷新
+ * 仅开启提前刷新时，物理过期时间与逻辑过期时间相同，逻辑过期前按 loadMillis 概率触发异步刷新
+ * 注：需有无参构造函数和getter/setter，以支持json、kryo等codec
+ *
+ * @author chenck
+ * @date 2026/10/16 20:00
+ */
+@Getter
+@Setter
+public class LogicalExpireValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存值
+     */
+    private Object value;
+
+    /**
+     * 逻辑过期的时间戳(ms)
+     */
+    private long expireAt;
+
+    /**
+     * 加载该值的耗时(ms)，0表示未知（如直接put的值）
+     */
+    private long loadMillis;
+
+    public LogicalExpireValue() {
+    }
+
+    public LogicalExpireValue(Object value, long expireAt) {
+        this.value = value;
+        this.expireAt = expireAt;
+    }
+
+    public LogicalExpireValue(Object value, long expireAt, long loadMillis) {
+        this.value = value;
+        this.expireAt = expireAt;
+        this.loadMillis = loadMillis;
+    }
+
+    /**
+     * 是否已逻辑过期
+     * 注：带参数，避免被json等codec当作属性序列化
+     */
+    public boolean isExpiredAt(long now) {
+        return now >= expireAt;
+    }
+
+    @Override
+    public String toString() {
+        return "LogicalExpireValue [value=" + value + ", expireAt=" + expireAt + ", loadMillis=" + loadMillis + "]";
+    }
+}
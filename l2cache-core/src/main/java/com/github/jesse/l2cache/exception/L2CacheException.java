@@ -17,6 +17,10 @@ public class L2CacheException extends RuntimeException {
         super(message);
     }
 
+    public L2CacheException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
     public L2CacheException(int code, String message) {
         super(message);
         this.code = code;
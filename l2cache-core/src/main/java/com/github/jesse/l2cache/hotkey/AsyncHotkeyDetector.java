@@ -0,0 +1,117 @@
+package com.github.jesse.l2cache.hotkey;
+
+import com.github.jesse.l2cache.HotkeyService;
+import com.github.jesse.l2cache.L2CacheConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步热key探测（每个 CompositeCache 一个实例）
+ * <p>
+ * 1、请求线程：按采样率将key写入 HotkeyAccessBuffer，然后只查询热key集合，O(1) 且不调用 HotkeyService
+ * 2、后台线程：由 HotKeyFacade 周期性调用 drain()，将访问事件交给 HotkeyService.isHotkey() 识别，并更新热key集合
+ * 3、HotkeyService 识别为非热key时从集合中移除，长时间未访问的热key按 expireSeconds 过期移除
+ * <p>
+ * 注：热key集合的更新滞后于访问一个消费周期（drainIntervalMillis），对热key探测的场景可以接受
+ *
+ * @author chenck
+ * @date 2026/10/16 23:30
+ */
+@Slf4j
+public class AsyncHotkeyDetector {
+
+    /**
+     * 过期热key的清理间隔(ms)
+     */
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final HotkeyService hotkeyService;
+
+    private final String level1CacheType;
+
+    private final String cacheName;
+
+    private final HotkeyAccessBuffer buffer;
+
+    private final double sampleRate;
+
+    private final long expireMillis;
+
+    private final int maxHotKeys;
+
+    /**
+     * 热key集合，<key,value>=<key, 过期时间点(ms)>
+     */
+    private final Map<String, Long> hotKeyMap = new ConcurrentHashMap<>();
+
+    private long lastSweepTime = System.currentTimeMillis();
+
+    public AsyncHotkeyDetector(HotkeyService hotkeyService, L2CacheConfig.Hotkey.AsyncHotkey async, String level1CacheType, String cacheName) {
+        this.hotkeyService = hotkeyService;
+        this.level1CacheType = level1CacheType;
+        this.cacheName = cacheName;
+        this.buffer = new HotkeyAccessBuffer(async.getStripes(), async.getBufferSize());
+        this.sampleRate = async.getSampleRateMap().getOrDefault(cacheName, async.getSampleRate());
+        this.expireMillis = TimeUnit.SECONDS.toMillis(async.getExpireSeconds());
+        this.maxHotKeys = async.getMaxHotKeys();
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * 是否为热key（请求线程调用）
+     */
+    public boolean isHotkey(String key) {
+        if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            buffer.offer(key);
+        }
+        return hotKeyMap.containsKey(key);
+    }
+
+    /**
+     * 收到其他节点识别到的热key
+     */
+    public void markHot(String key) {
+        this.putHotKey(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 消费访问事件，识别热key（仅由后台线程调用）
+     *
+     * @return 消费的事件数量
+     */
+    public int drain() {
+        long now = System.currentTimeMillis();
+        int count = buffer.drainTo(key -> this.detect(key, now));
+        if (now - lastSweepTime >= SWEEP_INTERVAL_MILLIS) {
+            lastSweepTime = now;
+            hotKeyMap.entrySet().removeIf(entry -> entry.getValue() <= now);
+        }
+        return count;
+    }
+
+    private void detect(String key, long now) {
+        try {
+            if (HotKeyFacade.isHotkey(hotkeyService, level1CacheType, cacheName, key)) {
+                this.putHotKey(key, now);
+            } else {
+                hotKeyMap.remove(key);
+            }
+        } catch (Exception e) {
+            log.error("async detect hotkey error, cacheName={}, key={}", cacheName, key, e);
+        }
+    }
+
+    private void putHotKey(String key, long now) {
+        if (hotKeyMap.size() >= maxHotKeys && !hotKeyMap.containsKey(key)) {
+            return;
+        }
+        hotKeyMap.put(key, now + expireMillis);
+    }
+}
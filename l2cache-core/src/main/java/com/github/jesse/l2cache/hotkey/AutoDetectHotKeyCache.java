@@ -7,6 +7,8 @@ import com.github.jesse.l2cache.util.pool.MdcForkJoinPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -78,6 +80,20 @@ public class AutoDetectHotKeyCache {
         return true;
     }
 
+    /**
+     * 获取指定cacheName下的热key（去掉cacheName前缀），用于预热等场景
+     */
+    public static List<String> keys(String cacheName) {
+        String prefix = cacheName + CacheConsts.SPLIT_UNDERLINE;
+        List<String> keys = new ArrayList<>();
+        for (String key : hotKeyCache.asMap().keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key.substring(prefix.length()));
+            }
+        }
+        return keys;
+    }
+
     /**
      * 构建key
      */
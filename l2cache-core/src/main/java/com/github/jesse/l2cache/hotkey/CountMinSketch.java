@@ -0,0 +1,80 @@
+package com.github.jesse.l2cache.hotkey;
+
+/**
+ * count-min sketch 频率估算
+ * <p>
+ * 1、4行计数器，每行 width 个，key的hash经过4个不同的种子散列后各自定位一个计数器
+ * 2、increment() 对4个计数器加1并返回最小值作为估算值（只会高估，不会低估）
+ * 3、decay() 将所有计数器减半，实现按时间衰减，使估算值反映最近的访问频率
+ * <p>
+ * 注：计数器的读写不加锁，并发时允许少量计数丢失，换取无锁、无对象分配的O(1)计数
+ *
+ * @author chenck
+ * @date 2026/10/16 23:10
+ */
+public class CountMinSketch {
+
+    private static final int DEPTH = 4;
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int[] table;
+
+    private final int widthMask;
+
+    private final int width;
+
+    public CountMinSketch(int width) {
+        int w = 16;
+        while (w < width) {
+            w <<= 1;
+        }
+        this.width = w;
+        this.widthMask = w - 1;
+        this.table = new int[DEPTH * w];
+    }
+
+    /**
+     * 计数加1，并返回估算值
+     */
+    public int increment(int hash) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = this.indexOf(hash, i);
+            int count = table[index];
+            if (count < Integer.MAX_VALUE) {
+                table[index] = ++count;
+            }
+            if (count < min) {
+                min = count;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * 估算值
+     */
+    public int frequency(int hash) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, table[this.indexOf(hash, i)]);
+        }
+        return min;
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    public void decay() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+    }
+
+    private int indexOf(int hash, int i) {
+        int h = hash * SEEDS[i];
+        h ^= h >>> 16;
+        return i * width + (h & widthMask);
+    }
+}
@@ -2,10 +2,18 @@ package com.github.jesse.l2cache.hotkey;
 
 import cn.hutool.core.util.ObjectUtil;
 import com.github.jesse.l2cache.HotkeyService;
+import com.github.jesse.l2cache.L2CacheConfig;
 import com.github.jesse.l2cache.consts.HotkeyType;
 import com.github.jesse.l2cache.spi.ServiceLoader;
+import com.github.jesse.l2cache.util.pool.DaemonThreadFactory;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 热key的工具类：门面
  *
@@ -15,28 +23,125 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class HotKeyFacade {
 
+    /**
+     * 缓存 HotkeyService 实例，避免每次判断热key时都通过 ServiceLoader 查找
+     * <key,value>=<hotkeyType, HotkeyService>
+     */
+    private static final Map<String, HotkeyService> HOTKEY_SERVICE_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 异步热key探测实例
+     * <key,value>=<cacheName, AsyncHotkeyDetector>
+     */
+    private static final Map<String, AsyncHotkeyDetector> ASYNC_DETECTOR_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 消费异步热key探测缓冲区的后台线程，所有cacheName共用
+     */
+    private static ScheduledExecutorService drainScheduler;
+
     /**
      * 统一的入口：判断是否为热key
      *
      * @param level1CacheType 一级缓存的缓存类型
      */
     public static boolean isHotkey(String hotkeyType, String level1CacheType, String cacheName, String key) {
+        return isHotkey(getHotkeyService(hotkeyType), level1CacheType, cacheName, key);
+    }
+
+    /**
+     * 判断是否为热key
+     * 注：用于调用方已提前获取 HotkeyService 的场景，如 CompositeCache
+     *
+     * @param hotkeyService 为null表示没有配置热key识别
+     */
+    public static boolean isHotkey(HotkeyService hotkeyService, String level1CacheType, String cacheName, String key) {
+        if (null == hotkeyService) {
+            return false;
+        }
+        if (ObjectUtil.isEmpty(cacheName) || ObjectUtil.isEmpty(key)) {
+            return false;
+        }
+        return hotkeyService.isHotkey(level1CacheType, cacheName, key);
+    }
+
+    /**
+     * 将其他节点识别到的热key通知到已加载的 HotkeyService
+     */
+    public static void onRemoteHotkey(String cacheName, Object key) {
+        if (ObjectUtil.isEmpty(cacheName) || ObjectUtil.isEmpty(key)) {
+            return;
+        }
+        HOTKEY_SERVICE_MAP.values().forEach(hotkeyService -> hotkeyService.onRemoteHotkey(cacheName, key.toString()));
+        AsyncHotkeyDetector detector = ASYNC_DETECTOR_MAP.get(cacheName);
+        if (null != detector) {
+            detector.markHot(key.toString());
+        }
+    }
+
+    /**
+     * 创建异步热key探测实例，并启动后台消费线程
+     *
+     * @return 未开启异步探测或没有配置热key识别时，返回null
+     */
+    public static AsyncHotkeyDetector newAsyncDetector(HotkeyService hotkeyService, L2CacheConfig.Hotkey.AsyncHotkey async, String level1CacheType, String cacheName) {
+        if (null == hotkeyService || null == async || !async.isEnabled()) {
+            return null;
+        }
+        AsyncHotkeyDetector detector = new AsyncHotkeyDetector(hotkeyService, async, level1CacheType, cacheName);
+        ASYNC_DETECTOR_MAP.put(cacheName, detector);
+        startDrain(async.getDrainIntervalMillis());
+        log.info("async hotkey detector created, cacheName={}, config={}", cacheName, async);
+        return detector;
+    }
+
+    /**
+     * 启动后台消费线程
+     * 注：所有cacheName共用一个线程，消费间隔以第一次创建时的配置为准
+     */
+    private static synchronized void startDrain(long drainIntervalMillis) {
+        if (null != drainScheduler) {
+            return;
+        }
+        long interval = Math.max(1, drainIntervalMillis);
+        drainScheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("l2cache-hotkey-drain-"));
+        drainScheduler.scheduleWithFixedDelay(HotKeyFacade::drainAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static void drainAll() {
+        for (AsyncHotkeyDetector detector : ASYNC_DETECTOR_MAP.values()) {
+            try {
+                detector.drain();
+            } catch (Exception e) {
+                log.error("drain hotkey access buffer error, cacheName={}", detector.getCacheName(), e);
+            }
+        }
+    }
+
+    /**
+     * 获取 HotkeyService 实例
+     *
+     * @return 热key类型为空、NONE或无匹配的实现类时，返回null
+     */
+    public static HotkeyService getHotkeyService(String hotkeyType) {
         // 热key类型为空，则直接返回
         if (ObjectUtil.isEmpty(hotkeyType)) {
-            return false;
+            return null;
         }
         // 没有配置热key识别，则直接返回
         if (HotkeyType.NONE.name().equalsIgnoreCase(hotkeyType)) {
-            return false;
+            return null;
         }
-        if (ObjectUtil.isEmpty(cacheName) || ObjectUtil.isEmpty(key)) {
-            return false;
+        HotkeyService hotkeyService = HOTKEY_SERVICE_MAP.get(hotkeyType);
+        if (null != hotkeyService) {
+            return hotkeyService;
         }
-        HotkeyService hotkeyService = ServiceLoader.load(HotkeyService.class, hotkeyType);
+        hotkeyService = ServiceLoader.load(HotkeyService.class, hotkeyType);
         if (ObjectUtil.isNull(hotkeyService)) {
             log.error("非法的 hotkeyType,无匹配的HotKey实现类, hotkeyType={}", hotkeyType);
-            return false;
+            return null;
         }
-        return hotkeyService.isHotkey(level1CacheType, cacheName, key);
+        HOTKEY_SERVICE_MAP.putIfAbsent(hotkeyType, hotkeyService);
+        return hotkeyService;
     }
 }
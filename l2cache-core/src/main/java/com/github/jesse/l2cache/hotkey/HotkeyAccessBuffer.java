@@ -0,0 +1,125 @@
+package com.github.jesse.l2cache.hotkey;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 热key访问事件缓冲区：有损的分段 MPSC 环形缓冲区
+ * <p>
+ * 1、按线程id选择分段，每个分段是一个固定容量的环形数组，多个请求线程写入，一个后台线程消费
+ * 2、写入时分段已满或CAS竞争失败，直接丢弃事件并返回false，请求线程不会阻塞、不会自旋
+ * 3、drainTo() 只能由单个线程调用，按分段依次消费已写入的事件
+ * <p>
+ * 注：热key识别只关心访问频率的大致分布，丢弃少量事件相当于额外的采样，不影响识别结果
+ *
+ * @author chenck
+ * @date 2026/10/16 23:30
+ */
+public class HotkeyAccessBuffer {
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    public HotkeyAccessBuffer(int stripeCount, int bufferSize) {
+        int count = ceilingPowerOfTwo(stripeCount);
+        int capacity = ceilingPowerOfTwo(bufferSize);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * 写入访问事件
+     *
+     * @return false 表示事件被丢弃
+     */
+    public boolean offer(String key) {
+        long threadId = Thread.currentThread().getId();
+        int index = (int) (threadId ^ (threadId >>> 16)) & stripeMask;
+        return stripes[index].offer(key);
+    }
+
+    /**
+     * 消费所有分段中已写入的事件
+     * 注：仅允许单线程调用
+     *
+     * @return 消费的事件数量
+     */
+    public int drainTo(Consumer<String> consumer) {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.drainTo(consumer);
+        }
+        return count;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int n = 1;
+        while (n < value) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private static class Stripe {
+
+        private final AtomicReferenceArray<String> buffer;
+
+        private final int mask;
+
+        /**
+         * 下一个写入位置，由请求线程CAS递增
+         */
+        private final AtomicLong writeIndex = new AtomicLong();
+
+        /**
+         * 下一个读取位置，仅由消费线程更新
+         */
+        private volatile long readIndex;
+
+        Stripe(int capacity) {
+            this.buffer = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        boolean offer(String key) {
+            long tail = writeIndex.get();
+            if (tail - readIndex >= buffer.length()) {
+                return false;
+            }
+            if (!writeIndex.compareAndSet(tail, tail + 1)) {
+                return false;
+            }
+            buffer.lazySet((int) tail & mask, key);
+            return true;
+        }
+
+        int drainTo(Consumer<String> consumer) {
+            long head = readIndex;
+            long tail = writeIndex.get();
+            int count = 0;
+            try {
+                while (head < tail) {
+                    int index = (int) head & mask;
+                    String key = buffer.get(index);
+                    if (null == key) {
+                        // 位置已被占用但尚未写入，下次再消费
+                        break;
+                    }
+                    buffer.lazySet(index, null);
+                    head++;
+                    count++;
+                    consumer.accept(key);
+                }
+            } finally {
+                // consumer 异常时也推进读取位置，避免已清空的位置阻塞后续消费
+                readIndex = head;
+            }
+            return count;
+        }
+    }
+}
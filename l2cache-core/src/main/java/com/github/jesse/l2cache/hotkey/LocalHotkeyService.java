@@ -0,0 +1,270 @@
+package com.github.jesse.l2cache.hotkey;
+
+import com.github.jesse.l2cache.CacheSyncPolicy;
+import com.github.jesse.l2cache.HotkeyService;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.util.pool.DaemonThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地热key探测（无外部依赖）
+ * <p>
+ * 1、每个cacheName一个 count-min sketch，isHotkey() 时计数，计数器按 decayPeriodMillis 周期减半，估算值反映最近的访问频率
+ * 2、估算值达到 threshold 的key进入有界的 top-K 最小堆，堆满时淘汰访问次数最少的key
+ * 3、识别到热key后，缓存到 AutoDetectHotKeyCache，并通过 CacheSyncPolicy 发送 CACHE_HOTKEY 消息通知其他节点
+ * <p>
+ * 注：非热key的判断只有一次 sketch 计数和一次 ConcurrentHashMap 查询，O(1) 且不产生对象分配；只有新识别到热key时才加锁更新 top-K
+ *
+ * @author chenck
+ * @date 2026/10/16 23:10
+ */
+@Slf4j
+public class LocalHotkeyService implements HotkeyService {
+
+    private String instanceId;
+
+    private CacheSyncPolicy cacheSyncPolicy;
+
+    private L2CacheConfig.Hotkey.LocalHotkey config = new L2CacheConfig.Hotkey.LocalHotkey();
+
+    /**
+     * <key,value>=<cacheName, Detector>
+     */
+    private final Map<String, Detector> detectorMap = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    @Override
+    public void setCacheSyncPolicy(CacheSyncPolicy cacheSyncPolicy) {
+        this.cacheSyncPolicy = cacheSyncPolicy;
+    }
+
+    @Override
+    public synchronized void init(L2CacheConfig.Hotkey hotkey, List<String> cacheNameList) {
+        this.config = hotkey.getLocal();
+        cacheNameList.forEach(this::getDetector);
+        log.info("LocalHotkeyService init, config={}, cacheNameList={}", config, cacheNameList);
+    }
+
+    @Override
+    public boolean isHotkey(String level1CacheType, String cacheName, String key) {
+        return this.getDetector(cacheName).isHotkey(level1CacheType, key);
+    }
+
+    @Override
+    public void onRemoteHotkey(String cacheName, String key) {
+        this.getDetector(cacheName).markHot(key);
+    }
+
+    /**
+     * 获取指定cacheName的本机热key（按访问次数从高到低）
+     */
+    public List<String> topKeys(String cacheName) {
+        Detector detector = detectorMap.get(cacheName);
+        return null == detector ? new ArrayList<>() : detector.topKeys();
+    }
+
+    private Detector getDetector(String cacheName) {
+        Detector detector = detectorMap.get(cacheName);
+        if (null != detector) {
+            return detector;
+        }
+        this.startDecay();
+        return detectorMap.computeIfAbsent(cacheName, Detector::new);
+    }
+
+    /**
+     * 启动计数器衰减的定时任务
+     * 注：未调用 init() 时（如非spring环境）在首次使用时启动，使用默认配置
+     */
+    private synchronized void startDecay() {
+        if (null != scheduler) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("l2cache-local-hotkey-"));
+        scheduler.scheduleWithFixedDelay(this::decay, config.getDecayPeriodMillis(), config.getDecayPeriodMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 计数器衰减，并清理过期的热key
+     */
+    private void decay() {
+        try {
+            long now = System.currentTimeMillis();
+            detectorMap.values().forEach(detector -> detector.decay(now));
+        } catch (Exception e) {
+            log.error("LocalHotkeyService decay error", e);
+        }
+    }
+
+    private class Detector {
+
+        private final String cacheName;
+
+        private final CountMinSketch sketch;
+
+        /**
+         * 热key（本机识别和其他节点识别），<key,value>=<key, 过期时间点(ms)>
+         */
+        private final Map<String, Long> hotKeyMap = new ConcurrentHashMap<>();
+
+        /**
+         * 本机识别的热key，按访问次数的最小堆
+         */
+        private final PriorityQueue<HotKeyEntry> topKHeap = new PriorityQueue<>();
+
+        private final Map<String, HotKeyEntry> topKMap = new ConcurrentHashMap<>();
+
+        /**
+         * 堆满时堆顶的访问次数，用于在加锁前快速过滤
+         */
+        private volatile int minTopCount;
+
+        Detector(String cacheName) {
+            this.cacheName = cacheName;
+            this.sketch = new CountMinSketch(config.getSketchWidth());
+        }
+
+        boolean isHotkey(String level1CacheType, String key) {
+            int hash = hash(key);
+            int count = sketch.increment(hash);
+            Long expireAt = hotKeyMap.get(key);
+            if (null != expireAt && expireAt > System.currentTimeMillis()) {
+                return true;
+            }
+            if (count < config.getThreshold() || count <= minTopCount) {
+                return false;
+            }
+            return this.promote(level1CacheType, key, hash, count);
+        }
+
+        /**
+         * 进入top-K，并通知其他节点
+         */
+        private boolean promote(String level1CacheType, String key, int hash, int count) {
+            synchronized (this) {
+                Long expireAt = hotKeyMap.get(key);
+                if (null != expireAt && expireAt > System.currentTimeMillis()) {
+                    // 并发识别同一个key时，只通知一次
+                    return true;
+                }
+                HotKeyEntry entry = topKMap.get(key);
+                if (null != entry) {
+                    // 已在top-K中，但热key已过期，重新续期
+                    topKHeap.remove(entry);
+                    entry.count = count;
+                    topKHeap.add(entry);
+                } else {
+                    if (topKHeap.size() >= config.getTopK()) {
+                        this.rescore();
+                        HotKeyEntry min = topKHeap.peek();
+                        if (null == min || min.count >= count) {
+                            minTopCount = null == min ? 0 : min.count;
+                            return false;
+                        }
+                        topKHeap.poll();
+                        topKMap.remove(min.key);
+                        hotKeyMap.remove(min.key);
+                    }
+                    entry = new HotKeyEntry(key, hash, count);
+                    topKHeap.add(entry);
+                    topKMap.put(key, entry);
+                }
+                this.refreshMinTopCount();
+                this.markHot(key);
+            }
+            AutoDetectHotKeyCache.put(cacheName, key, Boolean.TRUE);
+            if (log.isDebugEnabled()) {
+                log.debug("local auto detect hotkey, cacheName={}, key={}, count={}", cacheName, key, count);
+            }
+
+            // 通知其他节点，探测到hotkey
+            if (null != cacheSyncPolicy) {
+                cacheSyncPolicy.publish(new CacheMessage()
+                        .setInstanceId(instanceId)
+                        .setCacheType(level1CacheType)
+                        .setCacheName(cacheName)
+                        .setKey(key)
+                        .setOptType(CacheConsts.CACHE_HOTKEY)
+                        .setDesc("Local Autodetect Hotkey"));
+            }
+            return true;
+        }
+
+        void markHot(String key) {
+            hotKeyMap.put(key, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(config.getExpireSeconds()));
+        }
+
+        synchronized void decay(long now) {
+            sketch.decay();
+            hotKeyMap.entrySet().removeIf(entry -> entry.getValue() <= now);
+            // top-K 的访问次数同步衰减，使新的热key能够替换旧的热key
+            this.rescore();
+            this.refreshMinTopCount();
+        }
+
+        /**
+         * 按 sketch 的当前估算值重新计算top-K的访问次数，避免以进入top-K时的旧值比较
+         */
+        private void rescore() {
+            List<HotKeyEntry> entries = new ArrayList<>(topKHeap);
+            topKHeap.clear();
+            for (HotKeyEntry entry : entries) {
+                entry.count = sketch.frequency(entry.hash);
+                topKHeap.add(entry);
+            }
+        }
+
+        synchronized List<String> topKeys() {
+            this.rescore();
+            List<HotKeyEntry> entries = new ArrayList<>(topKHeap);
+            entries.sort((a, b) -> Integer.compare(b.count, a.count));
+            List<String> keys = new ArrayList<>(entries.size());
+            entries.forEach(entry -> keys.add(entry.key));
+            return keys;
+        }
+
+        private void refreshMinTopCount() {
+            HotKeyEntry min = topKHeap.peek();
+            minTopCount = topKHeap.size() >= config.getTopK() && null != min ? min.count : 0;
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static class HotKeyEntry implements Comparable<HotKeyEntry> {
+        private final String key;
+        private final int hash;
+        private int count;
+
+        HotKeyEntry(String key, int hash, int count) {
+            this.key = key;
+            this.hash = hash;
+            this.count = count;
+        }
+
+        @Override
+        public int compareTo(HotKeyEntry o) {
+            return Integer.compare(this.count, o.count);
+        }
+    }
+}
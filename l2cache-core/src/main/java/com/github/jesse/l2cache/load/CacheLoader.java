@@ -56,4 +56,11 @@ public interface CacheLoader<K, V> extends Serializable {
      * 获取ValueLoaderWarpper对象
      */
     ValueLoaderWarpper getValueLoaderWarpper(K key);
+
+    /**
+     * 获取二级缓存，用于批量刷新等场景
+     */
+    default Level2Cache getLevel2Cache() {
+        return null;
+    }
 }
@@ -66,6 +66,11 @@ public class CustomCacheLoader implements CacheLoader<Object, Object> {
         this.level2Cache = level2Cache;
     }
 
+    @Override
+    public Level2Cache getLevel2Cache() {
+        return level2Cache;
+    }
+
     @Override
     public void setCacheSyncPolicy(CacheSyncPolicy cacheSyncPolicy) {
         this.cacheSyncPolicy = cacheSyncPolicy;
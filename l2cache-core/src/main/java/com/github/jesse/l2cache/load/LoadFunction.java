@@ -58,6 +58,7 @@ public class LoadFunction implements Function<Object, Object> {
 
     @Override
     public Object apply(Object key) {
+        long start = System.currentTimeMillis();
         try {
             // 走到此处，表明从L1中没有获取到缓存，需要先从L2中获取缓存，若L2无缓存，则再执行目标方法加载数据到缓存
             if (null == level2Cache) {
@@ -113,6 +114,10 @@ public class LoadFunction implements Function<Object, Object> {
             // 将异常包装spring cache异常
             throw SpringCacheExceptionUtil.warpper(key, this.valueLoader, ex);
         } finally {
+            if (null != valueLoader) {
+                // 记录加载耗时，用于概率提前刷新
+                valueLoader.setLoadMillis(System.currentTimeMillis() - start);
+            }
             if (null != valueLoader && valueLoader.getWaitRefreshNum() > 0) {
                 int beforeWaitRefreshNum = valueLoader.clearWaitRefreshNum();
                 if (logger.isDebugEnabled()) {
@@ -126,6 +131,10 @@ public class LoadFunction implements Function<Object, Object> {
      * 转换为存储的值
      */
     private Object toStoreValue(Object key, Object value) {
+        // 二级缓存启用了负缓存时，不存在的key已记录到负缓存中，一级缓存不再存储 NullValue（也不记录到nullValueCache）
+        if (null != level2Cache && level2Cache.isNegativeCacheEnabled() && NullValueUtil.isNull(value)) {
+            return null;
+        }
         // allowNullValues=true，且value=null，则往缓存中put一个NullValue空对象，防止请求穿透到二级缓存或者DB上
         // 注意：CaffeineCache 的定时任务检查到缓存项的值为NullValue时，会清理掉该缓存项，避免一直缓存，一定程度上解决缓存穿透的问题。
         if (this.allowNullValues && (value == null || value instanceof NullValue)) {
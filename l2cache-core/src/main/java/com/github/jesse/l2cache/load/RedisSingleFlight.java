@@ -0,0 +1,246 @@
+package com.github.jesse.l2cache.load;
+
+import cn.hutool.core.util.IdUtil;
+import com.github.jesse.l2cache.exception.L2CacheException;
+import com.github.jesse.l2cache.util.RedisSlotUtil;
+import com.github.jesse.l2cache.util.Tuple2;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 集群维度的 single-flight 加载
+ * <p>
+ * 1、通过一次Lua往返完成“读取value + 加锁”：value存在则直接返回value，不存在则尝试加锁（SET NX PX）
+ * 2、加锁成功的请求（winner）执行加载并put到redis，然后在一次Lua往返中释放锁并发布完成通知
+ * 3、加锁失败的请求（其他线程和其他节点）等待完成通知，收到通知或者等待超时后再读取redis中的value，不会直接失败
+ * <p>
+ * 注：同一个 RedissonClient 只订阅一个topic，通知内容为 cacheKey，本地等待同一个 cacheKey 的请求共享同一个future，
+ * 收到通知时移除并完成future；等待超时的请求只减少引用计数，最后一个等待者超时才移除，避免其他仍在等待的请求错过通知
+ * 另外，同一个锁也用于 stale-while-revalidate 的异步刷新，保证集群中同一时刻只有一个节点刷新同一个key
+ *
+ * @author chenck
+ * @date 2026/10/16 19:30
+ */
+public class RedisSingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisSingleFlight.class);
+
+    /**
+     * 完成通知的topic
+     */
+    private static final String TOPIC = "l2cache:single_flight";
+
+    /**
+     * 锁key的后缀
+     */
+    private static final String LOCK_SUFFIX = ":single_flight_lock";
+
+    /**
+     * 通知内容的前缀：加载成功/加载失败
+     */
+    private static final String NOTIFY_SUCCESS = "1:";
+    private static final String NOTIFY_FAIL = "0:";
+
+    /**
+     * KEYS[1]为缓存key，KEYS[2]为锁key，ARGV[1]为锁的值，ARGV[2]为锁的过期时间(ms)
+     * 返回 {1, value} 表示value已存在，{2} 表示加锁成功，{0} 表示其他请求正在加载
+     */
+    private static final String ACQUIRE_SCRIPT = "local v = redis.call('get', KEYS[1]) "
+            + "if v then return {1, v} end "
+            + "if redis.call('set', KEYS[2], ARGV[1], 'nx', 'px', ARGV[2]) then return {2} end "
+            + "return {0}";
+
+    /**
+     * KEYS[1]为锁key，ARGV[1]为锁的值，ARGV[2]为topic，ARGV[3]为通知内容
+     * 只释放自己持有的锁（锁过期后可能已被其他请求持有）
+     */
+    private static final String RELEASE_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then redis.call('del', KEYS[1]) end "
+            + "redis.call('publish', ARGV[2], ARGV[3]) "
+            + "return 1";
+
+    private static final Map<RedissonClient, RedisSingleFlight> INSTANCE_MAP = new ConcurrentHashMap<>();
+
+    private final RedissonClient redissonClient;
+
+    private final RScript script;
+
+    /**
+     * 等待中的请求
+     * <cacheKey, Waiter>
+     */
+    private final Map<String, Waiter> waiterMap = new ConcurrentHashMap<>();
+
+    private RedisSingleFlight(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+        this.script = redissonClient.getScript(ByteArrayCodec.INSTANCE);
+        RTopic topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, msg) -> this.onNotify(msg));
+        logger.info("RedisSingleFlight subscribe topic, topic={}", TOPIC);
+    }
+
+    public static RedisSingleFlight getInstance(RedissonClient redissonClient) {
+        return INSTANCE_MAP.computeIfAbsent(redissonClient, RedisSingleFlight::new);
+    }
+
+    /**
+     * 生成锁的值，用于释放锁时判断是否为自己持有的锁
+     */
+    public String newToken() {
+        return IdUtil.fastSimpleUUID();
+    }
+
+    /**
+     * 读取value，value不存在时尝试加锁
+     *
+     * @return T1=true表示加锁成功；T1=false 且 T2!=null 表示value已存在；T1=false 且 T2=null 表示其他请求正在加载
+     */
+    public Tuple2<Boolean, Object> acquireOrGet(String cacheKey, String token, long leaseMillis, Codec codec) {
+        List<Object> keys = Arrays.asList(cacheKey, this.buildLockKey(cacheKey));
+        List<Object> result = script.eval(cacheKey, RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT, RScript.ReturnType.MULTI, keys,
+                token.getBytes(StandardCharsets.UTF_8), String.valueOf(leaseMillis).getBytes(StandardCharsets.UTF_8));
+        long flag = (Long) result.get(0);
+        if (flag == 2) {
+            return Tuple2.of(Boolean.TRUE, null);
+        }
+        if (flag == 1) {
+            return Tuple2.of(Boolean.FALSE, this.decode((byte[]) result.get(1), codec));
+        }
+        return Tuple2.of(Boolean.FALSE, null);
+    }
+
+    /**
+     * 尝试加锁，不读取value，用于已有value时的异步刷新（stale-while-revalidate）
+     */
+    public boolean tryLock(String cacheKey, String token, long leaseMillis) {
+        RBucket<String> lock = redissonClient.getBucket(this.buildLockKey(cacheKey), StringCodec.INSTANCE);
+        return lock.setIfAbsent(token, Duration.ofMillis(leaseMillis));
+    }
+
+    /**
+     * 释放锁，并通知等待的请求
+     *
+     * @param success 是否加载成功
+     */
+    public void release(String cacheKey, String token, boolean success) {
+        String notify = (success ? NOTIFY_SUCCESS : NOTIFY_FAIL) + cacheKey;
+        script.eval(cacheKey, RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                Arrays.asList(this.buildLockKey(cacheKey)),
+                token.getBytes(StandardCharsets.UTF_8), TOPIC.getBytes(StandardCharsets.UTF_8), notify.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 注册等待，需在 acquireOrGet() 返回正在加载之后、再次读取value之前调用，避免错过完成通知
+     */
+    public CompletableFuture<Boolean> register(String cacheKey) {
+        return waiterMap.compute(cacheKey, (k, waiter) -> {
+            Waiter current = null == waiter ? new Waiter() : waiter;
+            current.count++;
+            return current;
+        }).future;
+    }
+
+    /**
+     * 取消等待（等待超时，或注册后已读取到value），最后一个等待者取消时才移除future
+     */
+    public void unregister(String cacheKey, CompletableFuture<Boolean> future) {
+        waiterMap.computeIfPresent(cacheKey, (k, waiter) -> {
+            // 已收到通知（future已被移除）后重新注册的是新的future，不影响
+            if (waiter.future != future) {
+                return waiter;
+            }
+            return --waiter.count <= 0 ? null : waiter;
+        });
+    }
+
+    /**
+     * 等待加载完成
+     *
+     * @return true 加载成功，false 加载失败，null 等待超时
+     */
+    public Boolean await(String cacheKey, CompletableFuture<Boolean> future, long waitMillis) {
+        try {
+            return future.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            this.unregister(cacheKey, future);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.unregister(cacheKey, future);
+            return null;
+        } catch (ExecutionException e) {
+            return Boolean.FALSE;
+        }
+    }
+
+    private void onNotify(String msg) {
+        boolean success = msg.startsWith(NOTIFY_SUCCESS);
+        String cacheKey = msg.substring(NOTIFY_SUCCESS.length());
+        Waiter waiter = waiterMap.remove(cacheKey);
+        if (null != waiter) {
+            waiter.future.complete(success);
+        }
+    }
+
+    /**
+     * 本地等待同一个 cacheKey 的请求数量
+     */
+    public int waiterCount(String cacheKey) {
+        Waiter waiter = waiterMap.get(cacheKey);
+        return null == waiter ? 0 : waiter.count;
+    }
+
+    /**
+     * 锁key与缓存key需在同一个slot中，以便在cluster模式下通过一个Lua脚本操作
+     * 缓存key不含hashtag时，将整个缓存key作为锁key的hashtag；缓存key含hashtag时，直接在缓存key后面拼接后缀
+     */
+    private String buildLockKey(String cacheKey) {
+        String lockKey = "{" + cacheKey + "}" + LOCK_SUFFIX;
+        if (RedisSlotUtil.getSlot(lockKey) == RedisSlotUtil.getSlot(cacheKey)) {
+            return lockKey;
+        }
+        return cacheKey + LOCK_SUFFIX;
+    }
+
+    private Object decode(byte[] bytes, Codec codec) {
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return codec.getValueDecoder().decode(buf, null);
+        } catch (IOException e) {
+            throw new L2CacheException("decode value error, redissonClient=" + redissonClient, e);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 同一个 cacheKey 的等待者共享的future，及等待者数量（只在 waiterMap 的 compute 中修改）
+     * future的值为true表示加载成功，false表示加载失败
+     */
+    private static class Waiter {
+
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        int count;
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.jesse.l2cache.load;
 
+import com.github.jesse.l2cache.metrics.CacheMetrics;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +29,11 @@ public class ValueLoaderWarpper implements Callable {
 
     private Callable<?> valueLoader;
 
+    /**
+     * 最近一次加载数据的耗时(ms)，用于一级缓存的概率提前刷新
+     */
+    private volatile long loadMillis;
+
     public ValueLoaderWarpper(String cacheName, Object key, Callable<?> valueLoader) {
         this.cacheName = cacheName;
         this.key = key;
@@ -35,13 +42,21 @@ public class ValueLoaderWarpper implements Callable {
 
     @Override
     public Object call() throws Exception {
+        CacheMetrics metrics = CacheMetricsSupport.get();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        boolean success = false;
         try {
             if (null == valueLoader) {
                 logger.warn("valueLoader is null, return null, cacheName={}, key={}", cacheName, key);
                 return null;
             }
-            return valueLoader.call();
+            Object value = valueLoader.call();
+            success = true;
+            return value;
         } finally {
+            if (metrics.isEnabled() && null != valueLoader) {
+                metrics.recordLoad(cacheName, System.nanoTime() - start, success);
+            }
             // 用于过滤并发执行同一个key的refresh操作
             if (getWaitRefreshNum() > 0) {
                 int beforeWaitRefreshNum = this.clearWaitRefreshNum();
@@ -81,6 +96,14 @@ public class ValueLoaderWarpper implements Callable {
         this.valueLoader = valueLoader;
     }
 
+    public long getLoadMillis() {
+        return this.loadMillis;
+    }
+
+    public void setLoadMillis(long loadMillis) {
+        this.loadMillis = loadMillis;
+    }
+
     /**
      * 创建ValueLoaderWarpper实例
      */
@@ -0,0 +1,75 @@
+package com.github.jesse.l2cache.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * 缓存指标记录
+ * <p>
+ * 默认为 {@link NoopCacheMetrics}，所有方法为空实现；需要计时的埋点先判断 isEnabled()，未开启时不调用 System.nanoTime()
+ *
+ * @author chenck
+ * @date 2026/10/16 21:30
+ */
+public interface CacheMetrics {
+
+    String LEVEL_L1 = "l1";
+    String LEVEL_L2 = "l2";
+
+    /**
+     * 是否开启
+     */
+    boolean isEnabled();
+
+    /**
+     * 记录命中数
+     *
+     * @param level l1/l2
+     */
+    void recordHits(String cacheName, String level, long count);
+
+    /**
+     * 记录未命中数
+     *
+     * @param level l1/l2
+     */
+    void recordMisses(String cacheName, String level, long count);
+
+    /**
+     * 记录redis命令的耗时
+     *
+     * @param command get/put/evict/batchGet/batchPut/batchEvict 等
+     */
+    void recordRedisLatency(String cacheName, String command, long nanos);
+
+    /**
+     * 记录加载数据（valueLoader）的耗时和结果
+     */
+    void recordLoad(String cacheName, long nanos, boolean success);
+
+    /**
+     * 记录批量操作的key数量
+     *
+     * @param operation batchGet/batchPut/batchEvict/batchLoad
+     */
+    void recordBatchSize(String cacheName, String operation, int size);
+
+    /**
+     * 记录缓存NullValue的次数
+     */
+    void recordNullValue(String cacheName);
+
+    /**
+     * 记录发送的缓存同步消息数
+     */
+    void recordSyncPublish(int count);
+
+    /**
+     * 记录接收的缓存同步消息数
+     */
+    void recordSyncConsume(int count);
+
+    /**
+     * 绑定 Caffeine 的 stats()，需 caffeine spec 中配置 recordStats（开启指标时自动开启）
+     */
+    void bindCaffeine(String cacheName, Cache<?, ?> cache);
+}
@@ -0,0 +1,48 @@
+package com.github.jesse.l2cache.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 全局的 CacheMetrics 持有者
+ * <p>
+ * 1、默认为 NoopCacheMetrics，通过 setCacheMetrics() 开启（如 spring-boot-starter 中绑定到 Actuator 的 MeterRegistry）
+ * 2、开启前已创建的 Caffeine 缓存，在开启时补充绑定 stats()
+ *
+ * @author chenck
+ * @date 2026/10/16 21:30
+ */
+public class CacheMetricsSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheMetricsSupport.class);
+
+    private static volatile CacheMetrics cacheMetrics = NoopCacheMetrics.INSTANCE;
+
+    /**
+     * 已创建的 Caffeine 缓存
+     * <cacheName, Cache>
+     */
+    private static final Map<String, Cache<?, ?>> CAFFEINE_CACHE_MAP = new ConcurrentHashMap<>();
+
+    public static CacheMetrics get() {
+        return cacheMetrics;
+    }
+
+    public static synchronized void setCacheMetrics(CacheMetrics metrics) {
+        cacheMetrics = null == metrics ? NoopCacheMetrics.INSTANCE : metrics;
+        CAFFEINE_CACHE_MAP.forEach(cacheMetrics::bindCaffeine);
+        logger.info("CacheMetrics set, cacheMetrics={}, caffeineCacheSize={}", cacheMetrics.getClass().getName(), CAFFEINE_CACHE_MAP.size());
+    }
+
+    /**
+     * 注册 Caffeine 缓存，已开启指标时直接绑定
+     */
+    public static synchronized void registerCaffeine(String cacheName, Cache<?, ?> cache) {
+        CAFFEINE_CACHE_MAP.put(cacheName, cache);
+        cacheMetrics.bindCaffeine(cacheName, cache);
+    }
+}
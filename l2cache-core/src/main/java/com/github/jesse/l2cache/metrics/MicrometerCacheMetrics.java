@@ -0,0 +1,143 @@
+package com.github.jesse.l2cache.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Micrometer 的指标记录
+ * <p>
+ * 指标列表（tag cacheName 为缓存名称）：
+ * 1、l2cache.gets{cacheName, level=l1/l2, result=hit/miss}：各级缓存的命中数和未命中数
+ * 2、l2cache.redis.latency{cacheName, command}：二级缓存redis命令的耗时
+ * 3、l2cache.load{cacheName, result=success/error}：valueLoader加载数据的耗时和次数
+ * 4、l2cache.batch.size{cacheName, operation}：批量操作的key数量
+ * 5、l2cache.null.values{cacheName}：缓存NullValue的次数
+ * 6、l2cache.sync.messages{direction=publish/consume}：缓存同步消息数
+ * 7、cache.*{cache=cacheName}：Caffeine 的 stats()，由 CaffeineCacheMetrics 提供
+ * <p>
+ * 注：Meter 按 name+tag 缓存在本地Map中，避免每次记录时都到 MeterRegistry 中查找
+ *
+ * @author chenck
+ * @date 2026/10/16 21:30
+ */
+public class MicrometerCacheMetrics implements CacheMetrics {
+
+    private final MeterRegistry registry;
+
+    /**
+     * 是否发布直方图，以便在监控系统中计算分位数
+     */
+    private final boolean percentileHistogram;
+
+    private final Map<String, Counter> counterMap = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timerMap = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaryMap = new ConcurrentHashMap<>();
+
+    public MicrometerCacheMetrics(MeterRegistry registry, boolean percentileHistogram) {
+        this.registry = registry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordHits(String cacheName, String level, long count) {
+        if (count > 0) {
+            this.getsCounter(cacheName, level, "hit").increment(count);
+        }
+    }
+
+    @Override
+    public void recordMisses(String cacheName, String level, long count) {
+        if (count > 0) {
+            this.getsCounter(cacheName, level, "miss").increment(count);
+        }
+    }
+
+    @Override
+    public void recordRedisLatency(String cacheName, String command, long nanos) {
+        timerMap.computeIfAbsent("redis" + CacheConsts.SPLIT + cacheName + CacheConsts.SPLIT + command,
+                k -> Timer.builder("l2cache.redis.latency")
+                        .description("二级缓存redis命令的耗时")
+                        .tags("cacheName", cacheName, "command", command)
+                        .publishPercentileHistogram(percentileHistogram)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLoad(String cacheName, long nanos, boolean success) {
+        String result = success ? "success" : "error";
+        timerMap.computeIfAbsent("load" + CacheConsts.SPLIT + cacheName + CacheConsts.SPLIT + result,
+                k -> Timer.builder("l2cache.load")
+                        .description("valueLoader加载数据的耗时")
+                        .tags("cacheName", cacheName, "result", result)
+                        .publishPercentileHistogram(percentileHistogram)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBatchSize(String cacheName, String operation, int size) {
+        summaryMap.computeIfAbsent(cacheName + CacheConsts.SPLIT + operation,
+                k -> DistributionSummary.builder("l2cache.batch.size")
+                        .description("批量操作的key数量")
+                        .tags("cacheName", cacheName, "operation", operation)
+                        .publishPercentileHistogram(percentileHistogram)
+                        .register(registry))
+                .record(size);
+    }
+
+    @Override
+    public void recordNullValue(String cacheName) {
+        counterMap.computeIfAbsent("null" + CacheConsts.SPLIT + cacheName,
+                k -> Counter.builder("l2cache.null.values")
+                        .description("缓存NullValue的次数")
+                        .tag("cacheName", cacheName)
+                        .register(registry))
+                .increment();
+    }
+
+    @Override
+    public void recordSyncPublish(int count) {
+        this.syncCounter("publish").increment(count);
+    }
+
+    @Override
+    public void recordSyncConsume(int count) {
+        this.syncCounter("consume").increment(count);
+    }
+
+    @Override
+    public void bindCaffeine(String cacheName, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
+
+    private Counter getsCounter(String cacheName, String level, String result) {
+        return counterMap.computeIfAbsent("gets" + CacheConsts.SPLIT + cacheName + CacheConsts.SPLIT + level + CacheConsts.SPLIT + result,
+                k -> Counter.builder("l2cache.gets")
+                        .description("各级缓存的命中数和未命中数")
+                        .tags("cacheName", cacheName, "level", level, "result", result)
+                        .register(registry));
+    }
+
+    private Counter syncCounter(String direction) {
+        return counterMap.computeIfAbsent("sync" + CacheConsts.SPLIT + direction,
+                k -> Counter.builder("l2cache.sync.messages")
+                        .description("缓存同步消息数")
+                        .tag("direction", direction)
+                        .register(registry));
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.jesse.l2cache.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * 未开启指标时的空实现
+ *
+ * @author chenck
+ * @date 2026/10/16 21:30
+ */
+public class NoopCacheMetrics implements CacheMetrics {
+
+    public static final NoopCacheMetrics INSTANCE = new NoopCacheMetrics();
+
+    private NoopCacheMetrics() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordHits(String cacheName, String level, long count) {
+    }
+
+    @Override
+    public void recordMisses(String cacheName, String level, long count) {
+    }
+
+    @Override
+    public void recordRedisLatency(String cacheName, String command, long nanos) {
+    }
+
+    @Override
+    public void recordLoad(String cacheName, long nanos, boolean success) {
+    }
+
+    @Override
+    public void recordBatchSize(String cacheName, String operation, int size) {
+    }
+
+    @Override
+    public void recordNullValue(String cacheName) {
+    }
+
+    @Override
+    public void recordSyncPublish(int count) {
+    }
+
+    @Override
+    public void recordSyncConsume(int count) {
+    }
+
+    @Override
+    public void bindCaffeine(String cacheName, Cache<?, ?> cache) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.github.jesse.l2cache.preload;
+
+import com.github.jesse.l2cache.Cache;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.CompositeCache;
+import com.github.jesse.l2cache.cache.Level1Cache;
+import com.github.jesse.l2cache.cache.RedissonRBucketCache;
+import com.github.jesse.l2cache.consts.PreloadSource;
+import com.github.jesse.l2cache.hotkey.AutoDetectHotKeyCache;
+import com.github.jesse.l2cache.schedule.RefreshSupport;
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
+import com.google.common.util.concurrent.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存预热
+ * <p>
+ * 1、按 preload.sourceMap 获取cacheName的key来源：provider（PreloadKeyProvider）、hotkey（redis中保存的热key + AutoDetectHotKeyCache）、scan（SCAN 遍历redis）
+ * 2、key按 batchSize 分批，parallelism 个任务并发从二级缓存批量获取（pipeline），命中的数据写入一级缓存（putLocal，不发送缓存同步消息）
+ * 3、通过 RateLimiter 限制每秒从redis获取的key数量，所有cacheName共用，防止预热对redis造成压力
+ * 4、source=hotkey 时，启动后每 hotKeySaveSeconds 将本机的热key保存到redis（scheduleSaveHotKeys），下次启动时从redis读取，因为本机的热key在重启后为空
+ * <p>
+ * 注：仅支持 CompositeCache；hotkey/scan 来源的key为String类型，一级缓存的key为其他类型时，需使用 provider
+ *
+ * @author chenck
+ * @date 2026/10/16 22:50
+ */
+public class CachePreloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachePreloader.class);
+
+    private static final String POOL_NAME = "l2cache_preload";
+
+    private final L2CacheConfig.Preload preload;
+
+    /**
+     * <key,value>=<cacheName, PreloadKeyProvider>
+     */
+    private final Map<String, PreloadKeyProvider> providerMap = new ConcurrentHashMap<>();
+
+    private final RateLimiter rateLimiter;
+
+    public CachePreloader(L2CacheConfig.Preload preload) {
+        this.preload = preload;
+        this.rateLimiter = preload.getMaxQps() > 0 ? RateLimiter.create(preload.getMaxQps()) : null;
+    }
+
+    public CachePreloader addProvider(PreloadKeyProvider provider) {
+        this.providerMap.put(provider.getCacheName(), provider);
+        return this;
+    }
+
+    /**
+     * 预热指定的缓存，在超时时间内阻塞等待
+     *
+     * @return 写入一级缓存的数量
+     */
+    public int preload(Cache cache) {
+        String cacheName = cache.getCacheName();
+        if (!(cache instanceof CompositeCache)) {
+            logger.warn("[CachePreloader] only CompositeCache support preload, cacheName={}, cacheType={}", cacheName, cache.getCacheType());
+            return 0;
+        }
+        CompositeCache compositeCache = (CompositeCache) cache;
+        String sourceName = preload.getSourceMap().get(cacheName);
+        Iterator<?> keys = this.keys(compositeCache, PreloadSource.getPreloadSource(sourceName));
+        if (null == keys) {
+            logger.warn("[CachePreloader] no keys to preload, cacheName={}, source={}", cacheName, sourceName);
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        KeyBatchIterator batchIterator = new KeyBatchIterator(keys, preload.getBatchSize(), preload.getMaxKeys());
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean();
+        int parallelism = Math.max(1, preload.getParallelism());
+        CountDownLatch latch = new CountDownLatch(parallelism);
+        ThreadPoolExecutor pool = ThreadPoolSupport.getPool(POOL_NAME, parallelism, parallelism, 60, 1024, new ThreadPoolExecutor.CallerRunsPolicy());
+        Runnable worker = () -> {
+            try {
+                List<Object> batch;
+                while (!stop.get() && !(batch = batchIterator.next()).isEmpty()) {
+                    if (null != rateLimiter) {
+                        rateLimiter.acquire(batch.size());
+                    }
+                    loaded.addAndGet(this.loadBatch(compositeCache, batch));
+                }
+            } finally {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < parallelism; i++) {
+            // 队列已满时由当前线程执行（CallerRunsPolicy），保证 latch 一定会被释放
+            pool.execute(worker);
+        }
+        try {
+            if (!latch.await(preload.getTimeoutSeconds(), TimeUnit.SECONDS)) {
+                stop.set(true);
+                logger.warn("[CachePreloader] preload timeout, cacheName={}, timeoutSeconds={}, keyCount={}, loaded={}", cacheName, preload.getTimeoutSeconds(), batchIterator.count, loaded.get());
+            }
+        } catch (InterruptedException e) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+        }
+        logger.info("[CachePreloader] preload end, cacheName={}, source={}, keyCount={}, loaded={}, cost={}ms", cacheName, sourceName, batchIterator.count, loaded.get(), System.currentTimeMillis() - start);
+        return loaded.get();
+    }
+
+    /**
+     * 获取预热的key
+     */
+    private Iterator<?> keys(CompositeCache cache, PreloadSource source) {
+        if (null == source) {
+            return null;
+        }
+        switch (source) {
+            case PROVIDER:
+                PreloadKeyProvider provider = providerMap.get(cache.getCacheName());
+                return null == provider ? null : provider.keys(preload.getMaxKeys());
+            case HOTKEY:
+                // redis中保存的热key在前（上次运行时识别的），本机的热key在后，去重
+                Set<String> hotKeys = new LinkedHashSet<>();
+                if (cache.getLevel2Cache() instanceof RedissonRBucketCache) {
+                    hotKeys.addAll(((RedissonRBucketCache) cache.getLevel2Cache()).hotKeys(preload.getMaxKeys()));
+                }
+                hotKeys.addAll(AutoDetectHotKeyCache.keys(cache.getCacheName()));
+                return hotKeys.iterator();
+            case SCAN:
+                if (!(cache.getLevel2Cache() instanceof RedissonRBucketCache)) {
+                    return null;
+                }
+                return ((RedissonRBucketCache) cache.getLevel2Cache()).scanKeys(preload.getScanCount());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 定期将本机的热key保存到redis，用于下次启动时预热
+     */
+    public void scheduleSaveHotKeys(Cache cache) {
+        if (preload.getHotKeySaveSeconds() <= 0) {
+            return;
+        }
+        RefreshSupport.getInstance(1).scheduleWithFixedDelay(() -> {
+            try {
+                this.saveHotKeys(cache);
+            } catch (Exception e) {
+                logger.warn("[CachePreloader] save hotkeys error, cacheName={}, error={}", cache.getCacheName(), e.getMessage());
+            }
+        }, preload.getHotKeySaveSeconds(), preload.getHotKeySaveSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 将本机的热key（AutoDetectHotKeyCache，包括其他节点通知的热key）保存到redis
+     *
+     * @return 保存的热key数量
+     */
+    public int saveHotKeys(Cache cache) {
+        if (!(cache instanceof CompositeCache) || !(((CompositeCache) cache).getLevel2Cache() instanceof RedissonRBucketCache)) {
+            return 0;
+        }
+        List<String> hotKeys = AutoDetectHotKeyCache.keys(cache.getCacheName());
+        if (hotKeys.isEmpty()) {
+            return 0;
+        }
+        if (hotKeys.size() > preload.getMaxKeys()) {
+            hotKeys = hotKeys.subList(0, preload.getMaxKeys());
+        }
+        ((RedissonRBucketCache) ((CompositeCache) cache).getLevel2Cache()).saveHotKeys(hotKeys, preload.getMaxKeys(), preload.getHotKeyExpireSeconds());
+        if (logger.isDebugEnabled()) {
+            logger.debug("[CachePreloader] save hotkeys, cacheName={}, size={}", cache.getCacheName(), hotKeys.size());
+        }
+        return hotKeys.size();
+    }
+
+    /**
+     * 从二级缓存批量获取，写入一级缓存
+     * 注：不走 CompositeCache.batchGet，避免回填一级缓存时发送批量刷新消息，导致其他节点跟着刷新
+     */
+    private int loadBatch(CompositeCache cache, List<Object> batch) {
+        Map<Object, Object> keyMap = new HashMap<>(batch.size());
+        for (Object key : batch) {
+            if (cache.ifL1Open(key)) {
+                keyMap.put(key, key);
+            }
+        }
+        if (keyMap.isEmpty()) {
+            return 0;
+        }
+        try {
+            Map<Object, Object> l2HitMap = cache.getLevel2Cache().batchGet(keyMap, false);
+            Level1Cache level1Cache = cache.getLevel1Cache();
+            l2HitMap.forEach(level1Cache::putLocal);
+            return l2HitMap.size();
+        } catch (Exception e) {
+            logger.warn("[CachePreloader] load batch error, cacheName={}, batchSize={}, error={}", cache.getCacheName(), keyMap.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 线程安全的分批迭代器，最多返回 maxKeys 个key
+     */
+    private static class KeyBatchIterator {
+        private final Iterator<?> iterator;
+        private final int batchSize;
+        private final int maxKeys;
+        private volatile int count;
+
+        KeyBatchIterator(Iterator<?> iterator, int batchSize, int maxKeys) {
+            this.iterator = iterator;
+            this.batchSize = Math.max(1, batchSize);
+            this.maxKeys = maxKeys;
+        }
+
+        synchronized List<Object> next() {
+            List<Object> batch = new ArrayList<>(batchSize);
+            while (batch.size() < batchSize && count < maxKeys && iterator.hasNext()) {
+                batch.add(iterator.next());
+                count++;
+            }
+            return batch;
+        }
+    }
+}
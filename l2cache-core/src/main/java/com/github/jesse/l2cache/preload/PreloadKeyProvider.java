@@ -0,0 +1,25 @@
+package com.github.jesse.l2cache.preload;
+
+import java.util.Iterator;
+
+/**
+ * 预热key提供者，由业务实现，用于 source=provider 的场景
+ *
+ * @author chenck
+ * @date 2026/10/16 22:50
+ */
+public interface PreloadKeyProvider {
+
+    /**
+     * 缓存名称
+     */
+    String getCacheName();
+
+    /**
+     * 获取需要预热的key（与调用 Cache 时的key一致，不含cacheName前缀）
+     * 注：返回 Iterator 以便流式获取（如分页查询DB），预热时最多获取 maxKeys 个
+     *
+     * @param maxKeys 最大key数量
+     */
+    Iterator<Object> keys(int maxKeys);
+}
@@ -0,0 +1,127 @@
+package com.github.jesse.l2cache.schedule;
+
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
+import com.google.common.util.concurrent.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 一级缓存刷新引擎（每个cacheName一个实例）
+ * <p>
+ * 1、key 由调用方按访问频率从高到低排序，按 batchSize 分批，parallelism 个任务并发从共享的迭代器中依次获取批次，热key优先刷新
+ * 2、每批key交给 batchRefresher 处理（如通过二级缓存批量获取，未命中的key再单独加载），返回实际刷新的数量
+ * 3、通过 RateLimiter 限制每个cacheName每秒刷新的key数量，防止刷新时对redis和db造成压力
+ * 4、同一个cacheName同一时刻只有一次刷新在执行，上一次未结束时，本次直接跳过
+ * <p>
+ * 注：refresh() 阻塞至所有批次执行完成，所有cacheName共用一个有界线程池
+ *
+ * @author chenck
+ * @date 2026/10/16 23:50
+ */
+public class RefreshEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshEngine.class);
+
+    private static final String POOL_NAME = "l2cache_refresh";
+
+    private final String cacheName;
+
+    private final int parallelism;
+
+    private final int batchSize;
+
+    private final RateLimiter rateLimiter;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RefreshEngine(String cacheName, int parallelism, int batchSize, int maxQps) {
+        this.cacheName = cacheName;
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
+        this.rateLimiter = maxQps > 0 ? RateLimiter.create(maxQps) : null;
+    }
+
+    /**
+     * 刷新
+     *
+     * @param keys           按访问频率从高到低排序的key
+     * @param batchRefresher 刷新一批key，返回实际刷新的数量
+     * @return 实际刷新的数量，上一次刷新未结束时返回 -1
+     */
+    public int refresh(Iterator<Object> keys, Function<List<Object>, Integer> batchRefresher) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("[RefreshEngine] last refresh is running, skip, cacheName={}", cacheName);
+            return -1;
+        }
+        try {
+            return this.doRefresh(keys, batchRefresher);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int doRefresh(Iterator<Object> keys, Function<List<Object>, Integer> batchRefresher) {
+        long start = System.currentTimeMillis();
+        AtomicInteger refreshed = new AtomicInteger();
+        AtomicInteger keyCount = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(parallelism);
+        ThreadPoolExecutor pool = ThreadPoolSupport.getPool(POOL_NAME, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 2,
+                60, 1024, new ThreadPoolExecutor.CallerRunsPolicy());
+        Runnable worker = () -> {
+            try {
+                List<Object> batch;
+                while (!(batch = this.nextBatch(keys)).isEmpty()) {
+                    keyCount.addAndGet(batch.size());
+                    int count = this.refreshBatch(batch, batchRefresher);
+                    refreshed.addAndGet(count);
+                    if (null != rateLimiter && count > 0) {
+                        // 按实际刷新的数量获取许可，未过期而跳过的key不占用配额
+                        rateLimiter.acquire(count);
+                    }
+                }
+            } finally {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < parallelism; i++) {
+            // 队列已满时由当前线程执行（CallerRunsPolicy），保证 latch 一定会被释放
+            pool.execute(worker);
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("[RefreshEngine] refresh end, cacheName={}, keyCount={}, refreshed={}, cost={}ms", cacheName, keyCount.get(), refreshed.get(), System.currentTimeMillis() - start);
+        return refreshed.get();
+    }
+
+    private int refreshBatch(List<Object> batch, Function<List<Object>, Integer> batchRefresher) {
+        try {
+            Integer count = batchRefresher.apply(batch);
+            return null == count ? 0 : count;
+        } catch (Exception e) {
+            logger.error("[RefreshEngine] refresh batch error, cacheName={}, batchSize={}", cacheName, batch.size(), e);
+            return 0;
+        }
+    }
+
+    private List<Object> nextBatch(Iterator<Object> keys) {
+        List<Object> batch = new ArrayList<>(batchSize);
+        synchronized (keys) {
+            while (batch.size() < batchSize && keys.hasNext()) {
+                batch.add(keys.next());
+            }
+        }
+        return batch;
+    }
+}
@@ -9,6 +9,7 @@ import lombok.experimental.Accessors;
 import org.slf4j.MDC;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,6 +30,7 @@ public class CacheMessage implements Serializable {
     private String cacheName;// 缓存名称
     private String optType;// 操作类型 refresh/clear
     private Object key;// 缓存key
+    private List<Object> keys;// 批量操作的缓存key集合，不为空时表示一条消息对应一批key（此时忽略key）
     private Map<String, String> mdcContextMap;
     private String desc;// 描述 用于标记发起消息的触发方法，便于排查问题
 
@@ -62,6 +64,13 @@ public class CacheMessage implements Serializable {
         return mdcContextMap;
     }
 
+    /**
+     * 获取原始的 mdcContextMap，不做 traceId 转换，用于消息编码
+     */
+    Map<String, String> rawMdcContextMap() {
+        return mdcContextMap;
+    }
+
     private String buildNewTraceId(String trace_id) {
         StringBuilder sb = new StringBuilder(CacheConsts.PREFIX_CACHE_MSG);
         sb.append(CacheConsts.SPLIT);
@@ -82,6 +91,7 @@ public class CacheMessage implements Serializable {
         sb.append(", cacheName=").append(cacheName);
         sb.append(", optType=").append(optType);
         sb.append(", key=").append(key);
+        sb.append(", keysSize=").append(null == keys ? 0 : keys.size());
         sb.append(", desc=").append(desc);
         sb.append(", mdcContextMap=").append(mdcContextMap);
         sb.append("]");
@@ -0,0 +1,178 @@
+package com.github.jesse.l2cache.sync;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.L2CacheConfigUtil;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.util.pool.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 缓存同步消息的批量发送器
+ * <p>
+ * 1、publish 时仅将消息放入本地队列，不阻塞调用线程，也不访问redis
+ * 2、后台线程每隔 publishBatchWindowMillis 将队列中的消息按 cacheName:key:optType 去重，并按 publishBatchMaxSize 分批交给 sender 发送
+ * 3、同一个 cacheName:key:optType 在 caffeine.publishMsgPeriodMilliSeconds 内只发送一次（本地限流，替代原来的分布式锁）
+ * 4、携带一批key的消息（batchPut/batchEvict）不做去重和限流
+ *
+ * @author chenck
+ * @date 2026/10/16 17:30
+ */
+public class CacheMessageBatchPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheMessageBatchPublisher.class);
+
+    /**
+     * 待发送消息的最大堆积数量，超过后丢弃，避免MQ/redis不可用时内存持续增长
+     */
+    private static final int MAX_PENDING_SIZE = 100000;
+
+    /**
+     * 携带一批key的消息在 batchMap 中的key前缀
+     */
+    private static final String BATCH_KEYS_PREFIX = "batchKeys" + CacheConsts.SPLIT;
+
+    private final L2CacheConfig l2CacheConfig;
+
+    /**
+     * 发送一批消息
+     */
+    private final Consumer<List<CacheMessage>> sender;
+
+    private final Queue<CacheMessage> pendingQueue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    /**
+     * 记录 cacheName:key:optType 最近一次的发送时间，用于本地限流
+     */
+    private final Cache<String, Long> lastPublishTimeCache = Caffeine.newBuilder()
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .maximumSize(MAX_PENDING_SIZE)
+            .build();
+
+    private final ScheduledExecutorService scheduler;
+
+    public CacheMessageBatchPublisher(String name, L2CacheConfig l2CacheConfig, Consumer<List<CacheMessage>> sender) {
+        this.l2CacheConfig = l2CacheConfig;
+        this.sender = sender;
+        long windowMillis = Math.max(1, l2CacheConfig.getCacheSyncPolicy().getPublishBatchWindowMillis());
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(name + "_publish_batch_"));
+        this.scheduler.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        logger.info("CacheMessageBatchPublisher started, name={}, windowMillis={}, batchMaxSize={}", name, windowMillis, l2CacheConfig.getCacheSyncPolicy().getPublishBatchMaxSize());
+    }
+
+    /**
+     * 添加待发送的消息
+     */
+    public void add(CacheMessage message) {
+        if (pendingSize.incrementAndGet() > MAX_PENDING_SIZE) {
+            pendingSize.decrementAndGet();
+            logger.error("too many pending messages, discard message, pendingSize={}, message={}", MAX_PENDING_SIZE, message.toString());
+            return;
+        }
+        pendingQueue.offer(message);
+    }
+
+    /**
+     * 发送剩余的消息，并停止后台线程
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    /**
+     * 批量发送队列中的消息
+     */
+    private void flush() {
+        try {
+            int batchMaxSize = Math.max(1, l2CacheConfig.getCacheSyncPolicy().getPublishBatchMaxSize());
+            long now = System.currentTimeMillis();
+            // <cacheName:key:optType, CacheMessage> 窗口内重复的消息只保留第一条
+            Map<String, CacheMessage> batchMap = new LinkedHashMap<>();
+            int batchKeysMessageSeq = 0;
+            CacheMessage message;
+            while ((message = pendingQueue.poll()) != null) {
+                pendingSize.decrementAndGet();
+                if (CollectionUtil.isNotEmpty(message.getKeys())) {
+                    // 携带一批key的消息不做去重和限流
+                    batchMap.put(BATCH_KEYS_PREFIX + (batchKeysMessageSeq++), message);
+                } else {
+                    String dedupKey = this.buildDedupKey(message);
+                    if (batchMap.containsKey(dedupKey) || this.isThrottled(dedupKey, message, now)) {
+                        continue;
+                    }
+                    batchMap.put(dedupKey, message);
+                }
+                if (batchMap.size() >= batchMaxSize) {
+                    this.send(batchMap);
+                    batchMap = new LinkedHashMap<>();
+                }
+            }
+            if (!batchMap.isEmpty()) {
+                this.send(batchMap);
+            }
+        } catch (Throwable e) {
+            logger.error("flush cache sync message error", e);
+        }
+    }
+
+    private void send(Map<String, CacheMessage> batchMap) {
+        try {
+            sender.accept(new ArrayList<>(batchMap.values()));
+        } catch (Exception e) {
+            logger.error("publish cache sync message error, messageSize=" + batchMap.size() + ", keys=" + batchMap.keySet(), e);
+        }
+    }
+
+    /**
+     * 限制同一个key指定时间内只能发送一次消息，防止同一个key短时间内发送太多消息
+     */
+    private boolean isThrottled(String dedupKey, CacheMessage message, long now) {
+        Long publishMsgPeriodMilliSeconds = L2CacheConfigUtil.getCacheConfig(l2CacheConfig, message.getCacheName()).getCaffeine().getPublishMsgPeriodMilliSeconds();
+        if (null == publishMsgPeriodMilliSeconds || publishMsgPeriodMilliSeconds <= 0) {
+            return false;
+        }
+        Long lastPublishTime = lastPublishTimeCache.getIfPresent(dedupKey);
+        if (null != lastPublishTime && now - lastPublishTime < publishMsgPeriodMilliSeconds) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("no need to publish message, publishMsgPeriod={}ms, message={}", publishMsgPeriodMilliSeconds, message.toString());
+            }
+            return true;
+        }
+        lastPublishTimeCache.put(dedupKey, now);
+        return false;
+    }
+
+    private String buildDedupKey(CacheMessage message) {
+        // "缓存名称:key:操作类型"，避免不同操作类型(refresh/clear)互相影响
+        return new StringBuilder()
+                .append(message.getCacheName())
+                .append(CacheConsts.SPLIT)
+                .append(message.getKey())
+                .append(CacheConsts.SPLIT)
+                .append(message.getOptType())
+                .toString();
+    }
+}
@@ -0,0 +1,262 @@
+package com.github.jesse.l2cache.sync;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.github.jesse.l2cache.exception.L2CacheException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CacheMessage 的二进制编解码，一帧包含多个 CacheMessage
+ * <p>
+ * 帧格式：magic(1) + version(1) + count(varint) + message*
+ * message：instanceId + cacheType + cacheName + optType + desc + key + keys + mdcContextMap（version 1 无 keys）
+ * <p>
+ * 1、字符串使用帧内字典：首次出现时写入原文，之后只写入字典下标，instanceId/cacheType/cacheName/optType 等在一帧内通常只写一次
+ * 2、key 按类型写入：String/Long/Integer 直接写入，其他类型使用java序列化（不可序列化时写入 toString()）
+ * 3、keys 写入 count(varint) + key*，count=0 表示没有 keys
+ *
+ * @author chenck
+ * @date 2026/10/16 17:10
+ */
+public class CacheMessageCodec {
+
+    private static final byte MAGIC = 0x4C;
+    private static final byte VERSION = 2;
+    private static final byte VERSION_1 = 1;
+
+    private static final byte KEY_NULL = 0;
+    private static final byte KEY_STRING = 1;
+    private static final byte KEY_LONG = 2;
+    private static final byte KEY_INTEGER = 3;
+    private static final byte KEY_SERIALIZED = 4;
+
+    /**
+     * 字典字符串的标记：0 表示null，1 表示新字符串（后跟原文），n>=2 表示字典下标 n-2
+     */
+    private static final int DICT_NULL = 0;
+    private static final int DICT_NEW = 1;
+
+    /**
+     * 是否为 CacheMessageCodec 编码的帧
+     */
+    public static boolean isFrame(byte[] bytes) {
+        return null != bytes && bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * 将多个消息编码为一帧
+     */
+    public static byte[] encode(List<CacheMessage> messageList) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(64 + messageList.size() * 32);
+            DataOutputStream out = new DataOutputStream(bos);
+            Map<String, Integer> dict = new HashMap<>();
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            writeVarInt(out, messageList.size());
+            for (CacheMessage message : messageList) {
+                writeDictString(out, dict, message.getInstanceId());
+                writeDictString(out, dict, message.getCacheType());
+                writeDictString(out, dict, message.getCacheName());
+                writeDictString(out, dict, message.getOptType());
+                writeDictString(out, dict, message.getDesc());
+                writeKey(out, message.getKey());
+                List<Object> keys = message.getKeys();
+                if (CollectionUtil.isEmpty(keys)) {
+                    writeVarInt(out, 0);
+                } else {
+                    writeVarInt(out, keys.size());
+                    for (Object key : keys) {
+                        writeKey(out, key);
+                    }
+                }
+                Map<String, String> mdcContextMap = message.rawMdcContextMap();
+                if (CollectionUtil.isEmpty(mdcContextMap)) {
+                    writeVarInt(out, 0);
+                } else {
+                    writeVarInt(out, mdcContextMap.size());
+                    for (Map.Entry<String, String> entry : mdcContextMap.entrySet()) {
+                        writeDictString(out, dict, entry.getKey());
+                        writeDictString(out, dict, entry.getValue());
+                    }
+                }
+            }
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new L2CacheException("CacheMessage encode error", e);
+        }
+    }
+
+    /**
+     * 将一帧解码为多个消息
+     */
+    public static List<CacheMessage> decode(byte[] bytes) {
+        if (!isFrame(bytes)) {
+            throw new L2CacheException("illegal CacheMessage frame");
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            in.readByte();
+            byte version = in.readByte();
+            if (version != VERSION && version != VERSION_1) {
+                throw new L2CacheException("unsupported CacheMessage frame version " + version);
+            }
+            int count = readVarInt(in);
+            List<String> dict = new ArrayList<>();
+            List<CacheMessage> messageList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                CacheMessage message = new CacheMessage()
+                        .setInstanceId(readDictString(in, dict))
+                        .setCacheType(readDictString(in, dict))
+                        .setCacheName(readDictString(in, dict))
+                        .setOptType(readDictString(in, dict))
+                        .setDesc(readDictString(in, dict))
+                        .setKey(readKey(in));
+                if (version != VERSION_1) {
+                    int keysSize = readVarInt(in);
+                    if (keysSize > 0) {
+                        List<Object> keys = new ArrayList<>(keysSize);
+                        for (int j = 0; j < keysSize; j++) {
+                            keys.add(readKey(in));
+                        }
+                        message.setKeys(keys);
+                    }
+                }
+                int mdcSize = readVarInt(in);
+                Map<String, String> mdcContextMap = null;
+                if (mdcSize > 0) {
+                    mdcContextMap = new HashMap<>(mdcSize * 2);
+                    for (int j = 0; j < mdcSize; j++) {
+                        mdcContextMap.put(readDictString(in, dict), readDictString(in, dict));
+                    }
+                }
+                message.setMdcContextMap(mdcContextMap);
+                messageList.add(message);
+            }
+            return messageList;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new L2CacheException("CacheMessage decode error", e);
+        }
+    }
+
+    private static void writeKey(DataOutputStream out, Object key) throws IOException {
+        if (null == key) {
+            out.writeByte(KEY_NULL);
+        } else if (key instanceof String) {
+            out.writeByte(KEY_STRING);
+            writeString(out, (String) key);
+        } else if (key instanceof Long) {
+            out.writeByte(KEY_LONG);
+            out.writeLong((Long) key);
+        } else if (key instanceof Integer) {
+            out.writeByte(KEY_INTEGER);
+            out.writeInt((Integer) key);
+        } else if (key instanceof Serializable) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(key);
+            }
+            out.writeByte(KEY_SERIALIZED);
+            writeVarInt(out, bos.size());
+            bos.writeTo(out);
+        } else {
+            out.writeByte(KEY_STRING);
+            writeString(out, key.toString());
+        }
+    }
+
+    private static Object readKey(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case KEY_NULL:
+                return null;
+            case KEY_STRING:
+                return readString(in);
+            case KEY_LONG:
+                return in.readLong();
+            case KEY_INTEGER:
+                return in.readInt();
+            case KEY_SERIALIZED:
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return ois.readObject();
+                }
+            default:
+                throw new L2CacheException("unknown CacheMessage key type " + type);
+        }
+    }
+
+    private static void writeDictString(DataOutputStream out, Map<String, Integer> dict, String value) throws IOException {
+        if (null == value) {
+            writeVarInt(out, DICT_NULL);
+            return;
+        }
+        Integer index = dict.get(value);
+        if (null != index) {
+            writeVarInt(out, index + 2);
+            return;
+        }
+        dict.put(value, dict.size());
+        writeVarInt(out, DICT_NEW);
+        writeString(out, value);
+    }
+
+    private static String readDictString(DataInputStream in, List<String> dict) throws IOException {
+        int flag = readVarInt(in);
+        if (flag == DICT_NULL) {
+            return null;
+        }
+        if (flag == DICT_NEW) {
+            String value = readString(in);
+            dict.add(value);
+            return value;
+        }
+        return dict.get(flag - 2);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new L2CacheException("malformed varint");
+    }
+}
@@ -1,14 +1,23 @@
 package com.github.jesse.l2cache.sync;
 
+import cn.hutool.core.collection.CollectionUtil;
 import com.github.jesse.l2cache.Cache;
+import com.github.jesse.l2cache.cache.CompositeCache;
 import com.github.jesse.l2cache.cache.Level1Cache;
+import com.github.jesse.l2cache.cache.RedissonRBucketCache;
 import com.github.jesse.l2cache.consts.CacheConsts;
 import com.github.jesse.l2cache.content.CacheSupport;
 import com.github.jesse.l2cache.hotkey.AutoDetectHotKeyCache;
+import com.github.jesse.l2cache.hotkey.HotKeyFacade;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 import com.github.jesse.l2cache.util.pool.MdcUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,12 +44,51 @@ public class CacheMessageListener implements MessageListener {
                 logger.debug("[SyncCache] don't need to process your own messages, currInstanceId={}, message={}", this.cacheInstanceId, message.toString());
                 return;
             }
-            logger.info("[SyncCache] receive message, currInstanceId={}, instanceId={}, cacheName={}, cacheType={}, optType={}, key={}, desc={}",
-                    this.cacheInstanceId, message.getInstanceId(), message.getCacheName(), message.getCacheType(), message.getOptType(), message.getKey(), message.getDesc());
+            logger.info("[SyncCache] receive message, currInstanceId={}, instanceId={}, cacheName={}, cacheType={}, optType={}, key={}, keysSize={}, desc={}",
+                    this.cacheInstanceId, message.getInstanceId(), message.getCacheName(), message.getCacheType(), message.getOptType(), message.getKey(),
+                    null == message.getKeys() ? 0 : message.getKeys().size(), message.getDesc());
 
             // 缓存其他节点识别到的hotkey
             if (CacheConsts.CACHE_HOTKEY.equals(message.getOptType())) {
                 AutoDetectHotKeyCache.put(message.getCacheName(), message.getKey(), Boolean.FALSE);
+                HotKeyFacade.onRemoteHotkey(message.getCacheName(), message.getKey());
+                return;
+            }
+
+            // 其他节点clear后的代数变更
+            if (CacheConsts.CACHE_GENERATION.equals(message.getOptType())) {
+                Cache cache = CacheSupport.getCache(message.getCacheType(), message.getCacheName());
+                if (cache instanceof RedissonRBucketCache && message.getKey() instanceof Number) {
+                    ((RedissonRBucketCache) cache).updateGeneration(((Number) message.getKey()).longValue());
+                }
+                return;
+            }
+
+            // 其他节点的负缓存变更
+            if (CacheConsts.CACHE_NEGATIVE.equals(message.getOptType())) {
+                Cache cache = CacheSupport.getCache(message.getCacheType(), message.getCacheName());
+                if (cache instanceof RedissonRBucketCache) {
+                    ((RedissonRBucketCache) cache).onNegativeMessage(null == message.getKeys() ? Collections.emptyList() : message.getKeys(), message.getDesc());
+                }
+                return;
+            }
+
+            // 其他节点新增到已知key全集的key，以及重建已知key全集
+            if (CacheConsts.CACHE_UNIVERSE_ADD.equals(message.getOptType()) || CacheConsts.CACHE_UNIVERSE_REBUILD.equals(message.getOptType())) {
+                Cache cache = CacheSupport.getCache(message.getCacheType(), message.getCacheName());
+                if (!(cache instanceof CompositeCache) || null == ((CompositeCache) cache).getKeyUniverseFilter()) {
+                    return;
+                }
+                CompositeCache compositeCache = (CompositeCache) cache;
+                if (CacheConsts.CACHE_UNIVERSE_REBUILD.equals(message.getOptType())) {
+                    if (message.getKey() instanceof Number) {
+                        compositeCache.onKeyUniverseRebuild(((Number) message.getKey()).longValue());
+                    }
+                } else if (CollectionUtil.isNotEmpty(message.getKeys())) {
+                    List<String> keys = new ArrayList<>(message.getKeys().size());
+                    message.getKeys().forEach(key -> keys.add(key.toString()));
+                    compositeCache.getKeyUniverseFilter().addLocal(keys);
+                }
                 return;
             }
 
@@ -49,6 +97,15 @@ public class CacheMessageListener implements MessageListener {
                 return;
             }
 
+            // 批量消息：一条消息携带一批key（batchPut/batchEvict）
+            // 注：refresh 也批量失效本地缓存，下次访问时再从二级缓存加载，避免逐个key执行加载
+            if (CollectionUtil.isNotEmpty(message.getKeys())) {
+                if (CacheConsts.CACHE_REFRESH.equals(message.getOptType()) || CacheConsts.CACHE_CLEAR.equals(message.getOptType())) {
+                    level1Cache.batchClearLocalCache(message.getKeys());
+                }
+                return;
+            }
+
             // 其他节点通知清除本地缓存和hotkey(暂未启用，先简化处理)
             if (CacheConsts.CACHE_HOTKEY_EVIT.equals(message.getOptType())) {
                 level1Cache.clearLocalCache(message.getKey());
@@ -71,4 +128,64 @@ public class CacheMessageListener implements MessageListener {
         }
     }
 
+    /**
+     * 批量处理消息：连续的 clear 消息（以及批量 refresh 消息）按 cacheType:cacheName 合并，一个缓存只调用一次 batchClearLocalCache
+     * 注：遇到非 clear 消息时，先处理已合并的 clear 消息，保证消息的处理顺序
+     */
+    @Override
+    public void onMessages(List<CacheMessage> messageList) {
+        CacheMetricsSupport.get().recordSyncConsume(messageList.size());
+        // <cacheType:cacheName, clear消息列表>
+        Map<String, List<CacheMessage>> clearMessageMap = new LinkedHashMap<>();
+        for (CacheMessage message : messageList) {
+            if (this.cacheInstanceId.equalsIgnoreCase(message.getInstanceId())) {
+                continue;
+            }
+            if ((CacheConsts.CACHE_CLEAR.equals(message.getOptType()) && (null != message.getKey() || CollectionUtil.isNotEmpty(message.getKeys())))
+                    || (CacheConsts.CACHE_REFRESH.equals(message.getOptType()) && CollectionUtil.isNotEmpty(message.getKeys()))) {
+                clearMessageMap.computeIfAbsent(message.getCacheType() + CacheConsts.SPLIT + message.getCacheName(), k -> new ArrayList<>()).add(message);
+                continue;
+            }
+            this.batchClearLocalCache(clearMessageMap);
+            this.onMessage(message);
+        }
+        this.batchClearLocalCache(clearMessageMap);
+    }
+
+    private void batchClearLocalCache(Map<String, List<CacheMessage>> clearMessageMap) {
+        if (clearMessageMap.isEmpty()) {
+            return;
+        }
+        for (List<CacheMessage> clearMessageList : clearMessageMap.values()) {
+            if (clearMessageList.size() == 1) {
+                this.onMessage(clearMessageList.get(0));
+                continue;
+            }
+            CacheMessage first = clearMessageList.get(0);
+            Map<String, String> oldContext = MdcUtil.beforeExecution(first.getMdcContextMap());
+            try {
+                logger.info("[SyncCache] receive batch clear message, currInstanceId={}, instanceId={}, cacheName={}, cacheType={}, messageSize={}",
+                        this.cacheInstanceId, first.getInstanceId(), first.getCacheName(), first.getCacheType(), clearMessageList.size());
+                Level1Cache level1Cache = CacheSupport.getLevel1Cache(first.getCacheType(), first.getCacheName());
+                if (null == level1Cache) {
+                    continue;
+                }
+                List<Object> keys = new ArrayList<>(clearMessageList.size());
+                clearMessageList.forEach(message -> {
+                    if (CollectionUtil.isNotEmpty(message.getKeys())) {
+                        keys.addAll(message.getKeys());
+                    } else {
+                        keys.add(message.getKey());
+                    }
+                });
+                level1Cache.batchClearLocalCache(keys);
+            } catch (Exception e) {
+                logger.error("[SyncCache] deal batch clear message error, currInstanceId=" + this.cacheInstanceId, e);
+            } finally {
+                MdcUtil.afterExecution(oldContext);
+            }
+        }
+        clearMessageMap.clear();
+    }
+
 }
@@ -2,7 +2,11 @@ package com.github.jesse.l2cache.sync;
 
 import cn.hutool.core.util.StrUtil;
 import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 import com.github.jesse.l2cache.util.ObjectMapperUtil;
+import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
+import com.google.common.collect.Lists;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -11,17 +15,25 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 基于 kafka 的同步策略
+ * <p>
+ * 1、生产者：以 cacheName:key 作为消息key，保证同一个key的消息进入同一个分区、有序消费；未配置时默认开启 linger/batch/lz4压缩，减少请求数
+ * 2、消费者：一次poll的消息并行解码后交给 MessageListener.onMessages 批量处理，clear消息按缓存合并清理；offset 异步提交
  *
  * @author chenck
  * @date 2020/7/7 17:15
@@ -30,12 +42,24 @@ public class KafkaCacheSyncPolicy extends AbstractCacheSyncPolicy {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaCacheSyncPolicy.class);
 
+    /**
+     * 一次poll的消息数量超过该值时，才并行解码
+     */
+    private static final int PARALLEL_DECODE_THRESHOLD = 64;
+
+    /**
+     * 解码消息的线程池
+     */
+    private static final ThreadPoolExecutor decodePool = ThreadPoolSupport.getPool("decode_kafka_msg");
+
     AtomicBoolean start = new AtomicBoolean(false);
 
     private KafkaProducer<String, String> producer;
 
     private KafkaConsumer<String, String> consumer;
 
+    private Thread subscribeThread;
+
     @Override
     public void connnect() {
         if (!start.compareAndSet(false, true)) {
@@ -48,30 +72,52 @@ public class KafkaCacheSyncPolicy extends AbstractCacheSyncPolicy {
         genConsumerGroupName(cacheSyncPolicy);
 
         // 对于Properties中具体的属性，直接通过Kafka来进行解析和识别，未设置的属性，则取默认值
-        producer = new KafkaProducer<>(cacheSyncPolicy.getProps());
+        producer = new KafkaProducer<>(this.buildProducerDefaultProps(cacheSyncPolicy.getProps()));
         consumer = new KafkaConsumer<>(cacheSyncPolicy.getProps());
 
         // 启动一个线程订阅消息
-        Thread subscribeThread = new Thread(() -> {
+        subscribeThread = new Thread(() -> {
             // 订阅消息
             consumer.subscribe(Collections.singletonList(cacheSyncPolicy.getTopic()));
-            while (true) {
-                try {
-                    // 拉取消息，设置指定超时时间
-                    ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(3));
-                    logger.debug("poll messages, topic={}, records={}", cacheSyncPolicy.getTopic(), records.count());
-
-                    for (ConsumerRecord<String, String> record : records) {
-                        logger.debug("received a message, topic={}, record={}", cacheSyncPolicy.getTopic(), record.toString());
-                        CacheMessage message = ObjectMapperUtil.toObject(record.value(), CacheMessage.class);
-                        KafkaCacheSyncPolicy.this.getCacheMessageListener().onMessage(message);
+            try {
+                while (start.get()) {
+                    try {
+                        // 拉取消息，设置指定超时时间
+                        ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(3));
+                        logger.debug("poll messages, topic={}, records={}", cacheSyncPolicy.getTopic(), records.count());
+                        if (records.isEmpty()) {
+                            continue;
+                        }
+                        List<CacheMessage> messageList = this.decode(records);
+                        KafkaCacheSyncPolicy.this.getCacheMessageListener().onMessages(messageList);
+
+                        // 异步提交，失败时由下一次提交覆盖
+                        consumer.commitAsync((offsets, e) -> {
+                            if (null != e) {
+                                logger.warn("commit offsets error, offsets={}", offsets, e);
+                            }
+                        });
+                    } catch (WakeupException e) {
+                        // disconnect() 中唤醒，退出循环
+                        if (start.get()) {
+                            throw e;
+                        }
+                    } catch (Exception e) {
+                        logger.error("poll message deal error", e);
                     }
+                }
+            } finally {
+                try {
                     consumer.commitSync();
                 } catch (Exception e) {
-                    logger.error("poll message deal error", e);
+                    logger.warn("commit offsets error on close", e);
+                } finally {
+                    consumer.close();
+                    logger.info("kafka consumer closed, topic={}", cacheSyncPolicy.getTopic());
                 }
             }
-        });
+        }, "l2cache_kafka_subscribe");
+        subscribeThread.setDaemon(true);
         subscribeThread.start();
     }
 
@@ -82,9 +128,12 @@ public class KafkaCacheSyncPolicy extends AbstractCacheSyncPolicy {
             String messageStr = ObjectMapperUtil.toJson(message);
             logger.info("publish cache sync message, message={}", messageStr);
 
+            // 以 cacheName:key 作为消息key，同一个key的消息进入同一个分区
+            ProducerRecord<String, String> record = new ProducerRecord<>(cacheSyncPolicy.getTopic(), this.buildRecordKey(message), messageStr);
+            CacheMetricsSupport.get().recordSyncPublish(1);
             // 异步发送，采用回调接收结果
             if (cacheSyncPolicy.isAsync()) {
-                producer.send(new ProducerRecord<>(cacheSyncPolicy.getTopic(), null, messageStr), (recordMetadata, e) -> {
+                producer.send(record, (recordMetadata, e) -> {
                     if (recordMetadata != null) {
                         logger.debug("sent to partition({}), offset({}), message({}) ",
                                 recordMetadata.partition(), recordMetadata.offset(), messageStr);
@@ -96,7 +145,7 @@ public class KafkaCacheSyncPolicy extends AbstractCacheSyncPolicy {
                 return;
             }
             // 同步发送消息
-            RecordMetadata recordMetadata = producer.send(new ProducerRecord<>(cacheSyncPolicy.getTopic(), null, messageStr)).get();
+            RecordMetadata recordMetadata = producer.send(record).get();
             logger.info("publish topic={}, RecordMetadata={}", cacheSyncPolicy.getTopic(), recordMetadata.toString());
         } catch (Exception e) {
             logger.error("publish cache sync message error", e);
@@ -105,7 +154,81 @@ public class KafkaCacheSyncPolicy extends AbstractCacheSyncPolicy {
 
     @Override
     public void disconnect() {
+        if (!start.compareAndSet(true, false)) {
+            return;
+        }
+        // 发送缓冲区中的消息后关闭
+        if (null != producer) {
+            try {
+                producer.close(Duration.ofSeconds(5));
+            } catch (Exception e) {
+                logger.warn("close kafka producer error", e);
+            }
+        }
+        // 唤醒阻塞在poll中的消费线程，由消费线程提交offset并关闭consumer（KafkaConsumer非线程安全）
+        if (null != consumer) {
+            consumer.wakeup();
+        }
+        if (null != subscribeThread) {
+            try {
+                subscribeThread.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("KafkaCacheSyncPolicy disconnected");
+    }
+
+    /**
+     * 解码一次poll的消息，消息较多时并行解码，解码失败的消息跳过
+     */
+    private List<CacheMessage> decode(ConsumerRecords<String, String> records) {
+        List<ConsumerRecord<String, String>> recordList = new ArrayList<>(records.count());
+        records.forEach(recordList::add);
+        if (recordList.size() < PARALLEL_DECODE_THRESHOLD) {
+            return this.decode(recordList);
+        }
+        int parallelism = Math.max(1, Math.min(decodePool.getMaximumPoolSize(), Runtime.getRuntime().availableProcessors()));
+        int partitionSize = (recordList.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<List<CacheMessage>>> futureList = new ArrayList<>();
+        for (List<ConsumerRecord<String, String>> partition : Lists.partition(recordList, partitionSize)) {
+            futureList.add(CompletableFuture.supplyAsync(() -> this.decode(partition), decodePool));
+        }
+        // 按分区顺序合并，保证消息顺序
+        List<CacheMessage> messageList = new ArrayList<>(recordList.size());
+        futureList.forEach(future -> messageList.addAll(future.join()));
+        return messageList;
+    }
+
+    private List<CacheMessage> decode(List<ConsumerRecord<String, String>> recordList) {
+        List<CacheMessage> messageList = new ArrayList<>(recordList.size());
+        for (ConsumerRecord<String, String> record : recordList) {
+            try {
+                messageList.add(ObjectMapperUtil.toObject(record.value(), CacheMessage.class));
+            } catch (Exception e) {
+                logger.error("decode message error, record=" + record.toString(), e);
+            }
+        }
+        return messageList;
+    }
+
+    private String buildRecordKey(CacheMessage message) {
+        if (null == message.getKey()) {
+            return message.getCacheName();
+        }
+        return message.getCacheName() + CacheConsts.SPLIT + message.getKey();
+    }
 
+    /**
+     * 构建 Producer Properties，未配置的批量发送参数使用默认值
+     */
+    private Properties buildProducerDefaultProps(Properties properties) {
+        Properties props = new Properties();
+        props.putAll(properties);
+        props.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, "5");
+        props.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, "65536");
+        props.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        return props;
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.github.jesse.l2cache.sync;
 
+import java.util.List;
+
 /**
  * @author chenck
  * @date 2020/7/7 15:33
@@ -10,4 +12,12 @@ public interface MessageListener {
      * 缓存同步消息处理
      */
     void onMessage(CacheMessage message);
+
+    /**
+     * 批量处理缓存同步消息
+     * 注：用于一次收到多条消息的场景（如redis的一帧消息、kafka的一次poll），实现类可合并处理
+     */
+    default void onMessages(List<CacheMessage> messageList) {
+        messageList.forEach(this::onMessage);
+    }
 }
@@ -1,19 +1,15 @@
 package com.github.jesse.l2cache.sync;
 
 import com.github.jesse.l2cache.L2CacheConfig;
-import com.github.jesse.l2cache.L2CacheConfigUtil;
-import com.github.jesse.l2cache.consts.CacheConsts;
 import com.github.jesse.l2cache.content.RedissonSupport;
-import com.github.jesse.l2cache.util.pool.RunnableMdcWarpper;
-import com.github.jesse.l2cache.util.pool.ThreadPoolSupport;
-import org.redisson.api.RLock;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -41,6 +37,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * 第一，从实际使用情况，以及压测的情况来看，暂时未发现关闭连接的情况。
  * 第二，由于l2cache中发送的消息体大小是可控的（仅包含key值，不包含value），所以不会出现输出bigkey的情况。
  * 因此，初步判断默认的输出缓存区是够用，但关注它总归是好的。
+ * <p>
+ * 5、消息格式
+ * 消息先在本地按时间窗口去重、合并，再通过 CacheMessageCodec 编码为一帧二进制数据发送，一次publish可包含多条消息。
+ * 注：与旧版本（每条消息单独发送、使用redisson codec序列化）的消息格式不兼容，升级时需所有节点一起升级。
  *
  * @author chenck
  * @date 2020/7/7 14:02
@@ -53,9 +53,9 @@ public class RedisCacheSyncPolicy extends AbstractCacheSyncPolicy {
     private RTopic topic;
 
     /**
-     * 定义静态线程池，避免高并发情况下，造成锁的竞争
+     * 消息批量发送器，替代原来的 线程池 + 分布式锁 的方式，publish 时不访问redis
      */
-    private static final ThreadPoolExecutor poolExecutor = ThreadPoolSupport.getPool("publish_redis_msg");
+    private CacheMessageBatchPublisher batchPublisher;
 
     @Override
     public void connnect() {
@@ -64,49 +64,64 @@ public class RedisCacheSyncPolicy extends AbstractCacheSyncPolicy {
             return;
         }
         RedissonClient redissonClient = getRedissonClient(this.getL2CacheConfig());
-        this.topic = redissonClient.getTopic(this.getL2CacheConfig().getCacheSyncPolicy().getTopic());
+        this.topic = redissonClient.getTopic(this.getL2CacheConfig().getCacheSyncPolicy().getTopic(), ByteArrayCodec.INSTANCE);
 
         // 订阅主题
-        this.topic.addListener(CacheMessage.class, (channel, msg) -> {
-            // 执行消息监听器
-            RedisCacheSyncPolicy.this.getCacheMessageListener().onMessage(msg);
+        this.topic.addListener(byte[].class, (channel, frame) -> {
+            RedisCacheSyncPolicy.this.onFrame(frame);
         });
+
+        this.batchPublisher = new CacheMessageBatchPublisher("redis", this.getL2CacheConfig(), this::publishFrame);
     }
 
     @Override
     public void publish(CacheMessage message) {
-        poolExecutor.execute(new RunnableMdcWarpper(() -> {
-            try {
-                L2CacheConfig.CacheConfig cacheConfig = L2CacheConfigUtil.getCacheConfig(this.getL2CacheConfig(), message.getCacheName());
-
-                Long publishMsgPeriodMilliSeconds = cacheConfig.getCaffeine().getPublishMsgPeriodMilliSeconds();
-                RedissonClient redissonClient = getRedissonClient(this.getL2CacheConfig());
-                RLock lock = redissonClient.getLock(buildLockKey(message));
-                // 限制同一个key指定时间内只能发送一次消息，防止同一个key短时间内发送太多消息，给redis增加压力
-                if (!lock.tryLock(0, publishMsgPeriodMilliSeconds, TimeUnit.MILLISECONDS)) {
-                    logger.warn("trylock fail, no need to publish message, publishMsgPeriod={}ms, message={}", publishMsgPeriodMilliSeconds, message.toString());
-                    return;
-                }
-
-                // 重入锁的数量(同一个线程可以重入)
-                int lockHoldCount = lock.getHoldCount();
-                if (lockHoldCount > 1) {
-                    logger.warn("trylock succ, no need to publish message, publishMsgPeriod={}ms, lockHoldCount={}, message={}", publishMsgPeriodMilliSeconds, lockHoldCount, message.toString());
-                    return;
-                }
-
-                long receivedMsgClientNum = this.topic.publish(message);
-                logger.info("publish succ, cacheName={}, key={}, receivedMsgClientNum={}, message={}", message.getCacheName(), message.getKey(), receivedMsgClientNum, message.toString());
-            } catch (Exception e) {
-                logger.error("publish error, cacheName=" + message.getCacheName() + ", key=" + message.getKey(), e);
-            }
-
-        }, message));
+        if (null == batchPublisher) {
+            logger.warn("RedisCacheSyncPolicy not connected, ignore message, message={}", message.toString());
+            return;
+        }
+        batchPublisher.add(message);
     }
 
     @Override
     public void disconnect() {
+        if (!start.compareAndSet(true, false)) {
+            return;
+        }
+        // 发送剩余的消息
+        if (null != batchPublisher) {
+            batchPublisher.shutdown();
+        }
+        if (null != topic) {
+            topic.removeAllListeners();
+        }
+        logger.info("RedisCacheSyncPolicy disconnected");
+    }
 
+    /**
+     * 将一批消息编码为一帧发送
+     */
+    private void publishFrame(List<CacheMessage> messageList) {
+        byte[] frame = CacheMessageCodec.encode(messageList);
+        this.topic.publishAsync(frame).whenComplete((receivedMsgClientNum, e) -> {
+            if (null != e) {
+                logger.error("publish error, messageSize=" + messageList.size() + ", frameBytes=" + frame.length, e);
+                return;
+            }
+            CacheMetricsSupport.get().recordSyncPublish(messageList.size());
+            logger.info("publish succ, messageSize={}, frameBytes={}, receivedMsgClientNum={}", messageList.size(), frame.length, receivedMsgClientNum);
+        });
+    }
+
+    /**
+     * 解码一帧消息，并交给消息监听器批量处理
+     */
+    private void onFrame(byte[] frame) {
+        if (!CacheMessageCodec.isFrame(frame)) {
+            logger.warn("illegal message frame, ignore, frameBytes={}", null == frame ? 0 : frame.length);
+            return;
+        }
+        this.getCacheMessageListener().onMessages(CacheMessageCodec.decode(frame));
     }
 
     protected RedissonClient getRedissonClient(L2CacheConfig l2CacheConfig) {
@@ -121,16 +136,4 @@ public class RedisCacheSyncPolicy extends AbstractCacheSyncPolicy {
         logger.info("[获取RedissonClient实例] get or create RedissonClient instance by cache config");
         return RedissonSupport.getRedisson(l2CacheConfig);
     }
-
-    private String buildLockKey(CacheMessage message) {
-        // 从 "缓存名称:key" 改为 "缓存名称:key:操作类型"，让lockKey粒度更加精细化，避免不同操作类型(refresh/clear)互相影响
-        return new StringBuilder("lock")
-                .append(CacheConsts.SPLIT)
-                .append(message.getCacheName())
-                .append(CacheConsts.SPLIT)
-                .append(message.getKey())
-                .append(CacheConsts.SPLIT)
-                .append(message.getOptType())
-                .toString();
-    }
 }
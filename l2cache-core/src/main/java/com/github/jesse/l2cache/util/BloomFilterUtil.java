@@ -0,0 +1,117 @@
+package com.github.jesse.l2cache.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器工具类
+ * 注：位数组保存在 AtomicLongArray 中，位置 p 对应 words[p / 64] 的第 p % 64 位
+ *
+ * @author chenck
+ * @date 2026/10/17 00:30
+ */
+public class BloomFilterUtil {
+
+    /**
+     * redis中每个bitmap分块的位数（1MB），大的位数组按块拆分为多个key，避免大key阻塞redis
+     */
+    public static final long CHUNK_BITS = 1L << 23;
+
+    public static final int CHUNK_WORDS = (int) (CHUNK_BITS / 64);
+
+    /**
+     * 计算位数组的长度，按64位对齐，最大 2^32 bit（redis bitmap 的上限）
+     */
+    public static long numBits(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        double p = fpp > 0 && fpp < 1 ? fpp : 0.001;
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        return Math.min(1L << 32, Math.max(64, (bits + 63) / 64 * 64));
+    }
+
+    /**
+     * 计算哈希函数的个数
+     */
+    public static int numHashes(long numBits, long expectedInsertions) {
+        return Math.max(1, (int) Math.round((double) numBits / Math.max(1, expectedInsertions) * Math.log(2)));
+    }
+
+    /**
+     * 计算key在布隆过滤器中的 numHashes 个位置（双重哈希：h1 + i * h2）
+     */
+    public static long[] positions(String key, int numHashes, long numBits) {
+        long h1 = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h1 ^= key.charAt(i);
+            h1 *= 0x100000001b3L;
+        }
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        h1 = mix(h1);
+        long[] positions = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            positions[i] = Long.remainderUnsigned(h1 + i * h2, numBits);
+        }
+        return positions;
+    }
+
+    /**
+     * 设置位置对应的位
+     *
+     * @return true 表示至少有一个位由0变为1（即新增的key，可能误判为已存在）
+     */
+    public static boolean set(AtomicLongArray words, long[] positions) {
+        boolean changed = false;
+        for (long position : positions) {
+            int index = (int) (position >>> 6);
+            long mask = 1L << position;
+            long word = words.get(index);
+            while ((word & mask) == 0) {
+                if (words.compareAndSet(index, word, word | mask)) {
+                    changed = true;
+                    break;
+                }
+                word = words.get(index);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 位置对应的位是否全部已设置
+     */
+    public static boolean contains(AtomicLongArray words, long[] positions) {
+        for (long position : positions) {
+            if ((words.get((int) (position >>> 6)) & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将 [fromWord, toWord) 转换为redis bitmap（offset p 对应第 p / 8 个字节的从高到低第 p % 8 位）
+     */
+    public static byte[] toBytes(AtomicLongArray words, int fromWord, int toWord) {
+        byte[] bytes = new byte[(toWord - fromWord) * 8];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = (int) (words.get(fromWord + (i >>> 3)) >>> ((i & 7) * 8)) & 0xFF;
+            bytes[i] = (byte) (Integer.reverse(b) >>> 24);
+        }
+        return bytes;
+    }
+
+    /**
+     * 将redis bitmap写入 words 中从 fromWord 开始的位置
+     */
+    public static void fromBytes(byte[] bytes, long[] words, int fromWord) {
+        for (int i = 0; i < bytes.length; i++) {
+            long b = Integer.reverse(bytes[i] & 0xFF) >>> 24;
+            words[fromWord + (i >>> 3)] |= b << ((i & 7) * 8);
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
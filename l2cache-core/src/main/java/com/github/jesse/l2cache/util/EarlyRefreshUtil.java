@@ -0,0 +1,48 @@
+package com.github.jesse.l2cache.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 概率提前刷新（XFetch）和过期时间抖动
+ * <p>
+ * XFetch：每次读取时，以 -loadMillis * beta * ln(random) >= 剩余过期时间 判断是否提前刷新
+ * 越接近过期、加载耗时越长，提前刷新的概率越大，从而将同一时刻过期的key的加载分散开，避免缓存击穿
+ *
+ * @author chenck
+ * @date 2026/10/16 20:30
+ */
+public class EarlyRefreshUtil {
+
+    /**
+     * 是否提前刷新
+     *
+     * @param remainingMillis 距离过期的剩余时间(ms)
+     * @param loadMillis      加载数据的耗时(ms)
+     * @param beta            大于1时更倾向于提前刷新，小于等于0表示不提前刷新
+     */
+    public static boolean shouldRefresh(long remainingMillis, long loadMillis, double beta) {
+        if (beta <= 0 || loadMillis <= 0) {
+            return false;
+        }
+        if (remainingMillis <= 0) {
+            return true;
+        }
+        // 1 - nextDouble() 的取值范围为 (0, 1]，避免 ln(0)
+        double random = 1.0D - ThreadLocalRandom.current().nextDouble();
+        return -loadMillis * beta * Math.log(random) >= remainingMillis;
+    }
+
+    /**
+     * 对过期时间增加 [0, expireTime * jitterRatio) 的随机值，避免批量写入的key同时过期
+     */
+    public static long jitter(long expireTime, double jitterRatio) {
+        if (expireTime <= 0 || jitterRatio <= 0) {
+            return expireTime;
+        }
+        long bound = (long) (expireTime * jitterRatio);
+        if (bound <= 0) {
+            return expireTime;
+        }
+        return expireTime + ThreadLocalRandom.current().nextLong(bound);
+    }
+}
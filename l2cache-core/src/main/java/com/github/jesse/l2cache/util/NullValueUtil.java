@@ -1,6 +1,7 @@
 package com.github.jesse.l2cache.util;
 
 import com.github.jesse.l2cache.content.NullValue;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
 
 /**
  * NullValue 工具类
@@ -16,6 +17,7 @@ public class NullValueUtil {
     public static Object toStoreValue(Object userValue, boolean allowNullValues, String cacheName) {
         if (userValue == null) {
             if (allowNullValues) {
+                CacheMetricsSupport.get().recordNullValue(cacheName);
                 return NullValue.INSTANCE;
             }
             throw new IllegalArgumentException("Cache '" + cacheName + "' is configured to not allow null values but null was provided");
@@ -32,4 +34,11 @@ public class NullValueUtil {
         }
         return storeValue;
     }
+
+    /**
+     * 是否为空值（null 或 NullValue）
+     */
+    public static boolean isNull(Object value) {
+        return value == null || value instanceof NullValue;
+    }
 }
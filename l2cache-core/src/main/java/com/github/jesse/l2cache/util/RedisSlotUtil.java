@@ -0,0 +1,107 @@
+package com.github.jesse.l2cache.util;
+
+import com.google.common.collect.Lists;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * redis cluster 的 slot 计算工具类
+ * <p>
+ * 算法与redis一致：CRC16(XMODEM) % 16384，key中含有 {hashtag} 时只对 hashtag 部分计算
+ * 目的：批量操作时将同一个slot的key放在一个命令中（如MGET/Lua），避免cluster模式下的 CROSSSLOT 错误
+ *
+ * @author chenck
+ * @date 2026/10/16 14:20
+ */
+public class RedisSlotUtil {
+
+    /**
+     * redis cluster 的slot总数
+     */
+    public static final int MAX_SLOT = 16384;
+
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    /**
+     * 计算key所在的slot
+     */
+    public static int getSlot(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int end = bytes.length;
+        // hashtag处理：取第一个 { 与其后第一个 } 之间的内容，内容为空时对整个key计算
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '{') {
+                for (int j = i + 1; j < bytes.length; j++) {
+                    if (bytes[j] == '}') {
+                        if (j > i + 1) {
+                            start = i + 1;
+                            end = j;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return crc16(bytes, start, end) % MAX_SLOT;
+    }
+
+    /**
+     * CRC16 XMODEM
+     */
+    public static int crc16(byte[] bytes, int start, int end) {
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ bytes[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+    /**
+     * 将key按slot分组后装页，用于cluster模式下的多key命令
+     * 1、同一slot的key为一个分组（超过 pageSize 时拆分为多个分组），每个分组对应一个多key命令
+     * 2、多个分组装入同一页，每页的key总数不超过 pageSize，同一页的命令放在一个RBatch中执行，RBatch按节点合并为一个pipeline，所以每页每个节点只有一次网络交互
+     *
+     * @return 页 -> 分组 -> key
+     */
+    public static List<List<List<String>>> partitionBySlot(Collection<String> keys, int pageSize) {
+        Map<Integer, List<String>> slotMap = new HashMap<>();
+        for (String key : keys) {
+            slotMap.computeIfAbsent(getSlot(key), k -> new ArrayList<>()).add(key);
+        }
+        List<List<List<String>>> pageList = new ArrayList<>();
+        List<List<String>> page = new ArrayList<>();
+        int pageKeyCount = 0;
+        for (List<String> slotKeyList : slotMap.values()) {
+            for (List<String> group : Lists.partition(slotKeyList, pageSize)) {
+                if (pageKeyCount + group.size() > pageSize && !page.isEmpty()) {
+                    pageList.add(page);
+                    page = new ArrayList<>();
+                    pageKeyCount = 0;
+                }
+                page.add(group);
+                pageKeyCount += group.size();
+            }
+        }
+        if (!page.isEmpty()) {
+            pageList.add(page);
+        }
+        return pageList;
+    }
+}
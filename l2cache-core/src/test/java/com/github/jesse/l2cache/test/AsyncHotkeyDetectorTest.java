@@ -0,0 +1,80 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.HotkeyService;
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.hotkey.AsyncHotkeyDetector;
+import com.github.jesse.l2cache.hotkey.HotkeyAccessBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 异步热key探测单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 23:30
+ */
+public class AsyncHotkeyDetectorTest {
+
+    /**
+     * 分段写满后丢弃事件，消费后可继续写入
+     */
+    @Test
+    public void lossyBuffer() {
+        HotkeyAccessBuffer buffer = new HotkeyAccessBuffer(1, 4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer("key" + i));
+        }
+        Assert.assertFalse(buffer.offer("key4"));
+
+        List<String> keys = new ArrayList<>();
+        Assert.assertEquals(4, buffer.drainTo(keys::add));
+        Assert.assertEquals("key0", keys.get(0));
+        Assert.assertEquals("key3", keys.get(3));
+        Assert.assertTrue(buffer.offer("key5"));
+        Assert.assertEquals(1, buffer.drainTo(keys::add));
+    }
+
+    /**
+     * 请求线程只查询热key集合，drain() 后才根据 HotkeyService 的识别结果更新
+     */
+    @Test
+    public void detectOnDrain() {
+        Set<String> hotKeys = new HashSet<>();
+        List<String> detected = new ArrayList<>();
+        HotkeyService hotkeyService = new HotkeyService() {
+            @Override
+            public void init(L2CacheConfig.Hotkey hotkey, List<String> cacheNameList) {
+            }
+
+            @Override
+            public boolean isHotkey(String level1CacheType, String cacheName, String key) {
+                detected.add(key);
+                return hotKeys.contains(key);
+            }
+        };
+        L2CacheConfig.Hotkey.AsyncHotkey async = new L2CacheConfig.Hotkey.AsyncHotkey().setEnabled(true);
+        AsyncHotkeyDetector detector = new AsyncHotkeyDetector(hotkeyService, async, "caffeine", "asyncHotkeyCache");
+
+        hotKeys.add("key1");
+        Assert.assertFalse(detector.isHotkey("key1"));
+        Assert.assertFalse(detector.isHotkey("key2"));
+        Assert.assertTrue(detected.isEmpty());
+
+        Assert.assertEquals(2, detector.drain());
+        Assert.assertTrue(detector.isHotkey("key1"));
+        Assert.assertFalse(detector.isHotkey("key2"));
+
+        // HotkeyService 不再识别为热key时移除
+        hotKeys.clear();
+        detector.drain();
+        Assert.assertFalse(detector.isHotkey("key1"));
+
+        detector.markHot("remoteKey");
+        Assert.assertTrue(detector.isHotkey("remoteKey"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.CaffeineCacheBuilder;
+import com.github.jesse.l2cache.cache.CaffeineCache;
+import com.github.jesse.l2cache.consts.CacheType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * batchGetOrLoad 合并并发加载请求的单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/17 11:40
+ */
+public class BatchLoadCoalesceTest {
+
+    private CaffeineCache newCache(boolean batchLoadCoalesce) {
+        L2CacheConfig l2CacheConfig = new L2CacheConfig();
+        L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+        l2CacheConfig.setDefaultConfig(cacheConfig);
+        cacheConfig.setCacheType(CacheType.CAFFEINE.name())
+                .setAllowNullValues(true)
+                .setBatchLoadCoalesce(batchLoadCoalesce)
+                .getCaffeine()
+                .setDefaultSpec("initialCapacity=10,maximumSize=200,expireAfterWrite=30s");
+        return (CaffeineCache) new CaffeineCacheBuilder()
+                .setL2CacheConfig(l2CacheConfig)
+                .build("coalesceCache" + System.nanoTime());
+    }
+
+    /**
+     * 第二个请求只加载第一个请求未在加载的key，重叠的key等待第一个请求的加载结果
+     */
+    @Test
+    public void coalesceOverlappingKeys() throws Exception {
+        CaffeineCache cache = newCache(true);
+        List<List<String>> loadKeyLists = new CopyOnWriteArrayList<>();
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch secondLoaded = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, String>> first = CompletableFuture.supplyAsync(() -> cache.batchGetOrLoad(Arrays.asList("k1", "k2", "k3"), keyList -> {
+            loadKeyLists.add(new ArrayList<>(keyList));
+            firstLoading.countDown();
+            await(secondLoaded);
+            return load(keyList);
+        }));
+        Assert.assertTrue(firstLoading.await(3, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<String, String>> second = CompletableFuture.supplyAsync(() -> cache.batchGetOrLoad(Arrays.asList("k2", "k3", "k4"), keyList -> {
+            loadKeyLists.add(new ArrayList<>(keyList));
+            secondLoaded.countDown();
+            return load(keyList);
+        }));
+
+        Map<String, String> firstResult = first.get(3, TimeUnit.SECONDS);
+        Map<String, String> secondResult = second.get(3, TimeUnit.SECONDS);
+        Assert.assertEquals(load(Arrays.asList("k1", "k2", "k3")), firstResult);
+        Assert.assertEquals(load(Arrays.asList("k2", "k3", "k4")), secondResult);
+        Assert.assertEquals(2, loadKeyLists.size());
+        Assert.assertEquals(Collections.singletonList("k4"), loadKeyLists.get(1));
+    }
+
+    /**
+     * 第一个请求加载失败时，第二个请求自行加载重叠的key
+     */
+    @Test
+    public void loadSelfWhenOwnerFail() throws Exception {
+        CaffeineCache cache = newCache(true);
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch secondWaiting = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, String>> first = CompletableFuture.supplyAsync(() -> cache.batchGetOrLoad(Arrays.asList("k1", "k2"), keyList -> {
+            firstLoading.countDown();
+            await(secondWaiting);
+            throw new IllegalStateException("db error");
+        }));
+        Assert.assertTrue(firstLoading.await(3, TimeUnit.SECONDS));
+
+        Function<List<String>, Map<String, String>> secondLoader = keyList -> {
+            if (keyList.contains("k3")) {
+                secondWaiting.countDown();
+            }
+            return load(keyList);
+        };
+        CompletableFuture<Map<String, String>> second = CompletableFuture.supplyAsync(() -> cache.batchGetOrLoad(Arrays.asList("k2", "k3"), secondLoader));
+
+        Assert.assertEquals(load(Arrays.asList("k2", "k3")), second.get(3, TimeUnit.SECONDS));
+        try {
+            first.get(3, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (Exception e) {
+            // 第一个请求的加载异常抛给调用方
+        }
+    }
+
+    private static Map<String, String> load(List<String> keyList) {
+        Map<String, String> map = new HashMap<>();
+        keyList.forEach(key -> map.put(key, "v_" + key));
+        return map;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.sync.CacheMessageCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author chenck
+ * @date 2026/10/16 17:50
+ */
+public class CacheMessageCodecTest {
+
+    @Test
+    public void encodeAndDecode() {
+        List<CacheMessage> messageList = new ArrayList<>();
+        messageList.add(new CacheMessage("instance1", "caffeine", "goodsCache", "key1", CacheConsts.CACHE_REFRESH, "put"));
+        messageList.add(new CacheMessage("instance1", "caffeine", "goodsCache", 2L, CacheConsts.CACHE_CLEAR, "evict"));
+        messageList.add(new CacheMessage("instance1", "caffeine", "goodsCache", new UserDTO(), CacheConsts.CACHE_CLEAR, "evict"));
+        messageList.add(new CacheMessage("instance1", "caffeine", "goodsCache", null, CacheConsts.CACHE_CLEAR, "clear"));
+        messageList.add(new CacheMessage("instance1", "caffeine", "goodsCache", null, CacheConsts.CACHE_CLEAR, "batchEvict")
+                .setKeys(Arrays.asList("key1", 2L, 3)));
+
+        byte[] frame = CacheMessageCodec.encode(messageList);
+        Assert.assertTrue(CacheMessageCodec.isFrame(frame));
+
+        List<CacheMessage> result = CacheMessageCodec.decode(frame);
+        Assert.assertEquals(messageList.size(), result.size());
+        for (int i = 0; i < messageList.size(); i++) {
+            Assert.assertEquals(messageList.get(i).getInstanceId(), result.get(i).getInstanceId());
+            Assert.assertEquals(messageList.get(i).getCacheName(), result.get(i).getCacheName());
+            Assert.assertEquals(messageList.get(i).getOptType(), result.get(i).getOptType());
+            Assert.assertEquals(messageList.get(i).getDesc(), result.get(i).getDesc());
+        }
+        Assert.assertEquals("key1", result.get(0).getKey());
+        Assert.assertEquals(2L, result.get(1).getKey());
+        Assert.assertTrue(result.get(2).getKey() instanceof UserDTO);
+        Assert.assertNull(result.get(3).getKey());
+        Assert.assertNull(result.get(3).getKeys());
+        Assert.assertNull(result.get(4).getKey());
+        Assert.assertEquals(Arrays.asList("key1", 2L, 3), result.get(4).getKeys());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.CompositeCacheBuilder;
+import com.github.jesse.l2cache.cache.CompositeCache;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseFilter;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseSource;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.content.CacheSupport;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import com.github.jesse.l2cache.sync.CacheMessageListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * CacheMessageListener 单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/17 18:00
+ */
+public class CacheMessageListenerTest {
+
+    private static final String CACHE_NAME = "listenerUniverseCache";
+
+    /**
+     * 配置的cacheType为大写时，其他节点发送的 CACHE_UNIVERSE_ADD 消息（cacheType为 Cache.getCacheType()，小写）也能找到缓存，新增的key加入本节点的key全集
+     */
+    @Test
+    public void universeAddWithUpperCaseCacheType() {
+        L2CacheConfig l2CacheConfig = new L2CacheConfig();
+        L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+        l2CacheConfig.setDefaultConfig(cacheConfig);
+        cacheConfig.setCacheType(CacheType.COMPOSITE.name())
+                .getComposite()
+                .setL1CacheType(CacheType.CAFFEINE.name())
+                .setL2CacheType(CacheType.NONE.name())
+                .setL1AllOpen(true);
+        cacheConfig.getCaffeine()
+                .setDefaultSpec("initialCapacity=10,maximumSize=200,expireAfterWrite=60s");
+        cacheConfig.getKeyUniverse()
+                .setEnabled(true)
+                .setExpectedInsertions(10000);
+
+        // 与 L2CacheCacheManager 一致，按配置中的cacheType注册缓存
+        CompositeCache cache = (CompositeCache) CacheSupport.getCache(cacheConfig.getCacheType(), CACHE_NAME,
+                new CompositeCacheBuilder().setL2CacheConfig(l2CacheConfig).setCacheSyncPolicy(null));
+        Assert.assertSame(cache, CacheSupport.getCache(cache.getCacheType(), CACHE_NAME));
+
+        KeyUniverseFilter filter = cache.getKeyUniverseFilter();
+        filter.setSource(new KeyUniverseSource() {
+            @Override
+            public String getCacheName() {
+                return CACHE_NAME;
+            }
+
+            @Override
+            public Iterator<Object> keys(int partition) {
+                return Collections.<Object>singletonList("key1").iterator();
+            }
+        });
+        Assert.assertTrue(filter.rebuild());
+        Assert.assertFalse(filter.mightContain("newKey1"));
+
+        CacheMessage message = new CacheMessage("otherInstance", cache.getCacheType(), CACHE_NAME, null, CacheConsts.CACHE_UNIVERSE_ADD, "addKnownKey")
+                .setKeys(Collections.singletonList("newKey1"));
+        new CacheMessageListener("currentInstance").onMessage(message);
+        Assert.assertTrue(filter.mightContain("newKey1"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.CompositeCacheBuilder;
+import com.github.jesse.l2cache.cache.CompositeCache;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.consts.PreloadSource;
+import com.github.jesse.l2cache.hotkey.AutoDetectHotKeyCache;
+import com.github.jesse.l2cache.preload.CachePreloader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * CachePreloader 测试
+ * 注：依赖本地redis
+ *
+ * @author chenck
+ * @date 2026/10/17 11:00
+ */
+public class CachePreloaderTest {
+
+    private static final String CACHE_NAME = "preloadHotKeyCache";
+
+    L2CacheConfig l2CacheConfig = new L2CacheConfig();
+    L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+
+    @Before
+    public void before() {
+        l2CacheConfig.setDefaultConfig(cacheConfig);
+        cacheConfig.setCacheType(CacheType.COMPOSITE.name())
+                .getComposite()
+                .setL1CacheType(CacheType.CAFFEINE.name())
+                .setL2CacheType(CacheType.REDIS.name())
+                .setL1AllOpen(true);
+        cacheConfig.getCaffeine()
+                .setDefaultSpec("initialCapacity=10,maximumSize=200,expireAfterWrite=60s");
+        cacheConfig.getRedis()
+                .setExpireTime(60000);
+    }
+
+    /**
+     * source=hotkey：运行期间识别的热key保存到redis，重启后（本机热key和一级缓存都为空）从redis读取热key并预热到一级缓存
+     */
+    @Test
+    public void preloadPersistedHotKeys() {
+        CompositeCache cache = (CompositeCache) new CompositeCacheBuilder()
+                .setL2CacheConfig(l2CacheConfig)
+                .setCacheSyncPolicy(null)
+                .build(CACHE_NAME);
+        L2CacheConfig.Preload preload = new L2CacheConfig.Preload();
+        preload.getSourceMap().put(CACHE_NAME, PreloadSource.HOTKEY.name().toLowerCase());
+        CachePreloader preloader = new CachePreloader(preload);
+
+        for (int i = 0; i < 3; i++) {
+            cache.put("key" + i, "value" + i);
+            AutoDetectHotKeyCache.put(CACHE_NAME, "key" + i, Boolean.TRUE);
+        }
+        Assert.assertEquals(3, preloader.saveHotKeys(cache));
+
+        // 模拟重启：本机的热key和一级缓存都为空
+        for (int i = 0; i < 3; i++) {
+            AutoDetectHotKeyCache.evit(CACHE_NAME, "key" + i);
+            cache.getLevel1Cache().clearLocalCache("key" + i);
+        }
+        Assert.assertTrue(AutoDetectHotKeyCache.keys(CACHE_NAME).isEmpty());
+        Assert.assertNull(cache.getLevel1Cache().getIfPresent("key0"));
+
+        Assert.assertEquals(3, preloader.preload(cache));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("value" + i, cache.getLevel1Cache().getIfPresent("key" + i));
+        }
+    }
+}
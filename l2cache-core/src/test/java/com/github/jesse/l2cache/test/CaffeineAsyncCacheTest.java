@@ -0,0 +1,125 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.CaffeineAsyncCacheBuilder;
+import com.github.jesse.l2cache.cache.CaffeineAsyncCache;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.consts.CacheType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CaffeineAsyncCache 单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 16:30
+ */
+public class CaffeineAsyncCacheTest {
+
+    L2CacheConfig l2CacheConfig;
+
+    CaffeineAsyncCache cache;
+
+    @Before
+    public void before() {
+        l2CacheConfig = new L2CacheConfig();
+        L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+        l2CacheConfig.setDefaultConfig(cacheConfig);
+        cacheConfig.setCacheType(CacheType.CAFFEINE_ASYNC.name())
+                .setAllowNullValues(true)
+                .getCaffeine()
+                .setDefaultSpec("initialCapacity=10,maximumSize=200,expireAfterWrite=30s,recordStats");
+
+        cache = (CaffeineAsyncCache) new CaffeineAsyncCacheBuilder()
+                .setL2CacheConfig(l2CacheConfig)
+                .build("asyncCache" + System.nanoTime());
+    }
+
+    /**
+     * 并发获取同一个未命中的key，valueLoader仅执行一次
+     */
+    @Test
+    public void getShareInFlightLoad() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futureList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futureList.add(executor.submit(() -> {
+                latch.await();
+                return cache.get("key1", () -> {
+                    loadCount.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(100);
+                    return "value1";
+                });
+            }));
+        }
+        latch.countDown();
+        for (Future<String> future : futureList) {
+            Assert.assertEquals("value1", future.get());
+        }
+        executor.shutdown();
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void getAsync() {
+        Assert.assertEquals("value2", cache.getAsync("key2", () -> CompletableFuture.completedFuture("value2")).join());
+        Assert.assertEquals("value2", cache.getIfPresent("key2"));
+    }
+
+    /**
+     * 未命中的key通过一次valueLoader批量加载，未加载到数据的key缓存NullValue
+     */
+    @Test
+    public void batchGetOrLoad() {
+        cache.put("k1", "v1");
+        AtomicInteger loadCount = new AtomicInteger();
+        Map<String, String> result = cache.batchGetOrLoad(Arrays.asList("k1", "k2", "k3"), keyList -> {
+            loadCount.incrementAndGet();
+            Assert.assertEquals(2, keyList.size());
+            Map<String, String> map = new HashMap<>();
+            map.put("k2", "v2");
+            return map;
+        });
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals("v1", result.get("k1"));
+        Assert.assertEquals("v2", result.get("k2"));
+        Assert.assertFalse(result.containsKey("k3"));
+        Assert.assertTrue(cache.isExists("k3"));
+    }
+
+    /**
+     * 批量加载的key只发送一条刷新消息
+     */
+    @Test
+    public void batchGetOrLoadPublishOneMessage() {
+        RecordCacheSyncPolicy cacheSyncPolicy = new RecordCacheSyncPolicy();
+        CaffeineAsyncCache syncCache = (CaffeineAsyncCache) new CaffeineAsyncCacheBuilder()
+                .setL2CacheConfig(l2CacheConfig)
+                .setCacheSyncPolicy(cacheSyncPolicy)
+                .build("asyncCache" + System.nanoTime());
+        syncCache.batchGetOrLoad(Arrays.asList("k1", "k2", "k3"), keyList -> {
+            Map<String, String> map = new HashMap<>();
+            keyList.forEach(key -> map.put(key, "v_" + key));
+            return map;
+        });
+        Assert.assertEquals(1, cacheSyncPolicy.messages.size());
+        Assert.assertEquals(CacheConsts.CACHE_REFRESH, cacheSyncPolicy.messages.get(0).getOptType());
+        Assert.assertEquals(3, cacheSyncPolicy.messages.get(0).getKeys().size());
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.CaffeineCacheBuilder;
+import com.github.jesse.l2cache.cache.CaffeineCache;
+import com.github.jesse.l2cache.cache.snapshot.CaffeineSnapshotSupport;
+import com.github.jesse.l2cache.consts.CacheType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+
+/**
+ * CaffeineCache 一级缓存快照单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 22:30
+ */
+public class CaffeineSnapshotTest {
+
+    L2CacheConfig l2CacheConfig;
+
+    String cacheName;
+
+    @Before
+    public void before() throws Exception {
+        l2CacheConfig = new L2CacheConfig();
+        L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+        l2CacheConfig.setDefaultConfig(cacheConfig);
+        cacheConfig.setCacheType(CacheType.CAFFEINE.name())
+                .setAllowNullValues(true)
+                .getCaffeine()
+                .setDefaultSpec("initialCapacity=10,maximumSize=200,expireAfterWrite=30s,recordStats")
+                .setSnapshotDir(Files.createTempDirectory("l2cache-snapshot").toString())
+                .setSnapshotMaxEntries(100);
+        cacheName = "snapshotCache" + System.nanoTime();
+    }
+
+    /**
+     * 写入快照后加载到新的缓存实例，加载期间被evict/put的key不使用快照中的旧值
+     */
+    @Test
+    public void writeAndLoad() throws Exception {
+        CaffeineCache cache = this.build();
+        for (int i = 0; i < 10; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        cache.put("nullKey", null);
+        Assert.assertEquals(10, CaffeineSnapshotSupport.write(cache));
+
+        CaffeineCache newCache = this.build();
+        newCache.beginSnapshotLoad();
+        newCache.evict("key1");
+        newCache.put("key2", "newValue2");
+        Assert.assertEquals(8, CaffeineSnapshotSupport.load(newCache));
+
+        Assert.assertFalse(newCache.isSnapshotLoading());
+        Assert.assertEquals("value0", newCache.getIfPresent("key0"));
+        Assert.assertNull(newCache.getIfPresent("key1"));
+        Assert.assertEquals("newValue2", newCache.getIfPresent("key2"));
+        Assert.assertFalse(newCache.isExists("nullKey"));
+    }
+
+    /**
+     * 超过 snapshotMaxAgeSeconds 的entry不加载
+     */
+    @Test
+    public void skipExpiredEntry() throws Exception {
+        l2CacheConfig.getDefaultConfig().getCaffeine().setSnapshotMaxAgeSeconds(0);
+        CaffeineCache cache = this.build();
+        cache.put("key1", "value1");
+        Assert.assertEquals(1, CaffeineSnapshotSupport.write(cache));
+        Thread.sleep(10);
+
+        CaffeineCache newCache = this.build();
+        newCache.beginSnapshotLoad();
+        Assert.assertEquals(0, CaffeineSnapshotSupport.load(newCache));
+        Assert.assertNull(newCache.getIfPresent("key1"));
+    }
+
+    private CaffeineCache build() {
+        return new CaffeineCacheBuilder()
+                .setL2CacheConfig(l2CacheConfig)
+                .build(cacheName);
+    }
+}
@@ -10,6 +10,7 @@ import com.github.jesse.l2cache.consts.CacheType;
 import com.github.jesse.l2cache.content.NullValue;
 import com.github.jesse.l2cache.sync.RedisCacheSyncPolicy;
 import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.redisson.api.RMap;
@@ -458,4 +459,42 @@ public class CompositeCacheTest {
         System.out.println(resultMap);
     }
 
+    /**
+     * 二级缓存启用负缓存时，db中不存在的key记录到负缓存，一级缓存不存储 NullValue，再次访问也不会加载db
+     */
+    @Test
+    public void negativeCacheWithoutL1NullValue() {
+        L2CacheConfig negativeL2CacheConfig = new L2CacheConfig();
+        L2CacheConfig.CacheConfig negativeCacheConfig = new L2CacheConfig.CacheConfig();
+        negativeCacheConfig.setCacheType(CacheType.COMPOSITE.name())
+                .setAllowNullValues(true)
+                .getComposite()
+                .setL1CacheType(CacheType.CAFFEINE.name())
+                .setL2CacheType(CacheType.REDIS.name())
+                .setL1AllOpen(true);
+        negativeCacheConfig.getCaffeine()
+                .setDefaultSpec("initialCapacity=10,maximumSize=200,expireAfterWrite=60s");
+        negativeCacheConfig.getRedis()
+                .setExpireTime(60000);
+        negativeCacheConfig.getNegative()
+                .setEnabled(true);
+        negativeL2CacheConfig.setRedissonYamlConfig("redisson.yaml");
+        negativeL2CacheConfig.setDefaultConfig(negativeCacheConfig);
+
+        CompositeCache negativeCache = (CompositeCache) new CompositeCacheBuilder()
+                .setL2CacheConfig(negativeL2CacheConfig)
+                .setCacheSyncPolicy(null)
+                .build("negativeCompositeCache");
+        negativeCache.clear();
+
+        AtomicInteger loadCount = new AtomicInteger();
+        Callable<String> nullLoader = () -> {
+            loadCount.incrementAndGet();
+            return null;
+        };
+        Assert.assertNull(negativeCache.get("missingKey", nullLoader));
+        Assert.assertNull(negativeCache.get("missingKey", nullLoader));
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertFalse(((Cache) negativeCache.getLevel1Cache().getActualCache()).asMap().containsKey("missingKey"));
+    }
 }
@@ -0,0 +1,61 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.util.EarlyRefreshUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * EarlyRefreshUtil 单元测试
+ *
+ * @author chenck
+ * @date 2026/10/17 11:30
+ */
+public class EarlyRefreshUtilTest {
+
+    /**
+     * 未开启或已过期时的判断
+     */
+    @Test
+    public void shouldRefreshBoundary() {
+        Assert.assertFalse(EarlyRefreshUtil.shouldRefresh(0, 100, 0));
+        Assert.assertFalse(EarlyRefreshUtil.shouldRefresh(0, 0, 1));
+        Assert.assertTrue(EarlyRefreshUtil.shouldRefresh(0, 100, 1));
+        Assert.assertTrue(EarlyRefreshUtil.shouldRefresh(-1, 100, 1));
+    }
+
+    /**
+     * 越接近过期，提前刷新的概率越大（P = exp(-remaining / (loadMillis * beta))）
+     */
+    @Test
+    public void shouldRefreshProbability() {
+        int far = 0;
+        int near = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (EarlyRefreshUtil.shouldRefresh(1000, 100, 1)) {
+                far++;
+            }
+            if (EarlyRefreshUtil.shouldRefresh(100, 100, 1)) {
+                near++;
+            }
+        }
+        // 期望值分别约为 0.5 和 3679
+        Assert.assertTrue("far=" + far, far < 50);
+        Assert.assertTrue("near=" + near, near > 3000 && near < 4400);
+    }
+
+    /**
+     * 过期时间抖动在 [expireTime, expireTime * (1 + jitterRatio)) 范围内
+     */
+    @Test
+    public void jitter() {
+        Assert.assertEquals(1000, EarlyRefreshUtil.jitter(1000, 0));
+        Assert.assertEquals(0, EarlyRefreshUtil.jitter(0, 0.5));
+        boolean jittered = false;
+        for (int i = 0; i < 100; i++) {
+            long expireTime = EarlyRefreshUtil.jitter(1000, 0.5);
+            Assert.assertTrue(expireTime >= 1000 && expireTime < 1500);
+            jittered |= expireTime != 1000;
+        }
+        Assert.assertTrue(jittered);
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseFilter;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * KeyUniverseFilter 单元测试（不依赖redis，只使用本地过滤器）
+ *
+ * @author chenck
+ * @date 2026/10/17 00:30
+ */
+public class KeyUniverseFilterTest {
+
+    /**
+     * 未就绪时不过滤；分段并发重建后，key全集中的key都存在，其他key按误判率过滤
+     */
+    @Test
+    public void rebuildFromSource() {
+        KeyUniverseFilter filter = new KeyUniverseFilter("keyUniverseCache", new L2CacheConfig.KeyUniverse()
+                .setExpectedInsertions(10000)
+                .setFpp(0.01), null);
+        Assert.assertFalse(filter.isReady());
+        Assert.assertTrue(filter.mightContain("keyUniverseCache:other1"));
+
+        Set<Integer> readPartitions = ConcurrentHashMap.newKeySet();
+        filter.setSource(new KeyUniverseSource() {
+            @Override
+            public String getCacheName() {
+                return "keyUniverseCache";
+            }
+
+            @Override
+            public int partitions() {
+                return 4;
+            }
+
+            @Override
+            public Iterator<Object> keys(int partition) {
+                readPartitions.add(partition);
+                List<Object> keys = new ArrayList<>();
+                for (int i = partition; i < 5000; i += 4) {
+                    keys.add("keyUniverseCache:key" + i);
+                }
+                return keys.iterator();
+            }
+        });
+        Assert.assertTrue(filter.rebuild());
+        Assert.assertTrue(filter.isReady());
+        Assert.assertEquals(4, readPartitions.size());
+
+        for (int i = 0; i < 5000; i++) {
+            Assert.assertTrue(filter.mightContain("keyUniverseCache:key" + i));
+        }
+        int falsePositive = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("keyUniverseCache:other" + i)) {
+                falsePositive++;
+            }
+        }
+        Assert.assertTrue("falsePositive=" + falsePositive, falsePositive < 200);
+
+        // 新增的key立即生效
+        filter.add(Collections.singletonList("keyUniverseCache:new1"));
+        Assert.assertTrue(filter.mightContain("keyUniverseCache:new1"));
+        Assert.assertFalse(filter.needRebuild());
+    }
+
+    /**
+     * addIfAbsent 只返回key全集中不存在的key，已存在的key不再写入redis和通知其他节点
+     */
+    @Test
+    public void addIfAbsent() {
+        KeyUniverseFilter filter = new KeyUniverseFilter("keyUniverseCache", new L2CacheConfig.KeyUniverse(), null);
+        filter.setSource(new KeyUniverseSource() {
+            @Override
+            public String getCacheName() {
+                return "keyUniverseCache";
+            }
+
+            @Override
+            public Iterator<Object> keys(int partition) {
+                return Collections.<Object>singletonList("keyUniverseCache:key1").iterator();
+            }
+        });
+        Assert.assertTrue(filter.rebuild());
+
+        List<String> addedKeys = filter.addIfAbsent(Arrays.asList("keyUniverseCache:key1", "keyUniverseCache:key2"));
+        Assert.assertEquals(Collections.singletonList("keyUniverseCache:key2"), addedKeys);
+        Assert.assertTrue(filter.mightContain("keyUniverseCache:key2"));
+        Assert.assertTrue(filter.addIfAbsent(Arrays.asList("keyUniverseCache:key1", "keyUniverseCache:key2")).isEmpty());
+    }
+
+    /**
+     * 任一分段读取失败时保留原有的过滤器
+     */
+    @Test
+    public void keepFilterWhenRebuildFailed() {
+        KeyUniverseFilter filter = new KeyUniverseFilter("keyUniverseCache", new L2CacheConfig.KeyUniverse(), null);
+        filter.setSource(new KeyUniverseSource() {
+            @Override
+            public String getCacheName() {
+                return "keyUniverseCache";
+            }
+
+            @Override
+            public Iterator<Object> keys(int partition) {
+                throw new IllegalStateException("db error");
+            }
+        });
+        Assert.assertFalse(filter.rebuild());
+        Assert.assertFalse(filter.isReady());
+        Assert.assertTrue(filter.mightContain("keyUniverseCache:key1"));
+    }
+}
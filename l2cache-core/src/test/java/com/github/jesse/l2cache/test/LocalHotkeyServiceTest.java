@@ -0,0 +1,60 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.hotkey.CountMinSketch;
+import com.github.jesse.l2cache.hotkey.LocalHotkeyService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * LocalHotkeyService 单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 23:10
+ */
+public class LocalHotkeyServiceTest {
+
+    @Test
+    public void sketchDecay() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("key1".hashCode());
+        }
+        Assert.assertTrue(sketch.frequency("key1".hashCode()) >= 100);
+        sketch.decay();
+        Assert.assertTrue(sketch.frequency("key1".hashCode()) >= 50);
+        Assert.assertTrue(sketch.frequency("key1".hashCode()) < 100);
+    }
+
+    /**
+     * 访问次数达到阈值后识别为热key，top-K 满时只保留访问次数多的key
+     */
+    @Test
+    public void detectHotkey() {
+        L2CacheConfig.Hotkey hotkey = new L2CacheConfig.Hotkey();
+        hotkey.getLocal().setThreshold(10).setTopK(2).setDecayPeriodMillis(60000);
+        LocalHotkeyService service = new LocalHotkeyService();
+        String cacheName = "hotkeyCache" + System.nanoTime();
+        service.init(hotkey, Collections.singletonList(cacheName));
+
+        for (int i = 0; i < 9; i++) {
+            Assert.assertFalse(service.isHotkey("caffeine", cacheName, "key1"));
+        }
+        Assert.assertTrue(service.isHotkey("caffeine", cacheName, "key1"));
+
+        for (int i = 0; i < 20; i++) {
+            service.isHotkey("caffeine", cacheName, "key2");
+        }
+        for (int i = 0; i < 15; i++) {
+            service.isHotkey("caffeine", cacheName, "key3");
+        }
+        Assert.assertEquals(2, service.topKeys(cacheName).size());
+        Assert.assertEquals("key2", service.topKeys(cacheName).get(0));
+        Assert.assertFalse(service.topKeys(cacheName).contains("key1"));
+
+        service.onRemoteHotkey(cacheName, "remoteKey");
+        Assert.assertTrue(service.isHotkey("caffeine", cacheName, "remoteKey"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.negative.NegativeCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * NegativeCache 单元测试
+ *
+ * @author chenck
+ * @date 2026/10/17 00:10
+ */
+public class NegativeCacheTest {
+
+    @Test
+    public void putAndMightContain() {
+        NegativeCache negativeCache = new NegativeCache("negativeCache", new L2CacheConfig.Negative()
+                .setExpectedInsertions(10000)
+                .setFpp(0.001));
+        for (int i = 0; i < 1000; i++) {
+            negativeCache.put("negativeCache:key" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(negativeCache.mightContain("negativeCache:key" + i));
+        }
+        int falsePositive = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (negativeCache.mightContain("negativeCache:other" + i)) {
+                falsePositive++;
+            }
+        }
+        Assert.assertTrue("falsePositive=" + falsePositive, falsePositive < 50);
+
+        negativeCache.clear();
+        Assert.assertFalse(negativeCache.mightContain("negativeCache:key1"));
+    }
+
+    /**
+     * 分片轮转后，超过 expireSeconds 的记录失效
+     */
+    @Test
+    public void expireBySlice() throws Exception {
+        NegativeCache negativeCache = new NegativeCache("negativeCache", new L2CacheConfig.Negative()
+                .setExpireSeconds(1)
+                .setSlices(4));
+        negativeCache.put("negativeCache:key1");
+        Assert.assertTrue(negativeCache.mightContain("negativeCache:key1"));
+        Thread.sleep(1100);
+        Assert.assertFalse(negativeCache.mightContain("negativeCache:key1"));
+    }
+
+    /**
+     * bypass 只记录负缓存中已存在的key；重新 put 后不再跳过
+     */
+    @Test
+    public void bypass() {
+        NegativeCache negativeCache = new NegativeCache("negativeCache", new L2CacheConfig.Negative());
+        negativeCache.put("negativeCache:key1");
+
+        List<String> bypassKeys = negativeCache.bypass(Arrays.asList("negativeCache:key1", "negativeCache:key2"));
+        Assert.assertEquals(Collections.singletonList("negativeCache:key1"), bypassKeys);
+        Assert.assertFalse(negativeCache.mightContain("negativeCache:key1"));
+
+        negativeCache.put("negativeCache:key1");
+        Assert.assertTrue(negativeCache.mightContain("negativeCache:key1"));
+    }
+
+    /**
+     * 随机key大量写入时，分片达到 expectedInsertions 后不再记录，误判率保持在 fpp 附近
+     */
+    @Test
+    public void stopRecordWhenSliceFull() {
+        NegativeCache negativeCache = new NegativeCache("negativeCache", new L2CacheConfig.Negative()
+                .setExpectedInsertions(1000)
+                .setFpp(0.001));
+        int recorded = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (negativeCache.put("negativeCache:random" + i)) {
+                recorded++;
+            }
+        }
+        Assert.assertTrue("recorded=" + recorded, recorded <= 2000);
+        int falsePositive = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (negativeCache.mightContain("negativeCache:other" + i)) {
+                falsePositive++;
+            }
+        }
+        Assert.assertTrue("falsePositive=" + falsePositive, falsePositive < 50);
+    }
+}
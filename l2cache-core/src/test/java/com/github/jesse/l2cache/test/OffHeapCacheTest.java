@@ -0,0 +1,119 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.builder.OffHeapCacheBuilder;
+import com.github.jesse.l2cache.cache.OffHeapCache;
+import com.github.jesse.l2cache.cache.offheap.OffHeapStore;
+import com.github.jesse.l2cache.consts.CacheType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OffHeapCache 单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 22:10
+ */
+public class OffHeapCacheTest {
+
+    OffHeapCache cache;
+
+    @Before
+    public void before() {
+        L2CacheConfig l2CacheConfig = new L2CacheConfig();
+        L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+        l2CacheConfig.setDefaultConfig(cacheConfig);
+        cacheConfig.setCacheType(CacheType.OFFHEAP.name())
+                .setAllowNullValues(true)
+                .getOffheap()
+                .setCapacityMb(1)
+                .setSegmentCount(4)
+                .setExpireTime(30000);
+
+        cache = new OffHeapCacheBuilder()
+                .setL2CacheConfig(l2CacheConfig)
+                .build("offheapCache" + System.nanoTime());
+    }
+
+    /**
+     * 并发获取同一个未命中的key，valueLoader仅执行一次
+     */
+    @Test
+    public void getShareInFlightLoad() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futureList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futureList.add(executor.submit(() -> {
+                latch.await();
+                return cache.get("key1", () -> {
+                    loadCount.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(100);
+                    return "value1";
+                });
+            }));
+        }
+        latch.countDown();
+        for (Future<String> future : futureList) {
+            Assert.assertEquals("value1", future.get());
+        }
+        executor.shutdown();
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals("value1", cache.getIfPresent("key1"));
+    }
+
+    @Test
+    public void putAndBatchGet() {
+        cache.put("key1", "value1");
+        cache.put("key2", null);
+        Map<String, Object> keyMap = new HashMap<>();
+        keyMap.put("key1", "key1");
+        keyMap.put("key2", "key2");
+        keyMap.put("key3", "key3");
+        Map<String, Object> hitMap = cache.batchGet(keyMap, true);
+        Assert.assertEquals(2, hitMap.size());
+        Assert.assertEquals("value1", hitMap.get("key1"));
+        Assert.assertTrue(hitMap.containsKey("key2"));
+        Assert.assertNull(hitMap.get("key2"));
+
+        cache.clearLocalCache("key1");
+        Assert.assertNull(cache.getIfPresent("key1"));
+        Assert.assertFalse(cache.isExists("key1"));
+    }
+
+    /**
+     * 容量不足时按LRU淘汰，过期的entry不再返回
+     */
+    @Test
+    public void lruAndExpire() throws Exception {
+        OffHeapStore store = new OffHeapStore(4096, 1, 64);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(store.put("key" + i, new byte[100], 0));
+        }
+        Assert.assertTrue(store.evictionCount() > 0);
+        Assert.assertNotNull(store.get("key99"));
+        Assert.assertNull(store.get("key0"));
+        Assert.assertFalse(store.put("big", new byte[8192], 0));
+
+        store.put("expire", new byte[10], System.currentTimeMillis() + 50);
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assert.assertNull(store.get("expire"));
+
+        store.clear();
+        Assert.assertEquals(0, store.size());
+        Assert.assertEquals(0, store.usedBytes());
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.sync.AbstractCacheSyncPolicy;
+import com.github.jesse.l2cache.sync.CacheMessage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录发布的缓存同步消息，供测试断言
+ *
+ * @author chenck
+ * @date 2026/10/17 20:00
+ */
+public class RecordCacheSyncPolicy extends AbstractCacheSyncPolicy {
+
+    final List<CacheMessage> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void connnect() {
+    }
+
+    @Override
+    public void publish(CacheMessage message) {
+        messages.add(message);
+    }
+
+    @Override
+    public void disconnect() {
+    }
+
+    boolean contains(String optType, String desc) {
+        return messages.stream().anyMatch(message -> optType.equals(message.getOptType()) && desc.equals(message.getDesc()));
+    }
+
+    boolean await(String optType, String desc, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!this.contains(optType, desc)) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.util.RedisSlotUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author chenck
+ * @date 2026/10/16 14:30
+ */
+public class RedisSlotUtilTest {
+
+    /**
+     * 与 CLUSTER KEYSLOT 的结果对比
+     */
+    @Test
+    public void getSlot() {
+        Assert.assertEquals(12182, RedisSlotUtil.getSlot("foo"));
+        Assert.assertEquals(5061, RedisSlotUtil.getSlot("bar"));
+        Assert.assertEquals(0, RedisSlotUtil.getSlot(""));
+    }
+
+    /**
+     * hashtag
+     */
+    @Test
+    public void getSlotWithHashtag() {
+        Assert.assertEquals(RedisSlotUtil.getSlot("foo"), RedisSlotUtil.getSlot("{foo}:goodsCache:1"));
+        Assert.assertEquals(RedisSlotUtil.getSlot("{user1000}.following"), RedisSlotUtil.getSlot("{user1000}.followers"));
+        // {} 为空时对整个key计算
+        Assert.assertEquals(RedisSlotUtil.crc16("{}foo".getBytes(), 0, 5) % RedisSlotUtil.MAX_SLOT, RedisSlotUtil.getSlot("{}foo"));
+    }
+
+    /**
+     * 按slot分组装页：每页key总数不超过pageSize，每个分组的key在同一slot，页数与key数量相关而不是与slot数量相关
+     */
+    @Test
+    public void partitionBySlot() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("goodsCache:" + i);
+        }
+        List<List<List<String>>> pageList = RedisSlotUtil.partitionBySlot(keys, 100);
+
+        Set<String> all = new HashSet<>();
+        for (List<List<String>> page : pageList) {
+            Assert.assertTrue(page.stream().mapToInt(List::size).sum() <= 100);
+            for (List<String> group : page) {
+                int slot = RedisSlotUtil.getSlot(group.get(0));
+                group.forEach(key -> Assert.assertEquals(slot, RedisSlotUtil.getSlot(key)));
+                all.addAll(group);
+            }
+        }
+        Assert.assertEquals(1000, all.size());
+        // 1000个key几乎都在不同的slot，按slot分页时约1000页，装页后约10页（同slot的分组不跨页，每页可能少装几个key）
+        Assert.assertTrue(pageList.size() <= 11);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.codec.Lz4Compressor;
+import com.github.jesse.l2cache.codec.RedisValueCodec;
+import com.github.jesse.l2cache.content.NullValue;
+import io.netty.buffer.ByteBuf;
+import org.junit.Assert;
+import org.junit.Test;
+import org.redisson.codec.Kryo5Codec;
+import org.redisson.codec.SerializationCodec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RedisValueCodec 单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 19:10
+ */
+public class RedisValueCodecTest {
+
+    RedisValueCodec codec = new RedisValueCodec(new SerializationCodec(), Lz4Compressor.INSTANCE, 1024);
+
+    @Test
+    public void nullValue() throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(NullValue.INSTANCE);
+        Assert.assertEquals(5, buf.readableBytes());
+        Assert.assertSame(NullValue.INSTANCE, codec.getValueDecoder().decode(buf, null));
+        buf.release();
+    }
+
+    @Test
+    public void compress() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("goods").append(i % 10);
+        }
+        String value = sb.toString();
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        Assert.assertTrue(buf.readableBytes() < value.length());
+        Assert.assertEquals(value, codec.getValueDecoder().decode(buf, null));
+        buf.release();
+    }
+
+    /**
+     * 未包装的旧数据仍可读取
+     */
+    @Test
+    public void decodeRawData() throws Exception {
+        ByteBuf buf = new SerializationCodec().getValueEncoder().encode("value1");
+        Assert.assertEquals("value1", codec.getValueDecoder().decode(buf, null));
+        buf.release();
+    }
+
+    /**
+     * 未包装的kryo旧数据（首字节为0x01，与单字节的 FLAG_RAW 相同）仍可读取
+     */
+    @Test
+    public void decodeLegacyKryo5Data() throws Exception {
+        Kryo5Codec kryo5Codec = new Kryo5Codec();
+        RedisValueCodec kryoValueCodec = new RedisValueCodec(kryo5Codec, Lz4Compressor.INSTANCE, 1024);
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", 1L);
+        value.put("name", "goods1");
+
+        ByteBuf legacy = kryo5Codec.getValueEncoder().encode(value);
+        Assert.assertEquals(value, kryoValueCodec.getValueDecoder().decode(legacy, null));
+        legacy.release();
+
+        ByteBuf buf = kryoValueCodec.getValueEncoder().encode(value);
+        Assert.assertEquals(value, kryoValueCodec.getValueDecoder().decode(buf, null));
+        buf.release();
+    }
+}
@@ -0,0 +1,364 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.cache.RedisReadCoalescer;
+import com.github.jesse.l2cache.cache.RedissonRBucketCache;
+import com.github.jesse.l2cache.consts.CacheConsts;
+import com.github.jesse.l2cache.consts.CacheType;
+import com.github.jesse.l2cache.content.RedissonSupport;
+import com.github.jesse.l2cache.load.RedisSingleFlight;
+import com.github.jesse.l2cache.sync.CacheMessage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RedissonRBucketCache 行为测试
+ * 注：依赖本地redis（redisson.yaml）
+ *
+ * @author chenck
+ * @date 2026/10/17 10:00
+ */
+public class RedissonRBucketCacheTest {
+
+    RedissonClient redissonClient;
+
+    RecordCacheSyncPolicy cacheSyncPolicy;
+
+    @Before
+    public void before() {
+        redissonClient = Redisson.create(RedissonSupport.getRedissonConfig("redisson.yaml"));
+        cacheSyncPolicy = new RecordCacheSyncPolicy();
+    }
+
+    @After
+    public void after() {
+        redissonClient.shutdown();
+    }
+
+    private L2CacheConfig.CacheConfig newCacheConfig() {
+        L2CacheConfig.CacheConfig cacheConfig = new L2CacheConfig.CacheConfig();
+        cacheConfig.setCacheType(CacheType.REDIS.name())
+                .setAllowNullValues(true)
+                .getRedis()
+                .setExpireTime(60000);
+        return cacheConfig;
+    }
+
+    private RedissonRBucketCache newCache(String cacheName, L2CacheConfig.CacheConfig cacheConfig) {
+        RedissonRBucketCache cache = new RedissonRBucketCache(cacheName, cacheConfig, redissonClient).setCacheSyncPolicy(cacheSyncPolicy);
+        cache.clear();
+        cacheSyncPolicy.messages.clear();
+        return cache;
+    }
+
+    /**
+     * 负缓存：putAsync(null) 记录到负缓存，redis中不存储NullValue，之后的get不再加载db；putAsync(value) 后跳过负缓存
+     */
+    @Test
+    public void negativePutAsync() {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getNegative().setEnabled(true);
+        RedissonRBucketCache cache = newCache("negativePutAsyncCache", cacheConfig);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        cache.putAsync("key1", null).join();
+        Assert.assertFalse(cache.isExists("key1"));
+        Assert.assertNull(cache.get("key1", () -> "db_" + loadCount.incrementAndGet()));
+        Assert.assertEquals(0, loadCount.get());
+        Assert.assertTrue(cacheSyncPolicy.contains(CacheConsts.CACHE_NEGATIVE, CacheConsts.NEGATIVE_PUT));
+
+        cache.putAsync("key1", "value1").join();
+        Assert.assertEquals("value1", cache.get("key1", () -> "db_" + loadCount.incrementAndGet()));
+        // redis中的值过期或被删除后，不再被负缓存屏蔽
+        cache.evict("key1");
+        Assert.assertEquals("db_1", cache.get("key1", () -> "db_" + loadCount.incrementAndGet()));
+        Assert.assertTrue(cacheSyncPolicy.contains(CacheConsts.CACHE_NEGATIVE, CacheConsts.NEGATIVE_BYPASS));
+    }
+
+    /**
+     * 负缓存：batchPut 中value为null的key记录到负缓存，非null的key写入redis
+     */
+    @Test
+    public void negativeBatchPut() {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getNegative().setEnabled(true);
+        RedissonRBucketCache cache = newCache("negativeBatchPutCache", cacheConfig);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        Map<Object, Object> dataMap = new HashMap<>();
+        dataMap.put("key1", "value1");
+        dataMap.put("key2", null);
+        cache.batchPut(dataMap);
+
+        Assert.assertEquals("value1", cache.get("key1"));
+        Assert.assertFalse(cache.isExists("key2"));
+        Assert.assertNull(cache.get("key2", () -> "db_" + loadCount.incrementAndGet()));
+        Assert.assertEquals(0, loadCount.get());
+    }
+
+    /**
+     * 负缓存：随机key大量穿透时，分片写满后不再记录，db中存在的key仍然会加载
+     */
+    @Test
+    public void negativeSliceFull() {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getNegative().setEnabled(true).setExpectedInsertions(100);
+        RedissonRBucketCache cache = newCache("negativeSliceFullCache", cacheConfig);
+
+        for (int i = 0; i < 2000; i++) {
+            Assert.assertNull(cache.get("random" + i, () -> null));
+        }
+        AtomicInteger loadCount = new AtomicInteger();
+        Assert.assertEquals("db_1", cache.get("realKey", () -> "db_" + loadCount.incrementAndGet()));
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    /**
+     * 负缓存镜像到redis：重启的节点启动时加载未过期的分片和 bypass 集合
+     */
+    @Test
+    public void negativeMirrorColdStart() throws InterruptedException {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getNegative().setEnabled(true);
+        RedissonRBucketCache cache = newCache("negativeMirrorCache", cacheConfig);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        Assert.assertNull(cache.get("key1", () -> null));
+        Assert.assertNull(cache.get("key2", () -> null));
+        cache.evict("key2");
+        // 等待批量写入redis
+        Thread.sleep(500);
+
+        // 模拟重启的节点：从redis加载负缓存
+        RedissonRBucketCache restartCache = new RedissonRBucketCache("negativeMirrorCache", cacheConfig, redissonClient);
+        Assert.assertNull(restartCache.get("key1", () -> "db_" + loadCount.incrementAndGet()));
+        Assert.assertEquals(0, loadCount.get());
+        // evict 后跳过的key同样生效
+        Assert.assertEquals("db_1", restartCache.get("key2", () -> "db_" + loadCount.incrementAndGet()));
+    }
+
+    /**
+     * staleWhileRevalidate：value逻辑过期后返回旧值，后台刷新写入redis后通知其他节点刷新一级缓存
+     */
+    @Test
+    public void staleRefreshPublishRefresh() throws InterruptedException {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getRedis().setExpireTime(200).setStaleWhileRevalidate(true);
+        RedissonRBucketCache cache = newCache("staleRefreshCache", cacheConfig);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        Assert.assertEquals("db_1", cache.get("key1", () -> "db_" + loadCount.incrementAndGet()));
+        Thread.sleep(300);
+        // 逻辑过期后返回旧值，并异步刷新
+        Assert.assertEquals("db_1", cache.get("key1", () -> "db_" + loadCount.incrementAndGet()));
+        Assert.assertTrue(cacheSyncPolicy.await(CacheConsts.CACHE_REFRESH, "AfterRefreshRedis", 3000));
+        Assert.assertEquals("db_2", cache.get("key1"));
+    }
+
+    /**
+     * 异步API的回调不在redisson的netty I/O线程中执行
+     */
+    @Test
+    public void asyncCallbackOffIoThread() {
+        RedissonRBucketCache cache = newCache("asyncCallbackCache", newCacheConfig());
+        cache.putAsync("key1", "value1").join();
+
+        String getThread = cache.getAsync("key1").thenApply(value -> Thread.currentThread().getName()).join();
+        Assert.assertFalse(getThread, getThread.startsWith("redisson-netty"));
+
+        Map<Object, Object> keyMap = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            keyMap.put("key" + i, "key" + i);
+        }
+        String batchGetThread = cache.batchGetAsync(keyMap, false).thenApply(hitMap -> Thread.currentThread().getName()).join();
+        Assert.assertFalse(batchGetThread, batchGetThread.startsWith("redisson-netty"));
+    }
+
+    /**
+     * single-flight：并发获取同一个未命中的key，只有一个请求执行valueLoader，其他请求等待完成通知后读取redis
+     */
+    @Test
+    public void singleFlightLoadOnce() throws Exception {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getRedis().setSingleFlight(true);
+        RedissonRBucketCache cache = newCache("singleFlightCache", cacheConfig);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futureList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futureList.add(executor.submit(() -> {
+                latch.await();
+                return cache.get("key1", () -> {
+                    loadCount.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(200);
+                    return "value1";
+                });
+            }));
+        }
+        latch.countDown();
+        for (Future<String> future : futureList) {
+            Assert.assertEquals("value1", future.get());
+        }
+        executor.shutdown();
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    /**
+     * single-flight：一个等待者超时后，其他等待者仍能收到完成通知
+     */
+    @Test
+    public void singleFlightWaiterTimeout() throws Exception {
+        RedisSingleFlight singleFlight = RedisSingleFlight.getInstance(redissonClient);
+        String cacheKey = "singleFlightWaiterCache:key1";
+        CompletableFuture<Boolean> first = singleFlight.register(cacheKey);
+        CompletableFuture<Boolean> second = singleFlight.register(cacheKey);
+        Assert.assertEquals(2, singleFlight.waiterCount(cacheKey));
+
+        Assert.assertNull(singleFlight.await(cacheKey, first, 10));
+        Assert.assertEquals(1, singleFlight.waiterCount(cacheKey));
+
+        singleFlight.release(cacheKey, singleFlight.newToken(), true);
+        Assert.assertEquals(Boolean.TRUE, singleFlight.await(cacheKey, second, 3000));
+        Assert.assertEquals(0, singleFlight.waiterCount(cacheKey));
+    }
+
+    /**
+     * batchPut 写入redis的过期时间增加随机抖动，避免同时过期
+     */
+    @Test
+    public void batchPutExpireJitter() {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getRedis().setExpireJitterRatio(0.5);
+        RedissonRBucketCache cache = newCache("expireJitterCache", cacheConfig);
+
+        Map<Object, Object> dataMap = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            dataMap.put("key" + i, "value" + i);
+        }
+        cache.batchPut(dataMap);
+
+        Set<Long> ttlSet = new HashSet<>();
+        for (Object key : dataMap.keySet()) {
+            long ttl = redissonClient.getBucket(cache.buildKey(key)).remainTimeToLive();
+            Assert.assertTrue("ttl=" + ttl, ttl > 55000 && ttl <= 90000);
+            ttlSet.add(ttl / 1000);
+        }
+        Assert.assertTrue(ttlSet.size() > 1);
+    }
+
+    /**
+     * XFetch：earlyRefreshBeta 足够大时，未逻辑过期的value也会提前刷新，期间返回旧值
+     */
+    @Test
+    public void earlyRefresh() throws InterruptedException {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.setEarlyRefreshBeta(1000);
+        RedissonRBucketCache cache = newCache("earlyRefreshCache", cacheConfig);
+        AtomicInteger loadCount = new AtomicInteger();
+        Callable<String> valueLoader = () -> {
+            TimeUnit.MILLISECONDS.sleep(50);
+            return "db_" + loadCount.incrementAndGet();
+        };
+
+        Assert.assertEquals("db_1", cache.get("key1", valueLoader));
+        // 剩余约60s，每次读取提前刷新的概率约 e^(-60000/(50*1000))≈30%
+        String value = "db_1";
+        for (int i = 0; i < 50 && "db_1".equals(value); i++) {
+            Assert.assertNotNull(cache.get("key1", valueLoader));
+            Thread.sleep(100);
+            value = cache.get("key1");
+        }
+        Assert.assertNotEquals("db_1", value);
+        Assert.assertTrue(cacheSyncPolicy.contains(CacheConsts.CACHE_REFRESH, "AfterRefreshRedis"));
+    }
+
+    /**
+     * 并发的单key读取合并为少量的RBatch，每个请求得到自己key的值
+     */
+    @Test
+    public void readCoalesce() {
+        RedissonRBucketCache cache = newCache("readCoalesceCache", newCacheConfig());
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        RedisReadCoalescer coalescer = new RedisReadCoalescer("readCoalesceCache", redissonClient, redissonClient.getConfig().getCodec(), 5000, 64);
+        try {
+            List<CompletableFuture<Object>> futureList = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futureList.add(coalescer.getAsync(cache.buildKey("key" + i)));
+            }
+            // 同一批次中重复的key
+            futureList.add(coalescer.getAsync(cache.buildKey("key0")));
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals("value" + i, cache.fromStoreValue(futureList.get(i).join()));
+            }
+            Assert.assertEquals("value0", cache.fromStoreValue(futureList.get(50).join()));
+            Assert.assertNull(coalescer.get(cache.buildKey("notExistKey")));
+            Assert.assertTrue("flushCount=" + coalescer.getFlushCount(), coalescer.getFlushCount() < 10);
+        } finally {
+            coalescer.close();
+        }
+        // 关闭后后台线程退出，读取直接访问redis
+        Assert.assertTrue(coalescer.isClosed());
+        long flushCount = coalescer.getFlushCount();
+        Assert.assertEquals("value1", cache.fromStoreValue(coalescer.get(cache.buildKey("key1"))));
+        Assert.assertEquals(flushCount, coalescer.getFlushCount());
+    }
+
+    /**
+     * 代数模式：clear 只增加代数并通知其他节点，旧代数的key不再被访问，并由后台任务删除
+     */
+    @Test
+    public void clearByGeneration() throws InterruptedException {
+        L2CacheConfig.CacheConfig cacheConfig = newCacheConfig();
+        cacheConfig.getRedis().setGenerationEnabled(true);
+        RedissonRBucketCache cache = newCache("generationCache", cacheConfig);
+        // 模拟另一个节点
+        RedissonRBucketCache otherCache = new RedissonRBucketCache("generationCache", cacheConfig, redissonClient);
+        Assert.assertEquals(cache.getGeneration(), otherCache.getGeneration());
+
+        cache.put("key1", "value1");
+        Assert.assertEquals("value1", otherCache.get("key1"));
+        String oldCacheKey = cache.buildKey("key1");
+
+        long oldGeneration = cache.getGeneration();
+        cache.clear();
+        Assert.assertEquals(oldGeneration + 1, cache.getGeneration());
+        Assert.assertNull(cache.get("key1"));
+
+        // 其他节点收到代数变更消息后，同样不再访问旧代数的key
+        CacheMessage message = cacheSyncPolicy.messages.stream()
+                .filter(msg -> CacheConsts.CACHE_GENERATION.equals(msg.getOptType()))
+                .reduce((first, second) -> second)
+                .orElseThrow(AssertionError::new);
+        otherCache.updateGeneration(((Number) message.getKey()).longValue());
+        Assert.assertNull(otherCache.get("key1"));
+
+        // 旧代数的key由后台任务限速删除
+        for (int i = 0; i < 50 && redissonClient.getBucket(oldCacheKey).isExists(); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(redissonClient.getBucket(oldCacheKey).isExists());
+    }
+}
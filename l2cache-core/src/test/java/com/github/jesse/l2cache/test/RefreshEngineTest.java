@@ -0,0 +1,46 @@
+package com.github.jesse.l2cache.test;
+
+import com.github.jesse.l2cache.schedule.RefreshEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RefreshEngine 单元测试（不依赖redis）
+ *
+ * @author chenck
+ * @date 2026/10/16 23:50
+ */
+public class RefreshEngineTest {
+
+    /**
+     * 所有key分批并发刷新，每个key只刷新一次，第一批为排在最前面的key
+     */
+    @Test
+    public void refreshInBatches() {
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            keys.add("key" + i);
+        }
+        Set<Object> refreshedKeys = ConcurrentHashMap.newKeySet();
+        List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+        RefreshEngine engine = new RefreshEngine("refreshEngineCache", 4, 100, 0);
+
+        int count = engine.refresh(keys.iterator(), batch -> {
+            batches.add(batch);
+            refreshedKeys.addAll(batch);
+            // 模拟跳过未过期的key
+            return batch.size() - 1;
+        });
+
+        Assert.assertEquals(247, count);
+        Assert.assertEquals(250, refreshedKeys.size());
+        Assert.assertEquals(3, batches.size());
+        Assert.assertTrue(batches.stream().anyMatch(batch -> batch.contains("key0") && batch.contains("key99")));
+    }
+}
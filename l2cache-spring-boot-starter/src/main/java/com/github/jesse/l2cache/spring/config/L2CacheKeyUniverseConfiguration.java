@@ -0,0 +1,40 @@
+package com.github.jesse.l2cache.spring.config;
+
+import com.github.jesse.l2cache.cache.CompositeCache;
+import com.github.jesse.l2cache.cache.universe.KeyUniverseSource;
+import com.github.jesse.l2cache.spring.cache.L2CacheCacheManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.cache.Cache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * L2Cache 已知key全集配置
+ * <p>
+ * 存在 KeyUniverseSource 时，通过 ApplicationRunner 将其设置到对应cacheName的 CompositeCache 中，过滤器未就绪时在后台线程中构建，之后按 keyUniverse.rebuildPeriodSeconds 定期重建
+ * 注：需同时开启 l2cache.config.default-config.key-universe.enabled（或通过 configMap 针对cacheName开启）
+ *
+ * @author chenck
+ * @date 2026/10/17 00:30
+ */
+@Slf4j
+@Configuration
+@ConditionalOnBean(KeyUniverseSource.class)
+public class L2CacheKeyUniverseConfiguration {
+
+    @Bean
+    public ApplicationRunner l2cacheKeyUniverseRunner(L2CacheCacheManager cacheManager, ObjectProvider<KeyUniverseSource> sources) {
+        return args -> sources.orderedStream().forEach(source -> {
+            Cache cache = cacheManager.getCache(source.getCacheName());
+            if (null == cache || !(cache.getNativeCache() instanceof CompositeCache)) {
+                log.warn("L2Cache设置KeyUniverseSource失败，缓存不存在或不是CompositeCache, cacheName={}", source.getCacheName());
+                return;
+            }
+            ((CompositeCache) cache.getNativeCache()).setKeyUniverseSource(source);
+            log.info("L2Cache设置KeyUniverseSource, cacheName={}, partitions={}", source.getCacheName(), source.partitions());
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.jesse.l2cache.spring.config;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.metrics.CacheMetricsSupport;
+import com.github.jesse.l2cache.metrics.MicrometerCacheMetrics;
+import com.github.jesse.l2cache.spring.L2CacheProperties;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * L2Cache 指标配置
+ * <p>
+ * 开启 l2cache.config.metrics.enabled 且引入 micrometer（如 spring-boot-starter-actuator）时，将缓存指标绑定到 MeterRegistry
+ *
+ * @author chenck
+ * @date 2026/10/16 21:50
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(MeterBinder.class)
+@ConditionalOnProperty(name = "l2cache.config.metrics.enabled", havingValue = "true")
+public class L2CacheMetricsConfiguration {
+
+    @Autowired
+    L2CacheProperties l2CacheProperties;
+
+    @Bean
+    public MeterBinder l2cacheMeterBinder() {
+        return registry -> {
+            L2CacheConfig.Metrics metrics = l2CacheProperties.getConfig().getMetrics();
+            CacheMetricsSupport.setCacheMetrics(new MicrometerCacheMetrics(registry, metrics.isPercentileHistogram()));
+            log.info("L2Cache指标已绑定到MeterRegistry, registry={}, percentileHistogram={}", registry.getClass().getSimpleName(), metrics.isPercentileHistogram());
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jesse.l2cache.spring.config;
+
+import com.github.jesse.l2cache.L2CacheConfig;
+import com.github.jesse.l2cache.consts.PreloadSource;
+import com.github.jesse.l2cache.preload.CachePreloader;
+import com.github.jesse.l2cache.preload.PreloadKeyProvider;
+import com.github.jesse.l2cache.spring.L2CacheProperties;
+import com.github.jesse.l2cache.spring.cache.L2CacheCacheManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * L2Cache 启动预热配置
+ * <p>
+ * 开启 l2cache.config.preload.enabled 后，通过 ApplicationRunner 按 preload.sourceMap 逐个cacheName预热一级缓存
+ * 注：ApplicationRunner 执行完成后 Spring Boot 才会发布 ReadinessState.ACCEPTING_TRAFFIC，因此预热在 readiness 探针通过前完成（单个cacheName最多等待 timeoutSeconds）
+ * 注：source=hotkey 的cacheName，预热后定期将本机的热key保存到redis，用于下次启动时预热
+ *
+ * @author chenck
+ * @date 2026/10/16 22:50
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "l2cache.config.preload.enabled", havingValue = "true")
+public class L2CachePreloadConfiguration {
+
+    @Autowired
+    L2CacheProperties l2CacheProperties;
+
+    @Bean
+    public ApplicationRunner l2cachePreloadRunner(L2CacheCacheManager cacheManager, ObjectProvider<PreloadKeyProvider> providers) {
+        return args -> {
+            L2CacheConfig.Preload preload = l2CacheProperties.getConfig().getPreload();
+            CachePreloader preloader = new CachePreloader(preload);
+            providers.orderedStream().forEach(preloader::addProvider);
+
+            long start = System.currentTimeMillis();
+            int loaded = 0;
+            for (String cacheName : preload.getSourceMap().keySet()) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (null == cache) {
+                    log.warn("L2Cache预热失败，缓存不存在, cacheName={}", cacheName);
+                    continue;
+                }
+                try {
+                    com.github.jesse.l2cache.Cache nativeCache = (com.github.jesse.l2cache.Cache) cache.getNativeCache();
+                    loaded += preloader.preload(nativeCache);
+                    if (PreloadSource.HOTKEY == PreloadSource.getPreloadSource(preload.getSourceMap().get(cacheName))) {
+                        preloader.scheduleSaveHotKeys(nativeCache);
+                    }
+                } catch (Exception e) {
+                    log.error("L2Cache预热异常, cacheName=" + cacheName, e);
+                }
+            }
+            log.info("L2Cache预热完成, cacheNames={}, loaded={}, cost={}ms", preload.getSourceMap().keySet(), loaded, System.currentTimeMillis() - start);
+        };
+    }
+}